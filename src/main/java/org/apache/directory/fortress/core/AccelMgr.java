@@ -224,6 +224,31 @@ public interface AccelMgr extends Manageable
         throws SecurityException;
 
 
+    /**
+     * Perform user RBAC authorization for many permissions at once.  Each result is the same as would be returned by
+     * {@link #checkAccess(Session, Permission)}, the checks share a single connection to the accelerator.  The default
+     * implementation calls {@link #checkAccess(Session, Permission)} for each permission in turn.
+     *
+     * @param session This object must be instantiated by calling {@link AccessMgr#createSession} method before passing
+     * into the method.  No variables need to be set by client after returned from createSession.
+     * @param perms   each must contain the object, Permission#objName, and operation, Permission#opName, of
+     * permission User is trying to access.
+     * @return array containing true for each permission the user has access to, in the same order as the list.
+     * @throws SecurityException
+     *          in the event of data validation failure, security policy violation or DAO error.
+     */
+    default boolean[] checkAccess( Session session, List<Permission> perms )
+        throws SecurityException
+    {
+        boolean[] results = new boolean[perms.size()];
+        for ( int i = 0; i < results.length; i++ )
+        {
+            results[i] = checkAccess( session, perms.get( i ) );
+        }
+        return results;
+    }
+
+
     /**
      * This function returns the permissions of the session, i.e., the permissions assigned
      * to its authorized roles. The function is valid if and only if the session is a valid Fortress session.
@@ -22,6 +22,8 @@ package org.apache.directory.fortress.core;
 
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import org.apache.directory.fortress.core.model.*;
 
@@ -293,6 +295,45 @@ public interface AccessMgr extends Manageable
     boolean checkAccess( Session session, Permission perm )
         throws SecurityException;
 
+
+    /**
+     * Perform user RBAC authorization for many permissions at once.  Each result is the same as would be returned by
+     * {@link #checkAccess(Session, Permission)} but the permissions are evaluated together, which lets the implementation
+     * gather the permission data with a single search per object rather than a read per operation.  A permission that
+     * doesn't exist is returned as not authorized rather than failing the whole call.  The default implementation calls
+     * {@link #checkAccess(Session, Permission)} for each permission in turn.
+     *
+     * @param session This object must be instantiated by calling {@link AccessMgr#createSession} method before passing
+     * into the method.  No variables need to be set by client after returned from createSession.
+     * @param perms   each must contain the object, {@link Permission#objName}, and operation, {@link Permission#opName},
+     * of permission User is trying to access.
+     * @return array containing true for each permission the user has access to, in the same order as the list.
+     * @throws SecurityException
+     *          in the event of data validation failure, security policy violation or DAO error.
+     */
+    default boolean[] checkAccess( Session session, List<Permission> perms )
+        throws SecurityException
+    {
+        boolean[] results = new boolean[perms.size()];
+        for ( int i = 0; i < results.length; i++ )
+        {
+            try
+            {
+                results[i] = checkAccess( session, perms.get( i ) );
+            }
+            catch ( SecurityException se )
+            {
+                if ( se.getErrorId() != GlobalErrIds.PERM_NOT_EXIST )
+                {
+                    throw se;
+                }
+                // a missing permission is reported as not authorized:
+                results[i] = false;
+            }
+        }
+        return results;
+    }
+
     /**
      * Combine createSession and checkAccess into a single method.
      * This function returns a Boolean value meaning whether the User is allowed or not to perform a given operation on a given object.
@@ -469,4 +510,107 @@ public interface AccessMgr extends Manageable
      */
     User getUser( Session session )
         throws SecurityException;
+
+
+    /**
+     * Asynchronous form of {@link #authenticate(String, String)}.  The caller's thread is not held while the call is in progress.
+     * Validation failures, as well as any error raised by the call, complete the future exceptionally with a
+     * {@link SecurityException}.  The default implementation runs the call on the common fork join pool.
+     *
+     * @param userId   Contains the userid of fortress user.  This value must be non-null and non-empty.
+     * @param password contains the user's password, which must be non-null and non-empty.
+     * @return future that completes with the same Session as would be returned by {@link #authenticate(String, String)}.
+     */
+    default CompletableFuture<Session> authenticateAsync( String userId, String password )
+    {
+        return CompletableFuture.supplyAsync( () ->
+        {
+            try
+            {
+                return authenticate( userId, password );
+            }
+            catch ( SecurityException se )
+            {
+                throw new CompletionException( se );
+            }
+        } );
+    }
+
+
+    /**
+     * Asynchronous form of {@link #createSession(User, boolean)}.  The caller's thread is not held while the call is in progress.
+     * Validation failures, as well as any error raised by the call, complete the future exceptionally with a
+     * {@link SecurityException}.  The default implementation runs the call on the common fork join pool.
+     *
+     * @param user      Contains {@link User#userId}, {@link User#password} (optional if {@code isTrusted} is 'true'), optional
+     * {@link User#roles}, optional {@link User#adminRoles}
+     * @param isTrusted if true password is not required.
+     * @return future that completes with the same Session as would be returned by {@link #createSession(User, boolean)}.
+     */
+    default CompletableFuture<Session> createSessionAsync( User user, boolean isTrusted )
+    {
+        return CompletableFuture.supplyAsync( () ->
+        {
+            try
+            {
+                return createSession( user, isTrusted );
+            }
+            catch ( SecurityException se )
+            {
+                throw new CompletionException( se );
+            }
+        } );
+    }
+
+
+    /**
+     * Asynchronous form of {@link #checkAccess(Session, Permission)}.  The caller's thread is not held while the call is in
+     * progress.  Validation failures, as well as any error raised by the call, complete the future exceptionally with a
+     * {@link SecurityException}.  The default implementation runs the call on the common fork join pool.
+     *
+     * @param session This object must be instantiated by calling {@link AccessMgr#createSession} method before passing
+     * into the method.  No variables need to be set by client after returned from createSession.
+     * @param perm    must contain the object, {@link Permission#objName}, and operation, {@link Permission#opName}, of
+     * permission User is trying to access.
+     * @return future that completes with true if user has access, false otherwise.
+     */
+    default CompletableFuture<Boolean> checkAccessAsync( Session session, Permission perm )
+    {
+        return CompletableFuture.supplyAsync( () ->
+        {
+            try
+            {
+                return checkAccess( session, perm );
+            }
+            catch ( SecurityException se )
+            {
+                throw new CompletionException( se );
+            }
+        } );
+    }
+
+
+    /**
+     * Asynchronous form of {@link #sessionPermissions(Session)}.  The caller's thread is not held while the call is in progress.
+     * Validation failures, as well as any error raised by the call, complete the future exceptionally with a
+     * {@link SecurityException}.  The default implementation runs the call on the common fork join pool.
+     *
+     * @param session This object must be instantiated by calling {@link AccessMgr#createSession} method before passing into the
+     * method.  No variables need to be set by client after returned from createSession.
+     * @return future that completes with the permissions (op, obj) active for user's session.
+     */
+    default CompletableFuture<List<Permission>> sessionPermissionsAsync( Session session )
+    {
+        return CompletableFuture.supplyAsync( () ->
+        {
+            try
+            {
+                return sessionPermissions( session );
+            }
+            catch ( SecurityException se )
+            {
+                throw new CompletionException( se );
+            }
+        } );
+    }
 }
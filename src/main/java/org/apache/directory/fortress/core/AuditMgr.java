@@ -24,6 +24,7 @@ import org.apache.directory.fortress.core.model.AuthZ;
 import org.apache.directory.fortress.core.model.Mod;
 import org.apache.directory.fortress.core.model.UserAudit;
 import org.apache.directory.fortress.core.model.Bind;
+import org.apache.directory.fortress.core.util.ResultHandler;
 
 import java.util.List;
 
@@ -195,6 +196,103 @@ public interface AuditMgr extends Manageable
         throws SecurityException;
 
 
+    /**
+     * Same search as {@link #getUserAuthZs(UserAudit)} with each event passed to the handler as it's read from the access log,
+     * so the number of events isn't limited by memory or the server's size limit.  The events are read a page at a time, of the
+     * size set by 'ldap.page.size', and the next page isn't requested until the handler has taken the current one.  When both
+     * {@link UserAudit#beginDate} and fortress config param 'audit.window.minutes' are set the date range is searched one window
+     * at a time.  {@link UserAudit#endDate}, if set, bounds the search.  The default implementation passes each event of the list
+     * returned by the matching list search, here {@link #getUserAuthZs(UserAudit)}, to the handler with every attribute read.
+     *
+     * @param uAudit     This entity is instantiated and populated before invocation.
+     * @param attributes names the access log attributes to read, e.g. 'reqDN' and 'reqEnd'.  Fields whose attributes aren't
+     *                   read are left null.  Null or empty reads them all.
+     * @param handler    receives each event, in the order read, and may return false to stop the search.
+     * @throws SecurityException if a runtime system error occurs.
+     */
+    default void streamUserAuthZs( UserAudit uAudit, String[] attributes, ResultHandler<? super AuthZ> handler )
+        throws SecurityException
+    {
+        for ( AuthZ event : getUserAuthZs( uAudit ) )
+        {
+            if ( !handler.handle( event ) )
+            {
+                break;
+            }
+        }
+    }
+
+
+    /**
+     * Same search as {@link #searchAuthZs(UserAudit)} with each event passed to the handler as it's read from the access log.
+     * See {@link #streamUserAuthZs(UserAudit, String[], ResultHandler)} for paging, time windows and the default implementation.
+     *
+     * @param uAudit     This entity is instantiated and populated before invocation.
+     * @param attributes names the access log attributes to read, e.g. 'reqDN' and 'reqEnd'.  Fields whose attributes aren't
+     *                   read are left null.  Null or empty reads them all.
+     * @param handler    receives each event, in the order read, and may return false to stop the search.
+     * @throws SecurityException if a runtime system error occurs.
+     */
+    default void streamAuthZs( UserAudit uAudit, String[] attributes, ResultHandler<? super AuthZ> handler )
+        throws SecurityException
+    {
+        for ( AuthZ event : searchAuthZs( uAudit ) )
+        {
+            if ( !handler.handle( event ) )
+            {
+                break;
+            }
+        }
+    }
+
+
+    /**
+     * Same search as {@link #searchBinds(UserAudit)} with each event passed to the handler as it's read from the access log.
+     * See {@link #streamUserAuthZs(UserAudit, String[], ResultHandler)} for paging, time windows and the default implementation.
+     *
+     * @param uAudit     This entity is instantiated and populated before invocation.
+     * @param attributes names the access log attributes to read, e.g. 'reqDN' and 'reqEnd'.  Fields whose attributes aren't
+     *                   read are left null.  Null or empty reads them all.
+     * @param handler    receives each event, in the order read, and may return false to stop the search.
+     * @throws SecurityException if a runtime system error occurs.
+     */
+    default void streamBinds( UserAudit uAudit, String[] attributes, ResultHandler<? super Bind> handler )
+        throws SecurityException
+    {
+        for ( Bind event : searchBinds( uAudit ) )
+        {
+            if ( !handler.handle( event ) )
+            {
+                break;
+            }
+        }
+    }
+
+
+    /**
+     * Same search as {@link #searchUserSessions(UserAudit)} with each event passed to the handler as it's read from the access
+     * log.  See {@link #streamUserAuthZs(UserAudit, String[], ResultHandler)} for paging, time windows and the default
+     * implementation.
+     *
+     * @param uAudit     This entity is instantiated and populated before invocation.
+     * @param attributes names the access log attributes to read, e.g. 'reqDN' and 'reqEnd'.  Fields whose attributes aren't
+     *                   read are left null.  Null or empty reads them all.
+     * @param handler    receives each event, in the order read, and may return false to stop the search.
+     * @throws SecurityException if a runtime system error occurs.
+     */
+    default void streamUserSessions( UserAudit uAudit, String[] attributes, ResultHandler<? super Mod> handler )
+        throws SecurityException
+    {
+        for ( Mod event : searchUserSessions( uAudit ) )
+        {
+            if ( !handler.handle( event ) )
+            {
+                break;
+            }
+        }
+    }
+
+
     /**
      * This method returns a list of admin operations events for a particular entity 
      * {@link org.apache.directory.fortress.core.model.UserAudit#dn},
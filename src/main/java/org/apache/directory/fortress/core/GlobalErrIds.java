@@ -191,6 +191,21 @@ public final class GlobalErrIds
      */
     public static final int FT_CONFIG_JSSE_TRUSTSTORE_NULL = 136;
 
+    /**
+     * The Fortress cache search operation failed.
+     */
+    public static final int FT_CACHE_SEARCH_ERR = 137;
+
+    /**
+     * The tenant's policy could not be exported to ldif.
+     */
+    public static final int FT_LDIF_EXPORT_FAILED = 138;
+
+    /**
+     * The ldif could not be imported into the tenant.
+     */
+    public static final int FT_LDIF_IMPORT_FAILED = 139;
+
     /**
      * 1000's - User Entity Rule and LDAP Errors
      */
@@ -33,6 +33,7 @@ import org.apache.directory.fortress.core.model.RoleConstraint.RCType;
 import org.apache.directory.fortress.core.model.SDSet;
 import org.apache.directory.fortress.core.model.User;
 import org.apache.directory.fortress.core.model.UserRole;
+import org.apache.directory.fortress.core.util.CloseableIterator;
 
 
 /**
@@ -146,6 +147,36 @@ public interface ReviewMgr extends Manageable
     List<Permission> findPermissions( Permission permission )
         throws SecurityException;
 
+
+    /**
+     * Method returns an iterator over the Permissions that match the perm object search string.  Unlike
+     * {@link #findPermissions(Permission)}, the results are read from the directory a page at a time as the iterator advances,
+     * and so are not limited by the server's size limit.  The default implementation iterates over the list returned by
+     * {@link #findPermissions(Permission)}.  The iterator holds a directory connection and must be closed, e.g.
+     * <pre>
+     * try ( CloseableIterator&lt;Permission&gt; perms = reviewMgr.iteratePermissions( permission ) )
+     * {
+     *     ...
+     * }
+     * </pre>
+     * <h3></h3>
+     * <h4>optional parameters</h4>
+     * <ul>
+     *   <li>Permission#objName - contains one or more characters of existing object being targeted</li>
+     *   <li>Permission#opName - contains one or more characters of existing permission operation</li>
+     * </ul>
+     *
+     * @param permission contains object and operation name search strings.  Each contains 1 or more leading chars that
+     * correspond to object or op name.
+     * @return iterator of type Permission.  A failure reading a later page is thrown as {@link FinderRuntimeException}.
+     * @throws SecurityException thrown in the event of system error.
+     */
+    default CloseableIterator<Permission> iteratePermissions( Permission permission )
+        throws SecurityException
+    {
+        return CloseableIterator.of( findPermissions( permission ) );
+    }
+
     /**
      * Method returns Permission operations for the provided permission object
      * 
@@ -280,6 +311,28 @@ public interface ReviewMgr extends Manageable
         throws SecurityException;
 
 
+    /**
+     * Return an iterator over the users in the people container that match all or part of the User#userId field passed in
+     * User entity.  Unlike {@link #findUsers(User)}, the results are read from the directory a page at a time as the iterator
+     * advances, and so are not limited by the server's size limit.  The default implementation iterates over the list returned
+     * by {@link #findUsers(User)}.  The iterator holds a directory connection and must be closed.
+     * <h3></h3>
+     * <h4>required parameters</h4>
+     * <ul>
+     *   <li>User#userId - contains all or some leading chars that match userId(s) stored in the directory.</li>
+     * </ul>
+     *
+     * @param user contains all or some leading chars that match userIds stored in the directory.
+     * @return iterator of type User.  A failure reading a later page is thrown as {@link FinderRuntimeException}.
+     * @throws SecurityException In the event of system error.
+     */
+    default CloseableIterator<User> iterateUsers( User user )
+        throws SecurityException
+    {
+        return CloseableIterator.of( findUsers( user ) );
+    }
+
+
     /**
      * Return a list of type User of all users in the people container that match the name field passed in OrgUnit entity.
      * <h3></h3>
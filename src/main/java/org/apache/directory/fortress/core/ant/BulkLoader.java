@@ -0,0 +1,321 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.ant;
+
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.apache.directory.fortress.core.SecurityException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Runs one phase of {@link FortressAntTask} over the entities of that phase.  With a single thread, which is the default, every
+ * entity is loaded on the caller's thread in the order given.  With more, entities are handed to a fixed pool of worker threads,
+ * no more than twice as many in flight as there are threads, each call borrowing its own connection from the admin pool.  Either
+ * way {@link #run} doesn't return until every entity of the phase is done, so a phase only starts once those it depends on have
+ * finished.  A phase may give each entity an affinity, in which case entities with the same affinity are loaded one after another,
+ * in the order given, by the same worker.
+ * <p>
+ * An entity that fails is logged and, when a retry file was named, written to it in the xml of the load file, preceded by a comment
+ * holding the phase, key, error id and message.  Once the cause is fixed, the retry file may be passed back as 'load.file' to load
+ * just those entities.  The other entities carry on.  The count, failures and throughput of each phase are logged when it completes.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class BulkLoader
+{
+    /**
+     * Loads a single entity.
+     */
+    interface Load<T>
+    {
+        void load( T entity ) throws SecurityException;
+    }
+
+    /**
+     * Renders the entities of the load file as xml that may be loaded again.
+     */
+    interface Source
+    {
+        /**
+         * @return elements that must precede the entities, such as the context they were loaded into, or null if there are none.
+         */
+        String getContext();
+
+
+        /**
+         * @param entity handed to {@link #run}.
+         * @return the entity's element nested inside the element of its phase, or null if the entity isn't known.
+         */
+        String toXml( Object entity );
+    }
+
+    private static final String CLS_NM = BulkLoader.class.getName();
+    private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
+    private static final String INDENT = "            ";
+    private static final String HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+        + "<!-- Entities that failed to load.  Pass this file back as load.file to load them again. -->\n"
+        + "<project basedir=\".\" default=\"all\" name=\"Fortress Retry\">\n"
+        + "    <taskdef classname=\"" + FortressAntTask.class.getName() + "\" name=\"FortressAdmin\" >\n"
+        + "        <classpath path=\"${java.class.path}\"/>\n"
+        + "    </taskdef>\n"
+        + "\n"
+        + "    <target name=\"all\">\n"
+        + "        <FortressAdmin>";
+    private static final String FOOTER = "        </FortressAdmin>\n"
+        + "    </target>\n"
+        + "</project>";
+
+    private final int threads;
+    private final String retryFile;
+    private final Source source;
+    private final ExecutorService workers;
+    private PrintWriter retries;
+
+
+    /**
+     * @param threads   number of worker threads, one or less loads entities on the caller's thread.
+     * @param retryFile name of file that receives failed entities, may be null.
+     * @param source    renders the failed entities in the retry file.
+     */
+    BulkLoader( int threads, String retryFile, Source source )
+    {
+        this.threads = Math.max( 1, threads );
+        this.retryFile = retryFile;
+        this.source = source;
+        if ( this.threads > 1 )
+        {
+            AtomicInteger count = new AtomicInteger();
+            workers = Executors.newFixedThreadPool( this.threads, runnable ->
+            {
+                Thread thread = new Thread( runnable, "fortress-load-" + count.incrementAndGet() );
+                thread.setDaemon( true );
+                return thread;
+            } );
+            LOG.info( "BulkLoader using {} threads", this.threads );
+        }
+        else
+        {
+            workers = null;
+        }
+    }
+
+
+    /**
+     * Load every entity of a phase and wait for them to finish.
+     *
+     * @param phase    name of the phase, used in the log and retry file.
+     * @param entities to be loaded.
+     * @param key      returns the value that identifies an entity in the log and retry file.
+     * @param load     called once for every entity.
+     */
+    <T> void run( String phase, List<T> entities, Function<T, String> key, Load<T> load )
+    {
+        run( phase, entities, key, null, load );
+    }
+
+
+    /**
+     * Load every entity of a phase and wait for them to finish, those with the same affinity one after another on the same worker,
+     * so that checks made across them, e.g. the static separation of duties of a user's roles, see the ones loaded before.
+     *
+     * @param phase    name of the phase, used in the log and retry file.
+     * @param entities to be loaded.
+     * @param key      returns the value that identifies an entity in the log and retry file.
+     * @param affinity returns the value that entities loaded by the same worker share, may be null.
+     * @param load     called once for every entity.
+     */
+    <T> void run( String phase, List<T> entities, Function<T, String> key, Function<T, String> affinity, Load<T> load )
+    {
+        if ( entities.isEmpty() )
+        {
+            return;
+        }
+        AtomicLong failures = new AtomicLong();
+        long start = System.nanoTime();
+        if ( workers == null )
+        {
+            for ( T entity : entities )
+            {
+                loadEntity( phase, entity, key, load, failures );
+            }
+        }
+        else if ( affinity != null )
+        {
+            List<List<T>> lanes = new ArrayList<>();
+            for ( int i = 0; i < threads; i++ )
+            {
+                lanes.add( new ArrayList<>() );
+            }
+            for ( T entity : entities )
+            {
+                lanes.get( Math.floorMod( Objects.hashCode( affinity.apply( entity ) ), threads ) ).add( entity );
+            }
+            Semaphore done = new Semaphore( 0 );
+            for ( List<T> lane : lanes )
+            {
+                workers.execute( () ->
+                {
+                    try
+                    {
+                        for ( T entity : lane )
+                        {
+                            loadEntity( phase, entity, key, load, failures );
+                        }
+                    }
+                    finally
+                    {
+                        done.release();
+                    }
+                } );
+            }
+            done.acquireUninterruptibly( threads );
+        }
+        else
+        {
+            int permits = threads * 2;
+            Semaphore inFlight = new Semaphore( permits );
+            for ( T entity : entities )
+            {
+                inFlight.acquireUninterruptibly();
+                workers.execute( () ->
+                {
+                    try
+                    {
+                        loadEntity( phase, entity, key, load, failures );
+                    }
+                    finally
+                    {
+                        inFlight.release();
+                    }
+                } );
+            }
+            // wait for the stragglers:
+            inFlight.acquireUninterruptibly( permits );
+            inFlight.release( permits );
+        }
+        long millis = Math.max( 1, TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - start ) );
+        LOG.info( "{} loaded {} entities, {} failed, in {} ms, {} per second", phase, entities.size(), failures.get(), millis,
+            entities.size() * 1000L / millis );
+    }
+
+
+    /**
+     * Stop the worker threads and close the retry file.
+     */
+    synchronized void close()
+    {
+        if ( workers != null )
+        {
+            workers.shutdown();
+        }
+        if ( retries != null )
+        {
+            retries.println( FOOTER );
+            retries.close();
+            retries = null;
+            LOG.warn( "BulkLoader failed entities were written to {}", retryFile );
+        }
+    }
+
+
+    private <T> void loadEntity( String phase, T entity, Function<T, String> key, Load<T> load, AtomicLong failures )
+    {
+        try
+        {
+            load.load( entity );
+        }
+        catch ( SecurityException se )
+        {
+            failures.incrementAndGet();
+            LOG.warn( "{} [{}] caught SecurityException={}", phase, key.apply( entity ), se );
+            retry( phase, key.apply( entity ), entity, se.getErrorId(), se.getMessage() );
+        }
+        catch ( RuntimeException re )
+        {
+            failures.incrementAndGet();
+            LOG.warn( "{} [{}] caught RuntimeException={}", phase, key.apply( entity ), re );
+            retry( phase, key.apply( entity ), entity, 0, re.toString() );
+        }
+    }
+
+
+    private synchronized void retry( String phase, String key, Object entity, int errorId, String message )
+    {
+        if ( retryFile == null )
+        {
+            return;
+        }
+        try
+        {
+            if ( retries == null )
+            {
+                retries = new PrintWriter( new OutputStreamWriter( new FileOutputStream( retryFile ), StandardCharsets.UTF_8 ),
+                    true );
+                retries.println( HEADER );
+                String context = source.getContext();
+                if ( context != null )
+                {
+                    retries.println( indent( context ) );
+                }
+            }
+            String comment = phase + " [" + key + "] " + errorId + " " + String.valueOf( message ).replace( '\n', ' ' );
+            // a comment can't hold a double dash, and one pass leaves one behind in a run of three:
+            while ( comment.contains( "--" ) )
+            {
+                comment = comment.replace( "--", "- -" );
+            }
+            retries.println( INDENT + "<!-- " + comment + " -->" );
+            String xml = source.toXml( entity );
+            if ( xml != null )
+            {
+                retries.println( indent( xml ) );
+            }
+        }
+        catch ( IOException ioe )
+        {
+            LOG.error( "retry could not write to {}, caught IOException={}", retryFile, ioe.toString() );
+        }
+    }
+
+
+    private static String indent( String xml )
+    {
+        return INDENT + xml.replace( "\n", "\n" + INDENT );
+    }
+}
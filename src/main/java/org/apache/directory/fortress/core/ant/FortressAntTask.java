@@ -20,13 +20,18 @@
 package org.apache.directory.fortress.core.ant;
 
 
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.StringTokenizer;
 
 import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.lang.StringEscapeUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.directory.fortress.core.AdminMgr;
 import org.apache.directory.fortress.core.AdminMgrFactory;
@@ -42,6 +47,7 @@ import org.apache.directory.fortress.core.GroupMgrFactory;
 import org.apache.directory.fortress.core.PwPolicyMgr;
 import org.apache.directory.fortress.core.PwPolicyMgrFactory;
 import org.apache.directory.fortress.core.SecurityException;
+import org.apache.directory.fortress.core.impl.HierarchyBatch;
 import org.apache.directory.fortress.core.impl.OrganizationalUnitP;
 import org.apache.directory.fortress.core.impl.SuffixP;
 import org.apache.directory.fortress.core.model.*;
@@ -50,6 +56,7 @@ import org.apache.directory.fortress.core.util.ClassUtil;
 import org.apache.directory.fortress.core.util.Config;
 import org.apache.directory.fortress.core.util.Testable;
 import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.RuntimeConfigurable;
 import org.apache.tools.ant.Task;
 import org.apache.tools.ant.input.InputHandler;
 import org.apache.tools.ant.input.InputRequest;
@@ -239,6 +246,14 @@ import org.slf4j.LoggerFactory;
  *     org.apache.directory.fortress.core.model.UserRole)}
  *   </li>
  * </ol>
+ * <p>
+ * The phases listed above run one after another, each waiting on those before it.  The users, roles, permissions, grants and
+ * assignments within a phase, which make up the bulk of a large load, can be spread over a pool of threads by setting system
+ * property 'load.threads'.  The admin connection pool, 'fortress.max.admin.conn', should be at least that size.  Entities that
+ * fail are written, as xml that may be passed back as 'load.file', to the file named by system property 'load.retry.file', if set.
+ * A user's role and admin role assignments are all made by the same thread, so each sees those made before it.  Hierarchies,
+ * containers and config are always loaded by a single thread, in order, and each hierarchy phase publishes its edges to the
+ * in-memory graphs once, at the end, through {@link HierarchyBatch}.  See {@link BulkLoader}.
  *
  * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
  */
@@ -304,7 +319,12 @@ public class FortressAntTask extends Task implements InputHandler
     private Context context;
     // This system property can be used to set the default tenant id:
     private static final String TENANT = System.getProperty( "tenant" );
+    // These system properties control the parallel load of the larger phases:
+    private static final String LOAD_THREADS = System.getProperty( "load.threads" );
+    private static final String LOAD_RETRY_FILE = System.getProperty( "load.retry.file" );
     private String tenant;
+    private final BulkLoader loader = new BulkLoader( getThreads(), isSet( LOAD_RETRY_FILE ) ? LOAD_RETRY_FILE : null,
+        new LoadFile() );
 
     public String getTenant()
     {
@@ -885,6 +905,48 @@ public class FortressAntTask extends Task implements InputHandler
     }
 
 
+    /**
+     * @return number of threads set by system property 'load.threads', or one if it isn't.
+     */
+    private static int getThreads()
+    {
+        if ( isSet( LOAD_THREADS ) )
+        {
+            try
+            {
+                return Integer.parseInt( LOAD_THREADS.trim() );
+            }
+            catch ( NumberFormatException nfe )
+            {
+                LOG.warn( "FortressAntTask invalid load.threads [{}], loading with a single thread", LOAD_THREADS );
+            }
+        }
+        return 1;
+    }
+
+
+    /**
+     * @param value of a system property passed through by maven.
+     * @return boolean, false if the property is empty or unresolved.
+     */
+    private static boolean isSet( String value )
+    {
+        return StringUtils.isNotEmpty( value ) && !value.startsWith( "${" );
+    }
+
+
+    /**
+     * @param permGrant
+     * @return key to the grant, used to log and retry it.
+     */
+    private static String getKey( PermGrant permGrant )
+    {
+        String assignee = StringUtils.isNotEmpty( permGrant.getRoleNm() ) ? permGrant.getRoleNm() : permGrant.getUserId();
+        return assignee + "," + permGrant.getObjName() + "." + permGrant.getOpName() + ( permGrant.getObjId() != null ? "." +
+            permGrant.getObjId() : "" );
+    }
+
+
     /**
      * @param list
      * @return boolean
@@ -919,12 +981,12 @@ public class FortressAntTask extends Task implements InputHandler
         deletePermOps();
         deletePermObjs();
         deleteSdsets();
-        deleteRoleInheritances();
+        inBatch( this::deleteRoleInheritances );
         deleteRoles();
-        deleteAdminRoleInheritances();
+        inBatch( this::deleteAdminRoleInheritances );
         deleteAdminRoles();
-        deleteUserOrgunitInheritances();
-        deletePermOrgunitInheritances();
+        inBatch( this::deleteUserOrgunitInheritances );
+        inBatch( this::deletePermOrgunitInheritances );
         delOrgunits();
         deleteConfig();
         deleteContainers();
@@ -934,12 +996,12 @@ public class FortressAntTask extends Task implements InputHandler
         addConfig();
         updConfig();
         addOrgunits();
-        addUserOrgunitInheritances();
-        addPermOrgunitInheritances();
+        inBatch( this::addUserOrgunitInheritances );
+        inBatch( this::addPermOrgunitInheritances );
         addAdminRoles();
-        addAdminRoleInheritances();
+        inBatch( this::addAdminRoleInheritances );
         addRoles();
-        addRoleInheritances();
+        inBatch( this::addRoleInheritances );
         addSdsets();
         addPermObjs();
         addPermOps();
@@ -952,12 +1014,32 @@ public class FortressAntTask extends Task implements InputHandler
         addUserAdminRoles();
         addUserRoles();
         addRoleConstraints();
+        loader.close();
 
         testResults();
 
         System.exit( 0 );
     }
 
+    /**
+     * Run a hierarchy phase so its edges are published once at the end rather than one at a time.
+     *
+     * @param phase loads or removes inheritances.
+     */
+    private void inBatch( Runnable phase )
+    {
+        HierarchyBatch.begin();
+        try
+        {
+            phase.run();
+        }
+        finally
+        {
+            HierarchyBatch.end();
+        }
+    }
+
+
     /**
      * @throws BuildException An error occurred while building
      */
@@ -997,24 +1079,17 @@ public class FortressAntTask extends Task implements InputHandler
             return;
         }
 
-        // Loop through the entityclass elements
+        List<UserAnt> users = new ArrayList<>();
         for ( Adduser adduser : addusers )
         {
-            List<UserAnt> users = adduser.getUsers();
-            for ( UserAnt user : users )
-            {
-                LOG.info( "addUsers tenant={} userid={} description={} orgUnit={}",
-                    getTenant(), user.getUserId(), user.getDescription(), user.getOu() );
-                try
-                {
-                    addUser( user );
-                }
-                catch ( SecurityException se )
-                {
-                    LOG.warn( "addUsers userId [{}] caught SecurityException={}", user.getUserId(), se );
-                }
-            }
+            users.addAll( adduser.getUsers() );
         }
+        loader.run( "addUsers", users, UserAnt::getUserId, user ->
+        {
+            LOG.info( "addUsers tenant={} userid={} description={} orgUnit={}",
+                getTenant(), user.getUserId(), user.getDescription(), user.getOu() );
+            addUser( user );
+        } );
     }
 
     /**
@@ -1080,23 +1155,16 @@ public class FortressAntTask extends Task implements InputHandler
             return;
         }
 
-        // Loop through the entityclass elements
+        List<UserAnt> users = new ArrayList<>();
         for ( Deluser deluser : delusers )
         {
-            List<UserAnt> users = deluser.getUsers();
-            for ( UserAnt user : users )
-            {
-                LOG.info( "deleteUsers tenant={} userid={}", getTenant(), user.getUserId() );
-                try
-                {
-                    adminMgr.deleteUser( user );
-                }
-                catch ( SecurityException se )
-                {
-                    LOG.warn( "deleteUsers userId [{}] caught SecurityException={}", user.getUserId(), se );
-                }
-            }
+            users.addAll( deluser.getUsers() );
         }
+        loader.run( "deleteUsers", users, UserAnt::getUserId, user ->
+        {
+            LOG.info( "deleteUsers tenant={} userid={}", getTenant(), user.getUserId() );
+            adminMgr.deleteUser( user );
+        } );
     }
 
 
@@ -1171,28 +1239,17 @@ public class FortressAntTask extends Task implements InputHandler
             return;
         }
 
-        // Loop through the entityclass elements
+        List<Map.Entry<Group, String>> memberships = new ArrayList<>();
         for ( Addgroupmember addgroupmember : addgroupmembers )
         {
-            List<Group> groups = addgroupmember.getGroups();
-
-            for ( Group group : groups )
+            for ( Group group : addgroupmember.getGroups() )
             {
                 List<String> members = group.getMembers();
                 if ( CollectionUtils.isNotEmpty( members ) )
                 {
                     for ( String member : members )
                     {
-                        LOG.info( "addGroupMembers tenant={} name={}, member={}", getTenant(), group.getName(), member );
-                        try
-                        {
-                            groupMgr.assign( group, member );
-                        }
-                        catch ( SecurityException se )
-                        {
-                            LOG.warn( "addGroupMembers tenant={} name [{}], member [{}] caught SecurityException={}",
-                                getTenant(), group.getName(), member, se );
-                        }
+                        memberships.add( new AbstractMap.SimpleImmutableEntry<>( group, member ) );
                     }
                 }
                 else
@@ -1201,6 +1258,13 @@ public class FortressAntTask extends Task implements InputHandler
                 }
             }
         }
+        loader.run( "addGroupMembers", memberships, membership -> membership.getKey().getName() + "," + membership.getValue(),
+            membership ->
+            {
+                LOG.info( "addGroupMembers tenant={} name={}, member={}", getTenant(), membership.getKey().getName(),
+                    membership.getValue() );
+                groupMgr.assign( membership.getKey(), membership.getValue() );
+            } );
     }
 
 
@@ -1342,24 +1406,18 @@ public class FortressAntTask extends Task implements InputHandler
             return;
         }
 
-        // Loop through the entityclass elements
+        List<UserRole> userRoles = new ArrayList<>();
         for ( Adduserrole adduserrole : adduserroles )
         {
-            List<UserRole> userroles = adduserrole.getUserRoles();
-            for ( UserRole userRole : userroles )
-            {
-                LOG.info( "addUserRoles tenant={} userid={} role name={}", getTenant(), userRole.getUserId(), userRole.getName() );
-                try
-                {
-                    //Role role = new Role(userRole);
-                    adminMgr.assignUser( userRole );
-                }
-                catch ( SecurityException se )
-                {
-                    LOG.warn( "addUserRoles tenant={} userId={} roleName={} caught SecurityException={}", getTenant(), userRole.getUserId(), userRole.getName(), se );
-                }
-            }
+            userRoles.addAll( adduserrole.getUserRoles() );
         }
+        // a user's assignments are made one at a time, so each is checked for ssd against those before it:
+        loader.run( "addUserRoles", userRoles, userRole -> userRole.getUserId() + "," + userRole.getName(),
+            userRole -> StringUtils.lowerCase( userRole.getUserId() ), userRole ->
+        {
+            LOG.info( "addUserRoles tenant={} userid={} role name={}", getTenant(), userRole.getUserId(), userRole.getName() );
+            adminMgr.assignUser( userRole );
+        } );
     }
 
 
@@ -1373,23 +1431,16 @@ public class FortressAntTask extends Task implements InputHandler
             return;
         }
 
-        // Loop through the entityclass elements
+        List<UserRole> userRoles = new ArrayList<>();
         for ( Deluserrole deluserrole : deluserroles )
         {
-            List<UserRole> userroles = deluserrole.getUserRoles();
-            for ( UserRole userRole : userroles )
-            {
-                LOG.info( "delUserRoles tenant={} userid={} role name={}", getTenant(), userRole.getUserId(), userRole.getName() );
-                try
-                {
-                    adminMgr.deassignUser( userRole );
-                }
-                catch ( SecurityException se )
-                {
-                    LOG.warn( "delUserRoles tenant={} userId={} roleName={} caught SecurityException={}", getTenant(), userRole.getUserId(), userRole.getName(), se );
-                }
-            }
+            userRoles.addAll( deluserrole.getUserRoles() );
         }
+        loader.run( "delUserRoles", userRoles, userRole -> userRole.getUserId() + "," + userRole.getName(), userRole ->
+        {
+            LOG.info( "delUserRoles tenant={} userid={} role name={}", getTenant(), userRole.getUserId(), userRole.getName() );
+            adminMgr.deassignUser( userRole );
+        } );
     }
 
 
@@ -1484,23 +1535,16 @@ public class FortressAntTask extends Task implements InputHandler
             return;
         }
 
-        // Loop through the entityclass elements
+        List<Role> roles = new ArrayList<>();
         for ( Addrole addrole : addroles )
         {
-            List<Role> roles = addrole.getRoles();
-            for ( Role role : roles )
-            {
-                LOG.info( "addRoles tenant={} name={} description={}", getTenant(), role.getName(), role.getDescription() );
-                try
-                {
-                    adminMgr.addRole( role );
-                }
-                catch ( SecurityException se )
-                {
-                    LOG.warn( "addRoles tenant={} name [{}] caught SecurityException={}", getTenant(), role.getName(), se );
-                }
-            }
+            roles.addAll( addrole.getRoles() );
         }
+        loader.run( "addRoles", roles, Role::getName, role ->
+        {
+            LOG.info( "addRoles tenant={} name={} description={}", getTenant(), role.getName(), role.getDescription() );
+            adminMgr.addRole( role );
+        } );
     }
 
 
@@ -1684,42 +1728,34 @@ public class FortressAntTask extends Task implements InputHandler
             return;
         }
 
-        // Loop through the entityclass elements
+        List<PermObj> permObjs = new ArrayList<>();
         for ( AddpermObj addpermObj : addpermObjs )
         {
-            List<PermObj> permObjs = addpermObj.getPermObjs();
-            for ( PermObj permObj : permObjs )
+            permObjs.addAll( addpermObj.getPermObjs() );
+        }
+        loader.run( "addPermObjs", permObjs, PermObj::getObjName, permObj ->
+        {
+            LOG.info( "addPermObjs tenant={} objName={} description={} orgUnit={} type={}",
+                getTenant(), permObj.getObjName(), permObj.getDescription(), permObj.getOu(), permObj.getType() );
+            try
             {
-                LOG.info( "addPermObjs tenant={} objName={} description={} orgUnit={} type={}",
-                    getTenant(), permObj.getObjName(), permObj.getDescription(), permObj.getOu(), permObj.getType() );
-                try
+                adminMgr.addPermObj( permObj );
+            }
+            catch ( SecurityException se )
+            {
+                // If Perm Object entity already there then call the udpate method.
+                if ( se.getErrorId() == GlobalErrIds.PERM_DUPLICATE )
                 {
-                    try
-                    {
-                        adminMgr.addPermObj( permObj );
-                    }
-                    catch ( SecurityException se )
-                    {
-                        // If Perm Object entity already there then call the udpate method.
-                        if ( se.getErrorId() == GlobalErrIds.PERM_DUPLICATE )
-                        {
-                            adminMgr.updatePermObj( permObj );
-                            LOG.info( "addPermObjs tenant={} update entity objName={} description={} orgUnit={} type={}", getTenant(), permObj.getObjName(), permObj
-                                .getDescription(), permObj.getOu(), permObj.getType() );
-                        }
-                        else
-                        {
-                            throw se;
-                        }
-                    }
+                    adminMgr.updatePermObj( permObj );
+                    LOG.info( "addPermObjs tenant={} update entity objName={} description={} orgUnit={} type={}", getTenant(), permObj.getObjName(), permObj
+                        .getDescription(), permObj.getOu(), permObj.getType() );
                 }
-                catch ( SecurityException se )
+                else
                 {
-                    LOG.warn( "addPermObjs tenant={} objName [{}] caught SecurityException={}",
-                        getTenant(), permObj.getObjName(), se );
+                    throw se;
                 }
             }
-        }
+        } );
     }
 
 
@@ -1764,41 +1800,33 @@ public class FortressAntTask extends Task implements InputHandler
             return;
         }
 
-        // Loop through the entityclass elements
+        List<PermAnt> permissions = new ArrayList<>();
         for ( AddpermOp addpermOp : addpermOps )
         {
-            List<PermAnt> permissions = addpermOp.getPermOps();
-            for ( PermAnt permission : permissions )
+            permissions.addAll( addpermOp.getPermOps() );
+        }
+        loader.run( "addPermOps", permissions, permission -> permission.getObjName() + "." + permission.getOpName(), permission ->
+        {
+            LOG.info( "addPermOps tenant={} name={} objName={}", getTenant(), permission.getOpName(), permission.getObjName() );
+            try
             {
-                LOG.info( "addPermOps tenant={} name={} objName={}", getTenant(), permission.getOpName(), permission.getObjName() );
-                try
+                adminMgr.addPermission( permission );
+            }
+            catch ( SecurityException se )
+            {
+                // If Perm Object entity already there then call the udpate method.
+                if ( se.getErrorId() == GlobalErrIds.PERM_DUPLICATE )
                 {
-                    try
-                    {
-                        adminMgr.addPermission( permission );
-                    }
-                    catch ( SecurityException se )
-                    {
-                        // If Perm Object entity already there then call the udpate method.
-                        if ( se.getErrorId() == GlobalErrIds.PERM_DUPLICATE )
-                        {
-                            adminMgr.updatePermission( permission );
-                            LOG.info( "addPermOps tenant={} - update entity - name={} objName={}",
-                                getTenant(), permission.getOpName(), permission.getObjName() );
-                        }
-                        else
-                        {
-                            throw se;
-                        }
-                    }
+                    adminMgr.updatePermission( permission );
+                    LOG.info( "addPermOps tenant={} - update entity - name={} objName={}",
+                        getTenant(), permission.getOpName(), permission.getObjName() );
                 }
-                catch ( SecurityException se )
+                else
                 {
-                    LOG.warn( "addPermOps tenant={} name [{}] objName [{}] caught SecurityException={}",
-                        getTenant(), permission.getOpName(), permission.getObjName(), se );
+                    throw se;
                 }
             }
-        }
+        } );
     }
 
 
@@ -1843,40 +1871,33 @@ public class FortressAntTask extends Task implements InputHandler
             return;
         }
 
-        // Loop through the entityclass elements
+        List<PermGrant> permGrants = new ArrayList<>();
         for ( AddpermGrant addpermGrant : addpermGrants )
         {
-            List<PermGrant> permGrants = addpermGrant.getPermGrants();
-            for ( PermGrant permGrant : permGrants )
+            permGrants.addAll( addpermGrant.getPermGrants() );
+        }
+        loader.run( "addPermGrants", permGrants, FortressAntTask::getKey, permGrant ->
+        {
+            Permission perm = new Permission( permGrant.getObjName(), permGrant.getOpName(),
+                permGrant.isAdmin() );
+            perm.setOpName( permGrant.getOpName() );
+            perm.setObjId( permGrant.getObjId() );
+            if ( permGrant.getRoleNm() != null && permGrant.getRoleNm().length() > 0 )
             {
-                try
-                {
-                    Permission perm = new Permission( permGrant.getObjName(), permGrant.getOpName(),
-                        permGrant.isAdmin() );
-                    perm.setOpName( permGrant.getOpName() );
-                    perm.setObjId( permGrant.getObjId() );
-                    if ( permGrant.getRoleNm() != null && permGrant.getRoleNm().length() > 0 )
-                    {
-                        LOG.info( "addPermGrants tenant={} roleName={} objName={} opName={} objId={}", getTenant(), permGrant.getRoleNm(), permGrant.getObjName(), permGrant.getOpName(), permGrant.getObjId() );
-                        adminMgr.grantPermission( perm, new Role( permGrant.getRoleNm() ) );
-                    }
-                    else if ( permGrant.getUserId() != null && permGrant.getUserId().length() > 0 )
-                    {
-                        LOG.info( "addPermGrants tenant={} userId={} objName={} opName={} objId={}", getTenant(), permGrant.getUserId(), permGrant.getObjName(), permGrant.getOpName(), permGrant.getObjId() );
-                        adminMgr.grantPermission( perm, new User( permGrant.getUserId() ) );
-                    }
-                    else
-                    {
-                        String warning = "addPermGrants called without user or role set in xml";
-                        LOG.warn( warning );
-                    }
-                }
-                catch ( SecurityException se )
-                {
-                    LOG.warn( "addPermGrants tenant={} roleName={} objName={} opName={} objId={} caught SecurityException={}" , getTenant(), permGrant.getRoleNm(), permGrant.getObjName(), permGrant.getOpName(), permGrant.getObjId(), se );
-                }
+                LOG.info( "addPermGrants tenant={} roleName={} objName={} opName={} objId={}", getTenant(), permGrant.getRoleNm(), permGrant.getObjName(), permGrant.getOpName(), permGrant.getObjId() );
+                adminMgr.grantPermission( perm, new Role( permGrant.getRoleNm() ) );
             }
-        }
+            else if ( permGrant.getUserId() != null && permGrant.getUserId().length() > 0 )
+            {
+                LOG.info( "addPermGrants tenant={} userId={} objName={} opName={} objId={}", getTenant(), permGrant.getUserId(), permGrant.getObjName(), permGrant.getOpName(), permGrant.getObjId() );
+                adminMgr.grantPermission( perm, new User( permGrant.getUserId() ) );
+            }
+            else
+            {
+                String warning = "addPermGrants called without user or role set in xml";
+                LOG.warn( warning );
+            }
+        } );
     }
 
 
@@ -1890,40 +1911,33 @@ public class FortressAntTask extends Task implements InputHandler
             return;
         }
 
-        // Loop through the entityclass elements
+        List<PermGrant> permGrants = new ArrayList<>();
         for ( DelpermGrant delpermGrant : delpermGrants )
         {
-            List<PermGrant> permGrants = delpermGrant.getPermGrants();
-            for ( PermGrant permGrant : permGrants )
+            permGrants.addAll( delpermGrant.getPermGrants() );
+        }
+        loader.run( "deletePermGrants", permGrants, FortressAntTask::getKey, permGrant ->
+        {
+            Permission perm = new Permission( permGrant.getObjName(), permGrant.getOpName(),
+                permGrant.isAdmin() );
+            perm.setOpName( permGrant.getOpName() );
+            perm.setObjId( permGrant.getObjId() );
+            if ( permGrant.getRoleNm() != null && permGrant.getRoleNm().length() > 0 )
             {
-                try
-                {
-                    Permission perm = new Permission( permGrant.getObjName(), permGrant.getOpName(),
-                        permGrant.isAdmin() );
-                    perm.setOpName( permGrant.getOpName() );
-                    perm.setObjId( permGrant.getObjId() );
-                    if ( permGrant.getRoleNm() != null && permGrant.getRoleNm().length() > 0 )
-                    {
-                        LOG.info( "deletePermGrants tenant={} roleName={} objName={} opName={} objId={}", getTenant(), permGrant.getRoleNm(), permGrant.getObjName(), permGrant.getOpName(), permGrant.getObjId() );
-                        adminMgr.revokePermission( perm, new Role( permGrant.getRoleNm() ) );
-                    }
-                    else if ( permGrant.getUserId() != null && permGrant.getUserId().length() > 0 )
-                    {
-                        LOG.info( "deletePermGrants tenant={} userId={} objName={} opName={} objId={}", getTenant(), permGrant.getUserId(), permGrant.getObjName(), permGrant.getOpName(), permGrant.getObjId() );
-                        adminMgr.revokePermission( perm, new User( permGrant.getUserId() ) );
-                    }
-                    else
-                    {
-                        String warning = "deletePermGrants called without user or role set in xml";
-                        LOG.warn( warning );
-                    }
-                }
-                catch ( SecurityException se )
-                {
-                    LOG.warn( "deletePermGrants tenant={} roleName={} objName={} opName={} objId={} caught SecurityException={}" , getTenant(), permGrant.getRoleNm(), permGrant.getObjName(), permGrant.getOpName(), permGrant.getObjId(), se );
-                }
+                LOG.info( "deletePermGrants tenant={} roleName={} objName={} opName={} objId={}", getTenant(), permGrant.getRoleNm(), permGrant.getObjName(), permGrant.getOpName(), permGrant.getObjId() );
+                adminMgr.revokePermission( perm, new Role( permGrant.getRoleNm() ) );
             }
-        }
+            else if ( permGrant.getUserId() != null && permGrant.getUserId().length() > 0 )
+            {
+                LOG.info( "deletePermGrants tenant={} userId={} objName={} opName={} objId={}", getTenant(), permGrant.getUserId(), permGrant.getObjName(), permGrant.getOpName(), permGrant.getObjId() );
+                adminMgr.revokePermission( perm, new User( permGrant.getUserId() ) );
+            }
+            else
+            {
+                String warning = "deletePermGrants called without user or role set in xml";
+                LOG.warn( warning );
+            }
+        } );
     }
 
 
@@ -2454,25 +2468,17 @@ public class FortressAntTask extends Task implements InputHandler
             return;
         }
 
-        // Loop through the entityclass elements
+        List<UserAdminRole> userRoles = new ArrayList<>();
         for ( Adduseradminrole adduserrole : adduseradminroles )
         {
-            List<UserAdminRole> userroles = adduserrole.getUserRoles();
-            for ( UserAdminRole userRole : userroles )
-            {
-                LOG.info( "addUserAdminRoles tenant={} userid={} role name={}", getTenant(), userRole.getUserId(), userRole.getName() );
-                try
-                {
-                    //AdminRole role = new AdminRole(userRole);
-                    dAdminMgr.assignUser( userRole );
-                }
-                catch ( SecurityException se )
-                {
-                    LOG.warn( "addUserAdminRoles tenant={} userId={} role name={} caught SecurityException={}",
-                        getTenant(), userRole.getUserId(), userRole.getName(), se );
-                }
-            }
+            userRoles.addAll( adduserrole.getUserRoles() );
         }
+        loader.run( "addUserAdminRoles", userRoles, userRole -> userRole.getUserId() + "," + userRole.getName(),
+            userRole -> StringUtils.lowerCase( userRole.getUserId() ), userRole ->
+        {
+            LOG.info( "addUserAdminRoles tenant={} userid={} role name={}", getTenant(), userRole.getUserId(), userRole.getName() );
+            dAdminMgr.assignUser( userRole );
+        } );
     }
 
 
@@ -2780,4 +2786,120 @@ public class FortressAntTask extends Task implements InputHandler
     {
         return addgroups;
     }
+
+
+    /**
+     * Renders the entities of this task as the xml elements they were loaded from, for the retry file.  The elements are found
+     * through the {@link RuntimeConfigurable} tree ant built from the load file, so the attributes are written as they were given,
+     * with any properties expanded.  A group membership is written as its group, with just the one member.
+     */
+    private final class LoadFile implements BulkLoader.Source
+    {
+        private static final String INDENT = "    ";
+        private Map<Object, RuntimeConfigurable> elements;
+        private Map<Object, RuntimeConfigurable> phases;
+
+
+        @Override
+        public synchronized String getContext()
+        {
+            StringBuilder xml = new StringBuilder();
+            Enumeration<RuntimeConfigurable> children = getRuntimeConfigurableWrapper().getChildren();
+            while ( children.hasMoreElements() )
+            {
+                RuntimeConfigurable child = children.nextElement();
+                if ( child.getElementTag().equalsIgnoreCase( "addcontext" ) )
+                {
+                    append( xml, child, getAttributes( child ), "" );
+                }
+            }
+            return xml.length() > 0 ? xml.toString().trim() : null;
+        }
+
+
+        @Override
+        public synchronized String toXml( Object entity )
+        {
+            if ( elements == null )
+            {
+                index();
+            }
+            Object key = entity instanceof Map.Entry ? ( ( Map.Entry<?, ?> ) entity ).getKey() : entity;
+            RuntimeConfigurable element = elements.get( key );
+            if ( element == null )
+            {
+                return null;
+            }
+            Map<String, String> attributes = getAttributes( element );
+            if ( entity instanceof Map.Entry )
+            {
+                attributes.keySet().removeIf( name -> name.equalsIgnoreCase( "member" ) || name.equalsIgnoreCase(
+                    "membersWithCsv" ) );
+                attributes.put( "member", String.valueOf( ( ( Map.Entry<?, ?> ) entity ).getValue() ) );
+            }
+            String phase = phases.get( key ).getElementTag();
+            StringBuilder xml = new StringBuilder();
+            xml.append( '<' ).append( phase ).append( ">\n" );
+            append( xml, element, attributes, INDENT );
+            xml.append( "</" ).append( phase ).append( '>' );
+            return xml.toString();
+        }
+
+
+        private void index()
+        {
+            elements = new IdentityHashMap<>();
+            phases = new IdentityHashMap<>();
+            Enumeration<RuntimeConfigurable> children = getRuntimeConfigurableWrapper().getChildren();
+            while ( children.hasMoreElements() )
+            {
+                RuntimeConfigurable phase = children.nextElement();
+                Enumeration<RuntimeConfigurable> entities = phase.getChildren();
+                while ( entities.hasMoreElements() )
+                {
+                    RuntimeConfigurable element = entities.nextElement();
+                    if ( element.getProxy() != null )
+                    {
+                        elements.put( element.getProxy(), element );
+                        phases.put( element.getProxy(), phase );
+                    }
+                }
+            }
+        }
+
+
+        private Map<String, String> getAttributes( RuntimeConfigurable element )
+        {
+            Map<String, String> attributes = new LinkedHashMap<>();
+            for ( Map.Entry<String, Object> attribute : element.getAttributeMap().entrySet() )
+            {
+                attributes.put( attribute.getKey(), getProject().replaceProperties( String.valueOf( attribute.getValue() ) ) );
+            }
+            return attributes;
+        }
+
+
+        private void append( StringBuilder xml, RuntimeConfigurable element, Map<String, String> attributes, String indent )
+        {
+            xml.append( indent ).append( '<' ).append( element.getElementTag() );
+            for ( Map.Entry<String, String> attribute : attributes.entrySet() )
+            {
+                xml.append( ' ' ).append( attribute.getKey() ).append( "=\"" ).append( StringEscapeUtils.escapeXml( attribute
+                    .getValue() ) ).append( '"' );
+            }
+            Enumeration<RuntimeConfigurable> children = element.getChildren();
+            if ( !children.hasMoreElements() )
+            {
+                xml.append( "/>\n" );
+                return;
+            }
+            xml.append( ">\n" );
+            while ( children.hasMoreElements() )
+            {
+                RuntimeConfigurable child = children.nextElement();
+                append( xml, child, getAttributes( child ), indent + INDENT );
+            }
+            xml.append( indent ).append( "</" ).append( element.getElementTag() ).append( ">\n" );
+        }
+    }
 }
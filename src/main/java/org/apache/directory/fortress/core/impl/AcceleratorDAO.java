@@ -173,26 +173,50 @@ final class AcceleratorDAO extends LdapDataProvider
         try
         {
             ld = getAdminConnection();
-            RbacCheckAccessRequest rbacCheckAccessRequest = new RbacCheckAccessRequestImpl();
-            rbacCheckAccessRequest.setSessionId( session.getSessionId() );
-            rbacCheckAccessRequest.setObject( perm.getObjName() );
+            result = checkAccess( ld, session, perm );
+        }
+        catch ( LdapException e )
+        {
+            String error = "checkAccess perm obj [" + perm.getObjName() + "], operation [" + perm.getOpName()
+                + "] caught LDAPException=" + " msg=" + e
+                    .getMessage();
+            throw new SecurityException( GlobalErrIds.ACEL_CHECK_ACCESS_ERR, error, e );
+        }
+        finally
+        {
+            closeAdminConnection( ld );
+        }
 
-            // objectId is optional
-            if ( StringUtils.isNotEmpty( perm.getObjId() ) )
-            {
-                rbacCheckAccessRequest.setObjectId( perm.getObjId() );
-            }
+        return result;
+    }
 
-            rbacCheckAccessRequest.setOperation( perm.getOpName() );
-            // Send the request
-            RbacCheckAccessResponse rbacCheckAccessResponse = ( RbacCheckAccessResponse ) ld.extended(
-                rbacCheckAccessRequest );
-            LOG.debug( "checkAccess result: {}", rbacCheckAccessResponse.getLdapResult().getResultCode() );
 
-            result = rbacCheckAccessResponse.getLdapResult().getResultCode() == ResultCodeEnum.SUCCESS;
+    /**
+     * Perform user impl authorization for many permissions.  The accelerator evaluates one permission per extended operation, so
+     * this sends the {@link RbacCheckAccessRequest}s one after another over a single connection.
+     *
+     * @param session This object must be instantiated by calling {@link #createSession} method before passing into the method.  No variables need to be set by client after returned from createSession.
+     * @param perms each must contain the object, {@link org.apache.directory.fortress.core.model.Permission#objName}, and operation, {@link org.apache.directory.fortress.core.model.Permission#opName}, of permission User is trying to access.
+     * @return array containing true for each permission the user has access to, in the same order as the list.
+     * @throws SecurityException rethrows {@code LdapException} with {@code GlobalErrIds.ACEL_CHECK_ACCESS_ERR}.
+     */
+    boolean[] checkAccess( Session session, List<Permission> perms ) throws SecurityException
+    {
+        boolean[] results = new boolean[perms.size()];
+        LdapConnection ld = null;
+        int i = 0;
+
+        try
+        {
+            ld = getAdminConnection();
+            for ( ; i < results.length; i++ )
+            {
+                results[i] = checkAccess( ld, session, perms.get( i ) );
+            }
         }
         catch ( LdapException e )
         {
+            Permission perm = perms.get( i );
             String error = "checkAccess perm obj [" + perm.getObjName() + "], operation [" + perm.getOpName()
                 + "] caught LDAPException=" + " msg=" + e
                     .getMessage();
@@ -203,7 +227,32 @@ final class AcceleratorDAO extends LdapDataProvider
             closeAdminConnection( ld );
         }
 
-        return result;
+        return results;
+    }
+
+
+    /**
+     * Send a single {@link RbacCheckAccessRequest} over the given connection.
+     */
+    private boolean checkAccess( LdapConnection ld, Session session, Permission perm ) throws LdapException
+    {
+        RbacCheckAccessRequest rbacCheckAccessRequest = new RbacCheckAccessRequestImpl();
+        rbacCheckAccessRequest.setSessionId( session.getSessionId() );
+        rbacCheckAccessRequest.setObject( perm.getObjName() );
+
+        // objectId is optional
+        if ( StringUtils.isNotEmpty( perm.getObjId() ) )
+        {
+            rbacCheckAccessRequest.setObjectId( perm.getObjId() );
+        }
+
+        rbacCheckAccessRequest.setOperation( perm.getOpName() );
+        // Send the request
+        RbacCheckAccessResponse rbacCheckAccessResponse = ( RbacCheckAccessResponse ) ld.extended(
+            rbacCheckAccessRequest );
+        LOG.debug( "checkAccess result: {}", rbacCheckAccessResponse.getLdapResult().getResultCode() );
+
+        return rbacCheckAccessResponse.getLdapResult().getResultCode() == ResultCodeEnum.SUCCESS;
     }
 
 
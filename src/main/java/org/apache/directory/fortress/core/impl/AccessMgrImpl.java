@@ -23,13 +23,19 @@ package org.apache.directory.fortress.core.impl;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.directory.fortress.annotation.AdminPermissionOperation;
 import org.apache.directory.fortress.core.AccessMgr;
 import org.apache.directory.fortress.core.GlobalErrIds;
+import org.apache.directory.fortress.core.GlobalIds;
 import org.apache.directory.fortress.core.SecurityException;
 import org.apache.directory.fortress.core.model.*;
+import org.apache.directory.fortress.core.util.Config;
 import org.apache.directory.fortress.core.util.VUtil;
 
 
@@ -164,6 +170,33 @@ public class AccessMgrImpl extends Manageable implements AccessMgr, Serializable
     }
 
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @AdminPermissionOperation
+    public boolean[] checkAccess( Session session, List<Permission> perms )
+        throws SecurityException
+    {
+        String methodName = "checkAccess";
+        assertContext( CLS_NM, methodName, session, GlobalErrIds.USER_SESS_NULL );
+        VUtil.assertNotNull( perms, GlobalErrIds.PERM_NULL, getFullMethodName( CLS_NM, methodName ) );
+
+        for ( Permission perm : perms )
+        {
+            assertContext( CLS_NM, methodName, perm, GlobalErrIds.PERM_NULL );
+            VUtil.assertNotNullOrEmpty( perm.getOpName(), GlobalErrIds.PERM_OPERATION_NULL,
+                getFullMethodName( CLS_NM, methodName ) );
+            VUtil.assertNotNullOrEmpty( perm.getObjName(), GlobalErrIds.PERM_OBJECT_NULL,
+                getFullMethodName( CLS_NM, methodName ) );
+        }
+        VUtil.getInstance().validateConstraints( session, VUtil.ConstraintType.USER, false );
+        VUtil.getInstance().validateConstraints( session, VUtil.ConstraintType.ROLE, false );
+        setEntitySession(CLS_NM, methodName, session);
+        return permP.checkPermissions( session, perms );
+    }
+
+
     /**
      * {@inheritDoc}
      */
@@ -351,6 +384,7 @@ public class AccessMgrImpl extends Manageable implements AccessMgr, Serializable
         if ( indx != -1 )
         {
             activatedRoles.remove( role );
+            session.clearAuthorizedRoles();
         }
         else
         {
@@ -384,4 +418,105 @@ public class AccessMgrImpl extends Manageable implements AccessMgr, Serializable
 
         return session.getUser();
     }
+
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The call is run on one of a fixed set of threads shared by the asynchronous calls, sized by fortress config param,
+     * 'access.async.threads'.
+     */
+    @Override
+    public CompletableFuture<Session> authenticateAsync( String userId, String password )
+    {
+        return submit( () -> authenticate( userId, password ) );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The call is run on one of a fixed set of threads shared by the asynchronous calls, sized by fortress config param,
+     * 'access.async.threads'.
+     */
+    @Override
+    public CompletableFuture<Session> createSessionAsync( User user, boolean isTrusted )
+    {
+        return submit( () -> createSession( user, isTrusted ) );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The call is run on one of a fixed set of threads shared by the asynchronous calls, sized by fortress config param,
+     * 'access.async.threads'.
+     */
+    @Override
+    public CompletableFuture<Boolean> checkAccessAsync( Session session, Permission perm )
+    {
+        return submit( () -> checkAccess( session, perm ) );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The call is run on one of a fixed set of threads shared by the asynchronous calls, sized by fortress config param,
+     * 'access.async.threads'.
+     */
+    @Override
+    public CompletableFuture<List<Permission>> sessionPermissionsAsync( Session session )
+    {
+        return submit( () -> sessionPermissions( session ) );
+    }
+
+
+    /**
+     * Run a call on the threads shared by every asynchronous call.  There are as many of them as there are connections in the
+     * ldap pool, fortress config param, 'access.async.threads' (default 'max.admin.conn'), so calls beyond that wait in a queue
+     * rather than holding a thread, or the caller's, while they wait for a connection.
+     *
+     * @param call to be run.
+     * @return future that completes with the call's result or exception.
+     */
+    private static <T> CompletableFuture<T> submit( Call<T> call )
+    {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Async.EXECUTOR.execute( () ->
+        {
+            try
+            {
+                future.complete( call.call() );
+            }
+            catch ( Throwable t )
+            {
+                // anything left uncaught would be lost on the executor's thread and the future never completed:
+                future.completeExceptionally( t );
+            }
+        } );
+        return future;
+    }
+
+
+    private interface Call<T>
+    {
+        T call() throws SecurityException;
+    }
+
+
+    /**
+     * Holds the executor so its threads are started on first use.
+     */
+    private static final class Async
+    {
+        private static final AtomicInteger COUNT = new AtomicInteger();
+        private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool( Config.getInstance().getInt(
+            "access.async.threads", Config.getInstance().getInt( GlobalIds.LDAP_ADMIN_POOL_MAX, 10 ) ), runnable ->
+        {
+            Thread thread = new Thread( runnable, "fortress-access-" + COUNT.incrementAndGet() );
+            thread.setDaemon( true );
+            return thread;
+        } );
+    }
 }
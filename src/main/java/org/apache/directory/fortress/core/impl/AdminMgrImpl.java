@@ -939,8 +939,9 @@ public final class AdminMgrImpl extends Manageable implements AdminMgr, Serializ
             // default cardinality == 2
             ssdSet.setCardinality( 2 );
         }
-        clearSSDCache( ssdSet );
-        return sdP.add( ssdSet );
+        SDSet entity = sdP.add( ssdSet );
+        clearSSDCache();
+        return entity;
     }
 
 
@@ -954,7 +955,9 @@ public final class AdminMgrImpl extends Manageable implements AdminMgr, Serializ
         assertContext( CLS_NM, methodName, ssdSet, GlobalErrIds.SSD_NULL );
         setEntitySession( CLS_NM, methodName, ssdSet );
         ssdSet.setType( SDSet.SDType.STATIC );
-        return sdP.update( ssdSet );
+        SDSet entity = sdP.update( ssdSet );
+        clearSSDCache();
+        return entity;
     }
 
 
@@ -975,7 +978,7 @@ public final class AdminMgrImpl extends Manageable implements AdminMgr, Serializ
         setAdminData( CLS_NM, methodName, entity );
         SDSet ssdOut = sdP.update( entity );
         // remove any references to the old SSD from cache:
-        clearSSDCache( role );
+        clearSSDCache();
         return ssdOut;
     }
 
@@ -1003,7 +1006,7 @@ public final class AdminMgrImpl extends Manageable implements AdminMgr, Serializ
         setAdminData( CLS_NM, methodName, entity );
         SDSet ssdOut = sdP.update( entity );
         // remove any references to the old SSD from cache:
-        clearSSDCache( role );
+        clearSSDCache();
         return ssdOut;
     }
 
@@ -1019,39 +1022,20 @@ public final class AdminMgrImpl extends Manageable implements AdminMgr, Serializ
         assertContext( CLS_NM, methodName, ssdSet, GlobalErrIds.SSD_NULL );
         setEntitySession( CLS_NM, methodName, ssdSet );
         ssdSet.setType( SDSet.SDType.STATIC );
+        SDSet entity = sdP.delete( ssdSet );
         // remove any references to the old SSD from cache:
-        clearSSDCache( ssdSet );
-        return sdP.delete( ssdSet );
+        clearSSDCache();
+        return entity;
     }
 
 
     /**
-     * Clear the SSD cache entries that correspond to this SSD
-     *
-     * @param ssdSet
-     * @throws SecurityException
-     */
-    private void clearSSDCache( SDSet ssdSet )
-    {
-        if ( ssdSet.getMembers() != null )
-        {
-            for ( String roleName : ssdSet.getMembers() )
-            {
-                SDUtil.getInstance().clearSsdCacheEntry( roleName, contextId );
-            }
-        }
-    }
-
-
-    /**
-     * Clear the SSD cache entries that correspond to this Role.
-     *
-     * @param role
-     * @throws SecurityException
+     * Clear the SSD index of this tenant.  Called after the write so a reader can't rebuild it from the prior data, and regardless
+     * of the set's members, which callers may not have supplied.
      */
-    private void clearSSDCache( Role role )
+    private void clearSSDCache()
     {
-        SDUtil.getInstance().clearSsdCacheEntry( role.getName(), contextId );
+        SDUtil.getInstance().clearSsdCacheEntry( null, contextId );
     }
 
 
@@ -1067,9 +1051,10 @@ public final class AdminMgrImpl extends Manageable implements AdminMgr, Serializ
         setEntitySession( CLS_NM, methodName, ssdSet );
         ssdSet.setType( SDSet.SDType.STATIC );
         ssdSet.setCardinality( cardinality );
+        SDSet entity = sdP.update( ssdSet );
         // remove any references to the old SSD from cache:
-        clearSSDCache( ssdSet );
-        return sdP.update( ssdSet );
+        clearSSDCache();
+        return entity;
     }
 
 
@@ -1089,7 +1074,10 @@ public final class AdminMgrImpl extends Manageable implements AdminMgr, Serializ
             // default cardinality == 2
             dsdSet.setCardinality( 2 );
         }
-        return sdP.add( dsdSet );
+        SDSet entity = sdP.add( dsdSet );
+        // its members may already be cached as belonging to no DSD:
+        clearDSDCache( dsdSet );
+        return entity;
     }
 
 
@@ -1103,7 +1091,9 @@ public final class AdminMgrImpl extends Manageable implements AdminMgr, Serializ
         assertContext( CLS_NM, methodName, dsdSet, GlobalErrIds.DSD_NULL );
         setEntitySession( CLS_NM, methodName, dsdSet );
         dsdSet.setType( SDSet.SDType.DYNAMIC );
-        return sdP.update( dsdSet );
+        SDSet entity = sdP.update( dsdSet );
+        clearDSDCache( dsdSet );
+        return entity;
     }
 
 
@@ -1168,9 +1158,10 @@ public final class AdminMgrImpl extends Manageable implements AdminMgr, Serializ
         assertContext( CLS_NM, methodName, dsdSet, GlobalErrIds.DSD_NULL );
         setEntitySession( CLS_NM, methodName, dsdSet );
         dsdSet.setType( SDSet.SDType.DYNAMIC );
+        SDSet entity = sdP.delete( dsdSet );
         // remove any references to the old DSD from cache:
         clearDSDCache( dsdSet );
-        return sdP.delete( dsdSet );
+        return entity;
     }
 
 
@@ -1186,9 +1177,10 @@ public final class AdminMgrImpl extends Manageable implements AdminMgr, Serializ
         setEntitySession( CLS_NM, methodName, dsdSet );
         dsdSet.setType( SDSet.SDType.DYNAMIC );
         dsdSet.setCardinality( cardinality );
+        SDSet entity = sdP.update( dsdSet );
         // remove any references to the old DSD from cache:
         clearDSDCache( dsdSet );
-        return sdP.update( dsdSet );
+        return entity;
     }
 
 
@@ -425,7 +425,7 @@ final class AdminRoleDAO extends LdapDataProvider implements PropertyProvider<Ad
 
         try
         {
-            ld = getAdminConnection();
+            ld = getReadConnection();
             Entry findEntry = read( ld, dn, ROLE_ATRS );
             if ( findEntry != null )
             {
@@ -450,7 +450,7 @@ final class AdminRoleDAO extends LdapDataProvider implements PropertyProvider<Ad
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
 
         return entity;
@@ -475,7 +475,7 @@ final class AdminRoleDAO extends LdapDataProvider implements PropertyProvider<Ad
             String searchVal = encodeSafeText( adminRole.getName(), GlobalIds.ROLE_LEN );
             filter = GlobalIds.FILTER_PREFIX + GlobalIds.ROLE_OBJECT_CLASS_NM + ")("
                 + ROLE_NM + "=" + searchVal + "*))";
-            ld = getAdminConnection();
+            ld = getReadConnection();
             SearchCursor searchResults = search( ld, roleRoot,
                 SearchScope.ONELEVEL, filter, ROLE_ATRS, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
@@ -497,7 +497,7 @@ final class AdminRoleDAO extends LdapDataProvider implements PropertyProvider<Ad
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
 
         return roleList;
@@ -524,7 +524,7 @@ final class AdminRoleDAO extends LdapDataProvider implements PropertyProvider<Ad
             searchVal = encodeSafeText( adminRole.getName(), GlobalIds.ROLE_LEN );
             filter = GlobalIds.FILTER_PREFIX + GlobalIds.ROLE_OBJECT_CLASS_NM + ")("
                 + ROLE_NM + "=" + searchVal + "*))";
-            ld = getAdminConnection();
+            ld = getReadConnection();
             SearchCursor searchResults = search( ld, roleRoot,
                 SearchScope.ONELEVEL, filter, ROLE_NM_ATR, false, limit );
 
@@ -546,7 +546,7 @@ final class AdminRoleDAO extends LdapDataProvider implements PropertyProvider<Ad
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
 
         return roleList;
@@ -568,7 +568,7 @@ final class AdminRoleDAO extends LdapDataProvider implements PropertyProvider<Ad
         {
             String filter = GlobalIds.FILTER_PREFIX + GlobalIds.ROLE_OBJECT_CLASS_NM + ")";
             filter += "(" + ROLE_OCCUPANT + "=" + userDn + "))";
-            ld = getAdminConnection();
+            ld = getReadConnection();
             SearchCursor searchResults = search( ld, roleRoot,
                 SearchScope.ONELEVEL, filter, ROLE_NM_ATR, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
 
@@ -589,7 +589,7 @@ final class AdminRoleDAO extends LdapDataProvider implements PropertyProvider<Ad
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
 
         return roleNameList;
@@ -616,7 +616,7 @@ final class AdminRoleDAO extends LdapDataProvider implements PropertyProvider<Ad
         {
             filter = GlobalIds.FILTER_PREFIX + GlobalIds.ROLE_OBJECT_CLASS_NM + ")("
                 + GlobalIds.PARENT_NODES + "=*))";
-            ld = getAdminConnection();
+            ld = getReadConnection();
             SearchCursor searchResults = search( ld, roleRoot,
                 SearchScope.ONELEVEL, filter, DESC_ATRS, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
@@ -638,7 +638,7 @@ final class AdminRoleDAO extends LdapDataProvider implements PropertyProvider<Ad
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
 
         return descendants;
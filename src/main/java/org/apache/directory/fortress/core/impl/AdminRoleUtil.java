@@ -20,22 +20,20 @@
 package org.apache.directory.fortress.core.impl;
 
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
 
 import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.lang.StringUtils;
-import org.apache.directory.fortress.core.GlobalIds;
 import org.apache.directory.fortress.core.SecurityException;
 import org.apache.directory.fortress.core.ValidationException;
 import org.apache.directory.fortress.core.model.AdminRole;
 import org.apache.directory.fortress.core.model.Graphable;
 import org.apache.directory.fortress.core.model.Hier;
 import org.apache.directory.fortress.core.model.Relationship;
+import org.apache.directory.fortress.core.model.Session;
 import org.apache.directory.fortress.core.model.UserAdminRole;
-import org.apache.directory.fortress.core.util.cache.Cache;
-import org.apache.directory.fortress.core.util.cache.CacheMgr;
 import org.jgrapht.graph.SimpleDirectedGraph;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -43,7 +41,7 @@ import org.slf4j.LoggerFactory;
 
 /**
  * This utility wraps {@link org.apache.directory.fortress.core.impl.HierUtil} methods to provide hierarchical functionality for the {@link org.apache.directory.fortress.core.model.AdminRole} data set.
- * The child to parent relationships are stored within a data cache, {@link #adminRoleCache}, contained within this class.  The parent-child edges are contained in LDAP,
+ * The child to parent relationships are stored within {@link HierSnapshots}, {@link #graphs}, contained within this class.  The parent-child edges are contained in LDAP,
  * in {@code ftParents} attribute.  The ldap data is retrieved {@link org.apache.directory.fortress.core.impl.AdminRoleP#getAllDescendants(String)} and loaded into {@code org.jgrapht.graph.SimpleDirectedGraph}.
  * The graph...
  * <ol>
@@ -63,20 +61,14 @@ import org.slf4j.LoggerFactory;
  */
 final class AdminRoleUtil
 {
-    private static final Cache adminRoleCache;
     private static final AdminRoleP adminRoleP = new AdminRoleP();
-    private static final String CLS_NM = AdminRoleUtil.class.getName();
-    private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
-
     /**
-     * Initialize the AdminRole hierarchies.  This will read the {@link org.apache.directory.fortress.core.model.Hier} data set from ldap and load into
+     * Holds the AdminRole hierarchies.  The {@link org.apache.directory.fortress.core.model.Hier} data set is read from ldap and loaded into
      * the JGraphT simple digraph that referenced statically within this class.
      */
-    static
-    {
-        CacheMgr cacheMgr = CacheMgr.getInstance();
-        adminRoleCache = cacheMgr.getCache( "fortress.admin.roles" );
-    }
+    private static final HierSnapshots graphs = new HierSnapshots( HierUtil.Type.ARLE, AdminRoleUtil::loadGraph, false );
+    private static final String CLS_NM = AdminRoleUtil.class.getName();
+    private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
 
     /**
      * Private constructor
@@ -198,6 +190,29 @@ final class AdminRoleUtil
     }
 
 
+    /**
+     * Return Set of {@link org.apache.directory.fortress.core.model.AdminRole#name}s authorized for a session, its activated adminRoles
+     * along with their ascendants.  The set is computed once and stored on the {@link Session}, where it is reused until adminRoles
+     * are activated or deactivated or the hierarchy changes.
+     *
+     * @param session contains list of adminRoles activated within a {@link org.apache.directory.fortress.core.model.User}'s session.
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @return contains unmodifiable Set of all authorized adminRoles for the session.
+     */
+    static Set<String> getAuthorizedRoles( Session session, String contextId )
+    {
+        // read the stamp before computing so a concurrent update leaves the result stale rather than wrong:
+        long stamp = graphs.getGeneration( contextId );
+        Set<String> iRoles = session.getAuthorizedAdminRoles( contextId, stamp );
+        if ( iRoles == null )
+        {
+            iRoles = Collections.unmodifiableSet( getInheritedRoles( session.getAdminRoles(), contextId ) );
+            session.setAuthorizedAdminRoles( iRoles, contextId, stamp );
+        }
+        return iRoles;
+    }
+
+
     /**
      * This api is used by {@link DelAdminMgrImpl} to determine parentage for Hierarchical ARBAC processing.
      * It calls {@link HierUtil#validateRelationship(org.jgrapht.graph.SimpleDirectedGraph, String, String, boolean)} to evaluate three adminRole relationship expressions:
@@ -224,7 +239,7 @@ final class AdminRoleUtil
 
     /**
      * This api allows synchronized access to allow updates to hierarchical relationships.
-     * Method will update the hierarchical data set and reload the JGraphT simple digraph with latest.
+     * Method will apply the update to a copy of the JGraphT simple digraph and publish it in place of the current one.
      *
      * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
      * @param relationship contains parent-child relationship targeted for addition.
@@ -233,40 +248,21 @@ final class AdminRoleUtil
      */
     static void updateHier( String contextId, Relationship relationship, Hier.Op op ) throws SecurityException
     {
-        HierUtil.updateHier( getGraph( contextId ), relationship, op );
+        graphs.updateHier( contextId, relationship, op );
+        // a remembered grant may rest on an inheritance that just changed:
+        AdminUtil.clearDecisionCache();
     }
 
 
     /**
-     * Read this ldap record,{@code cn=Hierarchies, ou=OS-P} into this entity, {@link Hier}, before loading into this collection class,{@code org.jgrapht.graph.SimpleDirectedGraph}
-     * using 3rd party lib, <a href="http://www.jgrapht.org/">JGraphT</a>.
+     * Drop the tenant's hierarchy so it's read again from ldap on next use.
      *
      * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
-     * @return handle to simple digraph containing adminRole hierarchies.
      */
-    private static synchronized SimpleDirectedGraph<String, Relationship> loadGraph( String contextId )
+    static void clear( String contextId )
     {
-        Hier inHier = new Hier( Hier.Type.ROLE );
-        inHier.setContextId( contextId );
-        LOG.info( "loadGraph initializing ADMIN ROLE context [{}]", inHier.getContextId() );
-        List<Graphable> descendants = null;
-
-        try
-        {
-            descendants = adminRoleP.getAllDescendants( inHier.getContextId() );
-        }
-        catch ( SecurityException se )
-        {
-            LOG.info( "loadGraph caught SecurityException={}", se );
-        }
-
-        Hier hier = HierUtil.loadHier( contextId, descendants );
-        SimpleDirectedGraph<String, Relationship> graph;
-
-        graph = HierUtil.buildGraph( hier );
-        adminRoleCache.put( getKey( contextId ), graph );
-
-        return graph;
+        graphs.clear( contextId );
+        AdminUtil.clearDecisionCache();
     }
 
 
@@ -276,38 +272,26 @@ final class AdminRoleUtil
      *
      * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
      * @return handle to simple digraph containing adminRole hierarchies.
+     * @throws SecurityException in the event of a system error.
      */
-    private static SimpleDirectedGraph<String, Relationship> getGraph( String contextId )
+    private static SimpleDirectedGraph<String, Relationship> loadGraph( String contextId ) throws SecurityException
     {
-        String key = getKey( contextId );        
-        LOG.debug("Getting graph for key " + contextId);
-         
-        SimpleDirectedGraph<String, Relationship> graph = ( SimpleDirectedGraph<String, Relationship> ) adminRoleCache
-                 .get( key );
-             
-        if(graph == null){
-            LOG.debug("Graph was null, creating... " + contextId);
-            return loadGraph( contextId );
-        }
-        else{
-            LOG.debug("Graph found in cache, returning...");
-            return graph;
-        }
+        Hier inHier = new Hier( Hier.Type.ROLE );
+        inHier.setContextId( contextId );
+        LOG.info( "loadGraph initializing ADMIN ROLE context [{}]", inHier.getContextId() );
+        List<Graphable> descendants = adminRoleP.getAllDescendants( inHier.getContextId() );
+        Hier hier = HierUtil.loadHier( contextId, descendants );
+        return HierUtil.buildGraph( hier );
     }
 
 
     /**
      *
      * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
-     * @return containing key to cache entry for this tenant.
+     * @return handle to simple digraph containing adminRole hierarchies.
      */
-    private static String getKey( String contextId )
+    private static SimpleDirectedGraph<String, Relationship> getGraph( String contextId )
     {
-        String key = HierUtil.Type.ARLE.toString();
-        if ( StringUtils.isNotEmpty( contextId ) && !contextId.equalsIgnoreCase( GlobalIds.NULL ) )
-        {
-            key += ":" + contextId;
-        }
-        return key;
+        return graphs.getGraph( contextId );
     }
 }
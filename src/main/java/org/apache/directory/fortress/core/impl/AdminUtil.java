@@ -19,23 +19,45 @@
  */
 package org.apache.directory.fortress.core.impl;
 
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.lang.StringUtils;
 import org.apache.directory.fortress.core.DelAccessMgr;
 import org.apache.directory.fortress.core.AuthorizationException;
 import org.apache.directory.fortress.core.GlobalErrIds;
+import org.apache.directory.fortress.core.GlobalIds;
 import org.apache.directory.fortress.core.SecurityException;
 import org.apache.directory.fortress.core.DelAccessMgrFactory;
 import org.apache.directory.fortress.core.model.*;
+import org.apache.directory.fortress.core.util.Config;
+import org.apache.directory.fortress.core.util.cache.Cache;
+import org.apache.directory.fortress.core.util.cache.CacheMgr;
 
 /**
  * This class supplies static wrapper utilities to provide ARBAC functionality to Fortress internal Manager APIs.
  * The utilities within this class are all static and can not be called by code outside of Fortress.
  * <p>
+ * A single {@link DelAccessMgr} is created for each tenant and shared by every caller, as it is never given an admin session.
+ * <p>
+ * When fortress config param, 'enable.admin.decision.cache', is true, a successful administrative checkAccess is remembered for the
+ * admin session, its active admin roles, the permission and the tenant, so a bulk job run under one admin session checks each
+ * operation against the directory once per interval, rather than on every call.  Only grants are remembered.  The interval is the
+ * TTL of the 'fortress.admin.decisions' entry of the ehcache config file.  Entries are also flushed when an administrative
+ * permission or the admin role hierarchy is updated within this process.  Until an entry expires, a change made elsewhere, such as a revoked permission or a
+ * role's temporal constraint lapsing, isn't seen by a session that was already granted.
+ * <p>
  * This class is thread safe.
  *
  * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
  */
 final class AdminUtil
 {
+    private static final String FORTRESS_ADMIN_DECISIONS = "fortress.admin.decisions";
+    private static final String IS_ADMIN_DECISION_CACHE_ENABLED_PARM = "enable.admin.decision.cache";
+    private static final ConcurrentMap<String, DelAccessMgr> ACCESS_MGRS = new ConcurrentHashMap<>();
+
     /**
      * Private constructor
      *
@@ -58,7 +80,7 @@ final class AdminUtil
     {
         if (session != null)
         {
-            DelAccessMgr dAccessMgr = DelAccessMgrFactory.createInstance(contextId);
+            DelAccessMgr dAccessMgr = getDelAccessMgr(contextId);
             boolean result = dAccessMgr.canAssign(session, user, role);
             if (!result)
             {
@@ -83,7 +105,7 @@ final class AdminUtil
     {
         if (session != null)
         {
-            DelAccessMgr dAccessMgr = DelAccessMgrFactory.createInstance(contextId);
+            DelAccessMgr dAccessMgr = getDelAccessMgr(contextId);
             boolean result = dAccessMgr.canDeassign(session, user, role);
             if (!result)
             {
@@ -110,7 +132,7 @@ final class AdminUtil
     {
         if (session != null)
         {
-            DelAccessMgr dAccessMgr = DelAccessMgrFactory.createInstance(contextId);
+            DelAccessMgr dAccessMgr = getDelAccessMgr(contextId);
             boolean result = dAccessMgr.canGrant(session, role, perm);
             if (!result)
             {
@@ -136,7 +158,7 @@ final class AdminUtil
     {
         if (session != null)
         {
-            DelAccessMgr dAccessMgr = DelAccessMgrFactory.createInstance(contextId);
+            DelAccessMgr dAccessMgr = getDelAccessMgr(contextId);
             boolean result = dAccessMgr.canRevoke(session, role, perm);
             if (!result)
             {
@@ -160,7 +182,7 @@ final class AdminUtil
         if (session != null)
         {
             boolean result;
-            DelAccessMgr dAccessMgr = DelAccessMgrFactory.createInstance(contextId);
+            DelAccessMgr dAccessMgr = getDelAccessMgr(contextId);
             if(isAdd)
             {
                 result = dAccessMgr.canAdd(session, user);
@@ -227,14 +249,106 @@ final class AdminUtil
     {
         if (session != null)
         {
-            DelAccessMgr dAccessMgr = DelAccessMgrFactory.createInstance(contextId);
-            boolean result = dAccessMgr.checkAccess(session, perm);
-            if (!result)
+            Cache cache = DecisionCacheHolder.CACHE;
+            if (cache == null)
+            {
+                checkDelAccess(session, perm, contextId);
+                return;
+            }
+            String key = getDecisionKey(session, perm, contextId);
+            if (cache.get(key) != null)
+            {
+                return;
+            }
+            boolean isGranted = false;
+            try
+            {
+                checkDelAccess(session, perm, contextId);
+                isGranted = true;
+            }
+            finally
+            {
+                // the underlying cache blocks other readers of the key after a miss, always put to release it:
+                cache.put(key, isGranted ? Boolean.TRUE : null);
+            }
+        }
+    }
+
+    /**
+     * Remove every remembered administrative decision.  Called when an administrative permission or the admin role hierarchy is
+     * updated.
+     */
+    static void clearDecisionCache()
+    {
+        Cache cache = DecisionCacheHolder.CACHE;
+        if (cache != null)
+        {
+            cache.flush();
+        }
+    }
+
+    private static void checkDelAccess(Session session, Permission perm, String contextId) throws SecurityException
+    {
+        DelAccessMgr dAccessMgr = getDelAccessMgr(contextId);
+        boolean result = dAccessMgr.checkAccess(session, perm);
+        if (!result)
+        {
+            String info = "checkAccess failed for user [" + session.getUserId() + "] object [" + perm.getObjName() + "] operation [" + perm.getOpName() + "]";
+            throw new AuthorizationException(GlobalErrIds.USER_ADMIN_NOT_AUTHORIZED, info);
+        }
+    }
+
+    /**
+     * Return the tenant's DelAccessMgr, creating it on first use.
+     *
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @return instance of {@link DelAccessMgr} without an admin session.
+     * @throws SecurityException in the event of failure during instantiation.
+     */
+    private static DelAccessMgr getDelAccessMgr(String contextId) throws SecurityException
+    {
+        String key = contextId == null ? GlobalIds.NULL : contextId;
+        DelAccessMgr dAccessMgr = ACCESS_MGRS.get(key);
+        if (dAccessMgr == null)
+        {
+            // a duplicate may be created by a racing caller, only one is kept:
+            DelAccessMgr created = DelAccessMgrFactory.createInstance(contextId);
+            dAccessMgr = ACCESS_MGRS.putIfAbsent(key, created);
+            if (dAccessMgr == null)
+            {
+                dAccessMgr = created;
+            }
+        }
+        return dAccessMgr;
+    }
+
+    /**
+     * The decision depends on who the session belongs to and which admin roles it has activated, as well as the permission.
+     */
+    private static String getDecisionKey(Session session, Permission perm, String contextId)
+    {
+        StringBuilder key = new StringBuilder();
+        key.append(contextId).append(':').append(StringUtils.defaultString(session.getSessionId())).append(':')
+            .append(session.getUserId()).append(':').append(perm.getObjName()).append(':')
+            .append(StringUtils.defaultString(perm.getObjId())).append(':').append(perm.getOpName());
+        List<UserAdminRole> adminRoles = session.getAdminRoles();
+        if (adminRoles != null)
+        {
+            for (UserAdminRole adminRole : adminRoles)
             {
-                String info = "checkAccess failed for user [" + session.getUserId() + "] object [" + perm.getObjName() + "] operation [" + perm.getOpName() + "]";
-                throw new AuthorizationException(GlobalErrIds.USER_ADMIN_NOT_AUTHORIZED, info);
+                key.append(':').append(adminRole.getName());
             }
         }
+        return key.toString().toLowerCase();
+    }
+
+    /**
+     * Holds the decision cache, created the first time an administrative permission is checked.  Null unless enabled.
+     */
+    private static final class DecisionCacheHolder
+    {
+        private static final Cache CACHE = Config.getInstance().getBoolean(IS_ADMIN_DECISION_CACHE_ENABLED_PARM, false)
+            ? CacheMgr.getInstance().getCache(FORTRESS_ADMIN_DECISIONS) : null;
     }
 
     /**
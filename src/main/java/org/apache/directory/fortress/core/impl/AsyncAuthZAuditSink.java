@@ -0,0 +1,629 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.directory.api.ldap.model.entry.DefaultAttribute;
+import org.apache.directory.api.ldap.model.exception.LdapException;
+import org.apache.directory.api.ldap.model.exception.LdapInvalidDnException;
+import org.apache.directory.api.ldap.model.exception.LdapNoSuchObjectException;
+import org.apache.directory.api.ldap.model.exception.LdapOperationException;
+import org.apache.directory.api.ldap.model.message.ResultCodeEnum;
+import org.apache.directory.fortress.core.GlobalIds;
+import org.apache.directory.fortress.core.ldap.LdapDataProvider;
+import org.apache.directory.fortress.core.util.Config;
+import org.apache.directory.ldap.client.api.LdapConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Authorization audit sink that moves the ldap compare off of the checkAccess path.  Events are placed on a bounded queue and a
+ * background thread drains them in batches, performing the compares over connections borrowed from the log pool.  The log user,
+ * 'log.admin.user', must be permitted to assert the end user's identity with the proxy authorization control on the permission
+ * subtree, just as the admin user is for the inline compare.
+ * <p>
+ * The sink is configured with these fortress config params:
+ * <ul>
+ * <li>'authz.audit.queue.size' - maximum number of events waiting to be written, default 10000.</li>
+ * <li>'authz.audit.batch.size' - maximum number of compares performed per log connection borrowed, default 100.</li>
+ * <li>'authz.audit.overflow' - what happens when the queue is full: 'block' the caller until there's room, 'drop' the event and
+ * count it, or 'spill' it to a local file, default is drop.</li>
+ * <li>'authz.audit.spill.file' - file spilled events are appended to, default is fortress-authz-audit.spill in java.io.tmpdir.</li>
+ * <li>'authz.audit.spill.max.mb' - once the spill file reaches this many megabytes further events are dropped, default 100.</li>
+ * <li>'authz.audit.replay.attempts' - number of times a spilled event is replayed before it's dropped, default 10.</li>
+ * </ul>
+ * An event the server refuses, e.g. because its dn is malformed, is skipped and counted as failed.  With the spill policy, events
+ * that can't be written because the ldap server is unavailable are spilled, and otherwise dropped.  The spill file is replayed
+ * whenever the queue has been idle for a second, so an event may be written more than once if the process stops during a replay.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class AsyncAuthZAuditSink extends LdapDataProvider implements AuthZAuditSink
+{
+    private static final String CLS_NM = AsyncAuthZAuditSink.class.getName();
+    private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
+    private static final String QUEUE_SIZE_PARM = "authz.audit.queue.size";
+    private static final String BATCH_SIZE_PARM = "authz.audit.batch.size";
+    private static final String OVERFLOW_PARM = "authz.audit.overflow";
+    private static final String SPILL_FILE_PARM = "authz.audit.spill.file";
+    private static final String SPILL_MAX_SIZE_PARM = "authz.audit.spill.max.mb";
+    private static final String REPLAY_ATTEMPTS_PARM = "authz.audit.replay.attempts";
+    private static final String SPILL_FILE_NAME = "fortress-authz-audit.spill";
+    private static final String REPLAY_SUFFIX = ".replay";
+    private static final String SEPARATOR = "\t";
+    private static final long IDLE_MILLIS = 1000;
+
+    /**
+     * Action taken when an event arrives and the queue is full.
+     */
+    enum Overflow
+    {
+        BLOCK,
+        DROP,
+        SPILL
+    }
+
+    private final BlockingQueue<AuditEvent> queue;
+    private final int batchSize;
+    private final Overflow overflow;
+    private final File spillFile;
+    private final long maxSpillSize;
+    private final int maxAttempts;
+    private final Object spillLock = new Object();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong spilled = new AtomicLong();
+
+
+    /**
+     * Read the config and start the worker thread.  Called once by {@link PermDAO}.
+     */
+    public AsyncAuthZAuditSink()
+    {
+        this( Config.getInstance().getInt( QUEUE_SIZE_PARM, 10000 ), Config.getInstance().getInt( BATCH_SIZE_PARM, 100 ),
+            getOverflow( Config.getInstance().getProperty( OVERFLOW_PARM, Overflow.DROP.name() ) ), new File( Config
+                .getInstance().getProperty( SPILL_FILE_PARM, System.getProperty( "java.io.tmpdir" ) + File.separator
+                + SPILL_FILE_NAME ) ), Config.getInstance().getInt( SPILL_MAX_SIZE_PARM, 100 ) * 1024L * 1024, Config
+                .getInstance().getInt( REPLAY_ATTEMPTS_PARM, 10 ) );
+        LOG.info( "AsyncAuthZAuditSink queue size [{}], batch size [{}], overflow [{}]", queue.remainingCapacity(), batchSize,
+            overflow );
+
+        Thread worker = new Thread( this::drain, "fortress-authz-audit" );
+        worker.setDaemon( true );
+        worker.start();
+    }
+
+
+    /**
+     * Create a sink without starting the worker thread, used by the tests to drive it one step at a time.
+     */
+    AsyncAuthZAuditSink( int queueSize, int batchSize, Overflow overflow, File spillFile, long maxSpillSize, int maxAttempts )
+    {
+        this.queue = new ArrayBlockingQueue<>( Math.max( 1, queueSize ) );
+        this.batchSize = Math.max( 1, batchSize );
+        this.overflow = overflow;
+        this.spillFile = spillFile;
+        this.maxSpillSize = maxSpillSize;
+        this.maxAttempts = Math.max( 1, maxAttempts );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void audit( String permDn, String userDn, String attributeValue )
+    {
+        AuditEvent event = new AuditEvent( permDn, userDn, attributeValue, 0 );
+        switch ( overflow )
+        {
+            case BLOCK:
+                try
+                {
+                    queue.put( event );
+                }
+                catch ( InterruptedException ie )
+                {
+                    Thread.currentThread().interrupt();
+                    drop( 1 );
+                }
+                break;
+
+            case SPILL:
+                if ( !queue.offer( event ) )
+                {
+                    List<AuditEvent> events = new ArrayList<>( 1 );
+                    events.add( event );
+                    spill( events );
+                }
+                break;
+
+            default:
+                if ( !queue.offer( event ) )
+                {
+                    drop( 1 );
+                }
+                break;
+        }
+    }
+
+
+    /**
+     * Return the number of events written to the ldap server.
+     *
+     * @return long value contains count since the sink was created.
+     */
+    public long getWritten()
+    {
+        return written.get();
+    }
+
+
+    /**
+     * Return the number of events skipped because the ldap server rejected them.
+     *
+     * @return long value contains count since the sink was created.
+     */
+    public long getFailed()
+    {
+        return failed.get();
+    }
+
+
+    /**
+     * Return the number of events that were discarded, because the queue was full, the ldap server couldn't be reached, the spill
+     * file was full or the event had been replayed too many times.
+     *
+     * @return long value contains count since the sink was created.
+     */
+    public long getDropped()
+    {
+        return dropped.get();
+    }
+
+
+    /**
+     * Return the number of events appended to the spill file.
+     *
+     * @return long value contains count since the sink was created.
+     */
+    public long getSpilled()
+    {
+        return spilled.get();
+    }
+
+
+    /**
+     * Worker loop, runs until the process exits.
+     */
+    private void drain()
+    {
+        while ( !Thread.currentThread().isInterrupted() )
+        {
+            try
+            {
+                step( IDLE_MILLIS );
+            }
+            catch ( InterruptedException ie )
+            {
+                Thread.currentThread().interrupt();
+            }
+            catch ( RuntimeException re )
+            {
+                LOG.error( "drain caught RuntimeException={}", re.getMessage(), re );
+            }
+        }
+        LOG.info( "drain stopped, written [{}], failed [{}], dropped [{}], spilled [{}]", written.get(), failed.get(),
+            dropped.get(), spilled.get() );
+    }
+
+
+    /**
+     * Write the next batch from the queue, or replay the spill file if nothing arrives in time.
+     *
+     * @param waitMillis how long to wait for an event.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    void step( long waitMillis ) throws InterruptedException
+    {
+        AuditEvent event = queue.poll( waitMillis, TimeUnit.MILLISECONDS );
+        if ( event == null )
+        {
+            replay();
+        }
+        else
+        {
+            List<AuditEvent> batch = new ArrayList<>( batchSize );
+            batch.add( event );
+            queue.drainTo( batch, batchSize - 1 );
+            write( batch );
+        }
+    }
+
+
+    /**
+     * Perform the compares for a batch of events on a single log connection.  An event the server rejects is skipped.  If the
+     * connection fails, the events not yet written are spilled or dropped, according to the overflow policy.
+     *
+     * @param batch contains the events to write.
+     * @return boolean value, false if the connection failed.
+     */
+    private boolean write( List<AuditEvent> batch )
+    {
+        if ( batch.isEmpty() )
+        {
+            return true;
+        }
+
+        LdapConnection ld = null;
+        int i = 0;
+        try
+        {
+            ld = borrow();
+            for ( ; i < batch.size(); i++ )
+            {
+                AuditEvent event = batch.get( i );
+                try
+                {
+                    compare( ld, event );
+                    written.incrementAndGet();
+                }
+                catch ( LdapNoSuchObjectException e )
+                {
+                    // the permission was removed after the check, same as the inline compare there's nothing to record.
+                    written.incrementAndGet();
+                }
+                catch ( LdapException | UnsupportedEncodingException e )
+                {
+                    if ( !isEventError( e ) )
+                    {
+                        throw e;
+                    }
+                    fail( event, e );
+                }
+            }
+            return true;
+        }
+        catch ( LdapException | UnsupportedEncodingException e )
+        {
+            LOG.warn( "write caught {}={}, [{}] events not written", e.getClass().getSimpleName(), e.getMessage(),
+                batch.size() - i );
+            retry( batch.subList( i, batch.size() ) );
+            return false;
+        }
+        finally
+        {
+            if ( ld != null )
+            {
+                release( ld );
+            }
+        }
+    }
+
+
+    /**
+     * Borrow the connection used for a batch.
+     *
+     * @return connection from the log pool.
+     * @throws LdapException if the pool can't supply one.
+     */
+    LdapConnection borrow() throws LdapException
+    {
+        return getLogConnection();
+    }
+
+
+    /**
+     * Return a connection obtained from {@link #borrow()}.
+     *
+     * @param ld connection from the log pool.
+     */
+    void release( LdapConnection ld )
+    {
+        closeLogConnection( ld );
+    }
+
+
+    /**
+     * Write a single event.
+     *
+     * @param ld    connection from {@link #borrow()}.
+     * @param event contains the arguments of the compare.
+     * @throws LdapException if the compare fails.
+     * @throws UnsupportedEncodingException if the attribute can't be encoded.
+     */
+    void compare( LdapConnection ld, AuditEvent event ) throws LdapException, UnsupportedEncodingException
+    {
+        // The compare method uses OpenLDAP's Proxy Authorization Control to assert identity of end user onto connection:
+        compareNode( ld, event.permDn, event.userDn, new DefaultAttribute( GlobalIds.POP_NAME, event.attributeValue ) );
+    }
+
+
+    /**
+     * Events the server answers with a result code, other than busy or unavailable, will fail the same way when retried, as will
+     * those with a bad dn or value.  Anything else is taken to be a problem with the connection.
+     *
+     * @param e contains the exception thrown by the compare.
+     * @return boolean value, true if only this event is affected.
+     */
+    private static boolean isEventError( Exception e )
+    {
+        if ( e instanceof LdapOperationException )
+        {
+            ResultCodeEnum code = ( ( LdapOperationException ) e ).getResultCode();
+            return code != ResultCodeEnum.BUSY && code != ResultCodeEnum.UNAVAILABLE;
+        }
+        return e instanceof LdapInvalidDnException || e instanceof UnsupportedEncodingException;
+    }
+
+
+    /**
+     * Count an event the server rejected, logging on powers of two.
+     */
+    private void fail( AuditEvent event, Exception e )
+    {
+        long total = failed.incrementAndGet();
+        if ( Long.bitCount( total ) == 1 )
+        {
+            LOG.warn( "fail skipped event permDn [{}] userDn [{}], {}={}, total failed [{}]", event.permDn, event.userDn, e
+                .getClass().getSimpleName(), e.getMessage(), total );
+        }
+    }
+
+
+    /**
+     * Spill events that couldn't be written, dropping those that have been replayed the maximum number of times, or drop them all
+     * if the overflow policy isn't spill.
+     *
+     * @param events contains the events not written.
+     */
+    private void retry( List<AuditEvent> events )
+    {
+        if ( overflow != Overflow.SPILL )
+        {
+            drop( events.size() );
+            return;
+        }
+
+        List<AuditEvent> retries = new ArrayList<>( events.size() );
+        for ( AuditEvent event : events )
+        {
+            if ( event.attempts < maxAttempts )
+            {
+                retries.add( event );
+            }
+        }
+        drop( events.size() - retries.size() );
+        spill( retries );
+    }
+
+
+    /**
+     * Append events to the spill file, one per line, unless it has reached its maximum size.
+     *
+     * @param events contains the events that couldn't be queued or written.
+     */
+    private void spill( List<AuditEvent> events )
+    {
+        if ( events.isEmpty() )
+        {
+            return;
+        }
+
+        synchronized ( spillLock )
+        {
+            if ( spillFile.length() >= maxSpillSize )
+            {
+                LOG.warn( "spill file [{}] has reached [{}] bytes", spillFile, maxSpillSize );
+                drop( events.size() );
+                return;
+            }
+
+            try ( BufferedWriter writer = Files.newBufferedWriter( spillFile.toPath(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND ) )
+            {
+                for ( AuditEvent event : events )
+                {
+                    writer.write( event.attempts + SEPARATOR + event.permDn + SEPARATOR + event.userDn + SEPARATOR
+                        + event.attributeValue );
+                    writer.newLine();
+                }
+                spilled.addAndGet( events.size() );
+            }
+            catch ( IOException e )
+            {
+                LOG.warn( "spill caught IOException={}, file [{}]", e.getMessage(), spillFile );
+                drop( events.size() );
+            }
+        }
+    }
+
+
+    /**
+     * Write the events contained in the spill file.  The file is renamed first so new spills go to a fresh one, and the renamed file
+     * is left in place until all of its events have been written or spilled again.  Once a connection fails, the rest of the file
+     * is spilled again without trying the server.
+     */
+    private void replay()
+    {
+        if ( overflow != Overflow.SPILL )
+        {
+            return;
+        }
+
+        File replayFile = new File( spillFile.getPath() + REPLAY_SUFFIX );
+        synchronized ( spillLock )
+        {
+            if ( !replayFile.exists() && ( spillFile.length() == 0 || !spillFile.renameTo( replayFile ) ) )
+            {
+                return;
+            }
+        }
+
+        LOG.info( "replay file [{}]", replayFile );
+        List<AuditEvent> batch = new ArrayList<>( batchSize );
+        boolean isConnected = true;
+        try ( BufferedReader reader = Files.newBufferedReader( replayFile.toPath(), StandardCharsets.UTF_8 ) )
+        {
+            String line;
+            while ( ( line = reader.readLine() ) != null )
+            {
+                AuditEvent event = parse( line );
+                if ( event != null )
+                {
+                    batch.add( event );
+                }
+                if ( batch.size() == batchSize )
+                {
+                    isConnected = isConnected ? write( batch ) : skip( batch );
+                    batch.clear();
+                }
+            }
+            if ( isConnected )
+            {
+                write( batch );
+            }
+            else
+            {
+                skip( batch );
+            }
+        }
+        catch ( IOException e )
+        {
+            LOG.warn( "replay caught IOException={}, file [{}]", e.getMessage(), replayFile );
+            return;
+        }
+
+        if ( !replayFile.delete() )
+        {
+            LOG.warn( "replay could not delete file [{}]", replayFile );
+        }
+    }
+
+
+    /**
+     * Put back events read from the replay file after the connection has failed.
+     *
+     * @return false, the connection is still considered down.
+     */
+    private boolean skip( List<AuditEvent> batch )
+    {
+        retry( batch );
+        return false;
+    }
+
+
+    /**
+     * @param line contains an event written by {@link #spill(List)}.
+     * @return the event with its attempts incremented, or null if the line isn't valid.
+     */
+    private static AuditEvent parse( String line )
+    {
+        String[] fields = line.split( SEPARATOR, 4 );
+        if ( fields.length == 4 )
+        {
+            try
+            {
+                return new AuditEvent( fields[1], fields[2], fields[3], Integer.parseInt( fields[0] ) + 1 );
+            }
+            catch ( NumberFormatException e )
+            {
+                LOG.warn( "parse invalid line [{}]", line );
+            }
+        }
+        return null;
+    }
+
+
+    /**
+     * Count discarded events, logging on powers of two so a sustained overflow doesn't flood the log.
+     *
+     * @param count number of events discarded.
+     */
+    private void drop( int count )
+    {
+        if ( count > 0 )
+        {
+            long total = dropped.addAndGet( count );
+            if ( Long.bitCount( total ) == 1 || count > 1 )
+            {
+                LOG.warn( "drop total authorization audit events dropped [{}]", total );
+            }
+        }
+    }
+
+
+    /**
+     * @param value contains the overflow policy from config.
+     * @return matching policy, drop if the value isn't recognized.
+     */
+    private static Overflow getOverflow( String value )
+    {
+        try
+        {
+            return Overflow.valueOf( value.trim().toUpperCase() );
+        }
+        catch ( IllegalArgumentException e )
+        {
+            LOG.warn( "getOverflow invalid value [{}] for [{}], using [{}]", value, OVERFLOW_PARM, Overflow.DROP );
+            return Overflow.DROP;
+        }
+    }
+
+
+    /**
+     * Contains the arguments of a single compare, and the number of times it has been replayed from the spill file.
+     */
+    static final class AuditEvent
+    {
+        final String permDn;
+        final String userDn;
+        final String attributeValue;
+        final int attempts;
+
+
+        private AuditEvent( String permDn, String userDn, String attributeValue, int attempts )
+        {
+            this.permDn = permDn;
+            this.userDn = userDn;
+            this.attributeValue = attributeValue;
+            this.attempts = attempts;
+        }
+    }
+}
@@ -20,9 +20,12 @@
 package org.apache.directory.fortress.core.impl;
 
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 
+import org.apache.commons.lang.ArrayUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.directory.api.ldap.model.constants.SchemaConstants;
 import org.apache.directory.api.ldap.model.cursor.CursorException;
@@ -35,6 +38,7 @@ import org.apache.directory.fortress.core.FinderException;
 import org.apache.directory.fortress.core.GlobalErrIds;
 import org.apache.directory.fortress.core.GlobalIds;
 import org.apache.directory.fortress.core.ldap.LdapDataProvider;
+import org.apache.directory.fortress.core.ldap.PagedCursor;
 import org.apache.directory.fortress.core.model.AuthZ;
 import org.apache.directory.fortress.core.model.Bind;
 import org.apache.directory.fortress.core.model.Mod;
@@ -42,6 +46,7 @@ import org.apache.directory.fortress.core.model.ObjectFactory;
 import org.apache.directory.fortress.core.model.UserAudit;
 import org.apache.directory.fortress.core.util.AuditUtil;
 import org.apache.directory.fortress.core.util.Config;
+import org.apache.directory.fortress.core.util.ResultHandler;
 import org.apache.directory.fortress.core.util.time.TUtil;
 import org.apache.directory.ldap.client.api.LdapConnection;
 
@@ -160,6 +165,7 @@ final class AuditDAO extends LdapDataProvider
     private static final String ACCESS_MOD_CLASS_NM = "auditModify";
     private static final String ACCESS_ADD_CLASS_NM = "auditAdd";
     private static final String AUDIT_ROOT = "audit.root";
+    private static final String AUDIT_WINDOW = "audit.window.minutes";
 
     private static final String[] AUDIT_AUTHZ_ATRS =
         {
@@ -318,29 +324,10 @@ final class AuditDAO extends LdapDataProvider
         List<AuthZ> auditList = new ArrayList<>();
         LdapConnection ld = null;
         String auditRoot = Config.getInstance().getProperty( AUDIT_ROOT );
-        String permRoot = getRootDn( audit.isAdmin(), audit.getContextId() );
-        String userRoot = getRootDn( audit.getContextId(), GlobalIds.USER_ROOT );
 
         try
         {
-            String reqDn = PermDAO.getOpRdn( audit.getOpName(), audit.getObjId() ) + "," + GlobalIds.POBJ_NAME + "="
-                + audit.getObjName() + "," + permRoot;
-            String filter = GlobalIds.FILTER_PREFIX + ACCESS_AUTHZ_CLASS_NM + ")(" + REQDN + "=" +
-                reqDn + ")(" + REQUAUTHZID + "=" + SchemaConstants.UID_AT + "=" + audit.getUserId() + "," + userRoot
-                + ")";
-
-            if ( audit.isFailedOnly() )
-            {
-                filter += "(" + REQRESULT + "=" + GlobalIds.AUTHZ_COMPARE_FAILURE_FLAG + ")";
-            }
-
-            if ( audit.getBeginDate() != null )
-            {
-                String szTime = TUtil.encodeGeneralizedTime( audit.getBeginDate() );
-                filter += "(" + REQEND + ">=" + szTime + ")";
-            }
-
-            filter += ")";
+            String filter = getAuthZFilter( audit ) + getBeginFilter( audit ) + ")";
 
             //System.out.println("filter=" + filter);
             ld = getLogConnection();
@@ -400,37 +387,10 @@ final class AuditDAO extends LdapDataProvider
         List<AuthZ> auditList = new ArrayList<>();
         LdapConnection ld = null;
         String auditRoot = Config.getInstance().getProperty( AUDIT_ROOT );
-        String userRoot = getRootDn( audit.getContextId(), GlobalIds.USER_ROOT );
 
         try
         {
-            String filter = GlobalIds.FILTER_PREFIX + ACCESS_AUTHZ_CLASS_NM + ")(";
-
-            if ( audit.getUserId() != null && audit.getUserId().length() > 0 )
-            {
-                filter += REQUAUTHZID + "=" + SchemaConstants.UID_AT + "=" + audit.getUserId() + "," + userRoot + ")";
-            }
-            else
-            {
-                // have to limit the query to only authorization entries.
-                // TODO: determine why the cn=Manager user is showing up in this search:
-                filter += REQUAUTHZID + "=*)(!(" + REQUAUTHZID + "=cn=Manager," + Config.getInstance().getProperty( GlobalIds.SUFFIX )
-                    + "))";
-
-                // TODO: fix this so filter by only the Fortress AuthZ entries and not the others:
-                if ( audit.isFailedOnly() )
-                {
-                    filter += "(" + REQRESULT + "=" + GlobalIds.AUTHZ_COMPARE_FAILURE_FLAG + ")";
-                }
-            }
-
-            if ( audit.getBeginDate() != null )
-            {
-                String szTime = TUtil.encodeGeneralizedTime( audit.getBeginDate() );
-                filter += "(" + REQEND + ">=" + szTime + ")";
-            }
-
-            filter += ")";
+            String filter = getAllAuthZFilter( audit ) + getBeginFilter( audit ) + ")";
 
             //log.warn("filter=" + filter);
             ld = getLogConnection();
@@ -473,47 +433,10 @@ final class AuditDAO extends LdapDataProvider
         List<Bind> auditList = new ArrayList<>();
         LdapConnection ld = null;
         String auditRoot = Config.getInstance().getProperty( AUDIT_ROOT );
-        String userRoot = getRootDn( audit.getContextId(), GlobalIds.USER_ROOT );
 
         try
         {
-            String filter;
-
-            if ( audit.getUserId() != null && audit.getUserId().length() > 0 )
-            {
-                filter = GlobalIds.FILTER_PREFIX + ACCESS_BIND_CLASS_NM + ")(" +
-                    REQDN + "=" + SchemaConstants.UID_AT + "=" + audit.getUserId() + "," + userRoot + ")";
-
-                if ( audit.isFailedOnly() )
-                {
-                    filter += "(" + REQRESULT + ">=" + 1 + ")";
-                }
-
-                if ( audit.getBeginDate() != null )
-                {
-                    String szTime = TUtil.encodeGeneralizedTime( audit.getBeginDate() );
-                    filter += "(" + REQEND + ">=" + szTime + ")";
-                }
-
-                filter += ")";
-            }
-            else
-            {
-                filter = GlobalIds.FILTER_PREFIX + ACCESS_BIND_CLASS_NM + ")";
-
-                if ( audit.isFailedOnly() )
-                {
-                    filter += "(" + REQRESULT + ">=" + 1 + ")";
-                }
-
-                if ( audit.getBeginDate() != null )
-                {
-                    String szTime = TUtil.encodeGeneralizedTime( audit.getBeginDate() );
-                    filter += "(" + REQEND + ">=" + szTime + ")";
-                }
-
-                filter += ")";
-            }
+            String filter = getBindFilter( audit ) + getBeginFilter( audit ) + ")";
 
             //log.warn("filter=" + filter);
             ld = getLogConnection();
@@ -557,20 +480,9 @@ final class AuditDAO extends LdapDataProvider
         LdapConnection ld = null;
         String auditRoot = Config.getInstance().getProperty( AUDIT_ROOT );
 
-        String userRoot = getRootDn( audit.getContextId(), GlobalIds.USER_ROOT );
-
         try
         {
-            String filter = GlobalIds.FILTER_PREFIX + ACCESS_MOD_CLASS_NM + ")(" +
-                REQDN + "=" + SchemaConstants.UID_AT + "=" + audit.getUserId() + "," + userRoot + ")";
-
-            if ( audit.getBeginDate() != null )
-            {
-                String szTime = TUtil.encodeGeneralizedTime( audit.getBeginDate() );
-                filter += "(" + REQEND + ">=" + szTime + ")";
-            }
-
-            filter += ")";
+            String filter = getUserModFilter( audit ) + getBeginFilter( audit ) + ")";
             //log.warn("filter=" + filter);
             ld = getLogConnection();
             SearchCursor searchResults = search( ld, auditRoot,
@@ -691,6 +603,265 @@ final class AuditDAO extends LdapDataProvider
     }
 
 
+    /**
+     * Pass the authorization events matched by {@link #searchAuthZs(UserAudit)} to the handler as they're read.
+     *
+     * @param audit      contains the search criteria, an end date is also honored.
+     * @param attributes names the attributes to read, null or empty reads them all.
+     * @param handler    receives each event.
+     * @throws FinderException in the event of ldap error.
+     */
+    void streamAuthZs( UserAudit audit, String[] attributes, ResultHandler<? super AuthZ> handler )
+        throws FinderException
+    {
+        stream( audit, getAuthZFilter( audit ), attributes, AUDIT_AUTHZ_ATRS, this::getAuthzEntityFromLdapEntry, handler,
+            GlobalErrIds.AUDT_AUTHZ_SEARCH_FAILED );
+    }
+
+
+    /**
+     * Pass the authorization events matched by {@link #getAllAuthZs(UserAudit)} to the handler as they're read.
+     *
+     * @param audit      contains the search criteria, an end date is also honored.
+     * @param attributes names the attributes to read, null or empty reads them all.
+     * @param handler    receives each event.
+     * @throws FinderException in the event of ldap error.
+     */
+    void streamAllAuthZs( UserAudit audit, String[] attributes, ResultHandler<? super AuthZ> handler )
+        throws FinderException
+    {
+        stream( audit, getAllAuthZFilter( audit ), attributes, AUDIT_AUTHZ_ATRS, this::getAuthzEntityFromLdapEntry, handler,
+            GlobalErrIds.AUDT_AUTHZ_SEARCH_FAILED );
+    }
+
+
+    /**
+     * Pass the bind events matched by {@link #searchBinds(UserAudit)} to the handler as they're read.
+     *
+     * @param audit      contains the search criteria, an end date is also honored.
+     * @param attributes names the attributes to read, null or empty reads them all.
+     * @param handler    receives each event.
+     * @throws FinderException in the event of ldap error.
+     */
+    void streamBinds( UserAudit audit, String[] attributes, ResultHandler<? super Bind> handler ) throws FinderException
+    {
+        stream( audit, getBindFilter( audit ), attributes, AUDIT_BIND_ATRS, this::getBindEntityFromLdapEntry, handler,
+            GlobalErrIds.AUDT_BIND_SEARCH_FAILED );
+    }
+
+
+    /**
+     * Pass the modifications matched by {@link #searchUserMods(UserAudit)} to the handler as they're read.
+     *
+     * @param audit      contains the search criteria, an end date is also honored.
+     * @param attributes names the attributes to read, null or empty reads them all.
+     * @param handler    receives each event.
+     * @throws FinderException in the event of ldap error.
+     */
+    void streamUserMods( UserAudit audit, String[] attributes, ResultHandler<? super Mod> handler ) throws FinderException
+    {
+        stream( audit, getUserModFilter( audit ), attributes, AUDIT_MOD_ATRS, this::getModEntityFromLdapEntry, handler,
+            GlobalErrIds.AUDT_MOD_SEARCH_FAILED );
+    }
+
+
+    /**
+     * Run a paged search for each time window of the audit, passing every entry to the handler before the next one is read.  A
+     * single connection is used for all of the windows.
+     *
+     * @param filter      contains the unterminated filter without its time range.
+     * @param defaultAtrs read when the caller hasn't named any attributes.
+     */
+    private <T> void stream( UserAudit audit, String filter, String[] attributes, String[] defaultAtrs,
+        PagedIterator.Unloader<T> unloader, ResultHandler<? super T> handler, int errorId ) throws FinderException
+    {
+        LdapConnection ld = null;
+        String auditRoot = Config.getInstance().getProperty( AUDIT_ROOT );
+        String[] atrs = ArrayUtils.isEmpty( attributes ) ? defaultAtrs : attributes;
+        long sequence = 0;
+
+        try
+        {
+            ld = getLogConnection();
+
+            for ( String window : getWindowFilters( audit ) )
+            {
+                try ( PagedCursor cursor = searchPaged( ld, auditRoot, SearchScope.ONELEVEL, filter + window + ")", atrs ) )
+                {
+                    while ( cursor.next() )
+                    {
+                        if ( !handler.handle( unloader.unload( cursor.getEntry(), sequence++ ) ) )
+                        {
+                            return;
+                        }
+                    }
+                }
+            }
+        }
+        catch ( LdapException e )
+        {
+            String error = "stream caught LdapException=" + e;
+            throw new FinderException( errorId, error, e );
+        }
+        catch ( CursorException | IOException e )
+        {
+            String error = "stream caught " + e.getClass().getSimpleName() + "=" + e.getMessage();
+            throw new FinderException( errorId, error, e );
+        }
+        finally
+        {
+            closeLogConnection( ld );
+        }
+    }
+
+
+    /**
+     * Split the audit's date range into windows of the length set by fortress config param, 'audit.window.minutes'.  Each window
+     * is searched on its own, so the server only has to gather the candidates of one window at a time, and the results come back
+     * in window order.  With no begin date, or no window length, there's a single window covering the whole range.
+     *
+     * @return list of filter components that bound the reqEnd attribute of each window.
+     */
+    private static List<String> getWindowFilters( UserAudit audit )
+    {
+        List<String> windows = new ArrayList<>();
+        Date beginDate = audit.getBeginDate();
+        Date endDate = audit.getEndDate();
+        String upper = "";
+
+        if ( endDate != null )
+        {
+            upper = "(" + REQEND + "<=" + TUtil.encodeGeneralizedTime( endDate ) + ")";
+        }
+
+        if ( beginDate == null )
+        {
+            windows.add( upper );
+            return windows;
+        }
+
+        long length = Config.getInstance().getInt( AUDIT_WINDOW, 0 ) * 60000L;
+        long start = beginDate.getTime();
+
+        if ( length > 0 )
+        {
+            // open ended searches are windowed up to now, the last window picks up anything written since:
+            long last = endDate != null ? endDate.getTime() : System.currentTimeMillis();
+
+            for ( ; start + length < last; start += length )
+            {
+                windows.add( "(" + REQEND + ">=" + TUtil.encodeGeneralizedTime( new Date( start ) ) + ")(!(" + REQEND + ">="
+                    + TUtil.encodeGeneralizedTime( new Date( start + length ) ) + "))" );
+            }
+        }
+
+        windows.add( "(" + REQEND + ">=" + TUtil.encodeGeneralizedTime( new Date( start ) ) + ")" + upper );
+        return windows;
+    }
+
+
+    /**
+     * @return filter component for the begin date, as used by the list returning searches, or empty if it's not set.
+     */
+    private static String getBeginFilter( UserAudit audit )
+    {
+        String filter = "";
+
+        if ( audit.getBeginDate() != null )
+        {
+            String szTime = TUtil.encodeGeneralizedTime( audit.getBeginDate() );
+            filter = "(" + REQEND + ">=" + szTime + ")";
+        }
+
+        return filter;
+    }
+
+
+    /**
+     * @return unterminated filter for {@link #searchAuthZs(UserAudit)}, without its date range.
+     */
+    private String getAuthZFilter( UserAudit audit )
+    {
+        String permRoot = getRootDn( audit.isAdmin(), audit.getContextId() );
+        String userRoot = getRootDn( audit.getContextId(), GlobalIds.USER_ROOT );
+        String reqDn = PermDAO.getOpRdn( audit.getOpName(), audit.getObjId() ) + "," + GlobalIds.POBJ_NAME + "="
+            + audit.getObjName() + "," + permRoot;
+        String filter = GlobalIds.FILTER_PREFIX + ACCESS_AUTHZ_CLASS_NM + ")(" + REQDN + "=" +
+            reqDn + ")(" + REQUAUTHZID + "=" + SchemaConstants.UID_AT + "=" + audit.getUserId() + "," + userRoot
+            + ")";
+
+        if ( audit.isFailedOnly() )
+        {
+            filter += "(" + REQRESULT + "=" + GlobalIds.AUTHZ_COMPARE_FAILURE_FLAG + ")";
+        }
+
+        return filter;
+    }
+
+
+    /**
+     * @return unterminated filter for {@link #getAllAuthZs(UserAudit)}, without its date range.
+     */
+    private String getAllAuthZFilter( UserAudit audit )
+    {
+        String userRoot = getRootDn( audit.getContextId(), GlobalIds.USER_ROOT );
+        String filter = GlobalIds.FILTER_PREFIX + ACCESS_AUTHZ_CLASS_NM + ")(";
+
+        if ( audit.getUserId() != null && audit.getUserId().length() > 0 )
+        {
+            filter += REQUAUTHZID + "=" + SchemaConstants.UID_AT + "=" + audit.getUserId() + "," + userRoot + ")";
+        }
+        else
+        {
+            // have to limit the query to only authorization entries.
+            // TODO: determine why the cn=Manager user is showing up in this search:
+            filter += REQUAUTHZID + "=*)(!(" + REQUAUTHZID + "=cn=Manager," + Config.getInstance().getProperty( GlobalIds.SUFFIX )
+                + "))";
+
+            // TODO: fix this so filter by only the Fortress AuthZ entries and not the others:
+            if ( audit.isFailedOnly() )
+            {
+                filter += "(" + REQRESULT + "=" + GlobalIds.AUTHZ_COMPARE_FAILURE_FLAG + ")";
+            }
+        }
+
+        return filter;
+    }
+
+
+    /**
+     * @return unterminated filter for {@link #searchBinds(UserAudit)}, without its date range.
+     */
+    private String getBindFilter( UserAudit audit )
+    {
+        String filter = GlobalIds.FILTER_PREFIX + ACCESS_BIND_CLASS_NM + ")";
+
+        if ( audit.getUserId() != null && audit.getUserId().length() > 0 )
+        {
+            String userRoot = getRootDn( audit.getContextId(), GlobalIds.USER_ROOT );
+            filter += "(" + REQDN + "=" + SchemaConstants.UID_AT + "=" + audit.getUserId() + "," + userRoot + ")";
+        }
+
+        if ( audit.isFailedOnly() )
+        {
+            filter += "(" + REQRESULT + ">=" + 1 + ")";
+        }
+
+        return filter;
+    }
+
+
+    /**
+     * @return unterminated filter for {@link #searchUserMods(UserAudit)}, without its date range.
+     */
+    private String getUserModFilter( UserAudit audit )
+    {
+        String userRoot = getRootDn( audit.getContextId(), GlobalIds.USER_ROOT );
+        return GlobalIds.FILTER_PREFIX + ACCESS_MOD_CLASS_NM + ")(" +
+            REQDN + "=" + SchemaConstants.UID_AT + "=" + audit.getUserId() + "," + userRoot + ")";
+    }
+
+
     /**
      * @param le
      * @return
@@ -34,6 +34,8 @@ import org.apache.directory.fortress.core.model.Bind;
 import org.apache.directory.fortress.core.model.Mod;
 import org.apache.directory.fortress.core.model.User;
 import org.apache.directory.fortress.core.model.UserAudit;
+import org.apache.directory.fortress.core.util.ResultHandler;
+import org.apache.directory.fortress.core.util.VUtil;
 
 /**
  * This object performs searches across <a href="http://www.openldap.org/">OpenLDAP</a>'s slapd access log.  The access log 
@@ -170,6 +172,74 @@ public class AuditMgrImpl extends Manageable implements AuditMgr, Serializable
         return auditP.searchUserMods(uAudit);
     }
 
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @AdminPermissionOperation(operationName="getUserAuthZs")
+    public void streamUserAuthZs(UserAudit uAudit, String[] attributes, ResultHandler<? super AuthZ> handler)
+        throws SecurityException
+    {
+        String methodName = "streamUserAuthZs";
+        assertContext(CLS_NM, methodName, uAudit, GlobalErrIds.AUDT_INPUT_NULL);
+        VUtil.assertNotNull(handler, GlobalErrIds.AUDT_INPUT_NULL, CLS_NM + "." + methodName);
+        // same grant as the list-returning search:
+        checkAccess(CLS_NM, "getUserAuthZs");
+        auditP.streamAuthZs(uAudit, attributes, handler);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @AdminPermissionOperation(operationName="searchAuthZs")
+    public void streamAuthZs(UserAudit uAudit, String[] attributes, ResultHandler<? super AuthZ> handler)
+        throws SecurityException
+    {
+        String methodName = "streamAuthZs";
+        assertContext(CLS_NM, methodName, uAudit, GlobalErrIds.AUDT_INPUT_NULL);
+        VUtil.assertNotNull(handler, GlobalErrIds.AUDT_INPUT_NULL, CLS_NM + "." + methodName);
+        // same grant as the list-returning search:
+        checkAccess(CLS_NM, "searchAuthZs");
+        auditP.streamSearchAuthZs(uAudit, attributes, handler);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @AdminPermissionOperation(operationName="searchBinds")
+    public void streamBinds(UserAudit uAudit, String[] attributes, ResultHandler<? super Bind> handler)
+        throws SecurityException
+    {
+        String methodName = "streamBinds";
+        assertContext(CLS_NM, methodName, uAudit, GlobalErrIds.AUDT_INPUT_NULL);
+        VUtil.assertNotNull(handler, GlobalErrIds.AUDT_INPUT_NULL, CLS_NM + "." + methodName);
+        // same grant as the list-returning search:
+        checkAccess(CLS_NM, "searchBinds");
+        auditP.streamBinds(uAudit, attributes, handler);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @AdminPermissionOperation(operationName="searchUserSessions")
+    public void streamUserSessions(UserAudit uAudit, String[] attributes, ResultHandler<? super Mod> handler)
+        throws SecurityException
+    {
+        String methodName = "streamUserSessions";
+        assertContext(CLS_NM, methodName, uAudit, GlobalErrIds.AUDT_INPUT_NULL);
+        VUtil.assertNotNull(handler, GlobalErrIds.AUDT_INPUT_NULL, CLS_NM + "." + methodName);
+        // same grant as the list-returning search:
+        checkAccess(CLS_NM, "searchUserSessions");
+        auditP.streamUserMods(uAudit, attributes, handler);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -27,6 +27,7 @@ import org.apache.directory.fortress.core.model.AuthZ;
 import org.apache.directory.fortress.core.model.Bind;
 import org.apache.directory.fortress.core.model.Mod;
 import org.apache.directory.fortress.core.model.UserAudit;
+import org.apache.directory.fortress.core.util.ResultHandler;
 
 
 /**
@@ -111,6 +112,63 @@ final class AuditP
     }
 
 
+    /**
+     * Pass the events returned by {@link #getAuthZs(UserAudit)} to the handler as they're read.
+     *
+     * @param uAudit     This entity is instantiated and populated before invocation.
+     * @param attributes names the attributes to read, null or empty reads them all.
+     * @param handler    receives each event.
+     * @throws SecurityException if a runtime system error occurs.
+     */
+    void streamAuthZs( UserAudit uAudit, String[] attributes, ResultHandler<? super AuthZ> handler ) throws SecurityException
+    {
+        aDao.streamAllAuthZs( uAudit, attributes, handler );
+    }
+
+
+    /**
+     * Pass the events returned by {@link #searchAuthZs(UserAudit)} to the handler as they're read.
+     *
+     * @param uAudit     This entity is instantiated and populated before invocation.
+     * @param attributes names the attributes to read, null or empty reads them all.
+     * @param handler    receives each event.
+     * @throws SecurityException if a runtime system error occurs.
+     */
+    void streamSearchAuthZs( UserAudit uAudit, String[] attributes, ResultHandler<? super AuthZ> handler )
+        throws SecurityException
+    {
+        aDao.streamAuthZs( uAudit, attributes, handler );
+    }
+
+
+    /**
+     * Pass the events returned by {@link #searchBinds(UserAudit)} to the handler as they're read.
+     *
+     * @param uAudit     This entity is instantiated and populated before invocation.
+     * @param attributes names the attributes to read, null or empty reads them all.
+     * @param handler    receives each event.
+     * @throws SecurityException if a runtime system error occurs.
+     */
+    void streamBinds( UserAudit uAudit, String[] attributes, ResultHandler<? super Bind> handler ) throws SecurityException
+    {
+        aDao.streamBinds( uAudit, attributes, handler );
+    }
+
+
+    /**
+     * Pass the events returned by {@link #searchUserMods(UserAudit)} to the handler as they're read.
+     *
+     * @param uAudit     This entity is instantiated and populated before invocation.
+     * @param attributes names the attributes to read, null or empty reads them all.
+     * @param handler    receives each event.
+     * @throws SecurityException if a runtime system error occurs.
+     */
+    void streamUserMods( UserAudit uAudit, String[] attributes, ResultHandler<? super Mod> handler ) throws SecurityException
+    {
+        aDao.streamUserMods( uAudit, attributes, handler );
+    }
+
+
     /**
      * This method returns a list of admin operations events for a particular entity {@link UserAudit#dn},
      * object {@link UserAudit#objName} and timestamp {@link UserAudit#beginDate}.  If the internal
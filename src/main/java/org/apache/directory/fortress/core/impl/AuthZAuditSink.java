@@ -0,0 +1,46 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+
+/**
+ * Receives the authorization events recorded by {@link PermDAO#checkPermission}.  By default, with no sink configured, the event
+ * is written by an ldap compare performed inline on the connection used to check the permission.  To take the write off of the
+ * checkAccess path, name an implementation in fortress config param, 'authz.audit.sink', e.g.
+ * <pre>
+ * authz.audit.sink=org.apache.directory.fortress.core.impl.AsyncAuthZAuditSink
+ * </pre>
+ * A single instance is created, using its public default constructor, and shared by every thread.
+ * <p>
+ * Implementations must be thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public interface AuthZAuditSink
+{
+    /**
+     * Record the outcome of an authorization attempt.  This is called on the caller's thread and so shouldn't wait on the ldap server.
+     *
+     * @param permDn         contains distinguished name of the permission operation.
+     * @param userDn         contains the distinguished name of the user that is asserted with the proxy authorization control.
+     * @param attributeValue contains the operation name on success, or a value that will fail the compare on authorization failure.
+     */
+    void audit( String permDn, String userDn, String attributeValue );
+}
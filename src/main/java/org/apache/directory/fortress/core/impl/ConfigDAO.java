@@ -29,6 +29,7 @@ import org.apache.directory.api.ldap.model.constants.SchemaConstants;
 import org.apache.directory.api.ldap.model.entry.*;
 import org.apache.directory.api.ldap.model.exception.LdapEntryAlreadyExistsException;
 import org.apache.directory.api.ldap.model.exception.LdapException;
+import org.apache.directory.api.ldap.model.exception.LdapNoSuchAttributeException;
 import org.apache.directory.api.ldap.model.exception.LdapNoSuchObjectException;
 import org.apache.directory.fortress.core.CreateException;
 import org.apache.directory.fortress.core.FinderException;
@@ -216,6 +217,47 @@ final class ConfigDAO extends LdapDataProvider
     }
 
 
+    /**
+     * Replace the value of one of the posix id sequences, but only if it still holds the value that was read.  The old value is
+     * removed and the new one added in a single modify, which the server rejects if the old value is no longer there.
+     *
+     * @param name of the config node, mostly likely 'DEFAULT'.
+     * @param attribute either {@link #UID_NUMBER_SEQUENCE} or {@link #GID_NUMBER_SEQUENCE}.
+     * @param value as it was read.
+     * @param newValue to replace it with.
+     * @return boolean value, false if the sequence was changed by someone else since it was read.
+     * @throws UpdateException in the event of a system error.
+     */
+    boolean replacePosixId( String name, String attribute, String value, String newValue ) throws UpdateException
+    {
+        LdapConnection ld = null;
+        String dn = getDn( name );
+        LOG.debug( "replacePosixId dn [{}], attribute [{}], value [{}], newValue [{}]", dn, attribute, value, newValue );
+        try
+        {
+            List<Modification> mods = new ArrayList<Modification>();
+            mods.add( new DefaultModification( ModificationOperation.REMOVE_ATTRIBUTE, attribute, value ) );
+            mods.add( new DefaultModification( ModificationOperation.ADD_ATTRIBUTE, attribute, newValue ) );
+            ld = getAdminConnection();
+            modify( ld, dn, mods );
+            return true;
+        }
+        catch ( LdapNoSuchAttributeException e )
+        {
+            return false;
+        }
+        catch ( LdapException e )
+        {
+            String error = "replacePosixId dn [" + dn + "] attribute [" + attribute + "] caught LDAPException=" + e;
+            throw new UpdateException( GlobalErrIds.FT_CONFIG_UPDATE_FAILED, error, e );
+        }
+        finally
+        {
+            closeAdminConnection( ld );
+        }
+    }
+
+
     /**
      * This method will update a single property with a new value.
      *
@@ -332,7 +374,7 @@ final class ConfigDAO extends LdapDataProvider
         LOG.info( "getConfig dn [{}]", dn );
         try
         {
-            ld = getAdminConnection();
+            ld = getReadConnection();
             Entry findEntry = read( ld, dn, CONFIG_ATRS );
             configuration.setName( name );
             configuration.addProperties( PropUtil.getProperties( getAttributes( findEntry, GlobalIds.PROPS ) ) );
@@ -351,7 +393,7 @@ final class ConfigDAO extends LdapDataProvider
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
         return configuration;
     }
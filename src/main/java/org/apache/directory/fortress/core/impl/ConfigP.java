@@ -192,6 +192,24 @@ final class ConfigP
     }
 
 
+    /**
+     * Replace the value of one of the posix id sequences on the cfg node, if and only if it still holds the value that was read.
+     *
+     * @param name attribute is required and maps to 'cn' attribute in 'device' object class.
+     * @param attribute either {@link ConfigDAO#UID_NUMBER_SEQUENCE} or {@link ConfigDAO#GID_NUMBER_SEQUENCE}.
+     * @param value as it was read by {@link #readPosixIds(String)}.
+     * @param newValue to replace it with.
+     * @return boolean value, false if the sequence was changed by another process since it was read.
+     * @throws org.apache.directory.fortress.core.SecurityException in the event of system error.
+     */
+    boolean replacePosixId( String name, String attribute, String value, String newValue )
+        throws SecurityException
+    {
+        ConfigDAO cfgDao = new ConfigDAO();
+        return cfgDao.replacePosixId( name, attribute, value, newValue );
+    }
+
+
     /**
      * Method will perform simple validations to ensure the integrity of the {@link Properties} entity targeted for insertion
      * or deletion in directory.
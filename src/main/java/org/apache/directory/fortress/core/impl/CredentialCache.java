@@ -0,0 +1,324 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.directory.fortress.core.GlobalIds;
+import org.apache.directory.fortress.core.model.Session;
+import org.apache.directory.fortress.core.model.User;
+import org.apache.directory.fortress.core.model.Warning;
+import org.apache.directory.fortress.core.util.Config;
+import org.apache.directory.fortress.core.util.cache.Cache;
+import org.apache.directory.fortress.core.util.cache.CacheMgr;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Remembers the credentials of users whose bind succeeded, so {@link UserDAO#checkPassword(User)} may verify a repeat
+ * authentication without binding again.  Switched on with fortress config param, 'enable.auth.cache'.
+ * <p>
+ * The password itself is never kept.  Each entry holds a random salt and the PBKDF2 hash of the password with that salt, iterated
+ * per fortress config param, 'auth.cache.iterations' (default 10000), along with the password policy warnings returned by the bind,
+ * which are set again on each session the entry verifies.  Entries live for the TTL of the 'fortress.auth' entry of the ehcache
+ * config file.
+ * <p>
+ * Only a clean bind is remembered: one that returned a grace login, or a warning other than the password's pending expiration, is
+ * not, so those keep being counted by the directory.  A password that doesn't match the entry is always bound, and the entry is
+ * removed if that bind fails, so lockout and the other password policies are enforced by the directory as usual.  The user's entry
+ * is removed whenever the user's password, policy or lock is changed within this process.  A change made by another process is
+ * seen once the entry expires.
+ * <p>
+ * A bind that raced such a change must not put back the entry the change removed, so every removal bumps a generation, kept for
+ * the stripe of keys the user hashes to.  The caller reads it with {@link #getGeneration(User)} before binding and hands it to
+ * {@link #put(User, Session, long)}, which drops the entry if the generation has moved since.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class CredentialCache
+{
+    private static final String CLS_NM = CredentialCache.class.getName();
+    private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
+    private static final String FORTRESS_AUTH = "fortress.auth";
+    private static final String IS_AUTH_CACHE_ENABLED_PARM = "enable.auth.cache";
+    private static final String AUTH_CACHE_ITERATIONS = "auth.cache.iterations";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_LENGTH = 16;
+    private static final int KEY_LENGTH = 256;
+    private static final int STRIPES = 1024;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private static volatile CredentialCache sINSTANCE = null;
+
+    private final Cache cache;
+    private final int iterations;
+
+    // bumped by every removal of a key in the stripe, or by every clear in the last slot:
+    private final AtomicLongArray generations = new AtomicLongArray( STRIPES + 1 );
+
+
+    static CredentialCache getInstance()
+    {
+        if ( sINSTANCE == null )
+        {
+            synchronized ( CredentialCache.class )
+            {
+                if ( sINSTANCE == null )
+                {
+                    sINSTANCE = new CredentialCache();
+                }
+            }
+        }
+        return sINSTANCE;
+    }
+
+
+    private CredentialCache()
+    {
+        if ( Config.getInstance().getBoolean( IS_AUTH_CACHE_ENABLED_PARM, false ) )
+        {
+            cache = CacheMgr.getInstance().getCache( FORTRESS_AUTH );
+            LOG.info( "init authentication cache enabled" );
+        }
+        else
+        {
+            cache = null;
+        }
+        iterations = Config.getInstance().getInt( AUTH_CACHE_ITERATIONS, 10000 );
+    }
+
+
+    /**
+     * Return true if the authentication cache has been switched on.
+     *
+     * @return boolean value, true if caching is enabled.
+     */
+    boolean isEnabled()
+    {
+        return cache != null;
+    }
+
+
+    /**
+     * Verify the user's password against the entry left by the user's last successful bind.  When the entry is missing, the caller
+     * must follow with a call to {@link #put(User, Session, long)} or {@link #remove(User)}, as the underlying cache blocks other readers
+     * of the same user until then.
+     *
+     * @param user contains the userId, contextId and password.
+     * @return session authenticated and carrying the warnings of the last bind, or null if the password must be bound.
+     */
+    Session verify( User user )
+    {
+        Verifier verifier = ( Verifier ) cache.get( getKey( user ) );
+        if ( verifier == null || !verifier.matches( user.getPassword(), iterations ) )
+        {
+            return null;
+        }
+        Session session = new ObjectFactory().createSession();
+        session.setUserId( user.getUserId() );
+        session.setAuthenticated( true );
+        session.setExpirationSeconds( verifier.expirationSeconds );
+        if ( verifier.warnings != null )
+        {
+            session.setWarnings( new ArrayList<>( verifier.warnings ) );
+        }
+        return session;
+    }
+
+
+    /**
+     * Return the generation of the user's entry, to be read before a bind whose result is handed to
+     * {@link #put(User, Session, long)}.
+     *
+     * @param user contains the userId and contextId.
+     * @return the number of times the user's entry, or one that shares its stripe, has been removed.
+     */
+    long getGeneration( User user )
+    {
+        return getGeneration( getKey( user ) );
+    }
+
+
+    /**
+     * Remember the result of a bind, or release the key if the bind isn't one to remember or the entry has been removed since
+     * the bind began.
+     *
+     * @param user       contains the userId, contextId and password that were bound.
+     * @param session    returned by the bind.
+     * @param generation returned by {@link #getGeneration(User)} before the bind.
+     */
+    void put( User user, Session session, long generation )
+    {
+        String key = getKey( user );
+        Verifier verifier = null;
+        if ( session.isAuthenticated() && session.getErrorId() == 0 && session.getGraceLogins() <= 0 && isExpirationOnly( session
+            .getWarnings() ) && StringUtils.isNotEmpty( user.getPassword() ) && getGeneration( key ) == generation )
+        {
+            verifier = Verifier.create( user.getPassword(), iterations, session );
+        }
+        cache.put( key, verifier );
+        if ( verifier != null && getGeneration( key ) != generation )
+        {
+            // a removal slipped in between the check and the put, and may have run before it:
+            cache.put( key, null );
+        }
+    }
+
+
+    /**
+     * Forget the user's entry, called after a failed bind and whenever the user's password, policy or lock changes.
+     *
+     * @param user contains the userId and contextId.
+     */
+    void remove( User user )
+    {
+        if ( isEnabled() )
+        {
+            String key = getKey( user );
+            // bumped first, so a racing put either sees it or is overwritten by the null below:
+            generations.incrementAndGet( getStripe( key ) );
+            // unlike clear, a null put also releases the key if this thread missed on it:
+            cache.put( key, null );
+        }
+    }
+
+
+    /**
+     * Forget every entry, called when a password policy changes.
+     */
+    void clear()
+    {
+        if ( isEnabled() )
+        {
+            generations.incrementAndGet( STRIPES );
+            cache.flush();
+        }
+    }
+
+
+    private static boolean isExpirationOnly( List<Warning> warnings )
+    {
+        if ( warnings != null )
+        {
+            for ( Warning warning : warnings )
+            {
+                if ( warning.getId() != GlobalPwMsgIds.PASSWORD_EXPIRATION_WARNING )
+                {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+
+    private long getGeneration( String key )
+    {
+        return generations.get( getStripe( key ) ) + generations.get( STRIPES );
+    }
+
+
+    private static int getStripe( String key )
+    {
+        return Math.floorMod( key.hashCode(), STRIPES );
+    }
+
+
+    /**
+     * UserIds are case insensitive.
+     */
+    private static String getKey( User user )
+    {
+        String contextId = GlobalIds.HOME;
+        if ( StringUtils.isNotEmpty( user.getContextId() ) && !user.getContextId().equals( GlobalIds.NULL ) )
+        {
+            contextId = user.getContextId();
+        }
+        return ( contextId + ":" + user.getUserId() ).toLowerCase();
+    }
+
+
+    /**
+     * A salted hash of the password along with the policy warnings of the bind that proved it.
+     */
+    private static final class Verifier
+    {
+        private final byte[] salt;
+        private final byte[] hash;
+        private final int expirationSeconds;
+        private final List<Warning> warnings;
+
+
+        private Verifier( byte[] salt, byte[] hash, int expirationSeconds, List<Warning> warnings )
+        {
+            this.salt = salt;
+            this.hash = hash;
+            this.expirationSeconds = expirationSeconds;
+            this.warnings = warnings;
+        }
+
+
+        private static Verifier create( String password, int iterations, Session session )
+        {
+            byte[] salt = new byte[SALT_LENGTH];
+            RANDOM.nextBytes( salt );
+            List<Warning> warnings = session.getWarnings() == null ? null : new ArrayList<>( session.getWarnings() );
+            return new Verifier( salt, hash( password, salt, iterations ), session.getExpirationSeconds(), warnings );
+        }
+
+
+        private boolean matches( String password, int iterations )
+        {
+            return StringUtils.isNotEmpty( password ) && MessageDigest.isEqual( hash, hash( password, salt, iterations ) );
+        }
+
+
+        private static byte[] hash( String password, byte[] salt, int iterations )
+        {
+            PBEKeySpec spec = new PBEKeySpec( password.toCharArray(), salt, iterations, KEY_LENGTH );
+            try
+            {
+                return SecretKeyFactory.getInstance( ALGORITHM ).generateSecret( spec ).getEncoded();
+            }
+            catch ( GeneralSecurityException e )
+            {
+                // PBKDF2WithHmacSHA256 is supplied by the default provider of every java 8 or later runtime:
+                throw new IllegalStateException( e );
+            }
+            finally
+            {
+                spec.clearPassword();
+            }
+        }
+    }
+}
@@ -20,6 +20,7 @@
 package org.apache.directory.fortress.core.impl;
 
 
+import java.util.BitSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
@@ -27,7 +28,6 @@ import java.util.Set;
 import org.apache.directory.fortress.core.GlobalErrIds;
 import org.apache.directory.fortress.core.model.Constraint;
 import org.apache.directory.fortress.core.model.ObjectFactory;
-import org.apache.directory.fortress.core.model.SDSet;
 import org.apache.directory.fortress.core.model.Session;
 import org.apache.directory.fortress.core.model.UserRole;
 import org.apache.directory.fortress.core.model.Warning;
@@ -80,7 +80,6 @@ public class DSDChecker
         throws org.apache.directory.fortress.core.SecurityException
     {
         int rc = 0;
-        int matchCount;
 
         // get all candidate activated roles user:
         List<UserRole> activeRoleList = session.getRoles();
@@ -103,64 +102,51 @@ public class DSDChecker
         {
             // get all DSD sets that contain the candidate activated and authorized roles,
             //If DSD cache is disabled, this will search the directory using authorizedRoleSet
-            Set<SDSet> dsdSets = SDUtil.getInstance().getDsdCache( authorizedRoleSet, contextId);
-            if ( dsdSets != null && dsdSets.size() > 0 )
+            SDUtil sdUtil = SDUtil.getInstance();
+            SdIndex.Rules dsdRules = sdUtil.getDsdRules( authorizedRoleSet, contextId );
+            if ( !dsdRules.getRules().isEmpty() )
             {
-                for ( SDSet dsd : dsdSets )
+                // every activation candidate along with its parents, as bits over the same role ids used by the DSD sets:
+                List<BitSet> inheritedBits = sdUtil.getInheritedBits( dsdRules, activeRoleList, contextId );
+                for ( SdIndex.Rule dsd : dsdRules.getRules() )
                 {
+                    BitSet violations = getViolations( dsdRules, dsd, activeRoleList, inheritedBits );
                     Iterator<UserRole> activatedRoles = activeRoleList.iterator();
-                    matchCount = 0;
-                    Set<String> map = dsd.getMembers();
+                    Iterator<BitSet> activatedBits = inheritedBits.iterator();
 
-                    // now check the DSD on every role activation candidate contained within session object:
-                    while ( activatedRoles.hasNext() )
+                    // now remove every role activation candidate contained within session object that violates the DSD:
+                    for ( int i = 0; activatedRoles.hasNext(); i++ )
                     {
                         UserRole activatedRole = activatedRoles.next();
+                        activatedBits.next();
 
-                        if ( map.contains( activatedRole.getName() ) )
+                        if ( violations.get( i ) )
                         {
-                            matchCount++;
-                            if ( matchCount >= dsd.getCardinality() )
+                            String warning;
+                            if ( dsdRules.isMember( dsd, activatedRole.getName() ) )
                             {
-                                activatedRoles.remove();
-                                String warning = "validate " + entityType + " [" + entityId
+                                warning = "validate " + entityType + " [" + entityId
                                     + "] failed activation of assignedRole [" + activatedRole.getName()
-                                    + "] validates DSD Set Name:" + dsd.getName() + " Cardinality:"
+                                    + "] validates DSD Set Name:" + dsd.getSdSet().getName() + " Cardinality:"
                                     + dsd.getCardinality();
-                                LOG.warn( warning );
-                                rc = GlobalErrIds.ACTV_FAILED_DSD;
-                                session.setWarning( new ObjectFactory().createWarning( rc, warning,
-                                    Warning.Type.ROLE, activatedRole.getName() ) );
                             }
-                        }
-                        else
-                        {
-                            Set<String> parentSet = RoleUtil.getInstance().getAscendants( activatedRole.getName(), contextId);
-                            // now check for every role inherited from this activated role:
-                            for ( String parentRole : parentSet )
+                            else
                             {
-                                if ( map.contains( parentRole ) )
-                                {
-                                    matchCount++;
-                                    if ( matchCount >= dsd.getCardinality() )
-                                    {
-                                        String warning = "validate " + entityType + " [" + entityId
-                                            + "] assignedRole [" + activatedRole.getName() + "] parentRole ["
-                                            + parentRole + "] validates DSD Set Name:" + dsd.getName()
-                                            + " Cardinality:" + dsd.getCardinality();
-                                        rc = GlobalErrIds.ACTV_FAILED_DSD;
-
-                                        // remove the assigned role from session (not the authorized role):
-                                        activatedRoles.remove();
-
-                                        session.setWarning( new ObjectFactory().createWarning( rc, warning,
-                                            Warning.Type.ROLE, activatedRole.getName() ) );
-                                        LOG.warn( warning );
-                                        // Breaking out of the loop because assigned role has been removed from session.
-                                        break;
-                                    }
-                                }
+                                warning = "validate " + entityType + " [" + entityId
+                                    + "] assignedRole [" + activatedRole.getName() + "] parentRole ["
+                                    + sdUtil.getParentMember( dsdRules, dsd, activatedRole.getName(), contextId )
+                                    + "] validates DSD Set Name:" + dsd.getSdSet().getName()
+                                    + " Cardinality:" + dsd.getCardinality();
                             }
+                            rc = GlobalErrIds.ACTV_FAILED_DSD;
+
+                            // remove the assigned role from session (not the authorized role):
+                            activatedRoles.remove();
+                            activatedBits.remove();
+
+                            session.setWarning( new ObjectFactory().createWarning( rc, warning,
+                                Warning.Type.ROLE, activatedRole.getName() ) );
+                            LOG.warn( warning );
                         }
                     }
                 }
@@ -168,4 +154,36 @@ public class DSDChecker
         }
         return rc;
     }
+
+
+    /**
+     * Check the activation candidates against one DSD in the order they're listed.  A candidate matches once if it's a member,
+     * otherwise once for every role it inherits that is.  Every candidate that brings the count up to the cardinality, or past
+     * it, violates the DSD.
+     *
+     * @param dsdRules       contains the role ids used to compile the DSD.
+     * @param dsd            contains the DSD set being checked.
+     * @param activatedRoles contains the role activation candidates.
+     * @param inheritedBits  contains the bits of each candidate along with its parents, in the same order.
+     * @return bits set at the positions of the candidates that violate the DSD.
+     */
+    static BitSet getViolations( SdIndex.Rules dsdRules, SdIndex.Rule dsd, List<UserRole> activatedRoles,
+        List<BitSet> inheritedBits )
+    {
+        BitSet violations = new BitSet();
+        int matchCount = 0;
+        for ( int i = 0; i < activatedRoles.size(); i++ )
+        {
+            BitSet bits = inheritedBits.get( i );
+            if ( dsd.intersects( bits ) )
+            {
+                matchCount += dsdRules.isMember( dsd, activatedRoles.get( i ).getName() ) ? 1 : dsd.count( bits );
+                if ( matchCount >= dsd.getCardinality() )
+                {
+                    violations.set( i );
+                }
+            }
+        }
+        return violations;
+    }
 }
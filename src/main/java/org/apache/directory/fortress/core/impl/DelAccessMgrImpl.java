@@ -232,6 +232,7 @@ public class DelAccessMgrImpl extends AccessMgrImpl implements DelAccessMgr, Ser
         if (indx != -1)
         {
             roles.remove(role);
+            session.clearAuthorizedRoles();
         }
         else
         {
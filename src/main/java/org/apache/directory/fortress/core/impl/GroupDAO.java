@@ -360,7 +360,7 @@ final class GroupDAO extends LdapDataProvider implements PropertyProvider<Group>
 
         try
         {
-            ld = getAdminConnection();
+            ld = getReadConnection();
             Entry findEntry = read( ld, dn, GROUP_ATRS );
             if ( findEntry == null )
             {
@@ -381,7 +381,7 @@ final class GroupDAO extends LdapDataProvider implements PropertyProvider<Group>
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
         return entity;
     }
@@ -406,7 +406,7 @@ final class GroupDAO extends LdapDataProvider implements PropertyProvider<Group>
             String searchVal = encodeSafeText( group.getName(), GlobalIds.ROLE_LEN );
             filter = GlobalIds.FILTER_PREFIX + GROUP_OBJECT_CLASS_IMPL + ")(" + SchemaConstants.CN_AT + "=" + searchVal
                 + "*))";
-            ld = getAdminConnection();
+            ld = getReadConnection();
             searchResults = search( ld, groupRoot, SearchScope.ONELEVEL, filter, GROUP_ATRS, false,
                 Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
@@ -427,7 +427,7 @@ final class GroupDAO extends LdapDataProvider implements PropertyProvider<Group>
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
 
         return groupList;
@@ -453,7 +453,7 @@ final class GroupDAO extends LdapDataProvider implements PropertyProvider<Group>
             encodeSafeText( user.getUserId(), GlobalIds.USERID_LEN );
             filter = GlobalIds.FILTER_PREFIX + GROUP_OBJECT_CLASS_IMPL + ")(" + SchemaConstants.MEMBER_AT + "="
                 + user.getDn() + "))";
-            ld = getAdminConnection();
+            ld = getReadConnection();
             searchResults = search( ld, groupRoot, SearchScope.ONELEVEL, filter, GROUP_ATRS, false,
                 Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
@@ -475,7 +475,7 @@ final class GroupDAO extends LdapDataProvider implements PropertyProvider<Group>
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
 
         return groupList;
@@ -501,7 +501,7 @@ final class GroupDAO extends LdapDataProvider implements PropertyProvider<Group>
             encodeSafeText( role.getName(), GlobalIds.ROLE_LEN );
             filter = GlobalIds.FILTER_PREFIX + GROUP_OBJECT_CLASS_IMPL + ")(" + SchemaConstants.MEMBER_AT + "="
                     + role.getDn() + "))";
-            ld = getAdminConnection();
+            ld = getReadConnection();
             searchResults = search( ld, groupRoot, SearchScope.ONELEVEL, filter, GROUP_ATRS, false,
                     Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
@@ -523,7 +523,7 @@ final class GroupDAO extends LdapDataProvider implements PropertyProvider<Group>
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
 
         return groupList;
@@ -0,0 +1,431 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.directory.fortress.core.model.Relationship;
+import org.jgrapht.graph.SimpleDirectedGraph;
+
+
+/**
+ * Materialized transitive closure of a hierarchical graph built by {@link HierUtil}.
+ * <p>
+ * Every vertex name is interned to an int id, and the complete set of ascendants and descendants of every vertex is stored as a
+ * sorted array of those ids.  Expanding a set of names into all of its ascendants then becomes a handful of array scans into a single
+ * {@link BitSet} rather than a recursive walk of the {@code org.jgrapht.graph.SimpleDirectedGraph} per name.
+ * <p>
+ * Instances are never modified once published.  {@link #addEdge(String, String)} and
+ * {@link #removeEdge(String, String, SimpleDirectedGraph)} return a new closure that shares every unaffected array with this one.
+ * Removing an edge can split ascendant paths in ways that can't be worked out from the closure alone, so the ascendants of the
+ * child and its descendants are recomputed from the updated graph.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class HierClosure
+{
+    private static final int[] EMPTY = new int[0];
+
+    private final Map<String, Integer> ids;
+    private final String[] names;
+    private final int[][] ascendants;
+    private final int[][] descendants;
+
+
+    private HierClosure( Map<String, Integer> ids, String[] names, int[][] ascendants, int[][] descendants )
+    {
+        this.ids = ids;
+        this.names = names;
+        this.ascendants = ascendants;
+        this.descendants = descendants;
+    }
+
+
+    /**
+     * Compute the closure of every vertex contained within the graph.  The graph must not be updated while this runs.
+     *
+     * @param graph contains a reference to simple digraph {@code org.jgrapht.graph.SimpleDirectedGraph}.
+     * @return closure corresponding to the current state of the graph.
+     */
+    static HierClosure build( SimpleDirectedGraph<String, Relationship> graph )
+    {
+        Map<String, Integer> ids = new TreeMap<>( String.CASE_INSENSITIVE_ORDER );
+        Set<String> vertices = graph.vertexSet();
+        String[] names = new String[vertices.size()];
+        int size = 0;
+
+        for ( String vertex : vertices )
+        {
+            ids.put( vertex, size );
+            names[size++] = vertex;
+        }
+
+        int[][] ascendants = new int[names.length][];
+        boolean[] visiting = new boolean[names.length];
+
+        for ( int id = 0; id < names.length; id++ )
+        {
+            loadAscendants( id, graph, ids, names, ascendants, visiting );
+        }
+
+        return new HierClosure( ids, names, ascendants, invert( ascendants ) );
+    }
+
+
+    /**
+     * Return a copy of this closure with the parent-child relationship added.  Arrays belonging to vertices outside of the
+     * child's descendants and the parent's ascendants are shared with this instance.
+     *
+     * @param child  name of the child vertex.
+     * @param parent name of the parent vertex.
+     * @return new closure that reflects the added edge.
+     */
+    HierClosure addEdge( String child, String parent )
+    {
+        Map<String, Integer> newIds = ids;
+        String[] newNames = names;
+
+        // intern any vertex not seen before:
+        if ( !ids.containsKey( child ) || !ids.containsKey( parent ) )
+        {
+            // a copy made by the TreeMap(Map) constructor would lose the case insensitive order:
+            newIds = new TreeMap<>( String.CASE_INSENSITIVE_ORDER );
+            newIds.putAll( ids );
+            newNames = Arrays.copyOf( names, names.length + 2 );
+            int size = names.length;
+            for ( String name : new String[]{ child.toUpperCase(), parent.toUpperCase() } )
+            {
+                if ( !newIds.containsKey( name ) )
+                {
+                    newIds.put( name, size );
+                    newNames[size++] = name;
+                }
+            }
+            newNames = Arrays.copyOf( newNames, size );
+        }
+
+        int[][] newAscendants = Arrays.copyOf( ascendants, newNames.length );
+        int[][] newDescendants = Arrays.copyOf( descendants, newNames.length );
+        for ( int id = names.length; id < newNames.length; id++ )
+        {
+            newAscendants[id] = EMPTY;
+            newDescendants[id] = EMPTY;
+        }
+
+        int childId = newIds.get( child );
+        int parentId = newIds.get( parent );
+
+        // the parent along with its ascendants become ascendants of the child and everything beneath it:
+        int[] upper = union( newAscendants[parentId], new int[]{ parentId } );
+        int[] lower = union( newDescendants[childId], new int[]{ childId } );
+
+        for ( int id : lower )
+        {
+            newAscendants[id] = union( newAscendants[id], upper );
+        }
+        for ( int id : upper )
+        {
+            newDescendants[id] = union( newDescendants[id], lower );
+        }
+
+        return new HierClosure( newIds, newNames, newAscendants, newDescendants );
+    }
+
+
+    /**
+     * Return a copy of this closure with the parent-child relationship removed.  Only the ascendants of the child and its descendants,
+     * and the descendants of the parent and its ascendants, can change.  Every other array is shared with this instance.
+     *
+     * @param child  name of the child vertex.
+     * @param parent name of the parent vertex.
+     * @param graph  contains the hierarchy with the edge already removed.  It must not be updated while this runs.
+     * @return new closure that reflects the removed edge.
+     */
+    HierClosure removeEdge( String child, String parent, SimpleDirectedGraph<String, Relationship> graph )
+    {
+        Integer childId = ids.get( child );
+        Integer parentId = ids.get( parent );
+        if ( childId == null || parentId == null )
+        {
+            return this;
+        }
+
+        int[] lower = union( descendants[childId], new int[]{ childId } );
+        int[] upper = union( ascendants[parentId], new int[]{ parentId } );
+
+        // the ascendants of everything beneath the child are walked again, those outside of it never passed through the edge:
+        int[][] newAscendants = Arrays.copyOf( ascendants, names.length );
+        for ( int id : lower )
+        {
+            newAscendants[id] = null;
+        }
+        boolean[] visiting = new boolean[names.length];
+        for ( int id : lower )
+        {
+            loadAscendants( id, graph, ids, names, newAscendants, visiting );
+        }
+
+        // only the parent and its ascendants can lose descendants, and only those beneath the child:
+        int[][] newDescendants = Arrays.copyOf( descendants, names.length );
+        BitSet removed = new BitSet();
+        for ( int id : upper )
+        {
+            removed.clear();
+            for ( int descendant : lower )
+            {
+                if ( Arrays.binarySearch( newAscendants[descendant], id ) < 0 )
+                {
+                    removed.set( descendant );
+                }
+            }
+            if ( !removed.isEmpty() )
+            {
+                newDescendants[id] = remove( descendants[id], removed );
+            }
+        }
+
+        return new HierClosure( ids, names, newAscendants, newDescendants );
+    }
+
+
+    /**
+     * Return the interned id of a vertex.
+     *
+     * @param name case insensitive name of vertex.
+     * @return int id or -1 if the vertex is not part of the hierarchy.
+     */
+    int getId( String name )
+    {
+        Integer id = ids.get( name );
+        return id == null ? -1 : id;
+    }
+
+
+    /**
+     * Return the number of vertices.
+     *
+     * @return int value contains the number of interned vertices.
+     */
+    int size()
+    {
+        return names.length;
+    }
+
+
+    /**
+     * Set the bits corresponding to all ascendants of a given vertex.  The vertex itself is not set.
+     *
+     * @param name   case insensitive name of vertex.
+     * @param result contains the accumulated ids.
+     */
+    void loadAscendants( String name, BitSet result )
+    {
+        int id = getId( name );
+        if ( id != -1 )
+        {
+            for ( int ascendant : ascendants[id] )
+            {
+                result.set( ascendant );
+            }
+        }
+    }
+
+
+    /**
+     * Set the bits corresponding to all descendants of a given vertex.  The vertex itself is not set.
+     *
+     * @param name   case insensitive name of vertex.
+     * @param result contains the accumulated ids.
+     */
+    void loadDescendants( String name, BitSet result )
+    {
+        int id = getId( name );
+        if ( id != -1 )
+        {
+            for ( int descendant : descendants[id] )
+            {
+                result.set( descendant );
+            }
+        }
+    }
+
+
+    /**
+     * Determine if one vertex is an ascendant of another.
+     *
+     * @param child  case insensitive name of vertex.
+     * @param parent case insensitive name of vertex.
+     * @return boolean value, true if parent is ascendant of child.
+     */
+    boolean isAscendant( String child, String parent )
+    {
+        int childId = getId( child );
+        int parentId = getId( parent );
+        return childId != -1 && parentId != -1 && Arrays.binarySearch( ascendants[childId], parentId ) >= 0;
+    }
+
+
+    /**
+     * Add the vertex names of the bits that are set to the target.
+     *
+     * @param bits   contains ids accumulated by this closure.
+     * @param target receives the vertex names.
+     */
+    void loadNames( BitSet bits, Set<String> target )
+    {
+        for ( int id = bits.nextSetBit( 0 ); id >= 0; id = bits.nextSetBit( id + 1 ) )
+        {
+            target.add( names[id] );
+        }
+    }
+
+
+    /**
+     * Depth first traversal that stores the ascendants of every vertex it visits so each is computed only once.
+     */
+    private static int[] loadAscendants( int id, SimpleDirectedGraph<String, Relationship> graph, Map<String, Integer> ids,
+        String[] names, int[][] ascendants, boolean[] visiting )
+    {
+        if ( ascendants[id] != null )
+        {
+            return ascendants[id];
+        }
+        if ( visiting[id] )
+        {
+            // cycles are rejected by HierUtil.validateRelationship, this only guards against bad data in ldap.
+            return EMPTY;
+        }
+        visiting[id] = true;
+        BitSet bits = new BitSet();
+        for ( Relationship edge : graph.outgoingEdgesOf( names[id] ) )
+        {
+            int parentId = ids.get( edge.getParent() );
+            bits.set( parentId );
+            for ( int ascendant : loadAscendants( parentId, graph, ids, names, ascendants, visiting ) )
+            {
+                bits.set( ascendant );
+            }
+        }
+        ascendants[id] = toArray( bits );
+        visiting[id] = false;
+        return ascendants[id];
+    }
+
+
+    /**
+     * Every vertex is a descendant of each of its ascendants.
+     */
+    private static int[][] invert( int[][] ascendants )
+    {
+        int[] counts = new int[ascendants.length];
+        for ( int[] row : ascendants )
+        {
+            for ( int ascendant : row )
+            {
+                counts[ascendant]++;
+            }
+        }
+        int[][] descendants = new int[ascendants.length][];
+        for ( int id = 0; id < ascendants.length; id++ )
+        {
+            descendants[id] = counts[id] == 0 ? EMPTY : new int[counts[id]];
+            counts[id] = 0;
+        }
+        // ids are visited in ascending order so every row comes out sorted:
+        for ( int id = 0; id < ascendants.length; id++ )
+        {
+            for ( int ascendant : ascendants[id] )
+            {
+                descendants[ascendant][counts[ascendant]++] = id;
+            }
+        }
+        return descendants;
+    }
+
+
+    /**
+     * Merge two sorted arrays.
+     */
+    private static int[] union( int[] a, int[] b )
+    {
+        int[] result = new int[a.length + b.length];
+        int i = 0, j = 0, k = 0;
+        while ( i < a.length && j < b.length )
+        {
+            if ( a[i] < b[j] )
+            {
+                result[k++] = a[i++];
+            }
+            else if ( a[i] > b[j] )
+            {
+                result[k++] = b[j++];
+            }
+            else
+            {
+                result[k++] = a[i++];
+                j++;
+            }
+        }
+        while ( i < a.length )
+        {
+            result[k++] = a[i++];
+        }
+        while ( j < b.length )
+        {
+            result[k++] = b[j++];
+        }
+        return k == result.length ? result : Arrays.copyOf( result, k );
+    }
+
+
+    /**
+     * Drop the ids that are set from a sorted array.
+     */
+    private static int[] remove( int[] a, BitSet removed )
+    {
+        int[] result = new int[a.length];
+        int k = 0;
+        for ( int id : a )
+        {
+            if ( !removed.get( id ) )
+            {
+                result[k++] = id;
+            }
+        }
+        return k == 0 ? EMPTY : Arrays.copyOf( result, k );
+    }
+
+
+    private static int[] toArray( BitSet bits )
+    {
+        if ( bits.isEmpty() )
+        {
+            return EMPTY;
+        }
+        return bits.stream().toArray();
+    }
+}
@@ -0,0 +1,548 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.directory.fortress.core.GlobalIds;
+import org.apache.directory.fortress.core.SecurityException;
+import org.apache.directory.fortress.core.model.Hier;
+import org.apache.directory.fortress.core.model.Relationship;
+import org.apache.directory.fortress.core.util.Config;
+import org.jgrapht.graph.SimpleDirectedGraph;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Holds the hierarchical graphs used by {@link RoleUtil}, {@link AdminRoleUtil}, {@link UsoUtil} and {@link PsoUtil}, one per tenant.
+ * <p>
+ * Each tenant's graph is published as an immutable snapshot through a volatile reference, so readers walk it without taking a lock.
+ * Edges added or removed by {@link #updateHier(String, Relationship, Hier.Op)} are applied to a copy of the current graph that then
+ * replaces it.  Once a snapshot is older than fortress config param, 'hier.reload.interval' (seconds, default 600), the next reader
+ * schedules a reload from ldap onto a background thread and carries on with the snapshot it has.  The reloaded graph is swapped in
+ * after replaying any edges that were updated while it was being read.  Only the first reader of a tenant waits on ldap.
+ * <p>
+ * Between {@link HierarchyBatch#begin()} and {@link HierarchyBatch#end()}, a thread's updates are applied to a single working copy per
+ * tenant that only that thread sees, and published together when the batch ends.  Bulk loads then copy each graph once rather than
+ * once per edge.
+ * <p>
+ * When asked to, a {@link HierClosure} is kept alongside every snapshot and replaced with it.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class HierSnapshots
+{
+    /**
+     * Reads a tenant's hierarchy from ldap.
+     */
+    interface Loader
+    {
+        /**
+         * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+         * @return new simple digraph that isn't referenced anywhere else.
+         * @throws SecurityException in the event of a system error.
+         */
+        SimpleDirectedGraph<String, Relationship> load( String contextId ) throws SecurityException;
+    }
+
+    private static final String CLS_NM = HierSnapshots.class.getName();
+    private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
+    private static final String RELOAD_INTERVAL = "hier.reload.interval";
+    // shared by every hierarchy type, reloads are infrequent:
+    private static final ExecutorService RELOADER = Executors.newSingleThreadExecutor( runnable ->
+    {
+        Thread thread = new Thread( runnable, "fortress-hier-reload" );
+        thread.setDaemon( true );
+        return thread;
+    } );
+
+    // working copies of the graphs updated by a thread within a batch, keyed by tenant, null outside of a batch:
+    private static final ThreadLocal<Map<String, Batch>> BATCHES = new ThreadLocal<>();
+
+    private final HierUtil.Type type;
+    private final Loader loader;
+    private final boolean isClosure;
+    private final long interval;
+    private final ConcurrentMap<String, Tenant> tenants = new ConcurrentHashMap<>();
+    // incremented every time a snapshot is replaced:
+    private final AtomicLong generation = new AtomicLong();
+
+
+    /**
+     * @param type      of hierarchy, used to key the tenants.
+     * @param loader    reads the graph from ldap.
+     * @param isClosure if true, the closure of each snapshot is maintained along with it.
+     */
+    HierSnapshots( HierUtil.Type type, Loader loader, boolean isClosure )
+    {
+        this.type = type;
+        this.loader = loader;
+        this.isClosure = isClosure;
+        this.interval = TimeUnit.SECONDS.toMillis( Config.getInstance().getInt( RELOAD_INTERVAL, 600 ) );
+    }
+
+
+    /**
+     * Return the current graph of a tenant.  The graph must not be modified.
+     *
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @return handle to simple digraph containing the hierarchies.
+     */
+    SimpleDirectedGraph<String, Relationship> getGraph( String contextId )
+    {
+        return getSnapshot( contextId ).graph;
+    }
+
+
+    /**
+     * Return the closure of the current graph of a tenant.
+     *
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @return handle to the materialized ascendants and descendants, null unless this instance maintains closures.
+     */
+    HierClosure getClosure( String contextId )
+    {
+        return getSnapshot( contextId ).closure;
+    }
+
+
+    /**
+     * Return the current generation, after making sure the tenant's graph has been loaded.
+     *
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @return long value that changes whenever the snapshot of any tenant is replaced.
+     */
+    long getGeneration( String contextId )
+    {
+        getSnapshot( contextId );
+        return generation.get();
+    }
+
+
+    /**
+     * Apply an added or removed edge to a copy of the tenant's graph and publish it.  Readers of the prior snapshot are unaffected.
+     * Within a batch, the edge is applied to the thread's working copy instead and published when the batch ends.
+     *
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @param relationship contains parent-child relationship targeted for addition or removal.
+     * @param op   used to pass the ldap op {@link Hier.Op#ADD}, {@link Hier.Op#MOD}, {@link Hier.Op#REM}
+     * @throws SecurityException in the event of a system error.
+     */
+    void updateHier( String contextId, Relationship relationship, Hier.Op op ) throws SecurityException
+    {
+        Map<String, Batch> batches = BATCHES.get();
+        if ( batches != null )
+        {
+            updateBatch( batches, contextId, relationship, op );
+            return;
+        }
+        // lock the tenant that was loaded, which a concurrent clear may have already dropped from the map:
+        String key = getKey( contextId );
+        Tenant tenant = getTenant( key );
+        getSnapshot( tenant, key, contextId );
+        synchronized ( tenant )
+        {
+            Snapshot current = tenant.current;
+            SimpleDirectedGraph<String, Relationship> graph = copy( current.graph );
+            HierUtil.updateHier( graph, relationship, op );
+            publish( tenant, new Snapshot( graph, update( current.closure, graph, relationship, op ), current.loadTime ) );
+            if ( tenant.updates != null )
+            {
+                tenant.updates.add( new Update( relationship, op ) );
+            }
+        }
+    }
+
+
+    /**
+     * Start collecting the calling thread's updates.  Has no effect if a batch has already been started.
+     */
+    static void beginBatch()
+    {
+        if ( BATCHES.get() == null )
+        {
+            BATCHES.set( new LinkedHashMap<>() );
+        }
+    }
+
+
+    /**
+     * Publish every graph the calling thread updated since {@link #beginBatch()}.
+     */
+    static void endBatch()
+    {
+        Map<String, Batch> batches = BATCHES.get();
+        if ( batches != null )
+        {
+            BATCHES.remove();
+            for ( Map.Entry<String, Batch> entry : batches.entrySet() )
+            {
+                Batch batch = entry.getValue();
+                batch.owner.flush( entry.getKey(), batch );
+            }
+        }
+    }
+
+
+    /**
+     * Apply the update to the thread's working copy, taking it from the current snapshot on the first update of the batch.
+     */
+    private void updateBatch( Map<String, Batch> batches, String contextId, Relationship relationship, Hier.Op op )
+        throws SecurityException
+    {
+        String key = getKey( contextId );
+        Batch batch = batches.get( key );
+        if ( batch == null )
+        {
+            Tenant tenant = getTenant( key );
+            Snapshot current = getSnapshot( tenant, key, contextId );
+            batch = new Batch( this, tenant, current, copy( current.graph ) );
+            batches.put( key, batch );
+        }
+        HierUtil.updateHier( batch.graph, relationship, op );
+        Update update = new Update( relationship, op );
+        batch.updates.add( update );
+        batch.working = new Snapshot( batch.graph, update( batch.working.closure, batch.graph, relationship, op ),
+            batch.base.loadTime );
+        synchronized ( batch.tenant )
+        {
+            if ( batch.tenant.updates != null )
+            {
+                batch.tenant.updates.add( update );
+            }
+        }
+        generation.incrementAndGet();
+    }
+
+
+    /**
+     * Publish the working copy, or if another thread or a reload replaced the snapshot in the meantime, replay the batch onto that.
+     */
+    private void flush( String key, Batch batch )
+    {
+        Tenant tenant = batch.tenant;
+        synchronized ( tenant )
+        {
+            if ( tenants.get( key ) != tenant )
+            {
+                // cleared, the next reader loads it from ldap:
+                return;
+            }
+            Snapshot current = tenant.current;
+            if ( current == batch.base )
+            {
+                publish( tenant, batch.working );
+            }
+            else
+            {
+                SimpleDirectedGraph<String, Relationship> graph = copy( current.graph );
+                for ( Update update : batch.updates )
+                {
+                    replay( graph, update );
+                }
+                publish( tenant, new Snapshot( graph, isClosure ? HierClosure.build( graph ) : null, current.loadTime ) );
+            }
+        }
+    }
+
+
+    private HierClosure update( HierClosure closure, SimpleDirectedGraph<String, Relationship> graph, Relationship relationship,
+        Hier.Op op )
+    {
+        if ( !isClosure )
+        {
+            return null;
+        }
+        return op == Hier.Op.ADD ? closure.addEdge( relationship.getChild(), relationship.getParent() ) : closure.removeEdge(
+            relationship.getChild(), relationship.getParent(), graph );
+    }
+
+
+    /**
+     * Drop the tenant's graph so the next reader loads it from ldap.  Used after the tenant's data was changed without going through
+     * {@link #updateHier(String, Relationship, Hier.Op)}.
+     *
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     */
+    void clear( String contextId )
+    {
+        String key = getKey( contextId );
+        Map<String, Batch> batches = BATCHES.get();
+        if ( batches != null )
+        {
+            batches.remove( key );
+        }
+        tenants.remove( key );
+        generation.incrementAndGet();
+    }
+
+
+    private Snapshot getSnapshot( String contextId )
+    {
+        String key = getKey( contextId );
+        Map<String, Batch> batches = BATCHES.get();
+        if ( batches != null )
+        {
+            Batch batch = batches.get( key );
+            if ( batch != null )
+            {
+                // the thread validates its next update against the edges it has already made:
+                return batch.working;
+            }
+        }
+        return getSnapshot( getTenant( key ), key, contextId );
+    }
+
+
+    private Tenant getTenant( String key )
+    {
+        Tenant tenant = tenants.get( key );
+        if ( tenant == null )
+        {
+            tenant = tenants.computeIfAbsent( key, k -> new Tenant() );
+        }
+        return tenant;
+    }
+
+
+    /**
+     * Return the tenant's current snapshot, loading it first if there isn't one.
+     */
+    private Snapshot getSnapshot( Tenant tenant, String key, String contextId )
+    {
+        Snapshot snapshot = tenant.current;
+        if ( snapshot == null )
+        {
+            // there's nothing to serve yet so the first caller loads it while any others wait:
+            synchronized ( tenant )
+            {
+                snapshot = tenant.current;
+                if ( snapshot == null )
+                {
+                    SimpleDirectedGraph<String, Relationship> graph;
+                    try
+                    {
+                        graph = loader.load( contextId );
+                    }
+                    catch ( SecurityException se )
+                    {
+                        LOG.info( "getSnapshot {} caught SecurityException={}", key, se );
+                        graph = HierUtil.buildGraph( new Hier() );
+                    }
+                    snapshot = new Snapshot( graph, isClosure ? HierClosure.build( graph ) : null,
+                        System.currentTimeMillis() );
+                    publish( tenant, snapshot );
+                }
+            }
+        }
+        else if ( System.currentTimeMillis() - snapshot.loadTime > interval && tenant.isReloading.compareAndSet( false, true ) )
+        {
+            reload( tenant, key, contextId );
+        }
+        return snapshot;
+    }
+
+
+    /**
+     * Read the tenant's graph on the background thread.  Updates made in the meantime are recorded and replayed onto the new graph.
+     */
+    private void reload( Tenant tenant, String key, String contextId )
+    {
+        synchronized ( tenant )
+        {
+            tenant.updates = new ArrayList<>();
+        }
+        LOG.debug( "reload scheduled for {}", key );
+        RELOADER.execute( () ->
+        {
+            try
+            {
+                SimpleDirectedGraph<String, Relationship> graph = loader.load( contextId );
+                HierClosure closure = isClosure ? HierClosure.build( graph ) : null;
+                synchronized ( tenant )
+                {
+                    if ( !tenant.updates.isEmpty() )
+                    {
+                        for ( Update update : tenant.updates )
+                        {
+                            replay( graph, update );
+                        }
+                        closure = isClosure ? HierClosure.build( graph ) : null;
+                    }
+                    publish( tenant, new Snapshot( graph, closure, System.currentTimeMillis() ) );
+                }
+            }
+            catch ( SecurityException | RuntimeException e )
+            {
+                // keep serving the prior snapshot and wait another interval before retrying:
+                LOG.warn( "reload {} failed, prior graph retained, caught {}", key, e.toString() );
+                synchronized ( tenant )
+                {
+                    Snapshot current = tenant.current;
+                    tenant.current = new Snapshot( current.graph, current.closure, System.currentTimeMillis() );
+                }
+            }
+            finally
+            {
+                synchronized ( tenant )
+                {
+                    tenant.updates = null;
+                }
+                tenant.isReloading.set( false );
+            }
+        } );
+    }
+
+
+    /**
+     * The reloaded graph may or may not already contain the update, depending on when ldap was read.
+     */
+    private static void replay( SimpleDirectedGraph<String, Relationship> graph, Update update )
+    {
+        String child = update.relationship.getChild().toUpperCase();
+        String parent = update.relationship.getParent().toUpperCase();
+        boolean isEdge = graph.containsVertex( child ) && graph.containsVertex( parent ) && graph.containsEdge( child, parent );
+        if ( update.op == Hier.Op.ADD && !isEdge )
+        {
+            graph.addVertex( child );
+            graph.addVertex( parent );
+            graph.addEdge( child, parent, update.relationship );
+        }
+        else if ( update.op == Hier.Op.REM && isEdge )
+        {
+            graph.removeEdge( child, parent );
+        }
+    }
+
+
+    private void publish( Tenant tenant, Snapshot snapshot )
+    {
+        tenant.current = snapshot;
+        generation.incrementAndGet();
+    }
+
+
+    @SuppressWarnings("unchecked")
+    private static SimpleDirectedGraph<String, Relationship> copy( SimpleDirectedGraph<String, Relationship> graph )
+    {
+        return ( SimpleDirectedGraph<String, Relationship> ) graph.clone();
+    }
+
+
+    /**
+     *
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @return key to this tenant's graph.
+     */
+    private String getKey( String contextId )
+    {
+        String key = type.toString();
+        if ( StringUtils.isNotEmpty( contextId ) && !contextId.equalsIgnoreCase( GlobalIds.NULL ) )
+        {
+            key += ":" + contextId;
+        }
+        return key;
+    }
+
+
+    /**
+     * A graph along with its closure, neither of which change once published.
+     */
+    private static final class Snapshot
+    {
+        private final SimpleDirectedGraph<String, Relationship> graph;
+        private final HierClosure closure;
+        private final long loadTime;
+
+
+        private Snapshot( SimpleDirectedGraph<String, Relationship> graph, HierClosure closure, long loadTime )
+        {
+            this.graph = graph;
+            this.closure = closure;
+            this.loadTime = loadTime;
+        }
+    }
+
+
+    private static final class Update
+    {
+        private final Relationship relationship;
+        private final Hier.Op op;
+
+
+        private Update( Relationship relationship, Hier.Op op )
+        {
+            this.relationship = relationship;
+            this.op = op;
+        }
+    }
+
+
+    /**
+     * A thread's working copy of one tenant's graph, never seen by other threads until published.
+     */
+    private static final class Batch
+    {
+        private final HierSnapshots owner;
+        private final Tenant tenant;
+        // the snapshot the working copy was taken from:
+        private final Snapshot base;
+        private final SimpleDirectedGraph<String, Relationship> graph;
+        private final List<Update> updates = new ArrayList<>();
+        private Snapshot working;
+
+
+        private Batch( HierSnapshots owner, Tenant tenant, Snapshot base, SimpleDirectedGraph<String, Relationship> graph )
+        {
+            this.owner = owner;
+            this.tenant = tenant;
+            this.base = base;
+            this.graph = graph;
+            this.working = new Snapshot( graph, base.closure, base.loadTime );
+        }
+    }
+
+
+    /**
+     * Writers synchronize on the tenant, readers only touch {@link #current}.
+     */
+    private static final class Tenant
+    {
+        private volatile Snapshot current;
+        private final AtomicBoolean isReloading = new AtomicBoolean();
+        // edges updated while a reload is in progress, null otherwise:
+        private List<Update> updates;
+    }
+}
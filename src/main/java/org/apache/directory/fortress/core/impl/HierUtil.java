@@ -26,7 +26,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
-import java.util.concurrent.locks.ReadWriteLock;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.directory.fortress.core.model.Graphable;
@@ -59,6 +58,9 @@ import org.apache.directory.fortress.core.ValidationException;
  * </ol>
  * Static methods on this class are intended for use by other Fortress classes, and cannot be directly invoked by outside programs.
  * <p>
+ * The graphs passed to the traversal methods are snapshots published by {@link HierSnapshots} that are never modified, so no locks are
+ * taken to read them.  Updates are applied to a private copy that replaces the snapshot afterwards.
+ * <p>
  * This class is thread safe.
  *
  * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
@@ -83,9 +85,6 @@ final class HierUtil
         PSO
     }
 
-    private static final Map<String, ReadWriteLock> synchMap = new HashMap<String, ReadWriteLock>();
-
-
     /**
      * Private constructor
      *
@@ -183,38 +182,32 @@ final class HierUtil
 
 
     /**
-     * This method is synchronized and adds an edge and its associated vertices to simple directed graph stored in static memory of this process.
+     * This method adds an edge and its associated vertices to simple directed graph.  The graph must not yet be visible to readers.
      *
-     * @param graph synchronized parameter contains a reference to simple digraph {@code org.jgrapht.graph.SimpleDirectedGraph}.
+     * @param graph contains a reference to simple digraph {@code org.jgrapht.graph.SimpleDirectedGraph}.
      * @param relation contains parent-child relationship targeted for addition.
      * @return {@code org.jgrapht.graph.SimpleDirectedGraph} containing the vertices of {@code String}, and edges, as {@link Relationship}s that correspond to relational data.
      */
     private static void addEdge( SimpleDirectedGraph<String, Relationship> graph, Relationship relation )
     {
         LOG.debug( "addEdge" );
-        synchronized ( graph )
-        {
-            graph.addVertex( relation.getChild().toUpperCase() );
-            graph.addVertex( relation.getParent().toUpperCase() );
-            graph.addEdge( relation.getChild().toUpperCase(), relation.getParent().toUpperCase(), relation );
-        }
+        graph.addVertex( relation.getChild().toUpperCase() );
+        graph.addVertex( relation.getParent().toUpperCase() );
+        graph.addEdge( relation.getChild().toUpperCase(), relation.getParent().toUpperCase(), relation );
     }
 
 
     /**
-     * This method is synchronized and removes an edge from a simple directed graph stored in static memory of this process.
+     * This method removes an edge from a simple directed graph.  The graph must not yet be visible to readers.
      *
-     * @param graph synchronized parameter contains a reference to simple digraph {@code org.jgrapht.graph.SimpleDirectedGraph}.
+     * @param graph contains a reference to simple digraph {@code org.jgrapht.graph.SimpleDirectedGraph}.
      * @param relation contains parent-child relationship targeted for removal.
      * @return {@code org.jgrapht.graph.SimpleDirectedGraph} containing the vertices of {@code String}, and edges, as {@link Relationship}s that correspond to relational data.
      */
     private static void removeEdge( SimpleDirectedGraph<String, Relationship> graph, Relationship relation )
     {
         LOG.debug( "removeEdge" );
-        synchronized ( graph )
-        {
-            graph.removeEdge( relation );
-        }
+        graph.removeEdge( relation );
     }
 
 
@@ -618,8 +611,8 @@ final class HierUtil
 
 
     /**
-     * This api allows synchronized access to allow updates to hierarchical relationships.
-     * Method will update the hierarchical data set and reload the JGraphT simple digraph with latest.
+     * This api applies an added or removed edge to the hierarchical data set.  It's called by {@link HierSnapshots} against a
+     * copy of the JGraphT simple digraph, before the copy is published to readers.
      *
      * @param graph contains a reference to simple digraph {@code org.jgrapht.graph.SimpleDirectedGraph}.
      * @param relationship contains parent-child relationship targeted for addition.
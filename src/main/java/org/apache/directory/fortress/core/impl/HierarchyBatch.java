@@ -0,0 +1,67 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+
+/**
+ * Groups the hierarchy updates made by the calling thread so that each tenant's role, admin role and org unit graph is copied and
+ * published once per batch rather than once per edge.  Used by bulk loaders that add or remove many inheritances in a row:
+ * <pre>
+ * HierarchyBatch.begin();
+ * try
+ * {
+ *     // adminMgr.addInheritance( parent, child ) ...
+ * }
+ * finally
+ * {
+ *     HierarchyBatch.end();
+ * }
+ * </pre>
+ * Until the batch ends, other threads keep reading the graphs as they were when it started, while the calling thread sees its own
+ * updates.  Batches don't nest, the first call to {@link #end()} publishes everything.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public final class HierarchyBatch
+{
+    private HierarchyBatch()
+    {
+    }
+
+
+    /**
+     * Start collecting the hierarchy updates made by the calling thread.
+     */
+    public static void begin()
+    {
+        HierSnapshots.beginBatch();
+    }
+
+
+    /**
+     * Publish the hierarchy updates made by the calling thread since {@link #begin()}.
+     */
+    public static void end()
+    {
+        HierSnapshots.endBatch();
+        // grants remembered while the admin role updates were unpublished may rest on the old graph:
+        AdminUtil.clearDecisionCache();
+    }
+}
@@ -0,0 +1,309 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+
+import org.apache.directory.api.ldap.model.constants.SchemaConstants;
+import org.apache.directory.api.ldap.model.cursor.CursorException;
+import org.apache.directory.api.ldap.model.entry.Attribute;
+import org.apache.directory.api.ldap.model.entry.DefaultEntry;
+import org.apache.directory.api.ldap.model.entry.Entry;
+import org.apache.directory.api.ldap.model.entry.Value;
+import org.apache.directory.api.ldap.model.exception.LdapEntryAlreadyExistsException;
+import org.apache.directory.api.ldap.model.exception.LdapException;
+import org.apache.directory.api.ldap.model.ldif.LdifEntry;
+import org.apache.directory.api.ldap.model.ldif.LdifReader;
+import org.apache.directory.api.ldap.model.ldif.LdifUtils;
+import org.apache.directory.api.ldap.model.message.SearchScope;
+import org.apache.directory.fortress.core.CreateException;
+import org.apache.directory.fortress.core.FinderException;
+import org.apache.directory.fortress.core.GlobalErrIds;
+import org.apache.directory.fortress.core.GlobalIds;
+import org.apache.directory.fortress.core.SecurityException;
+import org.apache.directory.fortress.core.ldap.LdapDataProvider;
+import org.apache.directory.fortress.core.ldap.PagedCursor;
+import org.apache.directory.fortress.core.util.Config;
+import org.apache.directory.ldap.client.api.LdapConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * This class streams the entries of a tenant's RBAC policy between ldap and ldif, one entry at a time, for {@link TenantLdif}.
+ * <p>
+ * Export reads, in order, the password policies, user and perm org units, roles, admin roles, perm objects, perm operations, admin
+ * perm objects, admin perm operations, SD sets and users of the tenant.  Grants are held on the perm operations, and hierarchies on
+ * the roles and org units, so they come along with those entries.  The order is such that an entry is always written after its
+ * parent, so the ldif may be imported as it's read.  Along with the user attributes, the password policy attributes an administrator
+ * may set are exported.  Attributes the server maintains itself, such as entryUUID or createTimestamp, are not.  Each container is
+ * searched a page at a time, per 'ldap.page.size', so its size isn't bounded by the server's size limit.
+ * <p>
+ * Import adds each entry as it's read over a single admin connection, bypassing the managers along with their validations,
+ * administrative checks and cache updates.  Entries that already exist are left alone, so an import that was interrupted may be run
+ * again.  Distinguished names, and values that refer to them, beneath the source tenant are moved beneath the target.  Once loaded,
+ * the uidNumber and gidNumber sequences are moved past the highest ids that were imported so they won't be handed out again.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class LdifDAO extends LdapDataProvider
+{
+    private static final String CLS_NM = LdifDAO.class.getName();
+    private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
+    // the operational attributes set by UserDAO, others are maintained by the server and can't be added:
+    private static final String[] ALL_ATRS =
+        { SchemaConstants.ALL_USER_ATTRIBUTES, "pwdPolicySubentry", "pwdReset", "pwdAccountLockedTime" };
+
+    /**
+     * Containers exported, along with the scope and filter of each, in the order they must be imported.
+     */
+    private static final String[][] CONTAINERS =
+        {
+            { Config.getInstance().isApacheds() ? GlobalIds.ADS_PPOLICY_ROOT : GlobalIds.PPOLICY_ROOT, "(objectClass=*)" },
+            { GlobalIds.OSU_ROOT, "(objectClass=*)" },
+            { GlobalIds.PSU_ROOT, "(objectClass=*)" },
+            { GlobalIds.ROLE_ROOT, "(objectClass=*)" },
+            { GlobalIds.ADMIN_ROLE_ROOT, "(objectClass=*)" },
+            { GlobalIds.PERM_ROOT, "(objectClass=ftObject)" },
+            { GlobalIds.PERM_ROOT, "(objectClass=ftOperation)" },
+            { GlobalIds.ADMIN_PERM_ROOT, "(objectClass=ftObject)" },
+            { GlobalIds.ADMIN_PERM_ROOT, "(objectClass=ftOperation)" },
+            { GlobalIds.SD_ROOT, "(objectClass=*)" },
+            { GlobalIds.USER_ROOT, "(objectClass=*)" }
+        };
+
+
+    /**
+     * Package private default constructor.
+     */
+    LdifDAO()
+    {
+        super();
+    }
+
+
+    /**
+     * Write the tenant's policy as ldif.
+     *
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @param writer    receives the ldif, isn't closed.
+     * @return long value contains the number of entries written.
+     * @throws FinderException in the event of ldap or io error.
+     */
+    long export( String contextId, Writer writer ) throws FinderException
+    {
+        long count = 0;
+        String root = null;
+        LdapConnection ld = null;
+        try
+        {
+            ld = getReadConnection();
+            writer.write( "version: 1\n\n" );
+            for ( String[] container : CONTAINERS )
+            {
+                root = getRootDn( contextId, container[0] );
+                // operations sit beneath their objects, everything else directly beneath the container:
+                SearchScope scope = container[1].contains( "ftOperation" ) ? SearchScope.SUBTREE : SearchScope.ONELEVEL;
+                // paged, so a container larger than the server's size limit is exported in full:
+                PagedCursor searchResults = searchPaged( ld, root, scope, container[1], ALL_ATRS );
+                try
+                {
+                    while ( searchResults.next() )
+                    {
+                        writer.write( LdifUtils.convertToLdif( searchResults.getEntry() ) );
+                        writer.write( '\n' );
+                        count++;
+                    }
+                }
+                finally
+                {
+                    searchResults.close();
+                }
+                LOG.debug( "export root [{}] filter [{}] done, {} entries written", root, container[1], count );
+            }
+            writer.flush();
+        }
+        catch ( LdapException e )
+        {
+            String error = "export root [" + root + "] caught LdapException=" + e;
+            throw new FinderException( GlobalErrIds.FT_LDIF_EXPORT_FAILED, error, e );
+        }
+        catch ( CursorException e )
+        {
+            String error = "export root [" + root + "] caught CursorException=" + e.getMessage();
+            throw new FinderException( GlobalErrIds.FT_LDIF_EXPORT_FAILED, error, e );
+        }
+        catch ( IOException e )
+        {
+            String error = "export root [" + root + "] caught IOException=" + e.getMessage();
+            throw new FinderException( GlobalErrIds.FT_LDIF_EXPORT_FAILED, error, e );
+        }
+        finally
+        {
+            closeReadConnection( ld );
+        }
+        return count;
+    }
+
+
+    /**
+     * Add the entries contained within ldif to the tenant.
+     *
+     * @param sourceContextId tenant the ldif was exported from.
+     * @param contextId       tenant to import into, its containers must already exist.
+     * @param reader          supplies the ldif, isn't closed.
+     * @return long value contains the number of entries added.
+     * @throws CreateException in the event of ldap error or bad ldif.
+     */
+    long load( String sourceContextId, String contextId, Reader reader ) throws CreateException
+    {
+        String source = getRootDn( sourceContextId );
+        String target = getRootDn( contextId );
+        long count = 0;
+        long skipped = 0;
+        long uidNumber = -1;
+        long gidNumber = -1;
+        String dn = null;
+        LdapConnection ld = null;
+        try
+        {
+            LdifReader ldif = new LdifReader( reader );
+            ld = getAdminConnection();
+            for ( LdifEntry ldifEntry : ldif )
+            {
+                if ( !ldifEntry.isEntry() )
+                {
+                    LOG.warn( "load skipped change record dn [{}]", ldifEntry.getDn() );
+                    continue;
+                }
+                Entry entry = ldifEntry.getEntry();
+                if ( !source.equalsIgnoreCase( target ) )
+                {
+                    entry = move( entry, source, target );
+                }
+                dn = entry.getDn().getName();
+                uidNumber = Math.max( uidNumber, getPosixId( entry, GlobalIds.UID_NUMBER ) );
+                gidNumber = Math.max( gidNumber, getPosixId( entry, GlobalIds.GID_NUMBER ) );
+                try
+                {
+                    add( ld, entry );
+                    count++;
+                }
+                catch ( LdapEntryAlreadyExistsException e )
+                {
+                    LOG.debug( "load dn [{}] already exists", dn );
+                    skipped++;
+                }
+            }
+            if ( ldif.hasError() )
+            {
+                String error = "load after dn [" + dn + "] could not parse ldif, " + ldif.getError();
+                throw new CreateException( GlobalErrIds.FT_LDIF_IMPORT_FAILED, error );
+            }
+        }
+        catch ( LdapException e )
+        {
+            String error = "load dn [" + dn + "] caught LdapException=" + e;
+            throw new CreateException( GlobalErrIds.FT_LDIF_IMPORT_FAILED, error, e );
+        }
+        finally
+        {
+            closeAdminConnection( ld );
+        }
+        try
+        {
+            PosixIdAllocator.getInstance().advance( uidNumber, gidNumber );
+        }
+        catch ( SecurityException e )
+        {
+            String error = "load contextId [" + contextId + "] could not advance posix ids past uidNumber [" + uidNumber
+                + "] gidNumber [" + gidNumber + "], caught SecurityException=" + e;
+            throw new CreateException( GlobalErrIds.FT_LDIF_IMPORT_FAILED, error, e );
+        }
+        LOG.info( "load contextId [{}] added {} entries, {} already existed", contextId, count, skipped );
+        return count;
+    }
+
+
+    /**
+     * Return the highest numeric value of a posix id attribute, or -1 if the entry doesn't have one.
+     */
+    private static long getPosixId( Entry entry, String name )
+    {
+        long id = -1;
+        Attribute attribute = entry.get( name );
+        if ( attribute != null )
+        {
+            for ( Value value : attribute )
+            {
+                try
+                {
+                    id = Math.max( id, Long.parseLong( value.getString().trim() ) );
+                }
+                catch ( NumberFormatException e )
+                {
+                    LOG.warn( "load dn [{}] has non numeric {} [{}]", entry.getDn(), name, value.getString() );
+                }
+            }
+        }
+        return id;
+    }
+
+
+    /**
+     * Copy an entry, replacing the source tenant's root with the target's in its dn and any value that ends with it.
+     */
+    private static Entry move( Entry entry, String source, String target ) throws LdapException
+    {
+        Entry moved = new DefaultEntry( move( entry.getDn().getName(), source, target ) );
+        for ( Attribute attribute : entry )
+        {
+            for ( Value value : attribute )
+            {
+                if ( value.isHumanReadable() )
+                {
+                    moved.add( attribute.getUpId(), move( value.getString(), source, target ) );
+                }
+                else
+                {
+                    moved.add( attribute.getUpId(), value.getBytes() );
+                }
+            }
+        }
+        return moved;
+    }
+
+
+    private static String move( String value, String source, String target )
+    {
+        int idx = value.length() - source.length();
+        if ( ( idx == 0 || idx > 0 && value.charAt( idx - 1 ) == ',' ) && value.regionMatches( true, idx, source, 0,
+            source.length() ) )
+        {
+            return value.substring( 0, idx ) + target;
+        }
+        return value;
+    }
+}
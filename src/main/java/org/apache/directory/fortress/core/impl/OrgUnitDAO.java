@@ -338,7 +338,7 @@ final class OrgUnitDAO extends LdapDataProvider
 
         try
         {
-            ld = getAdminConnection();
+            ld = getReadConnection();
             Entry findEntry = read( ld, dn, ORGUNIT_ATRS );
 
             if ( findEntry == null )
@@ -396,7 +396,7 @@ final class OrgUnitDAO extends LdapDataProvider
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
 
         return oe;
@@ -420,7 +420,7 @@ final class OrgUnitDAO extends LdapDataProvider
             String searchVal = encodeSafeText( orgUnit.getName(), GlobalIds.ROLE_LEN );
             String filter = GlobalIds.FILTER_PREFIX + ORGUNIT_OBJECT_CLASS_NM + ")("
                 + SchemaConstants.OU_AT + "=" + searchVal + "*))";
-            ld = getAdminConnection();
+            ld = getReadConnection();
             SearchCursor searchResults = search( ld, orgUnitRoot,
                 SearchScope.ONELEVEL, filter, ORGUNIT_ATRS, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
@@ -467,7 +467,7 @@ final class OrgUnitDAO extends LdapDataProvider
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
 
         return orgUnitList;
@@ -489,7 +489,7 @@ final class OrgUnitDAO extends LdapDataProvider
         try
         {
             String filter = "(objectclass=" + ORGUNIT_OBJECT_CLASS_NM + ")";
-            ld = getAdminConnection();
+            ld = getReadConnection();
             SearchCursor searchResults = search( ld, orgUnitRoot,
                 SearchScope.ONELEVEL, filter, ORGUNIT_ATR, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
 
@@ -553,7 +553,7 @@ final class OrgUnitDAO extends LdapDataProvider
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
 
         return ouSet;
@@ -579,7 +579,7 @@ final class OrgUnitDAO extends LdapDataProvider
         {
             filter = GlobalIds.FILTER_PREFIX + ORGUNIT_OBJECT_CLASS_NM + ")("
                 + GlobalIds.PARENT_NODES + "=*))";
-            ld = getAdminConnection();
+            ld = getReadConnection();
             SearchCursor searchResults = search( ld, orgUnitRoot,
                 SearchScope.ONELEVEL, filter, DESC_ATRS, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
@@ -603,7 +603,7 @@ final class OrgUnitDAO extends LdapDataProvider
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
 
         return descendants;
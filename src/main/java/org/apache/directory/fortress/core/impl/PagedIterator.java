@@ -0,0 +1,142 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+
+import java.io.IOException;
+import java.util.NoSuchElementException;
+
+import org.apache.directory.api.ldap.model.cursor.CursorException;
+import org.apache.directory.api.ldap.model.entry.Entry;
+import org.apache.directory.api.ldap.model.exception.LdapException;
+import org.apache.directory.fortress.core.FinderRuntimeException;
+import org.apache.directory.fortress.core.ldap.PagedCursor;
+import org.apache.directory.fortress.core.util.CloseableIterator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Turns the entries read by a {@link PagedCursor} into entities as they're asked for.  The connection the cursor reads from is
+ * released as soon as the last entry has been read, or the iterator is closed, whichever comes first.
+ * <p>
+ * This class is not thread safe.
+ *
+ * @param <T> type of entity.
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class PagedIterator<T> implements CloseableIterator<T>
+{
+    /**
+     * Converts an ldap entry into an entity, normally one of the unload methods of a DAO.
+     */
+    interface Unloader<T>
+    {
+        T unload( Entry entry, long sequence ) throws LdapException;
+    }
+
+    private static final String CLS_NM = PagedIterator.class.getName();
+    private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
+
+    private final PagedCursor cursor;
+    private final Unloader<T> unloader;
+    private final Runnable release;
+    private final int errorId;
+    private long sequence;
+    private T next;
+    private boolean isClosed;
+
+
+    /**
+     * @param cursor   positioned before the first entry.
+     * @param unloader converts each entry.
+     * @param release  returns the cursor's connection to its pool.
+     * @param errorId  set on the exception thrown when a page can't be read.
+     */
+    PagedIterator( PagedCursor cursor, Unloader<T> unloader, Runnable release, int errorId )
+    {
+        this.cursor = cursor;
+        this.unloader = unloader;
+        this.release = release;
+        this.errorId = errorId;
+    }
+
+
+    @Override
+    public boolean hasNext()
+    {
+        if ( next == null && !isClosed )
+        {
+            try
+            {
+                if ( cursor.next() )
+                {
+                    next = unloader.unload( cursor.getEntry(), sequence++ );
+                }
+                else
+                {
+                    close();
+                }
+            }
+            catch ( LdapException | CursorException e )
+            {
+                close();
+                throw new FinderRuntimeException( errorId, "hasNext caught " + e.getClass().getSimpleName() + "=" + e
+                    .getMessage(), e );
+            }
+        }
+        return next != null;
+    }
+
+
+    @Override
+    public T next()
+    {
+        if ( !hasNext() )
+        {
+            throw new NoSuchElementException();
+        }
+        T result = next;
+        next = null;
+        return result;
+    }
+
+
+    @Override
+    public void close()
+    {
+        if ( !isClosed )
+        {
+            isClosed = true;
+            try
+            {
+                cursor.close();
+            }
+            catch ( IOException e )
+            {
+                LOG.warn( "close caught IOException={}", e.getMessage() );
+            }
+            finally
+            {
+                release.run();
+            }
+        }
+    }
+}
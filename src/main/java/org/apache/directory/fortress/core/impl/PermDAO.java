@@ -23,8 +23,11 @@ package org.apache.directory.fortress.core.impl;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
@@ -43,6 +46,8 @@ import org.apache.directory.api.ldap.model.exception.LdapInvalidAttributeValueEx
 import org.apache.directory.api.ldap.model.exception.LdapNoSuchAttributeException;
 import org.apache.directory.api.ldap.model.exception.LdapNoSuchObjectException;
 import org.apache.directory.api.ldap.model.message.SearchScope;
+import org.apache.directory.fortress.core.CfgException;
+import org.apache.directory.fortress.core.CfgRuntimeException;
 import org.apache.directory.fortress.core.CreateException;
 import org.apache.directory.fortress.core.FinderException;
 import org.apache.directory.fortress.core.GlobalErrIds;
@@ -50,6 +55,7 @@ import org.apache.directory.fortress.core.GlobalIds;
 import org.apache.directory.fortress.core.RemoveException;
 import org.apache.directory.fortress.core.UpdateException;
 import org.apache.directory.fortress.core.ldap.LdapDataProvider;
+import org.apache.directory.fortress.core.ldap.PagedCursor;
 import org.apache.directory.fortress.core.model.AdminRole;
 import org.apache.directory.fortress.core.model.ObjectFactory;
 import org.apache.directory.fortress.core.model.OrgUnit;
@@ -61,6 +67,8 @@ import org.apache.directory.fortress.core.util.PropUtil;
 import org.apache.directory.fortress.core.model.Role;
 import org.apache.directory.fortress.core.model.Session;
 import org.apache.directory.fortress.core.model.User;
+import org.apache.directory.fortress.core.util.CloseableIterator;
+import org.apache.directory.fortress.core.util.ClassUtil;
 import org.apache.directory.fortress.core.util.Config;
 import org.apache.directory.ldap.client.api.LdapConnection;
 
@@ -206,6 +214,7 @@ class PermDAO extends LdapDataProvider
     private static final String ROLES = "ftRoles";
     private static final String USERS = "ftUsers";
     private static final String PERMISSION_ATTRIBUTE_SET = "ftPASet";
+    private static final String AUTHZ_AUDIT_SINK = "authz.audit.sink";
     private static final String[] PERMISSION_OP_ATRS =
         {
             GlobalIds.FT_IID,
@@ -1072,7 +1081,7 @@ class PermDAO extends LdapDataProvider
 
         try
         {
-            ld = getAdminConnection();
+            ld = getReadConnection();
             Entry findEntry = read( ld, dn, PERMISSION_OP_ATRS );
             if ( findEntry == null )
             {
@@ -1093,7 +1102,7 @@ class PermDAO extends LdapDataProvider
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
         return entity;
     }
@@ -1115,7 +1124,7 @@ class PermDAO extends LdapDataProvider
 
         try
         {
-            ld = getAdminConnection();
+            ld = getReadConnection();
             Entry findEntry = read( ld, dn, PERMISION_OBJ_ATRS );
             if ( findEntry == null )
             {
@@ -1136,7 +1145,7 @@ class PermDAO extends LdapDataProvider
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
 
         return entity;
@@ -1151,7 +1160,7 @@ class PermDAO extends LdapDataProvider
 
         try
         {
-            ld = getAdminConnection();
+            ld = getReadConnection();
             Entry findEntry = read( ld, dn, PERMISION_ATTRIBUTE_SET_ATRS );
             if ( findEntry == null )
             {
@@ -1175,7 +1184,7 @@ class PermDAO extends LdapDataProvider
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
 
         return entity;
@@ -1199,7 +1208,7 @@ class PermDAO extends LdapDataProvider
             filterbuf.append( "=" );
             filterbuf.append( paSetVal );
             filterbuf.append(  "))" );
-            ld = getAdminConnection();
+            ld = getReadConnection();
             SearchCursor searchResults = search( ld, permRoot,
                 SearchScope.SUBTREE, filterbuf.toString(), PERMISION_ATTRIBUTE_ATRS, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
@@ -1221,7 +1230,7 @@ class PermDAO extends LdapDataProvider
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
         return paList;
     }
@@ -1244,28 +1253,41 @@ class PermDAO extends LdapDataProvider
         String dn = getOpRdn( inPerm.getOpName(), inPerm.getObjId() ) + "," + GlobalIds.POBJ_NAME + "="
             + inPerm.getObjName() + "," + getRootDn( inPerm.isAdmin(), inPerm.getContextId() );
 
+        // The permission cache is optional, if enabled and the entry is found there, no need to read it from the ldap server:
+        Permission outPerm = PermUtil.getInstance().getPermCache( inPerm );
+        boolean isCacheMiss = outPerm == null && PermUtil.getInstance().isCacheEnabled();
+
         try
         {
-            ld = getAdminConnection();
-
-            // LDAP Operation #1: Read the targeted permission from ldap server
-            Entry entry = read( ld, dn, PERMISSION_OP_ATRS );
-            if ( entry == null )
+            if ( outPerm == null )
             {
-                // if permission not found, cannot continue.
-                String error = "checkPermission DOES NOT EXIST : obj name [" + inPerm.getObjName() + "], obj id ["
-                    + inPerm.getObjId() + "], op name [" + inPerm.getOpName() + "], idAdmin [" + inPerm.isAdmin() + "]";
-                throw new FinderException( GlobalErrIds.PERM_NOT_EXIST, error );
-            }
+                ld = getAdminConnection();
+
+                // LDAP Operation #1: Read the targeted permission from ldap server
+                Entry entry = read( ld, dn, PERMISSION_OP_ATRS );
+                if ( entry == null )
+                {
+                    // if permission not found, cannot continue.
+                    String error = "checkPermission DOES NOT EXIST : obj name [" + inPerm.getObjName() + "], obj id ["
+                        + inPerm.getObjId() + "], op name [" + inPerm.getOpName() + "], idAdmin [" + inPerm.isAdmin() + "]";
+                    throw new FinderException( GlobalErrIds.PERM_NOT_EXIST, error );
+                }
+
+                // load the permission entity with data retrieved from the permission node:
+                outPerm = unloadPopLdapEntry( entry, 0, inPerm.isAdmin() );
 
-            // load the permission entity with data retrieved from the permission node:
-            Permission outPerm = unloadPopLdapEntry( entry, 0, inPerm.isAdmin() );
+                // The admin flag will be set to 'true' if this is an administrative permission:
+                outPerm.setAdmin( inPerm.isAdmin() );
 
-            // The admin flag will be set to 'true' if this is an administrative permission:
-            outPerm.setAdmin( inPerm.isAdmin() );
+                // Pass the tenant id along:
+                outPerm.setContextId( inPerm.getContextId() );
 
-            // Pass the tenant id along:
-            outPerm.setContextId( inPerm.getContextId() );
+                if ( isCacheMiss )
+                {
+                    PermUtil.getInstance().putPermCache( inPerm, outPerm );
+                    isCacheMiss = false;
+                }
+            }
 
             // The objective of these next steps is to evaluate the outcome of authorization attempt and trigger a write to slapd access logger containing the result.
             // The objectClass triggered by slapd access log write for upcoming ldap op is 'auditCompare'.
@@ -1290,8 +1312,13 @@ class PermDAO extends LdapDataProvider
             // There is a switch in fortress config to disable audit ops like this one.
             // But if used the compare method will use OpenLDAP's Proxy Authorization Control to assert identity of end user onto connection.
             // LDAP Operation #2: Compare.
-            if ( !session.isGroupSession() )
+            if ( !session.isGroupSession() && isAuthZAudit() )
             {
+                // The connection won't have been taken yet if the permission came from the cache, and isn't needed when a sink is used:
+                if ( ld == null && AuditSinkHolder.SINK == null )
+                {
+                    ld = getAdminConnection();
+                }
                 addAuthZAudit( ld, dn, session.getUser().getDn(), attributeValue );
             }
         }
@@ -1311,7 +1338,16 @@ class PermDAO extends LdapDataProvider
         }
         finally
         {
-            closeAdminConnection( ld );
+            if ( isCacheMiss )
+            {
+                // The read failed, release the cache key without storing anything:
+                PermUtil.getInstance().putPermCache( inPerm, null );
+            }
+            // The connection isn't taken when the permission is cached and no inline audit is needed:
+            if ( ld != null )
+            {
+                closeAdminConnection( ld );
+            }
         }
 
         return isAuthZd;
@@ -1319,9 +1355,209 @@ class PermDAO extends LdapDataProvider
 
 
     /**
-     * Perform LDAP compare operation here to associate audit record with user authorization event.
+     * Evaluate a list of permission operations for a single session.  Operations not found in the permission cache are read with a
+     * single search per permission object whose filter matches all of the operation names needed from it.  An audit record is
+     * written for every operation, same as {@link #checkPermission(Session, Permission)}.
+     * Unlike that method, an operation that doesn't exist isn't an error, it's simply not authorized.
+     *
+     * @param session contains {@link Session#getUserId()}, for impl check {@link org.apache.directory.fortress.core.model.Session#getRoles()}, for arbac check: {@link org.apache.directory.fortress.core.model.Session#getAdminRoles()}.
+     * @param inPerms each must contain required attributes {@link Permission#objName} and {@link Permission#opName}.  {@link org.apache.directory.fortress.core.model.Permission#objId} is optional.
+     * @return array of results in the same order as the list of permissions.
+     * @throws org.apache.directory.fortress.core.FinderException
+     *          In the event system error occurs looking up data on ldap server.
+     */
+    boolean[] checkPermissions( Session session, List<Permission> inPerms ) throws FinderException
+    {
+        boolean[] results = new boolean[inPerms.size()];
+        Permission[] outPerms = new Permission[inPerms.size()];
+        // Indexes of the operations that must be read from the ldap server, grouped by the dn of their permission object:
+        Map<String, List<Integer>> reads = new LinkedHashMap<>();
+
+        for ( int i = 0; i < inPerms.size(); i++ )
+        {
+            Permission inPerm = inPerms.get( i );
+            outPerms[i] = PermUtil.getInstance().getPermCache( inPerm );
+            if ( outPerms[i] == null )
+            {
+                if ( PermUtil.getInstance().isCacheEnabled() )
+                {
+                    // Release the key now rather than after the read, other threads may be holding keys further down this list:
+                    PermUtil.getInstance().putPermCache( inPerm, null );
+                }
+                String objDn = GlobalIds.POBJ_NAME + "=" + inPerm.getObjName() + ","
+                    + getRootDn( inPerm.isAdmin(), inPerm.getContextId() );
+                reads.computeIfAbsent( objDn, k -> new ArrayList<>() ).add( i );
+            }
+        }
+
+        LdapConnection ld = null;
+        try
+        {
+            for ( Map.Entry<String, List<Integer>> read : reads.entrySet() )
+            {
+                if ( ld == null )
+                {
+                    ld = getAdminConnection();
+                }
+                // LDAP Operation #1: Search for the targeted operations of this permission object
+                readOperations( ld, read.getKey(), read.getValue(), inPerms, outPerms );
+            }
+
+            for ( int i = 0; i < inPerms.size(); i++ )
+            {
+                Permission outPerm = outPerms[i];
+                if ( outPerm == null )
+                {
+                    // The permission doesn't exist, leave as not authorized:
+                    continue;
+                }
+
+                results[i] = isAuthorized( session, outPerm );
+
+                // LDAP Operation #2: Compare, see checkPermission for how the attribute value is used.
+                if ( !session.isGroupSession() && isAuthZAudit() )
+                {
+                    if ( ld == null && AuditSinkHolder.SINK == null )
+                    {
+                        ld = getAdminConnection();
+                    }
+                    String attributeValue = results[i] ? outPerm.getOpName() : outPerm.getOpName()
+                        + GlobalIds.FAILED_AUTHZ_INDICATOR;
+                    addAuthZAudit( ld, getDn( inPerms.get( i ), inPerms.get( i ).getContextId() ),
+                        session.getUser().getDn(), attributeValue );
+                }
+            }
+        }
+        catch ( LdapException e )
+        {
+            String error = "checkPermissions caught LdapException=" + e;
+            throw new FinderException( GlobalErrIds.PERM_READ_OP_FAILED, error, e );
+        }
+        catch ( CursorException e )
+        {
+            String error = "checkPermissions caught CursorException=" + e.getMessage();
+            throw new FinderException( GlobalErrIds.PERM_READ_OP_FAILED, error, e );
+        }
+        finally
+        {
+            if ( ld != null )
+            {
+                closeAdminConnection( ld );
+            }
+        }
+
+        return results;
+    }
+
+
+    /**
+     * Search beneath a permission object for the operations at the given indexes and set each one found into the output array and
+     * the permission cache.
+     *
+     * @param ld       handle to the admin connection.
+     * @param objDn    contains the distinguished name of the permission object.
+     * @param indexes  positions of the operations belonging to this object.
+     * @param inPerms  contains the operations requested by the caller.
+     * @param outPerms receives the operations unloaded from the ldap server.
+     * @throws LdapException in the event of a system error.
+     * @throws CursorException in the event of a system error.
+     */
+    private void readOperations( LdapConnection ld, String objDn, List<Integer> indexes, List<Permission> inPerms,
+        Permission[] outPerms ) throws LdapException, CursorException
+    {
+        Set<String> opNames = new TreeSet<>( String.CASE_INSENSITIVE_ORDER );
+        StringBuilder filterbuf = new StringBuilder();
+        filterbuf.append( GlobalIds.FILTER_PREFIX );
+        filterbuf.append( PERM_OP_OBJECT_CLASS_NAME );
+        filterbuf.append( ")(|" );
+        for ( int i : indexes )
+        {
+            String opName = inPerms.get( i ).getOpName();
+            if ( opNames.add( opName ) )
+            {
+                filterbuf.append( "(" );
+                filterbuf.append( GlobalIds.POP_NAME );
+                filterbuf.append( "=" );
+                filterbuf.append( encodeSafeText( opName, GlobalIds.PERM_LEN ) );
+                filterbuf.append( ")" );
+            }
+        }
+        filterbuf.append( "))" );
+
+        boolean isAdmin = inPerms.get( indexes.get( 0 ) ).isAdmin();
+        try
+        {
+            SearchCursor searchResults = search( ld, objDn, SearchScope.ONELEVEL, filterbuf.toString(), PERMISSION_OP_ATRS,
+                false, Config.getInstance().getInt( GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
+            long sequence = 0;
+            while ( searchResults.next() )
+            {
+                Permission outPerm = unloadPopLdapEntry( searchResults.getEntry(), sequence++, isAdmin );
+                for ( int i : indexes )
+                {
+                    Permission inPerm = inPerms.get( i );
+                    if ( outPerms[i] == null && outPerm.getOpName().equalsIgnoreCase( inPerm.getOpName() )
+                        && StringUtils.defaultString( outPerm.getObjId() ).equalsIgnoreCase(
+                        StringUtils.defaultString( inPerm.getObjId() ) ) )
+                    {
+                        // Pass the tenant id along:
+                        outPerm.setContextId( inPerm.getContextId() );
+                        outPerms[i] = outPerm;
+                        PermUtil.getInstance().putPermCache( inPerm, outPerm );
+                    }
+                }
+            }
+        }
+        catch ( LdapNoSuchObjectException e )
+        {
+            // The permission object doesn't exist, so neither do any of its operations.
+        }
+    }
+
+
+    /**
+     * Holds the authorization audit sink named by fortress config param: 'authz.audit.sink'.  It is created the first time an
+     * authorization is audited.  Null when not configured, in which case the compare is performed inline.
+     */
+    private static final class AuditSinkHolder
+    {
+        private static final AuthZAuditSink SINK = createAuditSink();
+
+        private static AuthZAuditSink createAuditSink()
+        {
+            String className = Config.getInstance().getProperty( AUTHZ_AUDIT_SINK );
+            if ( StringUtils.isEmpty( className ) )
+            {
+                return null;
+            }
+            try
+            {
+                return ( AuthZAuditSink ) ClassUtil.createInstance( className );
+            }
+            catch ( CfgException e )
+            {
+                throw new CfgRuntimeException( e.getErrorId(), e.getMessage(), e );
+            }
+        }
+    }
+
+
+    /**
+     * Audit can be turned off with fortress config param: 'disable.audit=true'.  It is only supported on OpenLDAP.
+     *
+     * @return boolean value, true if the authorization audit compare is to be performed.
+     */
+    private static boolean isAuthZAudit()
+    {
+        return Config.getInstance().isOpenldap() && ! Config.getInstance().isAuditDisabled();
+    }
+
+
+    /**
+     * Perform LDAP compare operation here to associate audit record with user authorization event.  If an {@link AuthZAuditSink}
+     * has been configured, the event is handed to it instead and the connection isn't used.
      *
-     * @param ld this method expects the ldap connection to be good
+     * @param ld this method expects the ldap connection to be good, unless a sink is configured
      * @param permDn contains distinguished name of the permission object.
      * @param userDn contains the distinguished name of the user object.
      * @param attributeValue string value will be associated with the 'audit' record stored in ldap.
@@ -1331,7 +1567,11 @@ class PermDAO extends LdapDataProvider
         throws FinderException
     {
         // Audit can be turned off here with fortress config param: 'disable.audit=true'
-        if ( Config.getInstance().isOpenldap() && ! Config.getInstance().isAuditDisabled() )
+        if ( isAuthZAudit() && AuditSinkHolder.SINK != null )
+        {
+            AuditSinkHolder.SINK.audit( permDn, userDn, attributeValue );
+        }
+        else if ( isAuthZAudit() )
         {
             try
             {
@@ -1384,8 +1624,7 @@ class PermDAO extends LdapDataProvider
             if ( permission.isAdmin() )
             {
                 // ARBAC Permission check include's User's inherited admin roles:
-                Set<String> activatedRoles = AdminRoleUtil.getInheritedRoles( session.getAdminRoles(),
-                    permission.getContextId() );
+                Set<String> activatedRoles = AdminRoleUtil.getAuthorizedRoles( session, permission.getContextId() );
 
                 for ( String role : roles )
                 {
@@ -1400,7 +1639,7 @@ class PermDAO extends LdapDataProvider
             else
             {
                 // RBAC Permission check include's User's inherited roles:
-                Set<String> activatedRoles = RoleUtil.getInstance().getInheritedRoles( session.getRoles(), permission.getContextId() );
+                Set<String> activatedRoles = RoleUtil.getInstance().getAuthorizedRoles( session, permission.getContextId() );
 
                 for ( String role : roles )
                 {
@@ -1526,23 +1765,9 @@ class PermDAO extends LdapDataProvider
 
         try
         {
-            String permObjVal = encodeSafeText( permission.getObjName(), GlobalIds.PERM_LEN );
-            String permOpVal = encodeSafeText( permission.getOpName(), GlobalIds.PERM_LEN );
-            StringBuilder filterbuf = new StringBuilder();
-            filterbuf.append( GlobalIds.FILTER_PREFIX );
-            filterbuf.append( PERM_OP_OBJECT_CLASS_NAME );
-            filterbuf.append( ")(" );
-            filterbuf.append( GlobalIds.POBJ_NAME );
-            filterbuf.append( "=" );
-            filterbuf.append( permObjVal );
-            filterbuf.append( "*)(" );
-            filterbuf.append( GlobalIds.POP_NAME );
-            filterbuf.append( "=" );
-            filterbuf.append( permOpVal );
-            filterbuf.append(  "*))" );
-            ld = getAdminConnection();
+            ld = getReadConnection();
             SearchCursor searchResults = search( ld, permRoot,
-                SearchScope.SUBTREE, filterbuf.toString(), PERMISSION_OP_ATRS, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
+                SearchScope.SUBTREE, getFindFilter( permission ), PERMISSION_OP_ATRS, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
 
             while ( searchResults.next() )
@@ -1562,11 +1787,75 @@ class PermDAO extends LdapDataProvider
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
         return permList;
     }
 
+
+    /**
+     * Return a cursor over the permission operations that match the perm object and operation search strings, read a page at a time.
+     *
+     * @param permission contains object and operation name search strings.  Each contains 1 or more leading chars that
+     * correspond to object or op name.
+     * @return iterator that holds a read connection until it's exhausted or closed.
+     * @throws FinderException in the event the first page can't be read.
+     */
+    CloseableIterator<Permission> iteratePermissions( Permission permission ) throws FinderException
+    {
+        LdapConnection ld = null;
+        String permRoot = getRootDn( permission.isAdmin(), permission.getContextId() );
+
+        try
+        {
+            ld = getReadConnection();
+            PagedCursor cursor = searchPaged( ld, permRoot, SearchScope.SUBTREE, getFindFilter( permission ),
+                PERMISSION_OP_ATRS );
+            LdapConnection connection = ld;
+            // the iterator releases the connection from here on:
+            ld = null;
+            return new PagedIterator<>( cursor, ( entry, sequence ) -> unloadPopLdapEntry( entry, sequence, permission
+                .isAdmin() ), () -> closeReadConnection( connection ), GlobalErrIds.PERM_SEARCH_FAILED );
+        }
+        catch ( LdapException e )
+        {
+            String error = "iteratePermissions caught LdapException=" + e;
+            throw new FinderException( GlobalErrIds.PERM_SEARCH_FAILED, error, e );
+        }
+        finally
+        {
+            if ( ld != null )
+            {
+                closeReadConnection( ld );
+            }
+        }
+    }
+
+
+    /**
+     * @param permission contains object and operation name search strings.
+     * @return filter used by {@link #findPermissions(Permission)} and {@link #iteratePermissions(Permission)}.
+     * @throws LdapException in the event the search strings can't be encoded.
+     */
+    private String getFindFilter( Permission permission ) throws LdapException
+    {
+        String permObjVal = encodeSafeText( permission.getObjName(), GlobalIds.PERM_LEN );
+        String permOpVal = encodeSafeText( permission.getOpName(), GlobalIds.PERM_LEN );
+        StringBuilder filterbuf = new StringBuilder();
+        filterbuf.append( GlobalIds.FILTER_PREFIX );
+        filterbuf.append( PERM_OP_OBJECT_CLASS_NAME );
+        filterbuf.append( ")(" );
+        filterbuf.append( GlobalIds.POBJ_NAME );
+        filterbuf.append( "=" );
+        filterbuf.append( permObjVal );
+        filterbuf.append( "*)(" );
+        filterbuf.append( GlobalIds.POP_NAME );
+        filterbuf.append( "=" );
+        filterbuf.append( permOpVal );
+        filterbuf.append(  "*))" );
+        return filterbuf.toString();
+    }
+
     List<Permission> findPermissionOperations( PermObj permObj )
             throws FinderException
         {
@@ -1585,7 +1874,7 @@ class PermDAO extends LdapDataProvider
                 filterbuf.append( "=" );
                 filterbuf.append( permObjVal );
                 filterbuf.append(  "))" );
-                ld = getAdminConnection();
+                ld = getReadConnection();
                 SearchCursor searchResults = search( ld, permRoot,
                     SearchScope.SUBTREE, filterbuf.toString(), PERMISSION_OP_ATRS, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
                 long sequence = 0;
@@ -1607,7 +1896,7 @@ class PermDAO extends LdapDataProvider
             }
             finally
             {
-                closeAdminConnection( ld );
+                closeReadConnection( ld );
             }
             return permList;
         }
@@ -1655,7 +1944,7 @@ class PermDAO extends LdapDataProvider
                 }
                 
                 filterbuf.append("))");
-                ld = getAdminConnection();
+                ld = getReadConnection();
                 SearchCursor searchResults = search( ld, permRoot,
                     SearchScope.SUBTREE, filterbuf.toString(), PERMISSION_OP_ATRS, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
                 long sequence = 0;
@@ -1677,7 +1966,7 @@ class PermDAO extends LdapDataProvider
             }
             finally
             {
-                closeAdminConnection( ld );
+                closeReadConnection( ld );
             }
             return permList;
         }
@@ -1707,7 +1996,7 @@ class PermDAO extends LdapDataProvider
             filterbuf.append( "=" );
             filterbuf.append( permObjVal );
             filterbuf.append( "*))" );
-            ld = getAdminConnection();
+            ld = getReadConnection();
             SearchCursor searchResults = search( ld, permRoot,
                 SearchScope.SUBTREE, filterbuf.toString(), PERMISION_OBJ_ATRS, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
@@ -1729,7 +2018,7 @@ class PermDAO extends LdapDataProvider
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
 
         return permList;
@@ -1769,7 +2058,7 @@ class PermDAO extends LdapDataProvider
                 maxLimit = 0;
             }
 
-            ld = getAdminConnection();
+            ld = getReadConnection();
             SearchCursor searchResults = search( ld, permRoot,
                 SearchScope.SUBTREE, filterbuf.toString(), PERMISION_OBJ_ATRS, false, maxLimit );
             long sequence = 0;
@@ -1791,7 +2080,7 @@ class PermDAO extends LdapDataProvider
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
 
         return permList;
@@ -1869,7 +2158,7 @@ class PermDAO extends LdapDataProvider
             }
 
             filterbuf.append( ")" );
-            ld = getAdminConnection();
+            ld = getReadConnection();
             SearchCursor searchResults = search( ld, permRoot,
                 SearchScope.SUBTREE, filterbuf.toString(), PERMISSION_OP_ATRS, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
@@ -1891,7 +2180,7 @@ class PermDAO extends LdapDataProvider
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
 
         return permList;
@@ -1935,7 +2224,7 @@ class PermDAO extends LdapDataProvider
             filterbuf.append( "=" );
             filterbuf.append( user.getUserId() );
             filterbuf.append( ")))" );
-            ld = getAdminConnection();
+            ld = getReadConnection();
             SearchCursor searchResults = search( ld, permRoot,
                 SearchScope.SUBTREE, filterbuf.toString(), PERMISSION_OP_ATRS, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
@@ -1959,7 +2248,7 @@ class PermDAO extends LdapDataProvider
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
 
         return permList;
@@ -1988,7 +2277,7 @@ class PermDAO extends LdapDataProvider
             filterbuf.append( "=" );
             filterbuf.append( user.getUserId() );
             filterbuf.append( "))" );
-            ld = getAdminConnection();
+            ld = getReadConnection();
             SearchCursor searchResults = search( ld, permRoot,
                 SearchScope.SUBTREE, filterbuf.toString(), PERMISSION_OP_ATRS, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
@@ -2012,7 +2301,7 @@ class PermDAO extends LdapDataProvider
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
 
         return permList;
@@ -2048,11 +2337,11 @@ class PermDAO extends LdapDataProvider
             Set<String> roles;
             if ( isAdmin )
             {
-                roles = AdminRoleUtil.getInheritedRoles( session.getAdminRoles(), session.getContextId() );
+                roles = AdminRoleUtil.getAuthorizedRoles( session, session.getContextId() );
             }
             else
             {
-                roles = RoleUtil.getInstance().getInheritedRoles( session.getRoles(), session.getContextId() );
+                roles = RoleUtil.getInstance().getAuthorizedRoles( session, session.getContextId() );
             }
             if ( CollectionUtils.isNotEmpty( roles ) )
             {
@@ -2067,7 +2356,7 @@ class PermDAO extends LdapDataProvider
             }
 
             filterbuf.append( "))" );
-            ld = getAdminConnection();
+            ld = getReadConnection();
             SearchCursor searchResults = search( ld, permRoot,
                 SearchScope.SUBTREE, filterbuf.toString(), PERMISSION_OP_ATRS, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
@@ -2091,7 +2380,7 @@ class PermDAO extends LdapDataProvider
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
 
         return permList;
@@ -39,6 +39,7 @@ import org.apache.directory.fortress.core.model.PermissionAttributeSet;
 import org.apache.directory.fortress.core.model.Role;
 import org.apache.directory.fortress.core.model.Session;
 import org.apache.directory.fortress.core.model.User;
+import org.apache.directory.fortress.core.util.CloseableIterator;
 import org.apache.directory.fortress.core.util.VUtil;
 
 
@@ -90,6 +91,21 @@ final class PermP
     }
 
 
+    /**
+     * Evaluate many permissions for a single session.  Each result is the same as would be returned by
+     * {@link #checkPermission(Session, Permission)}, except that a permission that doesn't exist is not authorized rather than an error.
+     *
+     * @param session     This object must be instantiated by calling {@link AccessMgrImpl#createSession} method before passing into the method.  No variables need to be set by client after returned from createSession.
+     * @param permissions each contains the object name, the operation name and optionally the object id the user is trying to access.
+     * @return array of results in the same order as the list of permissions.
+     * @throws SecurityException in the event of DAO error.
+     */
+    boolean[] checkPermissions( Session session, List<Permission> permissions ) throws SecurityException
+    {
+        return pDao.checkPermissions( session, permissions );
+    }
+
+
     /**
      * Takes a Permission entity that contains full or partial object name and/or full or partial operation name for search.
      *
@@ -101,6 +117,19 @@ final class PermP
     {
         return pDao.findPermissions( permission );
     }
+
+
+    /**
+     * Same search as {@link #search(Permission)} with the results read from the server a page at a time.
+     *
+     * @param permission contains all or partial object name and/or all or partial operation name.
+     * @return iterator over matching Permission entities that must be closed by the caller.
+     * @throws SecurityException in the event of DAO search error.
+     */
+    CloseableIterator<Permission> iterate( Permission permission ) throws SecurityException
+    {
+        return pDao.iteratePermissions( permission );
+    }
     
     /**
      * Takes a permission object that contains an object name and returns permisison operations for that object
@@ -364,7 +393,9 @@ final class PermP
     Permission add( Permission entity ) throws SecurityException
     {
         validate( entity, false );
-        return pDao.createOperation( entity );
+        Permission outPerm = pDao.createOperation( entity );
+        PermUtil.getInstance().clearPermCacheEntry( entity );
+        return outPerm;
     }
     
     /**
@@ -491,7 +522,9 @@ final class PermP
         {
             validate( entity, true );
         }
-        return pDao.updateOperation( entity );
+        Permission outPerm = pDao.updateOperation( entity );
+        PermUtil.getInstance().clearPermCacheEntry( entity );
+        return outPerm;
     }
 
 
@@ -506,6 +539,8 @@ final class PermP
     void delete( PermObj entity ) throws SecurityException
     {
         pDao.deleteObj( entity );
+        // The operations of this object were removed along with it:
+        PermUtil.getInstance().clearPermCache();
     }
 
 
@@ -519,6 +554,7 @@ final class PermP
     void delete( Permission entity ) throws SecurityException
     {
         pDao.deleteOperation( entity );
+        PermUtil.getInstance().clearPermCacheEntry( entity );
     }
 
     //TODO: add documentation
@@ -542,6 +578,7 @@ final class PermP
     {
         // Now assign it to the perm op:
         pDao.grant( pOp, role );
+        PermUtil.getInstance().clearPermCacheEntry( pOp );
     }
 
 
@@ -559,6 +596,7 @@ final class PermP
     void revoke( Permission pOp, Role role ) throws SecurityException
     {
         pDao.revoke( pOp, role );
+        PermUtil.getInstance().clearPermCacheEntry( pOp );
     }
 
 
@@ -573,6 +611,7 @@ final class PermP
     {
         // call dao to grant userId access to the perm op:
         pDao.grant( pOp, user );
+        PermUtil.getInstance().clearPermCacheEntry( pOp );
     }
 
 
@@ -586,6 +625,7 @@ final class PermP
     void revoke( Permission pOp, User user ) throws SecurityException
     {
         pDao.revoke( pOp, user );
+        PermUtil.getInstance().clearPermCacheEntry( pOp );
     }
 
 
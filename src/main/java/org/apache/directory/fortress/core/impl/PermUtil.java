@@ -0,0 +1,181 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.directory.fortress.core.GlobalIds;
+import org.apache.directory.fortress.core.model.Permission;
+import org.apache.directory.fortress.core.util.Config;
+import org.apache.directory.fortress.core.util.cache.Cache;
+import org.apache.directory.fortress.core.util.cache.CacheMgr;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * This utility maintains the permission cache used by {@link PermDAO#checkPermission} and cannot be called by components outside fortress.
+ * Each entry holds the unloaded {@link Permission}, i.e. its assigned users and roles, keyed by contextId, admin flag, object name,
+ * object id and operation name.  With the cache in place the authorization decision is made in memory and only the (optional)
+ * audit compare touches the directory.
+ * <p>
+ * The cache is off by default and is switched on with fortress config param: 'enable.perm.cache=true'.  Its time-to-live and size
+ * bounds are set on the 'fortress.perms' entry of the ehcache config file.  Entries are cleared by {@link PermP} whenever a permission
+ * operation is updated, deleted, granted or revoked.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class PermUtil
+{
+    private Cache m_permCache;
+    private static final String FORTRESS_PERMS = "fortress.perms";
+    private static final String IS_PERM_CACHE_ENABLED_PARM = "enable.perm.cache";
+    private static final String CLS_NM = PermUtil.class.getName();
+    private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
+
+    private static volatile PermUtil sINSTANCE = null;
+
+    static PermUtil getInstance()
+    {
+        if(sINSTANCE == null)
+        {
+            synchronized (PermUtil.class)
+            {
+                if(sINSTANCE == null)
+                {
+                    sINSTANCE = new PermUtil();
+                }
+            }
+        }
+        return sINSTANCE;
+    }
+
+    private void init()
+    {
+        // Was the permission cache switched on?
+        if ( Config.getInstance().getBoolean( IS_PERM_CACHE_ENABLED_PARM, false ) )
+        {
+            // Get a reference to the CacheManager Singleton object:
+            CacheMgr cacheMgr = CacheMgr.getInstance();
+            // This cache contains permission operations by contextId, objName, objId, opName and admin flag:
+            m_permCache = cacheMgr.getCache( FORTRESS_PERMS );
+            LOG.info( "init permission cache enabled" );
+        }
+    }
+
+    /**
+     * Private constructor
+     *
+     */
+    private PermUtil()
+    {
+        init();
+    }
+
+    /**
+     * Return true if the permission cache has been switched on.
+     *
+     * @return boolean value, true if caching is enabled.
+     */
+    boolean isCacheEnabled()
+    {
+        return m_permCache != null;
+    }
+
+    /**
+     * Look in the cache for the permission operation matching the one passed in.
+     *
+     * @param perm contains {@link Permission#objName}, {@link Permission#opName}, {@link Permission#objId}, {@link Permission#isAdmin()} and contextId.
+     * @return Permission containing the users and roles assigned or null if not cached.
+     */
+    Permission getPermCache( Permission perm )
+    {
+        Permission outPerm = null;
+        if ( isCacheEnabled() )
+        {
+            outPerm = ( Permission ) m_permCache.get( getKey( perm ) );
+        }
+        return outPerm;
+    }
+
+    /**
+     * Add the permission operation that was read from the directory to the cache.  The underlying cache blocks other readers of
+     * the same key after a miss, so this must be called following every miss, with a null value if the read failed, to release it.
+     *
+     * @param inPerm contains the attributes used to build the cache key.
+     * @param outPerm contains the permission operation as it was unloaded from the directory, may be null.
+     */
+    void putPermCache( Permission inPerm, Permission outPerm )
+    {
+        if ( isCacheEnabled() )
+        {
+            m_permCache.put( getKey( inPerm ), outPerm );
+        }
+    }
+
+    /**
+     * Given a permission operation, clear its corresponding entry from the cache.
+     *
+     * @param perm contains {@link Permission#objName}, {@link Permission#opName}, {@link Permission#objId}, {@link Permission#isAdmin()} and contextId.
+     */
+    void clearPermCacheEntry( Permission perm )
+    {
+        if ( isCacheEnabled() )
+        {
+            m_permCache.clear( getKey( perm ) );
+        }
+        if ( perm.isAdmin() )
+        {
+            AdminUtil.clearDecisionCache();
+        }
+    }
+
+    /**
+     * Remove all entries from the permission cache.  Used when a permission object, along with all of its operations, is removed.
+     */
+    void clearPermCache()
+    {
+        if ( isCacheEnabled() )
+        {
+            m_permCache.flush();
+        }
+        AdminUtil.clearDecisionCache();
+    }
+
+    /**
+     * Keys are case insensitive because the permission's distinguished name is.
+     *
+     * @param perm contains the attributes that identify the permission operation.
+     * @return key to the cache entry.
+     */
+    private static String getKey( Permission perm )
+    {
+        String contextId = GlobalIds.HOME;
+        if ( StringUtils.isNotEmpty( perm.getContextId() ) && !perm.getContextId().equals( GlobalIds.NULL ) )
+        {
+            contextId = perm.getContextId();
+        }
+        String key = contextId + ":" + perm.isAdmin() + ":" + perm.getObjName() + ":"
+            + StringUtils.defaultString( perm.getObjId() ) + ":" + perm.getOpName();
+        return key.toLowerCase();
+    }
+}
@@ -409,6 +409,7 @@ final class PolicyDAO extends LdapDataProvider
         }
         finally
         {
+            CredentialCache.getInstance().clear();
             closeAdminConnection( ld );
         }
     }
@@ -435,6 +436,7 @@ final class PolicyDAO extends LdapDataProvider
         }
         finally
         {
+            CredentialCache.getInstance().clear();
             closeAdminConnection( ld );
         }
     }
@@ -454,7 +456,7 @@ final class PolicyDAO extends LdapDataProvider
 
         try
         {
-            ld = getAdminConnection();
+            ld = getReadConnection();
             Entry findEntry = read( ld, dn, PASSWORD_POLICY_ATRS );
             entity = unloadLdapEntry( findEntry, 0 );
         }
@@ -471,7 +473,7 @@ final class PolicyDAO extends LdapDataProvider
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
 
         return entity;
@@ -601,7 +603,7 @@ final class PolicyDAO extends LdapDataProvider
         {
             searchVal = encodeSafeText( policy.getName(), GlobalIds.PWPOLICY_NAME_LEN );
             String szFilter = GlobalIds.FILTER_PREFIX + PW_POLICY_CLASS + ")(" + PW_PWD_ID + "=" + searchVal + "*))";
-            ld = getAdminConnection();
+            ld = getReadConnection();
             SearchCursor searchResults = search( ld, policyRoot,
                 SearchScope.ONELEVEL, szFilter, PASSWORD_POLICY_ATRS, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
@@ -623,7 +625,7 @@ final class PolicyDAO extends LdapDataProvider
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
 
         return policyArrayList;
@@ -644,7 +646,7 @@ final class PolicyDAO extends LdapDataProvider
         try
         {
             String szFilter = "(objectclass=" + PW_POLICY_CLASS + ")";
-            ld = getAdminConnection();
+            ld = getReadConnection();
             SearchCursor searchResults = search( ld, policyRoot,
                 SearchScope.ONELEVEL, szFilter, PASSWORD_POLICY_NAME_ATR, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
 
@@ -666,7 +668,7 @@ final class PolicyDAO extends LdapDataProvider
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
 
         return policySet;
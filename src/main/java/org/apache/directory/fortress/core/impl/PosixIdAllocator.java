@@ -0,0 +1,317 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.directory.fortress.core.GlobalErrIds;
+import org.apache.directory.fortress.core.GlobalIds;
+import org.apache.directory.fortress.core.SecurityException;
+import org.apache.directory.fortress.core.UpdateException;
+import org.apache.directory.fortress.core.model.Configuration;
+import org.apache.directory.fortress.core.util.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Hands out the uidNumber and gidNumber values of new posix users and groups.
+ * <p>
+ * The sequences live on the config node, as 'ftUidNumber' and 'ftGidNumber', each holding the next id that hasn't been leased.  A
+ * process leases a block of ids by replacing the value it read with one advanced by the size of the block, in a single modify that
+ * deletes the old value and adds the new.  The server rejects the modify if another process got there first, in which case the
+ * sequence is read again and the lease retried after a short random pause.  Ids within a leased block are handed out locally,
+ * without going back to ldap, until the block runs out.  Ids assigned some other way, such as by an ldif import, are skipped over by
+ * calling {@link #advance(long, long)}.
+ * <p>
+ * The block size is set with fortress config param, 'posix.id.block.size' (default 1).  Any ids left in a block when the process
+ * stops are never used, so a larger block trades gaps in the sequence for fewer writes to the config node.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class PosixIdAllocator
+{
+    private static final String CLS_NM = PosixIdAllocator.class.getName();
+    private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
+    private static final String BLOCK_SIZE = "posix.id.block.size";
+    private static final int MAX_RETRIES = 10;
+
+    private static volatile PosixIdAllocator sINSTANCE = null;
+
+    private final Sequence uids = new Sequence( ConfigDAO.UID_NUMBER_SEQUENCE );
+    private final Sequence gids = new Sequence( ConfigDAO.GID_NUMBER_SEQUENCE );
+    private final long blockSize;
+
+
+    /**
+     * Return the allocator shared by every caller in this process, so they all draw from the same leased blocks.
+     *
+     * @return the allocator.
+     */
+    public static PosixIdAllocator getInstance()
+    {
+        if ( sINSTANCE == null )
+        {
+            synchronized ( PosixIdAllocator.class )
+            {
+                if ( sINSTANCE == null )
+                {
+                    sINSTANCE = new PosixIdAllocator();
+                }
+            }
+        }
+        return sINSTANCE;
+    }
+
+
+    private PosixIdAllocator()
+    {
+        this( Config.getInstance().getInt( BLOCK_SIZE, 1 ) );
+    }
+
+
+    /**
+     * Package private for the tests, which override {@link #read(String)} and {@link #replace(String, String, String)}.
+     *
+     * @param blockSize number of ids leased at a time.
+     */
+    PosixIdAllocator( long blockSize )
+    {
+        this.blockSize = Math.max( 1, blockSize );
+    }
+
+
+    /**
+     * Return the next free uidNumber, leasing another block of them if need be.
+     *
+     * @return String value contains the uidNumber.
+     * @throws SecurityException in the event the sequence can't be read or updated.
+     */
+    public String nextUidNumber() throws SecurityException
+    {
+        return Long.toString( uids.next() );
+    }
+
+
+    /**
+     * Return the next free gidNumber, leasing another block of them if need be.
+     *
+     * @return String value contains the gidNumber.
+     * @throws SecurityException in the event the sequence can't be read or updated.
+     */
+    public String nextGidNumber() throws SecurityException
+    {
+        return Long.toString( gids.next() );
+    }
+
+
+    /**
+     * Move the sequences past ids that were assigned without being leased, e.g. by an ldif import, so they're never handed out again.
+     * A sequence that's already past the given id is left alone.
+     *
+     * @param uidNumber highest uidNumber in use, or -1 if there's none.
+     * @param gidNumber highest gidNumber in use, or -1 if there's none.
+     * @throws SecurityException in the event the sequence can't be read or updated.
+     */
+    void advance( long uidNumber, long gidNumber ) throws SecurityException
+    {
+        uids.advance( uidNumber );
+        gids.advance( gidNumber );
+    }
+
+
+    /**
+     * Read the value of a sequence from the config node.
+     *
+     * @param attribute name of the sequence, 'ftUidNumber' or 'ftGidNumber'.
+     * @return String value contains the next id that hasn't been leased.
+     * @throws SecurityException in the event the config node can't be read or has no value for the sequence.
+     */
+    String read( String attribute ) throws SecurityException
+    {
+        String cfgName = getCfgName();
+        Configuration ids = new ConfigP().readPosixIds( cfgName );
+        String value = attribute.equals( ConfigDAO.UID_NUMBER_SEQUENCE ) ? ids.getUidNumber() : ids.getGidNumber();
+        if ( StringUtils.isEmpty( value ) )
+        {
+            String error = "read config [" + cfgName + "] has no value for [" + attribute + "]";
+            throw new UpdateException( GlobalErrIds.FT_CONFIG_UPDATE_FAILED, error );
+        }
+        return value;
+    }
+
+
+    /**
+     * Replace the value of a sequence on the config node, only if it still holds the value that was read.
+     *
+     * @param attribute name of the sequence, 'ftUidNumber' or 'ftGidNumber'.
+     * @param value     read from the sequence.
+     * @param newValue  to replace it with.
+     * @return boolean value, false if another process changed the sequence first.
+     * @throws SecurityException in the event of a system error.
+     */
+    boolean replace( String attribute, String value, String newValue ) throws SecurityException
+    {
+        return new ConfigP().replacePosixId( getCfgName(), attribute, value, newValue );
+    }
+
+
+    private static String getCfgName()
+    {
+        return Config.getInstance().getProperty( GlobalIds.CONFIG_REALM, "DEFAULT" );
+    }
+
+
+    /**
+     * One of the sequences on the config node along with the block of it currently leased by this process.
+     */
+    private final class Sequence
+    {
+        private final String attribute;
+        private volatile Lease lease;
+
+
+        private Sequence( String attribute )
+        {
+            this.attribute = attribute;
+        }
+
+
+        private long next() throws SecurityException
+        {
+            while ( true )
+            {
+                Lease current = lease;
+                if ( current != null )
+                {
+                    long id = current.next.getAndIncrement();
+                    if ( id < current.end )
+                    {
+                        return id;
+                    }
+                }
+                synchronized ( this )
+                {
+                    // only one thread leases the next block, the others go on to use it:
+                    if ( lease == current )
+                    {
+                        lease = take();
+                    }
+                }
+            }
+        }
+
+
+        private Lease take() throws SecurityException
+        {
+            for ( int attempt = 1; attempt <= MAX_RETRIES; attempt++ )
+            {
+                String value = read( attribute );
+                long start = Long.parseLong( value );
+                long end = start + blockSize;
+                if ( replace( attribute, value, Long.toString( end ) ) )
+                {
+                    LOG.debug( "take leased [{}] ids {} to {}", attribute, start, end - 1 );
+                    return new Lease( start, end );
+                }
+                LOG.debug( "take lost race for [{}] value {}, attempt {}", attribute, value, attempt );
+                if ( !pause( attempt ) )
+                {
+                    break;
+                }
+            }
+            String error = "take could not lease [" + attribute + "] after " + MAX_RETRIES + " attempts";
+            throw new UpdateException( GlobalErrIds.FT_CONFIG_UPDATE_FAILED, error );
+        }
+
+
+        private synchronized void advance( long highest ) throws SecurityException
+        {
+            if ( highest < 0 )
+            {
+                return;
+            }
+            for ( int attempt = 1; attempt <= MAX_RETRIES; attempt++ )
+            {
+                String value = read( attribute );
+                if ( Long.parseLong( value ) > highest || replace( attribute, value, Long.toString( highest + 1 ) ) )
+                {
+                    // a block leased before may still hold ids that are now taken:
+                    Lease current = lease;
+                    if ( current != null && current.next.get() <= highest )
+                    {
+                        lease = null;
+                    }
+                    LOG.debug( "advance [{}] is past {}", attribute, highest );
+                    return;
+                }
+                LOG.debug( "advance lost race for [{}] value {}, attempt {}", attribute, value, attempt );
+                if ( !pause( attempt ) )
+                {
+                    break;
+                }
+            }
+            String error = "advance could not update [" + attribute + "] after " + MAX_RETRIES + " attempts";
+            throw new UpdateException( GlobalErrIds.FT_CONFIG_UPDATE_FAILED, error );
+        }
+    }
+
+
+    /**
+     * Wait a short random time, growing with each attempt, before retrying a lost race.
+     *
+     * @return boolean value, false if the thread was interrupted.
+     */
+    private static boolean pause( int attempt )
+    {
+        try
+        {
+            Thread.sleep( ThreadLocalRandom.current().nextInt( 1, 10 * attempt + 1 ) );
+            return true;
+        }
+        catch ( InterruptedException ie )
+        {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+
+    /**
+     * Ids from next up to, but not including, end belong to this process.
+     */
+    private static final class Lease
+    {
+        private final AtomicLong next;
+        private final long end;
+
+
+        private Lease( long start, long end )
+        {
+            this.next = new AtomicLong( start );
+            this.end = end;
+        }
+    }
+}
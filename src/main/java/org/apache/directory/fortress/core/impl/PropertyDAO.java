@@ -157,7 +157,7 @@ final class PropertyDAO extends LdapDataProvider
 
         try
         {
-            ld = getAdminConnection();
+            ld = getReadConnection();
             Entry findEntry = read( ld, entityDn, new String[]{ GlobalIds.PROPS } );
             props = PropUtil.getProperties( getAttributes( findEntry, GlobalIds.PROPS ) );
             
@@ -177,7 +177,7 @@ final class PropertyDAO extends LdapDataProvider
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
 
         return props;
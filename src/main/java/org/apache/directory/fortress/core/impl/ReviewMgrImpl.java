@@ -42,6 +42,7 @@ import org.apache.directory.fortress.core.model.RoleConstraint.RCType;
 import org.apache.directory.fortress.core.model.SDSet;
 import org.apache.directory.fortress.core.model.User;
 import org.apache.directory.fortress.core.model.UserRole;
+import org.apache.directory.fortress.core.util.CloseableIterator;
 import org.apache.directory.fortress.core.util.Config;
 import org.apache.directory.fortress.core.util.VUtil;
 
@@ -154,6 +155,22 @@ public class ReviewMgrImpl extends Manageable implements ReviewMgr, Serializable
         return permP.search( permission );
     }
 
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @AdminPermissionOperation(operationName="findPermissions")
+    public CloseableIterator<Permission> iteratePermissions(Permission permission)
+        throws SecurityException
+    {
+        String methodName = "iteratePermissions";
+        assertContext( CLS_NM, methodName, permission, GlobalErrIds.PERM_OPERATION_NULL );
+        // same grant as the list-returning search:
+        checkAccess(CLS_NM, "findPermissions");
+        return permP.iterate( permission );
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -288,6 +305,22 @@ public class ReviewMgrImpl extends Manageable implements ReviewMgr, Serializable
         return userP.search( user );
     }
 
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @AdminPermissionOperation(operationName="findUsers")
+    public CloseableIterator<User> iterateUsers(User user)
+        throws SecurityException
+    {
+        String methodName = "iterateUsers";
+        assertContext( CLS_NM, methodName, user, GlobalErrIds.USER_NULL );
+        // same grant as the list-returning search:
+        checkAccess(CLS_NM, "findUsers");
+        return userP.iterate( user );
+    }
+
     /**
      * {@inheritDoc}
      */
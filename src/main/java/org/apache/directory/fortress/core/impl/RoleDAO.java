@@ -37,17 +37,16 @@ import org.apache.directory.api.ldap.model.exception.LdapException;
 import org.apache.directory.api.ldap.model.exception.LdapInvalidAttributeValueException;
 import org.apache.directory.api.ldap.model.exception.LdapNoSuchObjectException;
 import org.apache.directory.api.ldap.model.message.SearchScope;
-import org.apache.directory.fortress.core.CfgException;
 import org.apache.directory.fortress.core.CreateException;
 import org.apache.directory.fortress.core.FinderException;
 import org.apache.directory.fortress.core.GlobalErrIds;
 import org.apache.directory.fortress.core.GlobalIds;
 import org.apache.directory.fortress.core.RemoveException;
+import org.apache.directory.fortress.core.SecurityException;
 import org.apache.directory.fortress.core.UpdateException;
 import org.apache.directory.fortress.core.ldap.LdapDataProvider;
 import org.apache.directory.fortress.core.model.*;
 import org.apache.directory.fortress.core.util.Config;
-import org.apache.directory.fortress.core.util.PropUpdater;
 import org.apache.directory.fortress.core.util.PropUtil;
 import org.apache.directory.ldap.client.api.LdapConnection;
 
@@ -97,7 +96,7 @@ import org.apache.directory.ldap.client.api.LdapConnection;
  *
  * @author Kevin McKinney
  */
-final class RoleDAO extends LdapDataProvider implements PropertyProvider<Role>, PropUpdater
+final class RoleDAO extends LdapDataProvider implements PropertyProvider<Role>
 {
     /*
       *  *************************************************************************
@@ -147,18 +146,6 @@ final class RoleDAO extends LdapDataProvider implements PropertyProvider<Role>,
             GlobalIds.FT_MODIFIER_AUX_OBJECT_CLASS_NAME
         };
 
-    /**
-     * Method on PropUdater interface used to increment UID and GID prop values.
-     * @param value contains a String that will be converted to an Integer before incremeting.
-     * @return String value contains the new sequence value.
-     */
-    public String newValue(String value)
-    {
-        Integer id = new Integer( value );
-        Integer newId = id + 1;
-        return newId.toString();
-    }
-
     /**
      * @param entity
      * @return
@@ -425,7 +412,7 @@ final class RoleDAO extends LdapDataProvider implements PropertyProvider<Role>,
 
         try
         {
-            ld = getAdminConnection();
+            ld = getReadConnection();
             Entry findEntry = read( ld, dn, ROLE_ATRS );
             if ( findEntry != null )
             {
@@ -449,7 +436,7 @@ final class RoleDAO extends LdapDataProvider implements PropertyProvider<Role>,
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
 
         return entity;
@@ -475,7 +462,7 @@ final class RoleDAO extends LdapDataProvider implements PropertyProvider<Role>,
             String searchVal = encodeSafeText( role.getName(), GlobalIds.ROLE_LEN );
             filter = GlobalIds.FILTER_PREFIX + GlobalIds.ROLE_OBJECT_CLASS_NM + ")("
                 + ROLE_NM + "=" + searchVal + "*))";
-            ld = getAdminConnection();
+            ld = getReadConnection();
             SearchCursor searchResults = search( ld, roleRoot,
                 SearchScope.ONELEVEL, filter, ROLE_ATRS, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
@@ -497,7 +484,7 @@ final class RoleDAO extends LdapDataProvider implements PropertyProvider<Role>,
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
 
         return roleList;
@@ -540,7 +527,7 @@ final class RoleDAO extends LdapDataProvider implements PropertyProvider<Role>,
                 }
                 filterbuf.append( "))" );
 
-                ld = getAdminConnection();
+                ld = getReadConnection();
                 SearchCursor searchResults = search( ld, roleRoot,
                     SearchScope.ONELEVEL, filterbuf.toString(), ROLE_ATRS, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
                 long sequence = 0;
@@ -568,7 +555,7 @@ final class RoleDAO extends LdapDataProvider implements PropertyProvider<Role>,
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
 
         return roleList;
@@ -595,7 +582,7 @@ final class RoleDAO extends LdapDataProvider implements PropertyProvider<Role>,
             String searchVal = encodeSafeText( role.getName(), GlobalIds.ROLE_LEN );
             filter = GlobalIds.FILTER_PREFIX + GlobalIds.ROLE_OBJECT_CLASS_NM + ")("
                 + ROLE_NM + "=" + searchVal + "*))";
-            ld = getAdminConnection();
+            ld = getReadConnection();
             SearchCursor searchResults = search( ld, roleRoot,
                 SearchScope.ONELEVEL, filter, ROLE_NM_ATR, false, limit );
 
@@ -617,7 +604,7 @@ final class RoleDAO extends LdapDataProvider implements PropertyProvider<Role>,
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
 
         return roleList;
@@ -642,7 +629,7 @@ final class RoleDAO extends LdapDataProvider implements PropertyProvider<Role>,
         {
             String filter = GlobalIds.FILTER_PREFIX + GlobalIds.ROLE_OBJECT_CLASS_NM + ")";
             filter += "(" + SchemaConstants.ROLE_OCCUPANT_AT + "=" + userDn + "))";
-            ld = getAdminConnection();
+            ld = getReadConnection();
             SearchCursor searchResults = search( ld, roleRoot,
                 SearchScope.ONELEVEL, filter, ROLE_NM_ATR, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
 
@@ -663,7 +650,7 @@ final class RoleDAO extends LdapDataProvider implements PropertyProvider<Role>,
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
 
         return roleNameList;
@@ -690,7 +677,7 @@ final class RoleDAO extends LdapDataProvider implements PropertyProvider<Role>,
         {
             filter = GlobalIds.FILTER_PREFIX + GlobalIds.ROLE_OBJECT_CLASS_NM + ")("
                 + GlobalIds.PARENT_NODES + "=*))";
-            ld = getAdminConnection();
+            ld = getReadConnection();
             SearchCursor searchResults = search( ld, roleRoot,
                 SearchScope.ONELEVEL, filter, DESC_ATRS, false, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
@@ -712,7 +699,7 @@ final class RoleDAO extends LdapDataProvider implements PropertyProvider<Role>,
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
 
         return descendants;
@@ -730,19 +717,15 @@ final class RoleDAO extends LdapDataProvider implements PropertyProvider<Role>,
         // Generate the value of gidNumber if not passed in by caller:
         if ( StringUtils.isEmpty( entity.getGidNumber() ) )
         {
-            List<String> idNumbers = new ArrayList<>();
-            idNumbers.add(GlobalIds.GID_NUMBER);
-            Configuration configuration;
             try
             {
-                configuration = Config.getInstance().getIncrementReplacePosixIds(idNumbers, this);
+                entity.setGidNumber( PosixIdAllocator.getInstance().nextGidNumber() );
             }
-            catch (CfgException ce)
+            catch (SecurityException se)
             {
-                String error = "Create role had a problem loading the gidNumber, catching a CfgException:" + ce.getMessage();
-                throw new CreateException(GlobalErrIds.USER_ADD_FAILED, error, ce);
+                String error = "Create role had a problem loading the gidNumber, catching a SecurityException:" + se.getMessage();
+                throw new CreateException(GlobalErrIds.USER_ADD_FAILED, error, se);
             }
-            entity.setGidNumber( configuration.getGidNumber() );
         }
     }
 
@@ -20,13 +20,13 @@
 package org.apache.directory.fortress.core.impl;
 
 
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
 
 import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.lang.StringUtils;
-import org.apache.directory.fortress.core.GlobalIds;
 import org.apache.directory.fortress.core.SecurityException;
 import org.apache.directory.fortress.core.ValidationException;
 import org.apache.directory.fortress.core.model.Graphable;
@@ -34,9 +34,8 @@ import org.apache.directory.fortress.core.model.Hier;
 import org.apache.directory.fortress.core.model.ParentUtil;
 import org.apache.directory.fortress.core.model.Relationship;
 import org.apache.directory.fortress.core.model.Role;
+import org.apache.directory.fortress.core.model.Session;
 import org.apache.directory.fortress.core.model.UserRole;
-import org.apache.directory.fortress.core.util.cache.Cache;
-import org.apache.directory.fortress.core.util.cache.CacheMgr;
 import org.jgrapht.graph.SimpleDirectedGraph;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -44,7 +43,7 @@ import org.slf4j.LoggerFactory;
 
 /**
  * This utility wraps {@link org.apache.directory.fortress.core.impl.HierUtil} methods to provide hierarchical functionality for the {@link org.apache.directory.fortress.core.model.Role} data set.
- * The {@code cn=Hierarchies, ou=Roles} data is stored within a cache, {@link #roleCache}, contained within this class.  The parent-child edges are contained in LDAP,
+ * The {@code cn=Hierarchies, ou=Roles} data is stored within {@link HierSnapshots}, {@link #graphs}, contained within this class.  The parent-child edges are contained in LDAP,
  * in {@code ftParents} attribute.  The ldap data is retrieved {@link org.apache.directory.fortress.core.impl.RoleP#getAllDescendants(String)} and loaded into {@code org.jgrapht.graph.SimpleDirectedGraph}.
  * The graph...
  * <ol>
@@ -55,6 +54,11 @@ import org.slf4j.LoggerFactory;
  * </ol>
  * After update is performed to ldap, the singleton is refreshed with latest info.
  * <p>
+ * The transitive closure of each tenant's graph is materialized into a {@link HierClosure} whenever the graph is loaded,
+ * and maintained as edges are added or removed by {@link #updateHier(String, Relationship, Hier.Op)}.  Ascendant and descendant lookups,
+ * e.g. {@link #getInheritedRoles(List, String)}, are answered from the closure rather than by walking the graph.  Each new graph
+ * advances a generation number that {@link #getAuthorizedRoles(Session, String)} uses to tell whether the role set stored on a session is current.
+ * <p>
  * Static methods on this class are intended for use by other Fortress classes, i.e. {@link org.apache.directory.fortress.core.impl.UserDAO} and {@link org.apache.directory.fortress.core.impl.PermDAO}
  * and cannot be directly invoked by outside programs.
  * <p>
@@ -64,7 +68,7 @@ import org.slf4j.LoggerFactory;
  */
 final class RoleUtil implements ParentUtil
 {
-    private Cache roleCache;
+    private HierSnapshots graphs;
     private RoleP roleP = new RoleP();
     private static final String CLS_NM = RoleUtil.class.getName();
     private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
@@ -98,15 +102,13 @@ final class RoleUtil implements ParentUtil
     private void init()
     {
         roleP = new RoleP();
-    
-        CacheMgr cacheMgr = CacheMgr.getInstance();
-        roleCache = cacheMgr.getCache( "fortress.roles" );
+        graphs = new HierSnapshots( HierUtil.Type.ROLE, this::loadGraph, true );
     }
 
 
     /**
      * Used to determine if one {@link org.apache.directory.fortress.core.model.Role} is the parent of another.  This method
-     * will call recursive routine {@link #getAscendants(String, String)} to walk the {@code org.jgrapht.graph.SimpleDirectedGraph} data structure
+     * will look up the ascendants of the child in the {@link HierClosure} of the {@code org.jgrapht.graph.SimpleDirectedGraph} data structure
      * returning flag indicating if parent-child relationship is valid.
      *
      * @param child  maps to logical {@link org.apache.directory.fortress.core.model.Role#name} on 'ftRls' object class.
@@ -116,13 +118,7 @@ final class RoleUtil implements ParentUtil
      */
     boolean isParent( String child, String parent, String contextId )
     {
-        boolean result = false;
-        Set<String> parents = getAscendants( child, contextId );
-        if ( parents != null && parents.size() > 0 )
-        {
-            result = parents.contains( parent.toUpperCase() );
-        }
-        return result;
+        return getClosure( contextId ).isAscendant( child, parent );
     }
 
 
@@ -135,7 +131,12 @@ final class RoleUtil implements ParentUtil
      */
     Set<String> getDescendants( String roleName, String contextId )
     {
-        return HierUtil.getDescendants( roleName.toUpperCase(), getGraph( contextId ) );
+        HierClosure closure = getClosure( contextId );
+        BitSet descendants = new BitSet( closure.size() );
+        closure.loadDescendants( roleName, descendants );
+        Set<String> children = new TreeSet<>( String.CASE_INSENSITIVE_ORDER );
+        closure.loadNames( descendants, children );
+        return children;
     }
 
 
@@ -161,7 +162,12 @@ final class RoleUtil implements ParentUtil
      */
     Set<String> getAscendants( String roleName, String contextId )
     {
-        return HierUtil.getAscendants( roleName.toUpperCase(), getGraph( contextId ) );
+        HierClosure closure = getClosure( contextId );
+        BitSet ascendants = new BitSet( closure.size() );
+        closure.loadAscendants( roleName, ascendants );
+        Set<String> parents = new TreeSet<>( String.CASE_INSENSITIVE_ORDER );
+        closure.loadNames( ascendants, parents );
+        return parents;
     }
 
 
@@ -218,16 +224,39 @@ final class RoleUtil implements ParentUtil
         Set<String> iRoles = new TreeSet<>( String.CASE_INSENSITIVE_ORDER );
         if ( CollectionUtils.isNotEmpty( uRoles ) )
         {
+            HierClosure closure = getClosure( contextId );
+            BitSet parents = new BitSet( closure.size() );
             for ( UserRole uRole : uRoles )
             {
+                // the activated role names are added first so they keep their case:
                 String rleName = uRole.getName();
                 iRoles.add( rleName );
-                Set<String> parents = HierUtil.getAscendants( rleName, getGraph( contextId ) );
-                if ( CollectionUtils.isNotEmpty( parents ) )
-                {
-                    iRoles.addAll( parents );
-                }
+                closure.loadAscendants( rleName, parents );
             }
+            closure.loadNames( parents, iRoles );
+        }
+        return iRoles;
+    }
+
+
+    /**
+     * Return Set of RBAC {@link org.apache.directory.fortress.core.model.Role#name}s authorized for a session, its activated roles along
+     * with their ascendants.  The set is computed once and stored on the {@link Session}, where it is reused until roles are
+     * activated or deactivated or the hierarchy changes.
+     *
+     * @param session contains list of Roles activated within a {@link org.apache.directory.fortress.core.model.User}'s or Group's session.
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @return contains unmodifiable Set of all authorized RBAC Roles for the session.
+     */
+    Set<String> getAuthorizedRoles( Session session, String contextId )
+    {
+        // read the stamp before computing so a concurrent hierarchy update leaves the result stale rather than wrong:
+        long stamp = getGeneration( contextId );
+        Set<String> iRoles = session.getAuthorizedRoles( contextId, stamp );
+        if ( iRoles == null )
+        {
+            iRoles = Collections.unmodifiableSet( getInheritedRoles( session.getRoles(), contextId ) );
+            session.setAuthorizedRoles( iRoles, contextId, stamp );
         }
         return iRoles;
     }
@@ -245,15 +274,14 @@ final class RoleUtil implements ParentUtil
         Set<String> iRoles = new TreeSet<>( String.CASE_INSENSITIVE_ORDER );
         if ( CollectionUtils.isNotEmpty( roles ) )
         {
+            HierClosure closure = getClosure( contextId );
+            BitSet parents = new BitSet( closure.size() );
             for ( String role : roles )
             {
                 iRoles.add( role );
-                Set<String> parents = HierUtil.getAscendants( role, getGraph( contextId ) );
-                if ( CollectionUtils.isNotEmpty( parents ) )
-                {
-                    iRoles.addAll( parents );
-                }
+                closure.loadAscendants( role, parents );
             }
+            closure.loadNames( parents, iRoles );
         }
         return iRoles;
     }
@@ -271,15 +299,14 @@ final class RoleUtil implements ParentUtil
         Set<String> iRoles = new TreeSet<>( String.CASE_INSENSITIVE_ORDER );
         if ( CollectionUtils.isNotEmpty( roles ) )
         {
+            HierClosure closure = getClosure( contextId );
+            BitSet children = new BitSet( closure.size() );
             for ( String role : roles )
             {
                 iRoles.add( role );
-                Set<String> children = HierUtil.getDescendants( role, getGraph( contextId ) );
-                if ( CollectionUtils.isNotEmpty( children ) )
-                {
-                    iRoles.addAll( children );
-                }
+                closure.loadDescendants( role, children );
             }
+            closure.loadNames( children, iRoles );
         }
         return iRoles;
     }
@@ -325,9 +352,20 @@ final class RoleUtil implements ParentUtil
     }
 
 
+    /**
+     * Drop the tenant's hierarchy so it's read again from ldap on next use.
+     *
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     */
+    void clear( String contextId )
+    {
+        graphs.clear( contextId );
+    }
+
+
     /**
      * This api allows synchronized access to allow updates to hierarchical relationships.
-     * Method will update the hierarchical data set and reload the JGraphT simple digraph with latest.
+     * Method will apply the update to a copy of the JGraphT simple digraph, along with its closure, and publish it in place of the current one.
      *
      * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
      * @param relationship contains parent-child relationship targeted for addition.
@@ -336,7 +374,7 @@ final class RoleUtil implements ParentUtil
      */
     void updateHier( String contextId, Relationship relationship, Hier.Op op ) throws SecurityException
     {
-        HierUtil.updateHier( getGraph( contextId ), relationship, op );
+        graphs.updateHier( contextId, relationship, op );
     }
 
 
@@ -346,48 +384,40 @@ final class RoleUtil implements ParentUtil
      *
      * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
      * @return handle to simple digraph containing role hierarchies.
+     * @throws SecurityException in the event of a system error.
      */
-    private synchronized SimpleDirectedGraph<String, Relationship> loadGraph( String contextId )
+    private SimpleDirectedGraph<String, Relationship> loadGraph( String contextId ) throws SecurityException
     {
         Hier inHier = new Hier( Hier.Type.ROLE );
         inHier.setContextId( contextId );
         LOG.info( "loadGraph initializing ROLE context [{}]", inHier.getContextId() );
-        List<Graphable> descendants = null;
-
-        try
-        {
-            descendants = roleP.getAllDescendants( inHier.getContextId() );
-        }
-        catch ( SecurityException se )
-        {
-            LOG.info( "loadGraph caught SecurityException={}", se );
-        }
-
+        List<Graphable> descendants = roleP.getAllDescendants( inHier.getContextId() );
         Hier hier = HierUtil.loadHier( contextId, descendants );
-        SimpleDirectedGraph<String, Relationship> graph;
-
-        graph = HierUtil.buildGraph( hier );
-        roleCache.put( getKey( contextId ), graph );
-
-        return graph;
+        return HierUtil.buildGraph( hier );
     }
 
 
     /**
+     * Return the closure of the current graph.
      *
      * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
-     * @return key to this tenant's cache entry.
+     * @return handle to the materialized ascendants and descendants of the role hierarchies.
      */
-    private String getKey( String contextId )
+    private HierClosure getClosure( String contextId )
     {
-        String key = HierUtil.Type.ROLE.toString();
+        return graphs.getClosure( contextId );
+    }
 
-        if ( StringUtils.isNotEmpty( contextId ) && !contextId.equalsIgnoreCase( GlobalIds.NULL ) )
-        {
-            key += ":" + contextId;
-        }
 
-        return key;
+    /**
+     * Return the current generation of the role hierarchies.
+     *
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @return long value that changes whenever the graph of any tenant is replaced.
+     */
+    private long getGeneration( String contextId )
+    {
+        return graphs.getGeneration( contextId );
     }
 
 
@@ -398,19 +428,6 @@ final class RoleUtil implements ParentUtil
      */
     private SimpleDirectedGraph<String, Relationship> getGraph( String contextId )
     {
-        String key = getKey( contextId );        
-        LOG.debug("Getting graph for key " + contextId);
-         
-        SimpleDirectedGraph<String, Relationship> graph = ( SimpleDirectedGraph<String, Relationship> ) roleCache
-                 .get( key );
-             
-        if(graph == null){
-            LOG.debug("Graph was null, creating... " + contextId);
-            return loadGraph( contextId );
-        }
-        else{
-            LOG.debug("Graph found in cache, returning...");
-            return graph;
-        }
+        return graphs.getGraph( contextId );
     }
 }
@@ -19,29 +19,23 @@
  */
 package org.apache.directory.fortress.core.impl;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
-import net.sf.ehcache.search.Attribute;
-import net.sf.ehcache.search.Query;
-import net.sf.ehcache.search.Result;
-import net.sf.ehcache.search.Results;
-
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
-import org.apache.directory.api.ldap.model.constants.SchemaConstants;
 import org.apache.directory.fortress.core.*;
 import org.apache.directory.fortress.core.SecurityException;
 import org.apache.directory.fortress.core.model.*;
 import org.apache.directory.fortress.core.util.Config;
-import org.apache.directory.fortress.core.util.cache.Cache;
-import org.apache.directory.fortress.core.util.cache.CacheMgr;
-import org.apache.directory.fortress.core.util.cache.DsdCacheEntry;
 
 /**
  * This utilty provides functionality necessary for SSD and DSD processing and cannot be called by components outside fortress.
- * This class also contains utility functions for maintaining the SSD and DSD cache.
+ * This class also contains utility functions for maintaining the SSD and DSD indexes.
  * <p>
  * This class is thread safe.
  *
@@ -50,15 +44,10 @@ import org.apache.directory.fortress.core.util.cache.DsdCacheEntry;
  */
 final class SDUtil
 {
-    private Cache m_dsdCache;
-    private static final String FORTRESS_DSDS = "fortress.dsd";
-    private Cache m_ssdCache;
-    private static final String FORTRESS_SSDS = "fortress.ssd";
+    private SdIndex m_dsdIndex;
+    private SdIndex m_ssdIndex;
     private SdP sp;
     private static final String IS_DSD_CACHE_DISABLED_PARM = "disable.dsd.cache";
-    private static final String DSD_NAME = "name";
-    private static final String EMPTY_ELEMENT = "empty";
-    private static final String CONTEXT_ID = "contextId";
 
     private static volatile SDUtil sINSTANCE = null;
 
@@ -81,12 +70,9 @@ final class SDUtil
     {
         sp = new SdP();
     
-        // Get a reference to the CacheManager Singleton object:
-        CacheMgr cacheMgr = CacheMgr.getInstance();
-        // This cache contains a wrapper entry for DSD and is searchable by both DSD and Role name:
-        m_dsdCache = cacheMgr.getCache(FORTRESS_DSDS);
-        // This cache is not searchable and contains Lists of SSD objects by Role:
-        m_ssdCache = cacheMgr.getCache(FORTRESS_SSDS);
+        // These indexes map Role names to their DSD's and SSD's, by tenant:
+        m_dsdIndex = new SdIndex((roles, contextId) -> searchSds(SDSet.SDType.DYNAMIC, roles, contextId));
+        m_ssdIndex = new SdIndex((roles, contextId) -> searchSds(SDSet.SDType.STATIC, roles, contextId));
     }
 
     /**
@@ -154,7 +140,6 @@ final class SDUtil
 
     private void checkSSD( Role role, Set<String> authorizedRls, String contextId ) throws SecurityException
     {
-        int matchCount;
         // Need to proceed?
         if (CollectionUtils.isEmpty( authorizedRls ))
         {
@@ -162,28 +147,42 @@ final class SDUtil
         }
 
         // get all SSD sets that contain the new role
-        List<SDSet> ssdSets = getSsdCache( role.getName(), contextId );
-        for ( SDSet ssd : ssdSets )
+        SdIndex.Rules ssdRules = m_ssdIndex.getRules( Collections.singleton( role.getName() ), getContextId( contextId ) );
+        if ( ssdRules.getRules().isEmpty() )
+        {
+            return;
+        }
+        SdIndex.Rule ssd = getSsdViolation( ssdRules, authorizedRls );
+        if ( ssd != null )
         {
-            matchCount = 0;
-            Set<String> map = ssd.getMembers();
-            // iterate over every authorized role for user/group:
-            for ( String authRole : authorizedRls )
+            String error = "validateSSD new role [" + role.getName() + "] validates SSD Set Name:"
+                    + ssd.getSdSet().getName() + " Cardinality:" + ssd.getCardinality();
+            throw new SecurityException( GlobalErrIds.SSD_VALIDATION_FAILED, error );
+        }
+    }
+
+    /**
+     * Return the first SSD set that would be violated by assigning one more of its members.
+     *
+     * @param ssdRules contains the SSD sets of the role being assigned.
+     * @param authorizedRls contains the roles the user or group is already authorized for.
+     * @return the violated SSD set, or null if there's none.
+     */
+    static SdIndex.Rule getSsdViolation( SdIndex.Rules ssdRules, Set<String> authorizedRls )
+    {
+        // authorized roles for user/group, as bits over the same role ids used by the SSD sets:
+        BitSet authorizedBits = ssdRules.toBits( authorizedRls );
+        for ( SdIndex.Rule ssd : ssdRules.getRules() )
+        {
+            int matchCount = ssd.count( authorizedBits );
+            // does the number of authorized roles that are SSD set members exceed the cardinality allowed for this particular SSD set?
+            // A set without any matches is never violated, even one with a cardinality of 1:
+            if ( matchCount > 0 && matchCount >= ssd.getCardinality() - 1 )
             {
-                // is there a match found between authorized role and SSD set's members?
-                if ( map.contains( authRole ) )
-                {
-                    matchCount++;
-                    // does the match count exceed the cardinality allowed for this particular SSD set?
-                    if ( matchCount >= ssd.getCardinality() - 1 )
-                    {
-                        String error = "validateSSD new role [" + role.getName() + "] validates SSD Set Name:"
-                                + ssd.getName() + " Cardinality:" + ssd.getCardinality();
-                        throw new SecurityException( GlobalErrIds.SSD_VALIDATION_FAILED, error );
-                    }
-                }
+                return ssd;
             }
         }
+        return null;
     }
 
     /**
@@ -209,366 +208,179 @@ final class SDUtil
         }
 
         // get all DSD sets that contain the target role
-        Set<SDSet> dsdSets = getDsdCache(role.getName(), session.getContextId());
-        for (SDSet dsd : dsdSets)
+        SdIndex.Rules dsdRules = getDsdRules(Collections.singleton(role.getName()), session.getContextId());
+        if (dsdRules.getRules().isEmpty())
         {
-            // Keeps the number of matched roles to a particular DSD set.
-            int matchCount = 0;
-
-            // Contains the list of roles assigned to a particular DSD set.
-            Set<String> map = dsd.getMembers();
-
-            // iterate over every role active in session for match wth DSD members:
-            for (UserRole actRole : rls)
+            return;
+        }
+        // The activated roles along with their parents, as bits over the same role ids used by the DSD sets:
+        List<BitSet> inheritedBits = getInheritedBits(dsdRules, rls, session.getContextId());
+        for (SdIndex.Rule dsd : dsdRules.getRules())
+        {
+            int i = getDsdViolation(dsd, inheritedBits);
+            if (i != -1)
             {
-                // is there a match found between active role in session and DSD set members?
-                if (map.contains(actRole.getName()))
+                // Yes, the target role violates DSD cardinality rule.
+                String actRole = rls.get(i).getName();
+                String error;
+                if (dsdRules.isMember(dsd, actRole))
                 {
-                    // Yes, we found a match, increment the count.
-                    matchCount++;
-
-                    // Does the match count exceed the cardinality allowed for this particular DSD set?
-                    if (matchCount >= dsd.getCardinality() - 1)
-                    {
-                        // Yes, the target role violates DSD cardinality rule.
-                        String error = "validateDSD failed for role [" + role.getName() + "] DSD Set Name:" + dsd.getName() + " Cardinality:" + dsd.getCardinality();
-                        throw new SecurityException(GlobalErrIds.DSD_VALIDATION_FAILED, error);
-                    }
+                    error = "validateDSD failed for role [" + role.getName() + "] DSD Set Name:" + dsd.getSdSet().getName() + " Cardinality:" + dsd.getCardinality();
                 }
-                else // Check the parents of activated role for DSD match:
+                else
                 {
-                    // Now pull the activated role's list of parents.
-                    Set<String> parentSet = RoleUtil.getInstance().getAscendants(actRole.getName(), session.getContextId());
-
-                    // Iterate over the list of parent roles:
-                    for (String parentRole : parentSet)
-                    {
-                        if (map.contains(parentRole)) // is there match between parent and DSD member?
-                        {
-                            matchCount++;
-                            if (matchCount >= dsd.getCardinality() - 1) // Does the counter exceed max per cardinality on this DSD set?
-                            {
-                                String error = "validateDSD failed for role [" + role.getName() + "] parent role [" + parentRole + "] DSD Set Name:" + dsd.getName() + " Cardinality:" + dsd.getCardinality();
-                                throw new SecurityException(GlobalErrIds.DSD_VALIDATION_FAILED, error);
-                            }
-                            // Breaking out of the loop here means the DSD algorithm will only match one
-                            // role per parent of active role candidate.
-                            break;
-                        }
-                    }
+                    error = "validateDSD failed for role [" + role.getName() + "] parent role [" + getParentMember(dsdRules, dsd, actRole, session.getContextId()) + "] DSD Set Name:" + dsd.getSdSet().getName() + " Cardinality:" + dsd.getCardinality();
                 }
+                throw new SecurityException(GlobalErrIds.DSD_VALIDATION_FAILED, error);
             }
         }
     }
 
     /**
-     * Given DSD entry name, clear its corresponding object values from the cache.
+     * Return the activated role at which the DSD would be violated by activating one more of its members.  Each activated role
+     * matches once, whether it's a member itself or by one of its parents.
      *
-     * @param name contains the name of object to be cleared.
-     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.     *
-     * @throws SecurityException in the event of system or rule violation.
+     * @param dsd contains the DSD set of the role being activated.
+     * @param inheritedBits contains the bits of each activated role along with its parents, see {@link #getInheritedBits}.
+     * @return index of the activated role, or -1 if the DSD isn't violated.
      */
-    void clearDsdCacheEntry(String name, String contextId)
+    static int getDsdViolation(SdIndex.Rule dsd, List<BitSet> inheritedBits)
     {
-        Attribute<String> context = m_dsdCache.getSearchAttribute(CONTEXT_ID);
-        Attribute<String> dsdName = m_dsdCache.getSearchAttribute(DSD_NAME);
-        Query query = m_dsdCache.createQuery();
-        query.includeKeys();
-        query.includeValues();
-        query.addCriteria(dsdName.eq(name).and(context.eq(contextId)));
-        Results results = query.execute();
-        for (Result result : results.all())
-        {
-            m_dsdCache.clear(result.getKey());
-        }
-    }
+        // Keeps the number of matched roles to a particular DSD set.
+        int matchCount = 0;
 
-    /**
-     * Given a role name, return the set of DSD's that have a matching member.
-     *
-     * @param name contains name of authorized Role used to search the cache.
-     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
-     * @return un-ordered set of matching DSD's.
-     * @throws SecurityException in the event of system or rule violation.
-     */
-    private Set<SDSet> getDsdCache(String name, String contextId)
-        throws SecurityException
-    {
-        contextId = getContextId(contextId);
-        Set<SDSet> finalSet = new HashSet<>();
-        Attribute<String> context = m_dsdCache.getSearchAttribute(CONTEXT_ID);
-        Attribute<String> member = m_dsdCache.getSearchAttribute(SchemaConstants.MEMBER_AT);
-        Query query = m_dsdCache.createQuery();
-        query.includeKeys();
-        query.includeValues();
-        query.addCriteria(member.eq(name).and(context.eq(contextId)));
-        Results results = query.execute();
-        boolean empty = false;
-        for (Result result : results.all())
+        // iterate over every role active in session for match wth DSD members, either directly or by one of its parents:
+        for (int i = 0; i < inheritedBits.size(); i++)
         {
-            DsdCacheEntry entry = (DsdCacheEntry) result.getValue();
-            if (!entry.isEmpty())
+            if (dsd.intersects(inheritedBits.get(i)))
             {
-                finalSet.add(entry.getSdSet());
-                finalSet = putDsdCache(name, contextId);
-            }
-            else
-            {
-                empty = true;
-            }
-            finalSet.add(entry.getSdSet());
-        }
-        // If nothing was found in the cache, determine if it needs to be seeded:
-        if (finalSet.size() == 0 && !empty)
-        {
-            finalSet = putDsdCache(name, contextId);
-        }
-        return finalSet;
-    }
+                // Yes, we found a match, increment the count.
+                matchCount++;
 
-    /**
-     * Given a Set of authorized Roles, return the set of DSD's that have matching members.
-     *
-     * @param authorizedRoleSet contains an un-order Set of authorized Roles.
-     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
-     * @return un-ordered set of matching DSD's.
-     * @throws SecurityException in the event of system or rule violation.
-     */
-    Set<SDSet> getDsdCache(Set<String> authorizedRoleSet, String contextId)
-        throws SecurityException
-    {
-        contextId = getContextId(contextId);
-        Set<SDSet> dsdRetSets = new HashSet<>();
-        // Need to proceed?
-        if (!CollectionUtils.isNotEmpty( authorizedRoleSet ))
-        {
-            return dsdRetSets;
-        }
-        // Was the DSD Cache switched off?
-        boolean isCacheDisabled = Config.getInstance().getBoolean(IS_DSD_CACHE_DISABLED_PARM, false);
-        // If so, get DSD's from LDAP:
-        if (isCacheDisabled)
-        {
-            SDSet sdSet = new SDSet();
-            sdSet.setType(SDSet.SDType.DYNAMIC);
-            sdSet.setContextId(contextId);
-            dsdRetSets = sp.search(authorizedRoleSet, sdSet);
-        }
-        // Search the DSD cache for matching Role members:
-        else
-        {
-            // Search on roleName attribute which maps to 'member' attr on the cache record:
-            Attribute<String> member = m_dsdCache.getSearchAttribute(SchemaConstants.MEMBER_AT);
-            Attribute<String> context = m_dsdCache.getSearchAttribute(CONTEXT_ID);
-            Query query = m_dsdCache.createQuery();
-            query.includeKeys();
-            query.includeValues();
-            // Add the passed in authorized Role names to this cache query:
-            Set<String> roles = new HashSet<>(authorizedRoleSet);
-            query.addCriteria(member.in(roles).and(context.eq(contextId)));
-            // Return all DSD cache entries that match roleName to the 'member' attribute in cache entry:
-            Results results = query.execute();
-            for (Result result : results.all())
-            {
-                DsdCacheEntry entry = (DsdCacheEntry) result.getValue();
-                // Do not add dummy DSD sets to the final list:
-                if (!entry.isEmpty())
+                // Does the match count exceed the cardinality allowed for this particular DSD set?
+                if (matchCount >= dsd.getCardinality() - 1)
                 {
-                    dsdRetSets.add(entry.getSdSet());
+                    return i;
                 }
-                // Remove role member from authorizedRoleSet to preclude from upcoming DSD search:
-                //authorizedRoleSet.remove(entry.getMember());
-            }
-            // Authorized roles remaining in this set correspond to missed cache hits from above:
-            if (authorizedRoleSet.size() > 0)
-            {
-                dsdRetSets = putDsdCache(authorizedRoleSet, contextId);
             }
         }
-        return dsdRetSets;
+        return -1;
     }
 
     /**
-     * Get the matching DSD's from directory and add to the cache (if found).  If matching DSD not found,
-     * add dummy entry to cache to prevent repeated searches.
+     * Given a list of activated roles, return for each one the bits of the role along with all of its parents.
      *
-     * @param authorizedRoleSet contains set of Roles used to search directory for matching DSD's.
+     * @param dsdRules contains the role ids used to compile the DSD's.
+     * @param activatedRoles contains the roles in the order they're to be checked.
      * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
-     * @return List of DSD's who have matching Role members.
-     * @throws SecurityException in the event of system or rule violation.
+     * @return List of bits, one per activated role and in the same order.
      */
-    private Set<SDSet> putDsdCache(Set<String> authorizedRoleSet, String contextId)
-        throws SecurityException
+    List<BitSet> getInheritedBits(SdIndex.Rules dsdRules, List<UserRole> activatedRoles, String contextId)
     {
-        contextId = getContextId(contextId);
-        Set<SDSet> dsdSets = new HashSet<>();
-        // Search the DSD's iteratively to seed the DSD cache by Role name:
-        for (String roleName : authorizedRoleSet)
+        List<BitSet> inheritedBits = new ArrayList<>(activatedRoles.size());
+        for (UserRole activatedRole : activatedRoles)
         {
-            Role role = new Role(roleName);
-            role.setContextId(contextId);
-            List<SDSet> dsdList = sp.search(role, SDSet.SDType.DYNAMIC);
-            if (CollectionUtils.isNotEmpty( dsdList ))
-            {
-                for (SDSet dsd : dsdList)
-                {
-                    dsd.setContextId(contextId);
-                    Set<String> members = dsd.getMembers();
-                    if (members != null)
-                    {
-                        // Seed the cache with DSD objects mapped to role name:
-                        for (String member : members)
-                        {
-                            String key = buildKey(dsd.getName(), member);
-                            DsdCacheEntry entry = new DsdCacheEntry(member, dsd, false);
-                            entry.setName(dsd.getName());
-                            m_dsdCache.put(getKey(key, contextId), entry);
-                        }
-                    }
-                }
-                // Maintain the set of DSD's to be returned to the caller:
-                dsdSets.addAll(dsdList);
-            }
-            else
-            {
-                // Seed the cache with dummy entry for a Role that is not referenced by DSD:
-                String key = buildKey(EMPTY_ELEMENT, roleName);
-                SDSet sdSet = new SDSet();
-                sdSet.setType(SDSet.SDType.DYNAMIC);
-                sdSet.setName(key);
-                sdSet.setMember(roleName);
-                sdSet.setContextId(contextId);
-                DsdCacheEntry entry = new DsdCacheEntry(roleName, sdSet, true);
-                entry.setName(key);
-                m_dsdCache.put(getKey(sdSet.getName(), contextId), entry);
-            }
+            Set<String> inheritedRoles = new HashSet<>(RoleUtil.getInstance().getAscendants(activatedRole.getName(), contextId));
+            inheritedRoles.add(activatedRole.getName());
+            inheritedBits.add(dsdRules.toBits(inheritedRoles));
         }
-        return dsdSets;
+        return inheritedBits;
     }
 
     /**
-     * Get the matching DSD's from directory and add to the cache (if found).  If matching DSD not found,
-     * add dummy entry to cache to prevent repeated searches.
+     * Given an activated role that isn't itself a member of the DSD, return the first of its parents that is.
      *
-     * @param roleName of Role is used to search directory for matching DSD's.
+     * @param dsdRules contains the role ids used to compile the DSD.
+     * @param dsd contains the DSD that's been matched.
+     * @param activatedRole name of the activated role.
      * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
-     * @return Set of DSD's who have matching Role member.
-     * @throws SecurityException in the event of system or rule violation.
+     * @return name of the parent role, used in error messages.
      */
-    private Set<SDSet> putDsdCache(String roleName, String contextId)
-        throws SecurityException
+    String getParentMember(SdIndex.Rules dsdRules, SdIndex.Rule dsd, String activatedRole, String contextId)
     {
-        contextId = getContextId(contextId);
-        Role role = new Role(roleName);
-        role.setContextId(contextId);
-        List<SDSet> dsdList = sp.search(role, SDSet.SDType.DYNAMIC);
-        Set<SDSet> finalSet = new HashSet<>(dsdList);
-        if ( CollectionUtils.isNotEmpty( dsdList ))
+        for (String parentRole : RoleUtil.getInstance().getAscendants(activatedRole, contextId))
         {
-            for (SDSet dsd : dsdList)
+            if (dsdRules.isMember(dsd, parentRole))
             {
-                dsd.setContextId(contextId);
-                Set<String> members = dsd.getMembers();
-                if (members != null)
-                {
-                    // Seed the cache with DSD objects mapped to role name:
-                    for (String member : members)
-                    {
-                        String key = buildKey(dsd.getName(), member);
-                        DsdCacheEntry entry = new DsdCacheEntry(member, dsd, false);
-                        entry.setName(dsd.getName());
-                        m_dsdCache.put(getKey(key, contextId), entry);
-                    }
-                }
+                return parentRole;
             }
         }
-        else
-        {
-            // Seed the cache with dummy entry for Role that does not have DSD:
-            String key = buildKey(EMPTY_ELEMENT, roleName);
-            SDSet sdSet = new SDSet();
-            sdSet.setType(SDSet.SDType.DYNAMIC);
-            sdSet.setName(key);
-            sdSet.setMember(roleName);
-            sdSet.setContextId(contextId);
-            DsdCacheEntry entry = new DsdCacheEntry(roleName, sdSet, true);
-            entry.setName(key);
-            m_dsdCache.put(getKey(sdSet.getName(), contextId), entry);
-        }
-        return finalSet;
+        return null;
     }
 
     /**
-     * Given entry name, clear its corresponding object value from the cache.
+     * Given DSD entry name, clear the DSD's of its tenant from the index.  Roles added to the DSD may have been indexed as having
+     * none, so the tenant's index is dropped rather than the DSD alone.
      *
      * @param name contains the name of object to be cleared.
-     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.     *
      * @throws SecurityException in the event of system or rule violation.
      */
-    void clearSsdCacheEntry(String name, String contextId)
+    void clearDsdCacheEntry(String name, String contextId)
     {
-        contextId = getContextId(contextId);
-        m_ssdCache.clear(getKey(name, contextId));
+        m_dsdIndex.clear(getContextId(contextId));
     }
 
     /**
-     * Get the matching SSD's from directory and add to the cache (if found).
+     * Given a Set of authorized Roles, return the DSD's that have matching members.
      *
-     * @param name of Role is used to search directory for matching SSD's.
+     * @param authorizedRoleSet contains an un-order Set of authorized Roles.
      * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
-     * @return List of SSD's who have matching Role member.
+     * @return matching DSD's, compiled against the role ids of the tenant.
      * @throws SecurityException in the event of system or rule violation.
      */
-    private List<SDSet> putSsdCache(String name, String contextId)
+    SdIndex.Rules getDsdRules(Set<String> authorizedRoleSet, String contextId)
         throws SecurityException
     {
-        Role role = new Role(name);
-        role.setContextId(contextId);
-        List<SDSet> ssdSets = sp.search(role, SDSet.SDType.STATIC);
-        m_ssdCache.put(getKey(name, contextId), ssdSets);
-        return ssdSets;
+        contextId = getContextId(contextId);
+        // Was the DSD Cache switched off?
+        boolean isCacheDisabled = Config.getInstance().getBoolean(IS_DSD_CACHE_DISABLED_PARM, false);
+        // If so, get DSD's from LDAP:
+        if (isCacheDisabled)
+        {
+            return m_dsdIndex.searchRules(authorizedRoleSet, contextId);
+        }
+        // Look up the DSD's of every authorized Role in the index, those not found are searched for together:
+        else
+        {
+            return m_dsdIndex.getRules(authorizedRoleSet, contextId);
+        }
     }
 
     /**
-     * Look in cache for matching List of SSD's.
+     * Get the SD's of a given type from directory that have any of the Roles as members.
      *
-     * @param name of Role is used to search directory for matching SSD's.
+     * @param type either STATIC or DYNAMIC depending on target search data set.
+     * @param authorizedRoleSet contains set of Roles used to search directory for matching SD's.
      * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
-     * @return List of SSD's who have matching Role member.
+     * @return Set of SD's who have matching Role members.
      * @throws SecurityException in the event of system or rule violation.
      */
-    private List<SDSet> getSsdCache(String name, String contextId)
+    private Set<SDSet> searchSds(SDSet.SDType type, Set<String> authorizedRoleSet, String contextId)
         throws SecurityException
     {
-        List<SDSet> ssdSets = (List<SDSet>) m_ssdCache.get(getKey(name, contextId));
-        if (ssdSets == null)
+        SDSet sdSet = new SDSet();
+        sdSet.setType(type);
+        sdSet.setContextId(contextId);
+        Set<SDSet> sdSets = sp.search(authorizedRoleSet, sdSet);
+        for (SDSet sd : sdSets)
         {
-            ssdSets = putSsdCache(name, contextId);
+            sd.setContextId(contextId);
         }
-        return ssdSets;
+        return sdSets;
     }
 
     /**
+     * Given SSD entry name, clear the SSD's of its tenant from the index.  Like the DSD's, a change to any one SSD drops the
+     * tenant's index.
      *
-     * @param parm1
-     * @param parm2
-     * @return
-     */
-    private static String buildKey(String parm1, String parm2)
-    {
-        return parm1 + ":" + parm2;
-    }
-
-    /**
-     *
-     * @param name
-     * @param contextId
-     * @return
+     * @param name contains the name of object to be cleared.
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @throws SecurityException in the event of system or rule violation.
      */
-    private static String getKey(String name, String contextId)
+    void clearSsdCacheEntry(String name, String contextId)
     {
-        contextId = getContextId(contextId);
-        return name += ":" + contextId;
+        m_ssdIndex.clear(getContextId(contextId));
     }
 
     /**
@@ -0,0 +1,409 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.directory.fortress.core.SecurityException;
+import org.apache.directory.fortress.core.model.SDSet;
+import org.apache.directory.fortress.core.util.Config;
+
+
+/**
+ * In-memory index of the Static or Dynamic Separation of Duty sets, one per tenant, used by {@link SDUtil} and {@link DSDChecker}.
+ * <p>
+ * Role names are interned to int ids as they're seen, and each SD set is compiled into a {@link BitSet} over the ids of its members
+ * along with its cardinality.  Every role that has been looked up maps to the SD sets it's a member of, so the sets touched by a group of
+ * roles are resolved with a hash lookup per role, and the number of a user's roles that are members of a set is the cardinality of the
+ * intersection of two bitsets.  A role that isn't a member of any SD set is recorded with an empty entry, which keeps it from being
+ * searched for again.  Roles not yet indexed, or whose entry is older than fortress config param, 'sd.reload.interval' (seconds,
+ * default 3600), are read from ldap together in a single search.
+ * <p>
+ * SD sets are added, updated and removed infrequently, so any change to one drops the tenant's entire index.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class SdIndex
+{
+    /**
+     * Reads the SD sets having any of a group of roles as members from ldap.
+     */
+    interface Loader
+    {
+        /**
+         * @param roles     contains the names of roles.
+         * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+         * @return Set of SD's containing at least one of the roles.
+         * @throws SecurityException in the event of system error.
+         */
+        Set<SDSet> load( Set<String> roles, String contextId ) throws SecurityException;
+    }
+
+    private static final String RELOAD_INTERVAL = "sd.reload.interval";
+    private static final int[] NONE = new int[0];
+
+    private final Loader loader;
+    private final long interval;
+    private final ConcurrentMap<String, Tenant> tenants = new ConcurrentHashMap<>();
+
+
+    /**
+     * @param loader reads the SD sets from ldap.
+     */
+    SdIndex( Loader loader )
+    {
+        this( loader, TimeUnit.SECONDS.toMillis( Config.getInstance().getInt( RELOAD_INTERVAL, 3600 ) ) );
+    }
+
+
+    /**
+     * @param loader   reads the SD sets from ldap.
+     * @param interval milliseconds before an indexed role is read again.
+     */
+    SdIndex( Loader loader, long interval )
+    {
+        this.loader = loader;
+        this.interval = interval;
+    }
+
+
+    /**
+     * Return the SD sets that contain any of the roles.
+     *
+     * @param roles     contains the names of roles, case insensitive.
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @return the matching SD's, compiled against the tenant's role ids.
+     * @throws SecurityException in the event of system error.
+     */
+    Rules getRules( Set<String> roles, String contextId ) throws SecurityException
+    {
+        Tenant tenant = tenants.get( contextId );
+        if ( tenant == null )
+        {
+            tenant = tenants.computeIfAbsent( contextId, k -> new Tenant() );
+        }
+        BitSet setIds = new BitSet();
+        Set<String> misses = null;
+        long now = System.currentTimeMillis();
+        for ( String role : roles )
+        {
+            Entry entry = tenant.roles.get( role.toUpperCase() );
+            if ( entry == null || now - entry.loadTime > interval )
+            {
+                if ( misses == null )
+                {
+                    misses = new HashSet<>();
+                }
+                misses.add( role );
+            }
+            else
+            {
+                collect( entry, setIds );
+            }
+        }
+        if ( misses != null )
+        {
+            for ( Entry entry : load( tenant, misses, contextId, now ) )
+            {
+                collect( entry, setIds );
+            }
+        }
+        return new Rules( tenant, setIds );
+    }
+
+
+    /**
+     * Read the SD sets that contain any of the roles from ldap and compile them without adding them to the index.
+     *
+     * @param roles     contains the names of roles, case insensitive.
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @return the matching SD's, compiled against role ids that are only valid for the result.
+     * @throws SecurityException in the event of system error.
+     */
+    Rules searchRules( Set<String> roles, String contextId ) throws SecurityException
+    {
+        Tenant tenant = new Tenant();
+        BitSet setIds = new BitSet();
+        for ( Entry entry : load( tenant, roles, contextId, System.currentTimeMillis() ) )
+        {
+            collect( entry, setIds );
+        }
+        return new Rules( tenant, setIds );
+    }
+
+
+    /**
+     * Drop everything indexed for a tenant, which is then read again from ldap as it's needed.
+     *
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     */
+    void clear( String contextId )
+    {
+        tenants.remove( contextId );
+    }
+
+
+    /**
+     * Search ldap for the roles and index the results.  A tenant cleared while this runs has already been detached, so what's
+     * loaded here can't overwrite a later change.
+     */
+    private List<Entry> load( Tenant tenant, Set<String> roles, String contextId, long now ) throws SecurityException
+    {
+        Map<String, BitSet> memberships = new HashMap<>();
+        for ( String role : roles )
+        {
+            memberships.put( role.toUpperCase(), new BitSet() );
+        }
+        for ( SDSet sdSet : loader.load( roles, contextId ) )
+        {
+            Rule rule = tenant.compile( sdSet );
+            for ( int member = rule.members.nextSetBit( 0 ); member >= 0; member = rule.members.nextSetBit( member + 1 ) )
+            {
+                BitSet setIds = memberships.get( tenant.names.get( member ) );
+                if ( setIds != null )
+                {
+                    setIds.set( rule.id );
+                }
+            }
+        }
+        List<Entry> entries = new ArrayList<>( memberships.size() );
+        for ( Map.Entry<String, BitSet> membership : memberships.entrySet() )
+        {
+            BitSet setIds = membership.getValue();
+            Entry entry = new Entry( setIds.isEmpty() ? NONE : setIds.stream().toArray(), now );
+            tenant.roles.put( membership.getKey(), entry );
+            entries.add( entry );
+        }
+        return entries;
+    }
+
+
+    private static void collect( Entry entry, BitSet target )
+    {
+        for ( int setId : entry.setIds )
+        {
+            target.set( setId );
+        }
+    }
+
+
+    /**
+     * An SD set compiled against the role ids of its tenant.  Never modified once published.
+     */
+    static final class Rule
+    {
+        private final int id;
+        private final SDSet sdSet;
+        private final BitSet members;
+        private final int cardinality;
+
+
+        private Rule( int id, SDSet sdSet, BitSet members )
+        {
+            this.id = id;
+            this.sdSet = sdSet;
+            this.members = members;
+            this.cardinality = sdSet.getCardinality() == null ? 2 : sdSet.getCardinality();
+        }
+
+
+        /**
+         * @return the SD set this was compiled from.
+         */
+        SDSet getSdSet()
+        {
+            return sdSet;
+        }
+
+
+        /**
+         * @return the cardinality of the SD set, 2 if it has none.
+         */
+        int getCardinality()
+        {
+            return cardinality;
+        }
+
+
+        /**
+         * @param roles contains role ids returned by {@link Rules#toBits(Collection)}.
+         * @return number of the roles that are members of this set.
+         */
+        int count( BitSet roles )
+        {
+            BitSet matches = ( BitSet ) members.clone();
+            matches.and( roles );
+            return matches.cardinality();
+        }
+
+
+        /**
+         * @param roles contains role ids returned by {@link Rules#toBits(Collection)}.
+         * @return true if any of the roles are members of this set.
+         */
+        boolean intersects( BitSet roles )
+        {
+            return members.intersects( roles );
+        }
+    }
+
+
+    /**
+     * The SD sets returned by a lookup along with the role ids they were compiled against.
+     */
+    static final class Rules
+    {
+        private final Tenant tenant;
+        private final List<Rule> rules;
+
+
+        private Rules( Tenant tenant, BitSet setIds )
+        {
+            this.tenant = tenant;
+            this.rules = new ArrayList<>( setIds.cardinality() );
+            for ( int setId = setIds.nextSetBit( 0 ); setId >= 0; setId = setIds.nextSetBit( setId + 1 ) )
+            {
+                rules.add( tenant.rules.get( setId ) );
+            }
+        }
+
+
+        /**
+         * @return the matching SD sets, empty if there are none.
+         */
+        List<Rule> getRules()
+        {
+            return rules;
+        }
+
+
+        /**
+         * Convert role names to their ids.  Roles that aren't a member of any SD set known to the index have no id and are skipped,
+         * as they can't be counted against one.
+         *
+         * @param roles contains the names of roles, case insensitive.
+         * @return bits set for each role id.
+         */
+        BitSet toBits( Collection<String> roles )
+        {
+            BitSet bits = new BitSet( tenant.names.size() );
+            for ( String role : roles )
+            {
+                Integer id = tenant.ids.get( role.toUpperCase() );
+                if ( id != null )
+                {
+                    bits.set( id );
+                }
+            }
+            return bits;
+        }
+
+
+        /**
+         * @param role name of role, case insensitive.
+         * @return true if the role is one of the members of the set.
+         */
+        boolean isMember( Rule rule, String role )
+        {
+            Integer id = tenant.ids.get( role.toUpperCase() );
+            return id != null && rule.members.get( id );
+        }
+    }
+
+
+    /**
+     * The SD sets a role is a member of, by id.
+     */
+    private static final class Entry
+    {
+        private final int[] setIds;
+        private final long loadTime;
+
+
+        private Entry( int[] setIds, long loadTime )
+        {
+            this.setIds = setIds;
+            this.loadTime = loadTime;
+        }
+    }
+
+
+    /**
+     * Role and SD set names are interned by upper case name.  Ids are never reused, an SD set that's read again is recompiled
+     * under the id it already has.
+     */
+    private static final class Tenant
+    {
+        private final ConcurrentMap<String, Entry> roles = new ConcurrentHashMap<>();
+        private final ConcurrentMap<String, Integer> ids = new ConcurrentHashMap<>();
+        private final ConcurrentMap<Integer, String> names = new ConcurrentHashMap<>();
+        private final AtomicInteger nextId = new AtomicInteger();
+        private final ConcurrentMap<String, Integer> setIds = new ConcurrentHashMap<>();
+        private final ConcurrentMap<Integer, Rule> rules = new ConcurrentHashMap<>();
+        private final AtomicInteger nextSetId = new AtomicInteger();
+
+
+        private Rule compile( SDSet sdSet )
+        {
+            BitSet members = new BitSet();
+            if ( sdSet.getMembers() != null )
+            {
+                for ( String member : sdSet.getMembers() )
+                {
+                    members.set( intern( member.toUpperCase() ) );
+                }
+            }
+            int id = setIds.computeIfAbsent( sdSet.getName().toUpperCase(), k -> nextSetId.getAndIncrement() );
+            Rule rule = new Rule( id, sdSet, members );
+            rules.put( id, rule );
+            return rule;
+        }
+
+
+        private int intern( String name )
+        {
+            Integer id = ids.get( name );
+            if ( id == null )
+            {
+                id = ids.computeIfAbsent( name, k ->
+                {
+                    int next = nextId.getAndIncrement();
+                    names.put( next, k );
+                    return next;
+                } );
+            }
+            return id;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import org.apache.directory.fortress.core.SecurityException;
+import org.apache.directory.fortress.core.util.cache.CacheMgr;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Bulk export and import of a tenant's RBAC policy as ldif: its users, password policies, roles, admin roles, permissions, grants,
+ * SD sets and hierarchies.  Entries are streamed straight between ldap and the ldif so memory use stays the same however large the
+ * tenant.  Used to migrate a tenant to another directory, or to clone one tenant into another:
+ * <pre>
+ * java org.apache.directory.fortress.core.impl.TenantLdif export acme acme.ldif
+ * java org.apache.directory.fortress.core.impl.TenantLdif import acme acme2 acme.ldif
+ * </pre>
+ * Import doesn't go through {@link org.apache.directory.fortress.core.AdminMgr}.  There are no administrative permission checks, no
+ * validation of the entries and no audit trail, so it's intended for use by the administrator that owns the directory.  The caches
+ * and hierarchies of this process are cleared once, after the last entry is added.  Other processes serving the tenant see the
+ * imported data as their caches expire.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public final class TenantLdif
+{
+    private static final String CLS_NM = TenantLdif.class.getName();
+    private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
+
+
+    private TenantLdif()
+    {
+    }
+
+
+    /**
+     * Write the tenant's policy as ldif.
+     *
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @param writer    receives the ldif, is flushed but not closed.
+     * @return long value contains the number of entries written.
+     * @throws SecurityException in the event of ldap or io error.
+     */
+    public static long export( String contextId, Writer writer ) throws SecurityException
+    {
+        return new LdifDAO().export( contextId, writer );
+    }
+
+
+    /**
+     * Add the entries of ldif written by {@link #export(String, Writer)} to a tenant, whose containers must already exist.  Entries
+     * already present are left as they are.
+     *
+     * @param sourceContextId tenant the ldif was exported from.
+     * @param contextId       tenant to import into, may be the same as the source.
+     * @param reader          supplies the ldif, isn't closed.
+     * @return long value contains the number of entries added.
+     * @throws SecurityException in the event of ldap error or bad ldif.
+     */
+    public static long load( String sourceContextId, String contextId, Reader reader ) throws SecurityException
+    {
+        try
+        {
+            return new LdifDAO().load( sourceContextId, contextId, reader );
+        }
+        finally
+        {
+            // whatever made it in must be seen, even if the import failed part way:
+            CacheMgr.getInstance().clearAll();
+            RoleUtil.getInstance().clear( contextId );
+            AdminRoleUtil.clear( contextId );
+            UsoUtil.getInstance().clear( contextId );
+            PsoUtil.getInstance().clear( contextId );
+            SDUtil.getInstance().clearDsdCacheEntry( null, contextId );
+            SDUtil.getInstance().clearSsdCacheEntry( null, contextId );
+        }
+    }
+
+
+    /**
+     * Export or import a tenant from the command line.
+     *
+     * @param args either 'export contextId file' or 'import sourceContextId contextId file'.
+     * @throws Exception in the event of ldap or io error.
+     */
+    public static void main( String[] args ) throws Exception
+    {
+        if ( args.length == 3 && args[0].equalsIgnoreCase( "export" ) )
+        {
+            try ( Writer writer = Files.newBufferedWriter( Paths.get( args[2] ), StandardCharsets.UTF_8 ) )
+            {
+                LOG.info( "export contextId [{}] wrote {} entries to {}", args[1], export( args[1], writer ), args[2] );
+            }
+        }
+        else if ( args.length == 4 && args[0].equalsIgnoreCase( "import" ) )
+        {
+            try ( Reader reader = Files.newBufferedReader( Paths.get( args[3] ), StandardCharsets.UTF_8 ) )
+            {
+                LOG.info( "import contextId [{}] added {} entries from {}", args[2], load( args[1], args[2], reader ), args[3] );
+            }
+        }
+        else
+        {
+            System.out.println( "usage: " + CLS_NM + " export contextId file | import sourceContextId contextId file" );
+        }
+    }
+}
@@ -52,7 +52,6 @@ import org.apache.directory.api.ldap.model.exception.LdapNoSuchObjectException;
 import org.apache.directory.api.ldap.model.message.BindResponse;
 import org.apache.directory.api.ldap.model.message.ResultCodeEnum;
 import org.apache.directory.api.ldap.model.message.SearchScope;
-import org.apache.directory.fortress.core.CfgException;
 import org.apache.directory.fortress.core.CreateException;
 import org.apache.directory.fortress.core.FinderException;
 import org.apache.directory.fortress.core.GlobalErrIds;
@@ -62,8 +61,9 @@ import org.apache.directory.fortress.core.RemoveException;
 import org.apache.directory.fortress.core.SecurityException;
 import org.apache.directory.fortress.core.UpdateException;
 import org.apache.directory.fortress.core.ldap.LdapDataProvider;
+import org.apache.directory.fortress.core.ldap.PagedCursor;
 import org.apache.directory.fortress.core.model.*;
-import org.apache.directory.fortress.core.util.PropUpdater;
+import org.apache.directory.fortress.core.util.CloseableIterator;
 import org.apache.directory.fortress.core.util.PropUtil;
 import org.apache.directory.fortress.core.model.RoleConstraint.RCType;
 import org.apache.directory.fortress.core.util.Config;
@@ -143,7 +143,7 @@ import static org.apache.directory.fortress.core.impl.RoleDAO.IS_RFC2307;
  * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
  * @created August 30, 2009
  */
-final class UserDAO extends LdapDataProvider implements PropUpdater
+final class UserDAO extends LdapDataProvider
 {
     /*
       *  *************************************************************************
@@ -212,19 +212,6 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
     }
 
 
-    /**
-     * Method on PropUdater interface used to increment UID and GID prop values.
-     * @param value contains a String that will be converted to an Integer before incremeting.
-     * @return String value contains the new sequence value.
-     */
-    public String newValue(String value)
-    {
-        Integer id = new Integer( value );
-        Integer newId = id + 1;
-        return newId.toString();
-    }
-
-
     /**
      * Add new user entity to LDAP
      *
@@ -515,6 +502,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
         }
         finally
         {
+            CredentialCache.getInstance().remove( entity );
             closeAdminConnection( ld );
         }
 
@@ -587,6 +575,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
         }
         finally
         {
+            CredentialCache.getInstance().remove( user );
             closeAdminConnection( ld );
         }
 
@@ -618,6 +607,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
         }
         finally
         {
+            CredentialCache.getInstance().remove( user );
             closeAdminConnection( ld );
         }
     }
@@ -650,6 +640,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
         }
         finally
         {
+            CredentialCache.getInstance().remove( user );
             closeAdminConnection( ld );
         }
     }
@@ -685,7 +676,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
 
         try
         {
-            ld = getAdminConnection();
+            ld = getReadConnection();
             findEntry = read( ld, userDn, uATTRS );
         }
         catch ( LdapNoSuchObjectException e )
@@ -700,7 +691,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
 
         try
@@ -739,7 +730,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
 
         try
         {
-            ld = getAdminConnection();
+            ld = getReadConnection();
             Entry findEntry = read( ld, userDn, AROLE_ATR );
             roles = unloadUserAdminRoles( findEntry, user.getUserId(), user.getContextId() );
         }
@@ -755,7 +746,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
 
         return roles;
@@ -775,7 +766,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
 
         try
         {
-            ld = getAdminConnection();
+            ld = getReadConnection();
             Entry findEntry = read( ld, userDn, ROLES );
 
             if ( findEntry == null )
@@ -799,7 +790,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
 
         return roles;
@@ -812,6 +803,45 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
      * @throws org.apache.directory.fortress.core.FinderException,  org.apache.directory.fortress.core.PasswordException
      */
     Session checkPassword( User user ) throws FinderException, PasswordException
+    {
+        CredentialCache credentials = CredentialCache.getInstance();
+        if ( !credentials.isEnabled() )
+        {
+            return bindPassword( user );
+        }
+        long generation = credentials.getGeneration( user );
+        Session session = credentials.verify( user );
+        if ( session == null )
+        {
+            boolean isBound = false;
+            try
+            {
+                session = bindPassword( user );
+                credentials.put( user, session, generation );
+                isBound = true;
+            }
+            finally
+            {
+                if ( !isBound )
+                {
+                    // the directory may have counted a failure toward lockout:
+                    credentials.remove( user );
+                }
+            }
+        }
+        return session;
+    }
+
+
+    /**
+     * Bind with the user's password, checking the password policy response.
+     *
+     * @param user contains the userId, contextId and password.
+     * @return session that is authenticated.
+     * @throws FinderException in the event of a system error.
+     * @throws PasswordException if the password is invalid or violates a policy.
+     */
+    private Session bindPassword( User user ) throws FinderException, PasswordException
     {
         Session session = null;
         LdapConnection ld = null;
@@ -822,7 +852,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
             session = new ObjectFactory().createSession();
             session.setAuthenticated( false );
             session.setUserId( user.getUserId() );
-            ld = getUserConnection();
+            ld = getBindConnection();
             BindResponse bindResponse = bind( ld, userDn, user.getPassword() );
             String info;
 
@@ -859,7 +889,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
         }
         finally
         {
-            closeUserConnection( ld );
+            closeBindConnection( ld );
         }
 
         return session;
@@ -979,43 +1009,8 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
 
         try
         {
-            //String filter;
-            StringBuilder filterbuf = new StringBuilder();
-            if ( StringUtils.isNotEmpty( user.getUserId() ) )
-            {
-                // place a wild card after the input userId:
-                String searchVal = encodeSafeText( user.getUserId(), GlobalIds.USERID_LEN );
-                filterbuf.append( GlobalIds.FILTER_PREFIX );
-                filterbuf.append( Config.getInstance().getProperty( USER_OBJECT_CLASS ) );
-                filterbuf.append( ")(" );
-                filterbuf.append( SchemaConstants.UID_AT );
-                filterbuf.append( "=" );
-                filterbuf.append( searchVal );
-                filterbuf.append( "*))" );
-            }
-            else if ( StringUtils.isNotEmpty( user.getInternalId() ) )
-            {
-                // internalUserId search
-                String searchVal = encodeSafeText( user.getInternalId(), GlobalIds.USERID_LEN );
-                // this is not a wildcard search. Must be exact match.
-                filterbuf.append( GlobalIds.FILTER_PREFIX );
-                filterbuf.append( Config.getInstance().getProperty( USER_OBJECT_CLASS ) );
-                filterbuf.append( ")(" );
-                filterbuf.append( GlobalIds.FT_IID );
-                filterbuf.append( "=" );
-                filterbuf.append( searchVal );
-                filterbuf.append( "))" );
-            }
-            else
-            {
-                // Beware - returns ALL users!!:"
-                filterbuf.append( "(objectclass=" );
-                filterbuf.append( Config.getInstance().getProperty( USER_OBJECT_CLASS ) );
-                filterbuf.append( ")" );
-            }
-
-            ld = getAdminConnection();
-            SearchCursor searchResults = search( ld, userRoot, SearchScope.ONELEVEL, filterbuf.toString(), defaultAtrs, false,
+            ld = getReadConnection();
+            SearchCursor searchResults = search( ld, userRoot, SearchScope.ONELEVEL, getFindFilter( user ), defaultAtrs, false,
                     Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) ) );
             long sequence = 0;
 
@@ -1036,13 +1031,95 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
 
         return userList;
     }
 
 
+    /**
+     * Return a cursor over the users in the people container that match all or part of the userId, read a page at a time.
+     *
+     * @param user contains all or some leading chars that match userIds, or an internalId, or neither to return every user.
+     * @return iterator that holds a read connection until it's exhausted or closed.
+     * @throws FinderException in the event the first page can't be read.
+     */
+    CloseableIterator<User> iterateUsers( User user ) throws FinderException
+    {
+        LdapConnection ld = null;
+        String userRoot = getRootDn( user.getContextId(), GlobalIds.USER_ROOT );
+
+        try
+        {
+            ld = getReadConnection();
+            PagedCursor cursor = searchPaged( ld, userRoot, SearchScope.ONELEVEL, getFindFilter( user ), defaultAtrs );
+            LdapConnection connection = ld;
+            // the iterator releases the connection from here on:
+            ld = null;
+            return new PagedIterator<>( cursor, ( entry, sequence ) -> unloadLdapEntry( entry, sequence, user
+                .getContextId() ), () -> closeReadConnection( connection ), GlobalErrIds.USER_SEARCH_FAILED );
+        }
+        catch ( LdapException e )
+        {
+            String warning = "iterateUsers userRoot [" + userRoot + "] caught LDAPException=" + e;
+            throw new FinderException( GlobalErrIds.USER_SEARCH_FAILED, warning, e );
+        }
+        finally
+        {
+            if ( ld != null )
+            {
+                closeReadConnection( ld );
+            }
+        }
+    }
+
+
+    /**
+     * @param user contains the userId or internalId to search on.
+     * @return filter used by {@link #findUsers(User)} and {@link #iterateUsers(User)}.
+     * @throws LdapException in the event the search value can't be encoded.
+     */
+    private String getFindFilter( User user ) throws LdapException
+    {
+        StringBuilder filterbuf = new StringBuilder();
+        if ( StringUtils.isNotEmpty( user.getUserId() ) )
+        {
+            // place a wild card after the input userId:
+            String searchVal = encodeSafeText( user.getUserId(), GlobalIds.USERID_LEN );
+            filterbuf.append( GlobalIds.FILTER_PREFIX );
+            filterbuf.append( Config.getInstance().getProperty( USER_OBJECT_CLASS ) );
+            filterbuf.append( ")(" );
+            filterbuf.append( SchemaConstants.UID_AT );
+            filterbuf.append( "=" );
+            filterbuf.append( searchVal );
+            filterbuf.append( "*))" );
+        }
+        else if ( StringUtils.isNotEmpty( user.getInternalId() ) )
+        {
+            // internalUserId search
+            String searchVal = encodeSafeText( user.getInternalId(), GlobalIds.USERID_LEN );
+            // this is not a wildcard search. Must be exact match.
+            filterbuf.append( GlobalIds.FILTER_PREFIX );
+            filterbuf.append( Config.getInstance().getProperty( USER_OBJECT_CLASS ) );
+            filterbuf.append( ")(" );
+            filterbuf.append( GlobalIds.FT_IID );
+            filterbuf.append( "=" );
+            filterbuf.append( searchVal );
+            filterbuf.append( "))" );
+        }
+        else
+        {
+            // Beware - returns ALL users!!:"
+            filterbuf.append( "(objectclass=" );
+            filterbuf.append( Config.getInstance().getProperty( USER_OBJECT_CLASS ) );
+            filterbuf.append( ")" );
+        }
+
+        return filterbuf.toString();
+    }
+
+
     /**
      * @param user
      * @param limit
@@ -1067,7 +1144,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
             filterbuf.append( searchVal );
             filterbuf.append( "*))" );
 
-            ld = getAdminConnection();
+            ld = getReadConnection();
             SearchCursor searchResults = search( ld, userRoot, SearchScope.ONELEVEL, filterbuf.toString(), USERID,
                 false, limit );
 
@@ -1089,7 +1166,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
 
         return userList;
@@ -1145,7 +1222,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
             }
 
             filterbuf.append( ")" );
-            ld = getAdminConnection();
+            ld = getReadConnection();
             SearchCursor searchResults = search( ld, userRoot, SearchScope.ONELEVEL, filterbuf.toString(), defaultAtrs, false,
                 Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
@@ -1169,7 +1246,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
 
         return userList;
@@ -1210,7 +1287,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
             
             filterbuf.append( ")" );
             
-            ld = getAdminConnection();
+            ld = getReadConnection();
             SearchCursor searchResults = search( ld, userRoot, SearchScope.ONELEVEL, filterbuf.toString(), defaultAtrs, false,
                 Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
@@ -1234,7 +1311,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
 
         return userList;
@@ -1266,7 +1343,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
             
             filterbuf.append( ")" );
             
-            ld = getAdminConnection();
+            ld = getReadConnection();
             SearchCursor searchResults = search( ld, userRoot, SearchScope.ONELEVEL, filterbuf.toString(), defaultAtrs, false,
                 Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
 
@@ -1289,7 +1366,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
 
         return userRoleList;
@@ -1336,7 +1413,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
             filterbuf.append( roleVal );
             filterbuf.append( "))" );
 
-            ld = getAdminConnection();
+            ld = getReadConnection();
             SearchCursor searchResults = search( ld, userRoot, SearchScope.ONELEVEL, filterbuf.toString(), USERID_ATR, false,
                 Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
 
@@ -1359,7 +1436,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
 
         return userList;
@@ -1402,7 +1479,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
             }
 
             filterbuf.append( "))" );
-            ld = getAdminConnection();
+            ld = getReadConnection();
             SearchCursor searchResults = search( ld, userRoot, SearchScope.ONELEVEL, filterbuf.toString(), USERID_ATRS,
                 false,
                 Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
@@ -1424,7 +1501,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
 
         return userSet;
@@ -1454,7 +1531,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
             filterbuf.append( roleVal );
             filterbuf.append( "))" );
 
-            ld = getAdminConnection();
+            ld = getReadConnection();
             SearchCursor searchResults = search( ld, userRoot, SearchScope.ONELEVEL, filterbuf.toString(), defaultAtrs, false,
                 Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
@@ -1478,7 +1555,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
 
         return userList;
@@ -1509,7 +1586,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
             filterbuf.append( roleVal );
             filterbuf.append( "))" );
 
-            ld = getAdminConnection();
+            ld = getReadConnection();
             SearchCursor searchResults = search( ld, userRoot, SearchScope.ONELEVEL, filterbuf.toString(), USERID,
                 false, limit );
 
@@ -1533,7 +1610,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
 
         return userList;
@@ -1563,7 +1640,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
             filterbuf.append( searchVal );
             filterbuf.append( "*))" );
 
-            ld = getAdminConnection();
+            ld = getReadConnection();
             SearchCursor searchResults = search( ld, userRoot, SearchScope.ONELEVEL, filterbuf.toString(), defaultAtrs, false,
                 Config.getInstance().getInt(GlobalIds.CONFIG_LDAP_MAX_BATCH_SIZE, GlobalIds.BATCH_SIZE ) );
             long sequence = 0;
@@ -1585,7 +1662,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
 
         return userList;
@@ -1625,7 +1702,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
                 maxLimit = 0;
             }
 
-            ld = getAdminConnection();
+            ld = getReadConnection();
             SearchCursor searchResults = search( ld, userRoot, SearchScope.ONELEVEL, filterbuf.toString(), defaultAtrs, false,
                 maxLimit );
             long sequence = 0;
@@ -1647,7 +1724,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
 
         return userList;
@@ -1713,6 +1790,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
         }
         finally
         {
+            CredentialCache.getInstance().remove( entity );
             closeUserConnection( ld );
         }
 
@@ -1755,6 +1833,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
         }
         finally
         {
+            CredentialCache.getInstance().remove( user );
             closeAdminConnection( ld );
         }
     }
@@ -2128,6 +2207,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
         }
         finally
         {
+            CredentialCache.getInstance().remove( user );
             closeAdminConnection( ld );
         }
 
@@ -2231,7 +2311,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
         String userDn = getDn( userId, contextId );
         try
         {
-            ld = getAdminConnection();
+            ld = getReadConnection();
             Entry findEntry = read( ld, userDn, ROLE_ATR );
             roles = unloadUserRoles( findEntry, userId, contextId, null );
         }
@@ -2247,7 +2327,7 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
         }
         finally
         {
-            closeAdminConnection( ld );
+            closeReadConnection( ld );
         }
 
         return roles;
@@ -2590,37 +2670,22 @@ final class UserDAO extends LdapDataProvider implements PropUpdater
     private void loadPosixIds( User entity ) throws CreateException
     {
         // Were the id numbers passed in or do we need to generate?
-        if ( StringUtils.isEmpty( entity.getUidNumber() ) || StringUtils.isEmpty( entity.getGidNumber() ) )
+        try
         {
-            // Contains list of which attr names to load:
-            List<String> idNumbers = new ArrayList<>();
-            if ( StringUtils.isEmpty( entity.getUidNumber() ) )
-            {
-                idNumbers.add( GlobalIds.UID_NUMBER );
-            }
-            if ( StringUtils.isEmpty( entity.getGidNumber() ) )
-            {
-                idNumbers.add( GlobalIds.GID_NUMBER );
-            }
-            Configuration configuration;
-            try
-            {
-                configuration = Config.getInstance().getIncrementReplacePosixIds( idNumbers, this );
-            }
-            catch ( CfgException ce )
-            {
-                String error = "create user caught CfgException replacing an ID prop:" + ce.getMessage();
-                throw new CreateException( GlobalErrIds.USER_ADD_FAILED, error, ce );
-            }
             if ( StringUtils.isEmpty( entity.getUidNumber() ) )
             {
-                entity.setUidNumber( configuration.getUidNumber() );
+                entity.setUidNumber( PosixIdAllocator.getInstance().nextUidNumber() );
             }
             if ( StringUtils.isEmpty( entity.getGidNumber() ) )
             {
-                entity.setGidNumber( configuration.getGidNumber() );
+                entity.setGidNumber( PosixIdAllocator.getInstance().nextGidNumber() );
             }
         }
+        catch ( SecurityException se )
+        {
+            String error = "create user caught SecurityException allocating an ID:" + se.getMessage();
+            throw new CreateException( GlobalErrIds.USER_ADD_FAILED, error, se );
+        }
     }
 
     /**
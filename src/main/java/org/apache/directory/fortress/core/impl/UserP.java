@@ -45,6 +45,7 @@ import org.apache.directory.fortress.core.model.Session;
 import org.apache.directory.fortress.core.model.User;
 import org.apache.directory.fortress.core.model.UserAdminRole;
 import org.apache.directory.fortress.core.model.UserRole;
+import org.apache.directory.fortress.core.util.CloseableIterator;
 import org.apache.directory.fortress.core.util.Config;
 import org.apache.directory.fortress.core.util.VUtil;
 
@@ -91,6 +92,19 @@ final class UserP
     }
 
 
+    /**
+     * Same search as {@link #search(User)} with the results read from the server a page at a time.
+     *
+     * @param user contains all or partial userId.
+     * @return iterator over matching User entities that must be closed by the caller.
+     * @throws SecurityException in the event of DAO search error.
+     */
+    CloseableIterator<User> iterate( User user ) throws SecurityException
+    {
+        return uDao.iterateUsers( user );
+    }
+
+
     List<User> search( OrgUnit ou, boolean limitSize ) throws SecurityException
     {
         return uDao.findUsers( ou, limitSize );
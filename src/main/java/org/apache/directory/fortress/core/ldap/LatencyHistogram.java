@@ -0,0 +1,179 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.ldap;
+
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * Counts latencies, in microseconds, into buckets whose width grows with the value, in the manner of an HDR histogram.  Each power of
+ * two is split into 16 buckets, so a percentile read back is within 1/16th of the value recorded, from 1 microsecond up to about
+ * 12 days.  Recording a value increments a couple of atomic longs and allocates nothing, so it may be done on every ldap operation.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public final class LatencyHistogram
+{
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // values at or beyond 2^40 micros are counted in the last bucket:
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKETS = ( MAX_EXPONENT - SUB_BUCKET_BITS + 1 ) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray( BUCKETS );
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+
+    /**
+     * Record the time elapsed since a given start.
+     *
+     * @param startNanos value of {@link System#nanoTime()} when the operation began.
+     */
+    public void recordSince( long startNanos )
+    {
+        recordNanos( System.nanoTime() - startNanos );
+    }
+
+
+    /**
+     * Record a single latency.
+     *
+     * @param nanos elapsed time in nanoseconds, negative values are counted as zero.
+     */
+    public void recordNanos( long nanos )
+    {
+        long micros = Math.max( 0, TimeUnit.NANOSECONDS.toMicros( nanos ) );
+        counts.incrementAndGet( getIndex( micros ) );
+        count.incrementAndGet();
+        total.addAndGet( micros );
+        long current = max.get();
+        while ( micros > current && !max.compareAndSet( current, micros ) )
+        {
+            current = max.get();
+        }
+    }
+
+
+    /**
+     * Return the number of latencies recorded.
+     *
+     * @return long containing count.
+     */
+    public long getCount()
+    {
+        return count.get();
+    }
+
+
+    /**
+     * Return the largest latency recorded.
+     *
+     * @return long containing microseconds.
+     */
+    public long getMax()
+    {
+        return max.get();
+    }
+
+
+    /**
+     * Return the mean of the latencies recorded.
+     *
+     * @return long containing microseconds, zero if none have been recorded.
+     */
+    public long getMean()
+    {
+        long n = count.get();
+        return n == 0 ? 0 : total.get() / n;
+    }
+
+
+    /**
+     * Return the latency that the given percentage of those recorded are at or below.  Values recorded while this runs may or may
+     * not be included.
+     *
+     * @param percentile between 0 and 100, e.g. 99.9.
+     * @return long containing the upper bound, in microseconds, of the bucket the percentile falls in, zero if none have been recorded.
+     */
+    public long getPercentile( double percentile )
+    {
+        long[] snapshot = new long[BUCKETS];
+        long n = 0;
+        for ( int i = 0; i < BUCKETS; i++ )
+        {
+            snapshot[i] = counts.get( i );
+            n += snapshot[i];
+        }
+        if ( n == 0 )
+        {
+            return 0;
+        }
+        long rank = Math.max( 1, ( long ) Math.ceil( n * Math.min( percentile, 100.0 ) / 100.0 ) );
+        long seen = 0;
+        for ( int i = 0; i < BUCKETS; i++ )
+        {
+            seen += snapshot[i];
+            if ( seen >= rank )
+            {
+                return Math.min( getUpperBound( i ), max.get() );
+            }
+        }
+        return max.get();
+    }
+
+
+    /**
+     * Values below 16 get a bucket each, then each power of two is divided into 16 equal parts.
+     */
+    private static int getIndex( long micros )
+    {
+        if ( micros < SUB_BUCKETS )
+        {
+            return ( int ) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros( micros );
+        if ( exponent >= MAX_EXPONENT )
+        {
+            return BUCKETS - 1;
+        }
+        int sub = ( int ) ( micros >>> ( exponent - SUB_BUCKET_BITS ) ) & ( SUB_BUCKETS - 1 );
+        return ( exponent - SUB_BUCKET_BITS + 1 ) * SUB_BUCKETS + sub;
+    }
+
+
+    private static long getUpperBound( int index )
+    {
+        if ( index < SUB_BUCKETS )
+        {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long sub = index % SUB_BUCKETS;
+        long width = 1L << ( exponent - SUB_BUCKET_BITS );
+        return ( ( SUB_BUCKETS + sub ) << ( exponent - SUB_BUCKET_BITS ) ) + width - 1;
+    }
+}
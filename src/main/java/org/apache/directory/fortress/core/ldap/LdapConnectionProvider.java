@@ -24,7 +24,6 @@ import java.util.Arrays;
 import java.util.List;
 
 import org.apache.commons.lang.StringUtils;
-import org.apache.commons.pool2.PooledObjectFactory;
 import org.apache.directory.api.ldap.codec.api.LdapApiService;
 import org.apache.directory.api.ldap.codec.api.LdapApiServiceFactory;
 import org.apache.directory.api.ldap.codec.standalone.StandaloneLdapApiService;
@@ -48,6 +47,21 @@ import org.slf4j.LoggerFactory;
  *
  * Each connection pool is initialized on first invocation of getInstance() which stores a reference to self used by subsequent callers.
  * <p>
+ * When fortress config param, 'enable.pool.admission', is true, callers wait their turn for a connection on a {@link PoolAdmission}
+ * rather than inside the pool, so a pool may be shared by many virtual threads without pinning their carriers while they wait.
+ * <p>
+ * When fortress config param, 'ldap.replicas', lists the host:port of one or more read replicas of the master, searches and reads
+ * made through {@link #getReadConnection()} are spread across them by {@link LdapReplicas}.  Updates always go to the master.  For
+ * 'ldap.replica.lag' millis after any thread in this process updates the master, every read goes to the master, so that neither
+ * the writer nor the caches reloaded on other threads after the update see a replica that hasn't caught up.  If none of the
+ * replicas are available, the master is used.
+ * <p>
+ * Authentication binds made through {@link #getBindConnection()} stay on the master unless 'ldap.replica.binds' is true, because
+ * the password policy state a bind updates, e.g. failure counts and lockouts, is only kept on the server that took the bind.  Only
+ * set it when the replicas forward those updates to the master, e.g. OpenLDAP's chain overlay with 'ppolicy_forward_updates'.
+ * <p>
+ * The time taken to borrow a connection, and the number in use, idle and waited on, are kept for each pool by {@link LdapMetrics}.
+ * <p>
  * This class is not thread safe.
  *
  * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
@@ -58,6 +72,11 @@ public class LdapConnectionProvider
     private static final String CLS_NM = LdapConnectionProvider.class.getName();
     private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
     private static final String ENABLE_LDAP_STARTTLS = "enable.ldap.starttls";
+    private static final String ENABLE_POOL_ADMISSION = "enable.pool.admission";
+    private static final String LDAP_REPLICAS = "ldap.replicas";
+    private static final String LDAP_REPLICA_LAG = "ldap.replica.lag";
+    private static final String LDAP_REPLICA_CHECK_INTERVAL = "ldap.replica.check.interval";
+    private static final String LDAP_REPLICA_BINDS = "ldap.replica.binds";
     private boolean IS_SSL;
 
     /**
@@ -75,6 +94,36 @@ public class LdapConnectionProvider
      */
     private static LdapConnectionPool userPool;
 
+    /**
+     * Admission to each of the pools, null unless enabled
+     */
+    private static PoolAdmission adminAdmission, logAdmission, userAdmission;
+
+    /**
+     * Metrics of each of the pools
+     */
+    private static PoolMetrics adminMetrics, logMetrics, userMetrics;
+
+    /**
+     * The read replicas, null unless configured
+     */
+    private static LdapReplicas replicas;
+
+    /**
+     * How long, in millis, after a write to the master that reads are kept off of the replicas
+     */
+    private static long replicaLag;
+
+    /**
+     * True when authentication binds may go to the replicas
+     */
+    private static boolean isReplicaBinds;
+
+    /**
+     * Time of the last write made to the master by any thread
+     */
+    private static volatile long lastWrite;
+
     private static volatile LdapConnectionProvider sINSTANCE = null;
 
     /**
@@ -128,8 +177,11 @@ public class LdapConnectionProvider
         int maxConnBlockTime = Config.getInstance().getInt( GlobalIds.MAX_CONN_BLOCK_TIME, 5000 );
         int timeBetweenEvictionRunMillis = Config.getInstance().getInt( GlobalIds.LDAP_ADMIN_POOL_EVICT_RUN_MILLIS, 1000 * 60 * 30 );
         int logTimeBetweenEvictionRunMillis = Config.getInstance().getInt( GlobalIds.LDAP_LOG_POOL_EVICT_RUN_MILLIS, 1000 * 60 * 30 );
+        // callers queue on a semaphore, so the pool's own wait, inside of a monitor, is only reached if the evictor
+        // is briefly holding a connection:
+        boolean isAdmission = Config.getInstance().getBoolean( ENABLE_POOL_ADMISSION, false );
 
-        LOG.info( "LDAP POOL:  host=[{}], port=[{}], min=[{}], max=[{}]", host, port, min, max );
+        LOG.info( "LDAP POOL:  host=[{}], port=[{}], min=[{}], max=[{}], admission=[{}]", host, port, min, max, isAdmission );
 
         LdapConnectionConfig config = new LdapConnectionConfig();
         config.setLdapHost( host );
@@ -187,10 +239,12 @@ public class LdapConnectionProvider
             throw new CfgRuntimeException( GlobalErrIds.FT_APACHE_LDAP_POOL_INIT_FAILED, error, ex );
         }
 
-        PooledObjectFactory<LdapConnection> poolFactory = new ValidatingPoolableLdapConnectionFactory( config );
+        LdapMetrics metrics = LdapMetrics.getInstance();
+        adminMetrics = metrics.addPool( "admin" );
+        userMetrics = metrics.addPool( "user" );
 
         // Create the Admin pool
-        adminPool = new LdapConnectionPool( poolFactory );
+        adminPool = new LdapConnectionPool( new MeteredConnectionFactory( config, adminMetrics ) );
         adminPool.setTestOnBorrow( testOnBorrow );
         adminPool.setMaxTotal( max );
         adminPool.setBlockWhenExhausted( isBlockOnMaxConnection );
@@ -200,8 +254,10 @@ public class LdapConnectionProvider
         adminPool.setTestWhileIdle( testWhileIdle );
         adminPool.setTimeBetweenEvictionRunsMillis( timeBetweenEvictionRunMillis );
 
+        adminMetrics.setPool( adminPool );
+
         // Create the User pool
-        userPool = new LdapConnectionPool( poolFactory );
+        userPool = new LdapConnectionPool( new MeteredConnectionFactory( config, userMetrics ) );
         userPool.setTestOnBorrow( testOnBorrow );
         userPool.setMaxTotal( max );
         userPool.setBlockWhenExhausted( isBlockOnMaxConnection );
@@ -210,6 +266,13 @@ public class LdapConnectionProvider
         userPool.setMaxIdle( -1 );
         userPool.setTestWhileIdle( testWhileIdle );
         userPool.setTimeBetweenEvictionRunsMillis( timeBetweenEvictionRunMillis );
+        userMetrics.setPool( userPool );
+
+        if ( isAdmission )
+        {
+            adminAdmission = new PoolAdmission( "admin", max, isBlockOnMaxConnection ? maxConnBlockTime : 0 );
+            userAdmission = new PoolAdmission( "user", max, isBlockOnMaxConnection ? maxConnBlockTime : 0 );
+        }
 
         // This pool of access log connections is used by {@link org.apache.directory.fortress.AuditMgr}.
         // To enable, set {@code log.admin.user} && {@code log.admin.pw} inside fortress.properties file:
@@ -245,8 +308,8 @@ public class LdapConnectionProvider
                 logPw = Config.getInstance().getProperty( GlobalIds.LDAP_LOG_POOL_PW, true );
             }
             logConfig.setCredentials( logPw );
-            poolFactory = new ValidatingPoolableLdapConnectionFactory( logConfig );
-            logPool = new LdapConnectionPool( poolFactory );
+            logMetrics = metrics.addPool( "log" );
+            logPool = new LdapConnectionPool( new MeteredConnectionFactory( logConfig, logMetrics ) );
             logPool.setTestOnBorrow( testOnBorrow );
             logPool.setMaxTotal( logmax );
             logPool.setBlockWhenExhausted( isBlockOnMaxConnection );
@@ -254,7 +317,69 @@ public class LdapConnectionProvider
             logPool.setMinIdle( logmin );
             logPool.setTestWhileIdle( testWhileIdle );
             logPool.setTimeBetweenEvictionRunsMillis( logTimeBetweenEvictionRunMillis );
+            logMetrics.setPool( logPool );
+            if ( isAdmission )
+            {
+                logAdmission = new PoolAdmission( "log", logmax, isBlockOnMaxConnection ? maxConnBlockTime : 0 );
+            }
         }
+
+        List<Object> replicaList = Config.getInstance().getList( LDAP_REPLICAS );
+        if ( replicaList != null && !replicaList.isEmpty() )
+        {
+            List<LdapReplicas.Replica> replicaPools = new ArrayList<>();
+            for ( Object val : replicaList )
+            {
+                String replicaHost = val.toString().trim();
+                int replicaPort = port;
+                int index = replicaHost.lastIndexOf( ':' );
+                if ( index > 0 )
+                {
+                    replicaPort = Integer.parseInt( replicaHost.substring( index + 1 ) );
+                    replicaHost = replicaHost.substring( 0, index );
+                }
+                LdapConnectionConfig replicaConfig = copyConfig( config, replicaHost, replicaPort );
+                PoolMetrics replicaMetrics = metrics.addPool( replicaHost + ":" + replicaPort );
+                LdapConnectionPool replicaPool = new LdapConnectionPool( new MeteredConnectionFactory( replicaConfig,
+                    replicaMetrics ) );
+                replicaPool.setTestOnBorrow( testOnBorrow );
+                replicaPool.setMaxTotal( max );
+                replicaPool.setBlockWhenExhausted( isBlockOnMaxConnection );
+                replicaPool.setMaxWaitMillis( maxConnBlockTime );
+                replicaPool.setMinIdle( min );
+                replicaPool.setMaxIdle( -1 );
+                replicaPool.setTestWhileIdle( testWhileIdle );
+                replicaPool.setTimeBetweenEvictionRunsMillis( timeBetweenEvictionRunMillis );
+                replicaMetrics.setPool( replicaPool );
+                PoolAdmission replicaAdmission = isAdmission ? new PoolAdmission( replicaHost + ":" + replicaPort, max,
+                    isBlockOnMaxConnection ? maxConnBlockTime : 0 ) : null;
+                replicaPools.add( new LdapReplicas.Replica( replicaConfig, replicaPool, replicaAdmission,
+                    replicaMetrics ) );
+                LOG.info( "LDAP REPLICA:  host=[{}], port=[{}]", replicaHost, replicaPort );
+            }
+            replicaLag = Config.getInstance().getInt( LDAP_REPLICA_LAG, 1000 );
+            isReplicaBinds = Config.getInstance().getBoolean( LDAP_REPLICA_BINDS, false );
+            replicas = new LdapReplicas( replicaPools, Config.getInstance().getInt( LDAP_REPLICA_CHECK_INTERVAL, 30 ) );
+        }
+    }
+
+
+    /**
+     * Coordinates of a replica, with everything else taken from the master's.
+     */
+    private static LdapConnectionConfig copyConfig( LdapConnectionConfig config, String host, int port )
+    {
+        LdapConnectionConfig copy = new LdapConnectionConfig();
+        copy.setLdapHost( host );
+        copy.setLdapPort( port );
+        copy.setName( config.getName() );
+        copy.setCredentials( config.getCredentials() );
+        copy.setEnabledProtocols( config.getEnabledProtocols() );
+        copy.setUseSsl( config.isUseSsl() );
+        copy.setUseTls( config.isUseTls() );
+        copy.setTrustManagers( config.getTrustManagers() );
+        copy.setLdapApiService( config.getLdapApiService() );
+        return copy;
     }
 
     /**
@@ -264,6 +389,11 @@ public class LdapConnectionProvider
      */
     public void closeAdminConnection(LdapConnection connection)
     {
+        if ( connection == null )
+        {
+            // the borrow failed, and already gave back its permit
+            return;
+        }
         try
         {
             adminPool.releaseConnection( connection );
@@ -273,6 +403,10 @@ public class LdapConnectionProvider
             LOG.warn( "Error closing admin connection: " + e );
             //throw new RuntimeException( e );
         }
+        finally
+        {
+            release( adminAdmission );
+        }
     }
 
 
@@ -283,6 +417,11 @@ public class LdapConnectionProvider
      */
     public void closeLogConnection(LdapConnection connection)
     {
+        if ( connection == null )
+        {
+            // the borrow failed, and already gave back its permit
+            return;
+        }
         try
         {
             logPool.releaseConnection( connection );
@@ -292,6 +431,10 @@ public class LdapConnectionProvider
             LOG.warn( "Error closing log connection: " + e );
             //throw new RuntimeException( e );
         }
+        finally
+        {
+            release( logAdmission );
+        }
     }
 
 
@@ -302,6 +445,11 @@ public class LdapConnectionProvider
      */
     public void closeUserConnection(LdapConnection connection)
     {
+        if ( connection == null )
+        {
+            // the borrow failed, and already gave back its permit
+            return;
+        }
         try
         {
             userPool.releaseConnection( connection );
@@ -311,6 +459,10 @@ public class LdapConnectionProvider
             LOG.warn( "Error closing user connection: " + e );
             //throw new RuntimeException( e );
         }
+        finally
+        {
+            release( userAdmission );
+        }
     }
 
 
@@ -322,14 +474,7 @@ public class LdapConnectionProvider
      */
     public LdapConnection getAdminConnection() throws LdapException
     {
-        try
-        {
-            return adminPool.getConnection();
-        }
-        catch ( Exception e )
-        {
-            throw new LdapException( e );
-        }
+        return borrow( adminPool, adminAdmission, adminMetrics );
     }
 
 
@@ -341,14 +486,7 @@ public class LdapConnectionProvider
      */
     public LdapConnection getLogConnection() throws LdapException
     {
-        try
-        {
-            return logPool.getConnection();
-        }
-        catch ( Exception e )
-        {
-            throw new LdapException( e );
-        }
+        return borrow( logPool, logAdmission, logMetrics );
     }
 
 
@@ -360,16 +498,140 @@ public class LdapConnectionProvider
      */
     public LdapConnection getUserConnection() throws LdapException
     {
+        return borrow( userPool, userAdmission, userMetrics );
+    }
+
+
+    /**
+     * Get a connection for searches and reads, from a replica if any are configured and available, otherwise from the admin pool.
+     *
+     * @return ldap connection.
+     * @throws LdapException If we had an issue getting an LDAP connection
+     */
+    public LdapConnection getReadConnection() throws LdapException
+    {
+        LdapConnection connection = isReplicaRead() ? replicas.getConnection() : null;
+        return connection != null ? connection : getAdminConnection();
+    }
+
+
+    /**
+     * Close a connection obtained from {@link #getReadConnection()}.
+     *
+     * @param connection handle to ldap connection object.
+     */
+    public void closeReadConnection( LdapConnection connection )
+    {
+        if ( replicas == null || !replicas.release( connection ) )
+        {
+            closeAdminConnection( connection );
+        }
+    }
+
+
+    /**
+     * Get a connection for authentication binds, from a replica if 'ldap.replica.binds' is set and one is available, otherwise
+     * from the user pool.
+     *
+     * @return ldap connection.
+     * @throws LdapException If we had an issue getting an LDAP connection
+     */
+    public LdapConnection getBindConnection() throws LdapException
+    {
+        LdapConnection connection = isReplicaBinds && isReplicaRead() ? replicas.getConnection() : null;
+        return connection != null ? connection : getUserConnection();
+    }
+
+
+    /**
+     * Close a connection obtained from {@link #getBindConnection()}.
+     *
+     * @param connection handle to ldap connection object.
+     */
+    public void closeBindConnection( LdapConnection connection )
+    {
+        if ( replicas == null || !replicas.release( connection ) )
+        {
+            closeUserConnection( connection );
+        }
+    }
+
+
+    /**
+     * Record that the master has been updated, so that reads, on this thread and the ones reloading caches after the update, stay
+     * on the master until the replicas catch up.
+     */
+    static void markWrite()
+    {
+        if ( replicas != null )
+        {
+            lastWrite = System.currentTimeMillis();
+        }
+    }
+
+
+    private static boolean isReplicaRead()
+    {
+        if ( replicas == null )
+        {
+            return false;
+        }
+        return System.currentTimeMillis() - lastWrite > replicaLag;
+    }
+
+
+    /**
+     * Wait for admission, if enabled, then borrow a connection from the pool, timing the two together.
+     */
+    private static LdapConnection borrow( LdapConnectionPool pool, PoolAdmission admission, PoolMetrics metrics )
+        throws LdapException
+    {
+        long start = System.nanoTime();
+        try
+        {
+            acquire( admission );
+        }
+        catch ( LdapException e )
+        {
+            metrics.borrowFailed();
+            throw e;
+        }
         try
         {
-            return userPool.getConnection();
+            LdapConnection connection = pool.getConnection();
+            metrics.borrowed( start );
+            return connection;
         }
         catch ( Exception e )
         {
+            release( admission );
+            metrics.borrowFailed();
             throw new LdapException( e );
         }
     }
 
+
+    private static void acquire( PoolAdmission admission ) throws LdapException
+    {
+        if ( admission != null )
+        {
+            admission.acquire();
+        }
+    }
+
+
+    /**
+     * Only called once the pool has taken the connection back, so a connection returned twice doesn't free a second permit.
+     */
+    private static void release( PoolAdmission admission )
+    {
+        if ( admission != null )
+        {
+            admission.release();
+        }
+    }
+
+
     /**
      * Closes all the ldap connection pools.
      */
@@ -404,6 +666,12 @@ public class LdapConnectionProvider
         {
             LOG.warn( "Error closing log pool: " + e );
         }
+
+        if ( replicas != null )
+        {
+            LOG.info( "Closing replica pools" );
+            replicas.close();
+        }
     }
 
     private String[] getDefaultProtocols()
@@ -20,12 +20,18 @@
 package org.apache.directory.fortress.core.ldap;
 
 
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 
 /**
  * This class handles simple counters that correspond to ldap operations.
- *
+ * <p>
+ * Along with the counts, the latency of each type of operation is kept for each DAO that performed it, e.g. the compares made by
+ * PermDAO, in a {@link LatencyHistogram}.  Once a DAO has performed an operation, recording it again allocates nothing.
  */
 public class LdapCounters
 {
@@ -36,6 +42,8 @@ public class LdapCounters
     private AtomicInteger modCtr = new AtomicInteger( 0 );
     private AtomicInteger deleteCtr = new AtomicInteger( 0 );
     private AtomicInteger bindCtr = new AtomicInteger( 0 );
+    // latencies indexed by LdapMetrics.Op, keyed by the class of the DAO:
+    private final ConcurrentMap<Class<?>, LatencyHistogram[]> latencies = new ConcurrentHashMap<>();
 
 
     /**
@@ -101,6 +109,80 @@ public class LdapCounters
     }
 
 
+    /**
+     * Record the latency of an operation performed by a DAO.
+     *
+     * @param dao   class of the DAO that performed the operation.
+     * @param op    type of ldap operation.
+     * @param nanos elapsed time in nanoseconds.
+     */
+    void recordLatency( Class<?> dao, LdapMetrics.Op op, long nanos )
+    {
+        LatencyHistogram[] histograms = latencies.get( dao );
+        if ( histograms == null )
+        {
+            histograms = latencies.computeIfAbsent( dao, k -> newHistograms() );
+        }
+        histograms[op.ordinal()].recordNanos( nanos );
+    }
+
+
+    /**
+     * Return the latencies of a type of operation performed by a DAO.
+     *
+     * @param dao simple name of the DAO class, e.g. PermDAO.
+     * @param op  type of ldap operation.
+     * @return histogram of latencies in microseconds, null if the DAO hasn't performed an ldap operation.
+     */
+    public LatencyHistogram getLatency( String dao, LdapMetrics.Op op )
+    {
+        for ( Map.Entry<Class<?>, LatencyHistogram[]> entry : latencies.entrySet() )
+        {
+            if ( entry.getKey().getSimpleName().equals( dao ) )
+            {
+                return entry.getValue()[op.ordinal()];
+            }
+        }
+        return null;
+    }
+
+
+    /**
+     * Return a percentile of the latency of every operation performed by every DAO, e.g. PermDAO.compare, for those with a count.
+     *
+     * @param percentile between 0 and 100, e.g. 99.9.
+     * @return map of latencies in microseconds, sorted by DAO and operation.
+     */
+    public Map<String, Long> getPercentiles( double percentile )
+    {
+        Map<String, Long> values = new TreeMap<>();
+        for ( Map.Entry<Class<?>, LatencyHistogram[]> entry : latencies.entrySet() )
+        {
+            for ( LdapMetrics.Op op : LdapMetrics.Op.values() )
+            {
+                LatencyHistogram histogram = entry.getValue()[op.ordinal()];
+                if ( histogram.getCount() > 0 )
+                {
+                    values.put( entry.getKey().getSimpleName() + "." + LdapMetrics.getName( op ), histogram.getPercentile(
+                        percentile ) );
+                }
+            }
+        }
+        return values;
+    }
+
+
+    private static LatencyHistogram[] newHistograms()
+    {
+        LatencyHistogram[] histograms = new LatencyHistogram[LdapMetrics.Op.values().length];
+        for ( int i = 0; i < histograms.length; i++ )
+        {
+            histograms[i] = new LatencyHistogram();
+        }
+        return histograms;
+    }
+
+
     /**
      * Return the search counter.
      * @return long containing search.
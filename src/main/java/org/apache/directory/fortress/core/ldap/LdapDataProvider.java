@@ -80,6 +80,7 @@ public abstract class LdapDataProvider
     private static final String CLS_NM = LdapDataProvider.class.getName();
     private static final int MAX_DEPTH = 100;
     private static final LdapCounters COUNTERS = new LdapCounters();
+    private static final String PAGE_SIZE = "ldap.page.size";
     private static final PasswordPolicyRequest PP_REQ_CTRL = new PasswordPolicyRequestImpl();
 
     /**
@@ -155,7 +156,15 @@ public abstract class LdapDataProvider
     {
         COUNTERS.incrementRead();
 
-        return connection.lookup( dn, attrs );
+        long start = System.nanoTime();
+        try
+        {
+            return connection.lookup( dn, attrs );
+        }
+        finally
+        {
+            record( LdapMetrics.Op.READ, start );
+        }
     }
 
 
@@ -172,7 +181,15 @@ public abstract class LdapDataProvider
     {
         COUNTERS.incrementRead();
 
-        return connection.lookup( dn, attrs );
+        long start = System.nanoTime();
+        try
+        {
+            return connection.lookup( dn, attrs );
+        }
+        finally
+        {
+            record( LdapMetrics.Op.READ, start );
+        }
     }
 
 
@@ -193,7 +210,15 @@ public abstract class LdapDataProvider
     {
         COUNTERS.incrementRead();
 
-        return connection.lookup( dn, attrs );
+        long start = System.nanoTime();
+        try
+        {
+            return connection.lookup( dn, attrs );
+        }
+        finally
+        {
+            record( LdapMetrics.Op.READ, start );
+        }
     }
 
 
@@ -207,7 +232,16 @@ public abstract class LdapDataProvider
     protected void add( LdapConnection connection, Entry entry ) throws LdapException
     {
         COUNTERS.incrementAdd();
-        connection.add( entry );
+        LdapConnectionProvider.markWrite();
+        long start = System.nanoTime();
+        try
+        {
+            connection.add( entry );
+        }
+        finally
+        {
+            record( LdapMetrics.Op.ADD, start );
+        }
     }
 
 
@@ -237,6 +271,7 @@ public abstract class LdapDataProvider
     protected void add( LdapConnection connection, Entry entry, FortEntity entity, boolean setRelaxControl ) throws LdapException
     {
         COUNTERS.incrementAdd();
+        LdapConnectionProvider.markWrite();
 
         if ( !Config.getInstance().isAuditDisabled() && ( entity != null ) && ( entity.getAdminSession() != null ) )
         {
@@ -261,8 +296,16 @@ public abstract class LdapDataProvider
         {
             addRequest.addControl( new RelaxControlImpl() );
         }
-        AddResponse response = connection.add( addRequest );
-        ResultCodeEnum.processResponse(response);
+        long start = System.nanoTime();
+        try
+        {
+            AddResponse response = connection.add( addRequest );
+            ResultCodeEnum.processResponse(response);
+        }
+        finally
+        {
+            record( LdapMetrics.Op.ADD, start );
+        }
     }
 
 
@@ -277,7 +320,16 @@ public abstract class LdapDataProvider
     protected void modify( LdapConnection connection, String dn, List<Modification> mods ) throws LdapException
     {
         COUNTERS.incrementMod();
-        connection.modify( dn, mods.toArray( new Modification[]{} ) );
+        LdapConnectionProvider.markWrite();
+        long start = System.nanoTime();
+        try
+        {
+            connection.modify( dn, mods.toArray( new Modification[]{} ) );
+        }
+        finally
+        {
+            record( LdapMetrics.Op.MODIFY, start );
+        }
     }
 
 
@@ -292,8 +344,17 @@ public abstract class LdapDataProvider
     protected void modify( LdapConnection connection, Dn dn, List<Modification> mods ) throws LdapException
     {
         COUNTERS.incrementMod();
-        connection.modify( dn, mods.toArray( new Modification[]
-            {} ) );
+        LdapConnectionProvider.markWrite();
+        long start = System.nanoTime();
+        try
+        {
+            connection.modify( dn, mods.toArray( new Modification[]
+                {} ) );
+        }
+        finally
+        {
+            record( LdapMetrics.Op.MODIFY, start );
+        }
     }
 
 
@@ -327,6 +388,7 @@ public abstract class LdapDataProvider
         FortEntity entity, boolean setRelaxControl ) throws LdapException
     {
         COUNTERS.incrementMod();
+        LdapConnectionProvider.markWrite();
         audit( mods, entity );
         ModifyRequest modRequest = new ModifyRequestImpl();
         // TODO: find a better way:
@@ -339,8 +401,16 @@ public abstract class LdapDataProvider
             modRequest.addControl( new RelaxControlImpl() );
         }
         modRequest.setName( new Dn( dn ) );
-        ModifyResponse response = connection.modify( modRequest );
-        ResultCodeEnum.processResponse(response);
+        long start = System.nanoTime();
+        try
+        {
+            ModifyResponse response = connection.modify( modRequest );
+            ResultCodeEnum.processResponse(response);
+        }
+        finally
+        {
+            record( LdapMetrics.Op.MODIFY, start );
+        }
     }
 
 
@@ -357,8 +427,17 @@ public abstract class LdapDataProvider
         FortEntity entity ) throws LdapException
     {
         COUNTERS.incrementMod();
+        LdapConnectionProvider.markWrite();
         audit( mods, entity );
-        connection.modify( dn, mods.toArray( new Modification[] {} ) );
+        long start = System.nanoTime();
+        try
+        {
+            connection.modify( dn, mods.toArray( new Modification[] {} ) );
+        }
+        finally
+        {
+            record( LdapMetrics.Op.MODIFY, start );
+        }
     }
 
 
@@ -372,7 +451,16 @@ public abstract class LdapDataProvider
     protected void delete( LdapConnection connection, String dn ) throws LdapException
     {
         COUNTERS.incrementDelete();
-        connection.delete( dn );
+        LdapConnectionProvider.markWrite();
+        long start = System.nanoTime();
+        try
+        {
+            connection.delete( dn );
+        }
+        finally
+        {
+            record( LdapMetrics.Op.DELETE, start );
+        }
     }
 
 
@@ -389,6 +477,7 @@ public abstract class LdapDataProvider
     protected void delete( LdapConnection connection, String dn, FortEntity entity ) throws LdapException
     {
         COUNTERS.incrementDelete();
+        LdapConnectionProvider.markWrite();
         List<Modification> mods = new ArrayList<Modification>();
         audit( mods, entity );
 
@@ -397,7 +486,15 @@ public abstract class LdapDataProvider
             modify( connection, dn, mods );
         }
 
-        connection.delete( dn );
+        long start = System.nanoTime();
+        try
+        {
+            connection.delete( dn );
+        }
+        finally
+        {
+            record( LdapMetrics.Op.DELETE, start );
+        }
     }
 
 
@@ -414,6 +511,7 @@ public abstract class LdapDataProvider
     protected void delete( LdapConnection connection, Dn dn, FortEntity entity ) throws LdapException
     {
         COUNTERS.incrementDelete();
+        LdapConnectionProvider.markWrite();
         List<Modification> mods = new ArrayList<Modification>();
         audit( mods, entity );
 
@@ -422,7 +520,15 @@ public abstract class LdapDataProvider
             modify( connection, dn, mods );
         }
 
-        connection.delete( dn );
+        long start = System.nanoTime();
+        try
+        {
+            connection.delete( dn );
+        }
+        finally
+        {
+            record( LdapMetrics.Op.DELETE, start );
+        }
     }
 
 
@@ -519,6 +625,7 @@ public abstract class LdapDataProvider
 
         // delete the node:
         COUNTERS.incrementDelete();
+        LdapConnectionProvider.markWrite();
         delete( connection, dn );
     }
 
@@ -567,7 +674,8 @@ public abstract class LdapDataProvider
      * @param filter     contains the search criteria
      * @param attrs      is the requested list of attritubutes to return from directory search.
      * @param attrsOnly  if true pull back attribute names only.
-     * @return result set containing ldap entries returned from directory.
+     * @return result set containing ldap entries returned from directory, whose latency is recorded once it's exhausted or
+     * closed.
      * @throws LdapException thrown in the event of error in ldap client or server code.
      */
     protected SearchCursor search( LdapConnection connection, String baseDn, SearchScope scope, String filter,
@@ -582,7 +690,8 @@ public abstract class LdapDataProvider
         searchRequest.setTypesOnly( attrsOnly );
         searchRequest.addAttributes( attrs );
 
-        return connection.search( searchRequest );
+        long start = System.nanoTime();
+        return new TimedSearchCursor( connection.search( searchRequest ), () -> record( LdapMetrics.Op.SEARCH, start ) );
     }
 
 
@@ -597,7 +706,8 @@ public abstract class LdapDataProvider
      * @param attrs      is the requested list of attritubutes to return from directory search.
      * @param attrsOnly  if true pull back attribute names only.
      * @param maxEntries specifies the maximum number of entries to return in this search query.
-     * @return result set containing ldap entries returned from directory.
+     * @return result set containing ldap entries returned from directory, whose latency is recorded once it's exhausted or
+     * closed.
      * @throws LdapException thrown in the event of error in ldap client or server code.
      */
     protected SearchCursor search( LdapConnection connection, String baseDn, SearchScope scope, String filter,
@@ -614,7 +724,29 @@ public abstract class LdapDataProvider
         searchRequest.setTypesOnly( attrsOnly );
         searchRequest.addAttributes( attrs );
 
-        return connection.search( searchRequest );
+        long start = System.nanoTime();
+        return new TimedSearchCursor( connection.search( searchRequest ), () -> record( LdapMetrics.Op.SEARCH, start ) );
+    }
+
+
+    /**
+     * Perform an ldap search whose results are read one page at a time, of the size set by fortress config param,
+     * 'ldap.page.size' (default 1000), so any number of entries may be read with bounded memory.
+     *
+     * @param connection is LdapConnection object used for all communication with host, held until the cursor is done with.
+     * @param baseDn     contains address of distinguished name to begin ldap search
+     * @param scope      indicates depth of search starting at basedn.  0 (base dn),
+     *                   1 (one level down) or 2 (infinite) are valid values.
+     * @param filter     contains the search criteria
+     * @param attrs      is the requested list of attritubutes to return from directory search.
+     * @return cursor that reads the first page and requests the others as they're needed.
+     * @throws LdapException thrown in the event of error in ldap client or server code.
+     */
+    protected PagedCursor searchPaged( LdapConnection connection, String baseDn, SearchScope scope, String filter,
+        String[] attrs ) throws LdapException
+    {
+        return new PagedCursor( connection, COUNTERS, baseDn, scope, filter, attrs, Config.getInstance().getInt( PAGE_SIZE,
+            1000 ) );
     }
 
 
@@ -644,17 +776,25 @@ public abstract class LdapDataProvider
         searchRequest.setTypesOnly( attrsOnly );
         searchRequest.addAttributes( attrs );
 
-        SearchCursor result = connection.search( searchRequest );
+        long start = System.nanoTime();
+        try
+        {
+            SearchCursor result = connection.search( searchRequest );
+
+            Entry entry = result.getEntry();
 
-        Entry entry = result.getEntry();
+            if ( result.next() )
+            {
+                throw new LdapException( "searchNode failed to return unique record for LDAP search of base DN [" +
+                    baseDn + "] filter [" + filter + "]" );
+            }
 
-        if ( result.next() )
+            return entry;
+        }
+        finally
         {
-            throw new LdapException( "searchNode failed to return unique record for LDAP search of base DN [" +
-                baseDn + "] filter [" + filter + "]" );
+            record( LdapMetrics.Op.SEARCH, start );
         }
-
-        return entry;
     }
 
 
@@ -687,17 +827,25 @@ public abstract class LdapDataProvider
         searchRequest.setTypesOnly( attrsOnly );
         searchRequest.addAttributes( attrs );
 
-        SearchCursor result = connection.search( searchRequest );
+        long start = System.nanoTime();
+        try
+        {
+            SearchCursor result = connection.search( searchRequest );
 
-        Entry entry = result.getEntry();
+            Entry entry = result.getEntry();
 
-        if ( result.next() )
+            if ( result.next() )
+            {
+                throw new LdapException( "searchNode failed to return unique record for LDAP search of base DN [" +
+                    baseDn + "] filter [" + filter + "]" );
+            }
+
+            return entry;
+        }
+        finally
         {
-            throw new LdapException( "searchNode failed to return unique record for LDAP search of base DN [" +
-                baseDn + "] filter [" + filter + "]" );
+            record( LdapMetrics.Op.SEARCH, start );
         }
-
-        return entry;
     }
 
 
@@ -731,8 +879,30 @@ public abstract class LdapDataProvider
         ProxiedAuthz proxiedAuthzControl = new ProxiedAuthzImpl();
         proxiedAuthzControl.setAuthzId( "dn: " + userDn );
         compareRequest.addControl( proxiedAuthzControl );
-        CompareResponse response = connection.compare( compareRequest );
-        return response.getLdapResult().getResultCode() == ResultCodeEnum.SUCCESS;
+        long start = System.nanoTime();
+        try
+        {
+            CompareResponse response = connection.compare( compareRequest );
+            return response.getLdapResult().getResultCode() == ResultCodeEnum.SUCCESS;
+        }
+        finally
+        {
+            record( LdapMetrics.Op.COMPARE, start );
+        }
+    }
+
+
+    /**
+     * Record the latency of an ldap operation with {@link LdapMetrics}, and with {@link LdapCounters} against the DAO that performed it.
+     *
+     * @param op         type of ldap operation.
+     * @param startNanos value of {@link System#nanoTime()} when the operation began.
+     */
+    private void record( LdapMetrics.Op op, long startNanos )
+    {
+        long nanos = System.nanoTime() - startNanos;
+        LdapMetrics.getInstance().getOperation( op ).recordNanos( nanos );
+        COUNTERS.recordLatency( getClass(), op, nanos );
     }
 
 
@@ -1218,7 +1388,15 @@ public abstract class LdapDataProvider
         bindReq.setDn( userDn );
         bindReq.setCredentials( password );
         bindReq.addControl( PP_REQ_CTRL );
-        return connection.bind( bindReq );
+        long start = System.nanoTime();
+        try
+        {
+            return connection.bind( bindReq );
+        }
+        finally
+        {
+            record( LdapMetrics.Op.BIND, start );
+        }
     }
 
 
@@ -1291,6 +1469,54 @@ public abstract class LdapDataProvider
     }
 
 
+    /**
+     * Calls the PoolMgr to get a connection for read only operations.  It's taken from one of the read replicas, if any are
+     * configured and healthy, or else it's an Admin connection.
+     *
+     * @return ldap connection.
+     * @throws LdapException If we had an issue getting an LDAP connection
+     */
+    protected LdapConnection getReadConnection() throws LdapException
+    {
+        return LdapConnectionProvider.getInstance().getReadConnection();
+    }
+
+
+    /**
+     * Calls the PoolMgr to close a connection returned by {@link #getReadConnection()}.
+     *
+     * @param connection handle to ldap connection object.
+     */
+    protected void closeReadConnection( LdapConnection connection )
+    {
+        LdapConnectionProvider.getInstance().closeReadConnection( connection );
+    }
+
+
+    /**
+     * Calls the PoolMgr to get a connection to authenticate a user with.  It's taken from one of the read replicas, if
+     * 'ldap.replica.binds' is set and one is healthy, or else it's a User connection.
+     *
+     * @return ldap connection.
+     * @throws LdapException If we had an issue getting an LDAP connection
+     */
+    protected LdapConnection getBindConnection() throws LdapException
+    {
+        return LdapConnectionProvider.getInstance().getBindConnection();
+    }
+
+
+    /**
+     * Calls the PoolMgr to close a connection returned by {@link #getBindConnection()}.
+     *
+     * @param connection handle to ldap connection object.
+     */
+    protected void closeBindConnection( LdapConnection connection )
+    {
+        LdapConnectionProvider.getInstance().closeBindConnection( connection );
+    }
+
+
     /**
      * Return to call reference to dao counter object with running totals for ldap operations add, mod, delete, search, etc.
      *
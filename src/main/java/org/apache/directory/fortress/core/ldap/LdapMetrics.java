@@ -0,0 +1,288 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.ldap;
+
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.directory.fortress.core.CfgException;
+import org.apache.directory.fortress.core.CfgRuntimeException;
+import org.apache.directory.fortress.core.util.ClassUtil;
+import org.apache.directory.fortress.core.util.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Metrics of the ldap connection pools and of the operations performed by {@link LdapDataProvider}.  Unlike {@link LdapCounters},
+ * which only counts operations, these show where the time goes: waiting on a pool, or waiting on the directory.
+ * <ul>
+ *   <li>Each pool - time to borrow a connection, connections in use, idle and waited on, failed borrows and failed validations</li>
+ *   <li>Each type of operation - read, search, compare, add, modify, delete and bind latencies</li>
+ *   <li>Each DAO - the same latencies, broken down by the DAO that performed them, as kept by {@link LdapCounters}</li>
+ * </ul>
+ * Latencies are recorded into a {@link LatencyHistogram} and reported in microseconds.  Searches that hand back a cursor aren't timed,
+ * since their results arrive as the caller iterates, only those that return a single entry.  The metrics are published to the platform
+ * MBean server when fortress config param, 'ldap.metrics.jmx', is true, and handed to the {@link MetricsRegistry} named by
+ * 'metrics.registry', if any.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public final class LdapMetrics implements LdapMetricsMXBean
+{
+    /**
+     * The types of ldap operation that are timed.
+     */
+    public enum Op
+    {
+        READ, SEARCH, COMPARE, ADD, MODIFY, DELETE, BIND
+    }
+
+    private static final String CLS_NM = LdapMetrics.class.getName();
+    private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
+    private static final String LDAP_METRICS_JMX = "ldap.metrics.jmx";
+    private static final String METRICS_REGISTRY = "metrics.registry";
+    private static final String OBJECT_NAME = "org.apache.directory.fortress:type=LdapMetrics";
+    private static final String PREFIX = "fortress.ldap.";
+    private static volatile LdapMetrics sINSTANCE = null;
+
+    private final LatencyHistogram[] operations = new LatencyHistogram[Op.values().length];
+    private final CopyOnWriteArrayList<PoolMetrics> pools = new CopyOnWriteArrayList<>();
+    private final MetricsRegistry registry;
+
+
+    /**
+     * Always return the same instance.
+     *
+     * @return the metrics of this process.
+     */
+    public static LdapMetrics getInstance()
+    {
+        if ( sINSTANCE == null )
+        {
+            synchronized ( LdapMetrics.class )
+            {
+                if ( sINSTANCE == null )
+                {
+                    sINSTANCE = new LdapMetrics();
+                }
+            }
+        }
+        return sINSTANCE;
+    }
+
+
+    private LdapMetrics()
+    {
+        registry = createRegistry();
+        for ( Op op : Op.values() )
+        {
+            operations[op.ordinal()] = new LatencyHistogram();
+            if ( registry != null )
+            {
+                registry.histogram( PREFIX + "op." + getName( op ), operations[op.ordinal()] );
+            }
+        }
+        if ( Config.getInstance().getBoolean( LDAP_METRICS_JMX, false ) )
+        {
+            register();
+        }
+    }
+
+
+    /**
+     * Record the time elapsed since an operation began.
+     *
+     * @param op         type of ldap operation.
+     * @param startNanos value of {@link System#nanoTime()} when the operation began.
+     */
+    public void record( Op op, long startNanos )
+    {
+        operations[op.ordinal()].recordSince( startNanos );
+    }
+
+
+    /**
+     * Return the latencies of a type of operation.
+     *
+     * @param op type of ldap operation.
+     * @return histogram of latencies in microseconds.
+     */
+    public LatencyHistogram getOperation( Op op )
+    {
+        return operations[op.ordinal()];
+    }
+
+
+    /**
+     * Begin keeping metrics for a pool, called as each is created.
+     *
+     * @param name of the pool, e.g. admin.
+     * @return metrics of the pool.
+     */
+    PoolMetrics addPool( String name )
+    {
+        PoolMetrics metrics = new PoolMetrics( name );
+        pools.add( metrics );
+        if ( registry != null )
+        {
+            String prefix = PREFIX + "pool." + name + ".";
+            registry.histogram( prefix + "borrow", metrics.getBorrow() );
+            registry.gauge( prefix + "active", metrics::getActive );
+            registry.gauge( prefix + "idle", metrics::getIdle );
+            registry.gauge( prefix + "waiters", metrics::getWaiters );
+            registry.gauge( prefix + "borrowFailures", metrics::getBorrowFailures );
+            registry.gauge( prefix + "validationFailures", metrics::getValidationFailures );
+        }
+        return metrics;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Long> getPools()
+    {
+        Map<String, Long> values = new TreeMap<>();
+        for ( PoolMetrics metrics : pools )
+        {
+            String prefix = metrics.getName() + ".";
+            values.put( prefix + "active", metrics.getActive() );
+            values.put( prefix + "idle", metrics.getIdle() );
+            values.put( prefix + "waiters", metrics.getWaiters() );
+            values.put( prefix + "borrowFailures", metrics.getBorrowFailures() );
+            values.put( prefix + "validationFailures", metrics.getValidationFailures() );
+            putLatencies( values, prefix + "borrow.", metrics.getBorrow() );
+        }
+        return values;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Long> getOperations()
+    {
+        Map<String, Long> values = new TreeMap<>();
+        for ( Op op : Op.values() )
+        {
+            putLatencies( values, getName( op ) + ".", operations[op.ordinal()] );
+        }
+        return values;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Long> getDaos()
+    {
+        Map<String, Long> values = new TreeMap<>();
+        LdapCounters counters = LdapDataProvider.getLdapCounters();
+        for ( Map.Entry<String, Long> entry : counters.getPercentiles( 50 ).entrySet() )
+        {
+            values.put( entry.getKey() + ".p50", entry.getValue() );
+        }
+        for ( Map.Entry<String, Long> entry : counters.getPercentiles( 99 ).entrySet() )
+        {
+            values.put( entry.getKey() + ".p99", entry.getValue() );
+        }
+        for ( Map.Entry<String, Long> entry : counters.getPercentiles( 99.9 ).entrySet() )
+        {
+            values.put( entry.getKey() + ".p999", entry.getValue() );
+        }
+        return values;
+    }
+
+
+    private static void putLatencies( Map<String, Long> values, String prefix, LatencyHistogram histogram )
+    {
+        values.put( prefix + "count", histogram.getCount() );
+        values.put( prefix + "mean", histogram.getMean() );
+        values.put( prefix + "p50", histogram.getPercentile( 50 ) );
+        values.put( prefix + "p99", histogram.getPercentile( 99 ) );
+        values.put( prefix + "p999", histogram.getPercentile( 99.9 ) );
+        values.put( prefix + "max", histogram.getMax() );
+    }
+
+
+    static String getName( Op op )
+    {
+        return op.name().toLowerCase( Locale.ENGLISH );
+    }
+
+
+    /**
+     * Another instance of fortress in the same jvm may already have registered, in which case this one isn't published.
+     */
+    private void register()
+    {
+        try
+        {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName( OBJECT_NAME );
+            if ( server.isRegistered( name ) )
+            {
+                LOG.warn( "register {} already registered", OBJECT_NAME );
+            }
+            else
+            {
+                server.registerMBean( this, name );
+                LOG.info( "register {}", OBJECT_NAME );
+            }
+        }
+        catch ( JMException e )
+        {
+            LOG.warn( "register {} caught {}", OBJECT_NAME, e.toString() );
+        }
+    }
+
+
+    private static MetricsRegistry createRegistry()
+    {
+        String className = Config.getInstance().getProperty( METRICS_REGISTRY );
+        if ( StringUtils.isEmpty( className ) )
+        {
+            return null;
+        }
+        try
+        {
+            return ( MetricsRegistry ) ClassUtil.createInstance( className );
+        }
+        catch ( CfgException e )
+        {
+            throw new CfgRuntimeException( e.getErrorId(), e.getMessage(), e );
+        }
+    }
+}
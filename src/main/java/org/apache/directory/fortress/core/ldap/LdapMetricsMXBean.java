@@ -0,0 +1,59 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.ldap;
+
+
+import java.util.Map;
+
+
+/**
+ * Management interface of {@link LdapMetrics}, registered with the platform MBean server as
+ * {@code org.apache.directory.fortress:type=LdapMetrics} when fortress config param, 'ldap.metrics.jmx', is true.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public interface LdapMetricsMXBean
+{
+    /**
+     * Return the current state of each connection pool, keyed by pool and metric, e.g. admin.active, admin.idle, admin.waiters,
+     * admin.borrowFailures, admin.validationFailures, admin.borrow.p99.  Latencies are in microseconds.
+     *
+     * @return map sorted by key.
+     */
+    Map<String, Long> getPools();
+
+
+    /**
+     * Return the latency percentiles of each type of ldap operation, keyed by operation and metric, e.g. search.count, search.p50,
+     * search.p99, search.p999, search.max.  Latencies are in microseconds.
+     *
+     * @return map sorted by key.
+     */
+    Map<String, Long> getOperations();
+
+
+    /**
+     * Return the latency percentiles of each type of ldap operation performed by each DAO, keyed by DAO, operation and metric, e.g.
+     * PermDAO.compare.p99, UserDAO.bind.p50.  Latencies are in microseconds.
+     *
+     * @return map sorted by key.
+     */
+    Map<String, Long> getDaos();
+}
@@ -0,0 +1,289 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.ldap;
+
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.directory.api.ldap.model.exception.LdapException;
+import org.apache.directory.ldap.client.api.LdapConnection;
+import org.apache.directory.ldap.client.api.LdapConnectionConfig;
+import org.apache.directory.ldap.client.api.LdapConnectionPool;
+import org.apache.directory.ldap.client.api.LdapNetworkConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The read replicas used by {@link LdapConnectionProvider}, each with its own pool of connections.
+ * <p>
+ * Connections are handed out from the healthy replicas in turn.  A replica is taken out of the rotation when a connection to it
+ * can't be made, and put back once a background check is able to bind to it again.  The check runs every so many seconds, per
+ * fortress config param 'ldap.replica.check.interval', against every replica.  A caller gets null back when none of the replicas
+ * are healthy, and is expected to fall back to the master.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class LdapReplicas
+{
+    private static final String CLS_NM = LdapReplicas.class.getName();
+    private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
+
+    private final Replica[] replicas;
+    private final AtomicInteger next = new AtomicInteger();
+    // the replica that each connection on loan belongs to:
+    private final ConcurrentMap<LdapConnection, Replica> borrowed = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService checker;
+
+
+    /**
+     * @param replicas      each with its own pool.
+     * @param checkInterval seconds between health checks.
+     */
+    LdapReplicas( List<Replica> replicas, int checkInterval )
+    {
+        this.replicas = replicas.toArray( new Replica[0] );
+        this.checker = Executors.newSingleThreadScheduledExecutor( runnable ->
+        {
+            Thread thread = new Thread( runnable, "fortress-ldap-replica-check" );
+            thread.setDaemon( true );
+            return thread;
+        } );
+        checker.scheduleWithFixedDelay( this::check, checkInterval, checkInterval, TimeUnit.SECONDS );
+    }
+
+
+    /**
+     * Borrow a connection from the next healthy replica.
+     *
+     * @return ldap connection, or null if none of the replicas could supply one.
+     */
+    LdapConnection getConnection()
+    {
+        int start = next.getAndIncrement();
+        for ( int i = 0; i < replicas.length; i++ )
+        {
+            Replica replica = replicas[Math.floorMod( start + i, replicas.length )];
+            if ( !replica.isHealthy )
+            {
+                continue;
+            }
+            try
+            {
+                LdapConnection connection = replica.borrow();
+                if ( connection != null )
+                {
+                    borrowed.put( connection, replica );
+                    return connection;
+                }
+                // busy but not broken, try the next one:
+                LOG.debug( "getConnection replica {} exhausted", replica.name );
+            }
+            catch ( LdapException | RuntimeException e )
+            {
+                markDown( replica, e );
+            }
+        }
+        return null;
+    }
+
+
+    /**
+     * Return a connection to the replica it was borrowed from.
+     *
+     * @param connection handle to ldap connection object.
+     * @return false if the connection wasn't borrowed from a replica.
+     */
+    boolean release( LdapConnection connection )
+    {
+        Replica replica = connection == null ? null : borrowed.remove( connection );
+        if ( replica == null )
+        {
+            return false;
+        }
+        replica.release( connection );
+        return true;
+    }
+
+
+    /**
+     * Stop the health checks and close every replica's pool.
+     */
+    void close()
+    {
+        checker.shutdownNow();
+        for ( Replica replica : replicas )
+        {
+            try
+            {
+                replica.pool.close();
+            }
+            catch ( Exception e )
+            {
+                LOG.warn( "Error closing replica pool {}: {}", replica.name, e.toString() );
+            }
+        }
+    }
+
+
+    /**
+     * Bind to each replica over a connection of its own, outside of the pool, so a busy pool isn't mistaken for a failed server.
+     */
+    private void check()
+    {
+        for ( Replica replica : replicas )
+        {
+            try ( LdapConnection connection = new LdapNetworkConnection( replica.config ) )
+            {
+                connection.bind();
+                if ( !replica.isHealthy )
+                {
+                    LOG.info( "check replica {} is healthy, returned to rotation", replica.name );
+                    replica.isHealthy = true;
+                }
+            }
+            catch ( Exception e )
+            {
+                if ( replica.isHealthy )
+                {
+                    markDown( replica, e );
+                }
+            }
+        }
+    }
+
+
+    private static void markDown( Replica replica, Exception e )
+    {
+        LOG.warn( "replica {} taken out of rotation, caught {}", replica.name, e.toString() );
+        replica.isHealthy = false;
+        // connections left idle in the pool are likely to be broken:
+        replica.pool.clear();
+    }
+
+
+    /**
+     * A read replica along with its pool.
+     */
+    static final class Replica
+    {
+        private final String name;
+        private final LdapConnectionConfig config;
+        private final LdapConnectionPool pool;
+        private final PoolAdmission admission;
+        private final PoolMetrics metrics;
+        private volatile boolean isHealthy = true;
+
+
+        /**
+         * @param config    coordinates of the replica.
+         * @param pool      of connections to the replica.
+         * @param admission to the pool, null unless enabled.
+         * @param metrics   of the pool.
+         */
+        Replica( LdapConnectionConfig config, LdapConnectionPool pool, PoolAdmission admission, PoolMetrics metrics )
+        {
+            this.name = config.getLdapHost() + ":" + config.getLdapPort();
+            this.config = config;
+            this.pool = pool;
+            this.admission = admission;
+            this.metrics = metrics;
+        }
+
+
+        /**
+         * @return connection, or null if the pool is exhausted.
+         * @throws LdapException if a connection to the replica can't be made.
+         */
+        private LdapConnection borrow() throws LdapException
+        {
+            long start = System.nanoTime();
+            if ( admission != null )
+            {
+                try
+                {
+                    admission.acquire();
+                }
+                catch ( LdapException e )
+                {
+                    metrics.borrowFailed();
+                    return null;
+                }
+            }
+            try
+            {
+                LdapConnection connection = pool.getConnection();
+                metrics.borrowed( start );
+                return connection;
+            }
+            catch ( NoSuchElementException e )
+            {
+                release();
+                metrics.borrowFailed();
+                return null;
+            }
+            catch ( LdapException | RuntimeException e )
+            {
+                release();
+                metrics.borrowFailed();
+                if ( e.getCause() instanceof NoSuchElementException )
+                {
+                    return null;
+                }
+                throw e;
+            }
+        }
+
+
+        private void release( LdapConnection connection )
+        {
+            try
+            {
+                pool.releaseConnection( connection );
+            }
+            catch ( Exception e )
+            {
+                LOG.warn( "Error closing replica {} connection: {}", name, e.toString() );
+            }
+            finally
+            {
+                release();
+            }
+        }
+
+
+        private void release()
+        {
+            if ( admission != null )
+            {
+                admission.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.ldap;
+
+
+import org.apache.commons.pool2.PooledObject;
+import org.apache.directory.ldap.client.api.LdapConnection;
+import org.apache.directory.ldap.client.api.LdapConnectionConfig;
+import org.apache.directory.ldap.client.api.ValidatingPoolableLdapConnectionFactory;
+
+
+/**
+ * Counts the connections that fail validation, on borrow or while idle, in the metrics of the pool that it creates connections for.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class MeteredConnectionFactory extends ValidatingPoolableLdapConnectionFactory
+{
+    private final PoolMetrics metrics;
+
+
+    /**
+     * @param config  coordinates of the ldap server.
+     * @param metrics of the pool.
+     */
+    MeteredConnectionFactory( LdapConnectionConfig config, PoolMetrics metrics )
+    {
+        super( config );
+        this.metrics = metrics;
+    }
+
+
+    @Override
+    public boolean validateObject( PooledObject<LdapConnection> connection )
+    {
+        boolean isValid = super.validateObject( connection );
+        if ( !isValid )
+        {
+            metrics.validationFailed();
+        }
+        return isValid;
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.ldap;
+
+
+import java.util.function.LongSupplier;
+
+
+/**
+ * Receives the metrics kept by {@link LdapMetrics}, so they may be published to a monitoring system of the application's choosing.
+ * Name an implementation in fortress config param, 'metrics.registry', e.g.
+ * <pre>
+ * metrics.registry=com.example.MicrometerMetricsRegistry
+ * </pre>
+ * A single instance is created, using its public default constructor, the first time the metrics are used.  Each metric is passed
+ * to it once, when created, and is then updated in place, so an implementation only needs to read it back when asked.
+ * <p>
+ * Implementations must be thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public interface MetricsRegistry
+{
+    /**
+     * Register a value that is read on demand, e.g. the number of connections in use.
+     *
+     * @param name  dotted name of the metric, e.g. fortress.ldap.pool.admin.active.
+     * @param value returns the current value, is cheap to call and doesn't block.
+     */
+    void gauge( String name, LongSupplier value );
+
+
+    /**
+     * Register a distribution of latencies, e.g. the time taken to borrow a connection.
+     *
+     * @param name      dotted name of the metric, e.g. fortress.ldap.pool.admin.borrow.
+     * @param histogram holds the latencies, in microseconds.
+     */
+    void histogram( String name, LatencyHistogram histogram );
+}
@@ -0,0 +1,187 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.ldap;
+
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import org.apache.commons.lang.ArrayUtils;
+import org.apache.directory.api.ldap.model.cursor.CursorException;
+import org.apache.directory.api.ldap.model.cursor.SearchCursor;
+import org.apache.directory.api.ldap.model.entry.Entry;
+import org.apache.directory.api.ldap.model.exception.LdapException;
+import org.apache.directory.api.ldap.model.exception.LdapOperationException;
+import org.apache.directory.api.ldap.model.message.LdapResult;
+import org.apache.directory.api.ldap.model.message.ResultCodeEnum;
+import org.apache.directory.api.ldap.model.message.SearchRequest;
+import org.apache.directory.api.ldap.model.message.SearchRequestImpl;
+import org.apache.directory.api.ldap.model.message.SearchResultDone;
+import org.apache.directory.api.ldap.model.message.SearchScope;
+import org.apache.directory.api.ldap.model.message.controls.PagedResults;
+import org.apache.directory.api.ldap.model.message.controls.PagedResultsImpl;
+import org.apache.directory.api.ldap.model.name.Dn;
+import org.apache.directory.ldap.client.api.LdapConnection;
+
+
+/**
+ * Reads the results of a search one page at a time, using the RFC 2696 simple paged results control, so neither the client nor the
+ * server holds more than a page of entries however many match.  The next page is requested, with the cookie returned by the server,
+ * once the entries of the current page have been read.  The control isn't marked critical, so a server that doesn't support it
+ * returns everything in one page.
+ * <p>
+ * Every page must be read over the same connection, which is held until {@link #close()} is called or the last page is read.
+ * Instances are returned by {@link LdapDataProvider#searchPaged}.
+ * <p>
+ * This class is not thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public final class PagedCursor implements Closeable
+{
+    private final LdapConnection connection;
+    private final LdapCounters counters;
+    private final String baseDn;
+    private final SearchScope scope;
+    private final String filter;
+    private final String[] attrs;
+    private final int pageSize;
+    private SearchCursor cursor;
+
+
+    PagedCursor( LdapConnection connection, LdapCounters counters, String baseDn, SearchScope scope, String filter,
+        String[] attrs, int pageSize ) throws LdapException
+    {
+        this.connection = connection;
+        this.counters = counters;
+        this.baseDn = baseDn;
+        this.scope = scope;
+        this.filter = filter;
+        this.attrs = attrs;
+        this.pageSize = pageSize;
+        this.cursor = search( null );
+    }
+
+
+    /**
+     * Move to the next entry, requesting the next page from the server if the current one has been read.
+     *
+     * @return boolean value, false once every matching entry has been read.
+     * @throws LdapException in the event the server fails a page.
+     * @throws CursorException in the event of a client error.
+     */
+    public boolean next() throws LdapException, CursorException
+    {
+        while ( cursor != null )
+        {
+            if ( cursor.next() )
+            {
+                return true;
+            }
+            byte[] cookie = getCookie( cursor.getSearchResultDone() );
+            closeCursor();
+            if ( !ArrayUtils.isEmpty( cookie ) )
+            {
+                cursor = search( cookie );
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * @return the entry moved to by {@link #next()}.
+     * @throws CursorException in the event of a client error.
+     */
+    public Entry getEntry() throws CursorException
+    {
+        return cursor.getEntry();
+    }
+
+
+    /**
+     * Abandon any page still being read.  The connection itself is left open for the caller to release.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        if ( cursor != null )
+        {
+            try
+            {
+                cursor.close();
+            }
+            finally
+            {
+                cursor = null;
+            }
+        }
+    }
+
+
+    private SearchCursor search( byte[] cookie ) throws LdapException
+    {
+        counters.incrementSearch();
+        PagedResults control = new PagedResultsImpl();
+        control.setSize( pageSize );
+        control.setCookie( cookie );
+        control.setCritical( false );
+
+        SearchRequest searchRequest = new SearchRequestImpl();
+        searchRequest.setBase( new Dn( baseDn ) );
+        searchRequest.setScope( scope );
+        searchRequest.setFilter( filter );
+        searchRequest.addAttributes( attrs );
+        searchRequest.addControl( control );
+        return connection.search( searchRequest );
+    }
+
+
+    /**
+     * The server returns an empty cookie with the last page.
+     */
+    private static byte[] getCookie( SearchResultDone done ) throws LdapException
+    {
+        if ( done == null )
+        {
+            return null;
+        }
+        LdapResult result = done.getLdapResult();
+        if ( result.getResultCode() != ResultCodeEnum.SUCCESS )
+        {
+            throw new LdapOperationException( result.getResultCode(), result.getDiagnosticMessage() );
+        }
+        PagedResults control = ( PagedResults ) done.getControl( PagedResults.OID );
+        return control == null ? null : control.getCookie();
+    }
+
+
+    private void closeCursor() throws LdapException
+    {
+        try
+        {
+            close();
+        }
+        catch ( IOException e )
+        {
+            throw new LdapException( e );
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.ldap;
+
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.directory.api.ldap.model.exception.LdapException;
+
+
+/**
+ * Limits the number of connections borrowed from a pool to the number it holds.  A caller takes a permit before going to the pool,
+ * and so never finds it exhausted, and gives it back once the connection has been returned.  Callers that find every permit taken
+ * queue on the semaphore, in the order they arrived, for up to the pool's max wait.
+ * <p>
+ * Waiting on the semaphore parks the caller, unlike waiting on a monitor, so a virtual thread that's waiting leaves its carrier
+ * thread free for others.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class PoolAdmission
+{
+    private final String name;
+    private final Semaphore permits;
+    private final long maxWaitMillis;
+
+
+    /**
+     * @param name          of the pool, used in messages.
+     * @param size          max number of connections the pool will hand out.
+     * @param maxWaitMillis to wait for a permit, less than zero waits indefinitely.
+     */
+    PoolAdmission( String name, int size, long maxWaitMillis )
+    {
+        this.name = name;
+        this.permits = new Semaphore( size, true );
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+
+    /**
+     * Wait for a permit to borrow a connection.
+     *
+     * @throws LdapException if a permit isn't available in time, or the caller is interrupted while waiting.
+     */
+    void acquire() throws LdapException
+    {
+        try
+        {
+            if ( maxWaitMillis < 0 )
+            {
+                permits.acquire();
+            }
+            else if ( !permits.tryAcquire( maxWaitMillis, TimeUnit.MILLISECONDS ) )
+            {
+                throw new LdapException( "Timeout waiting for a connection from the " + name + " pool after " + maxWaitMillis
+                    + " ms, " + permits.getQueueLength() + " waiting" );
+            }
+        }
+        catch ( InterruptedException ie )
+        {
+            Thread.currentThread().interrupt();
+            throw new LdapException( "Interrupted waiting for a connection from the " + name + " pool", ie );
+        }
+    }
+
+
+    /**
+     * Give back a permit, once the connection borrowed with it has been returned to the pool.
+     */
+    void release()
+    {
+        permits.release();
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.ldap;
+
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.directory.ldap.client.api.LdapConnectionPool;
+
+
+/**
+ * The metrics kept for a single connection pool.  The time to borrow a connection includes any wait for a {@link PoolAdmission}
+ * permit.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class PoolMetrics
+{
+    private final String name;
+    private final LatencyHistogram borrow = new LatencyHistogram();
+    private final AtomicLong borrowFailures = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+    private volatile LdapConnectionPool pool;
+
+
+    /**
+     * @param name of the pool, e.g. admin.
+     */
+    PoolMetrics( String name )
+    {
+        this.name = name;
+    }
+
+
+    /**
+     * Set once the pool has been created, the pool's gauges read zero until then.
+     *
+     * @param pool whose connections are counted.
+     */
+    void setPool( LdapConnectionPool pool )
+    {
+        this.pool = pool;
+    }
+
+
+    void borrowed( long startNanos )
+    {
+        borrow.recordSince( startNanos );
+    }
+
+
+    void borrowFailed()
+    {
+        borrowFailures.incrementAndGet();
+    }
+
+
+    void validationFailed()
+    {
+        validationFailures.incrementAndGet();
+    }
+
+
+    String getName()
+    {
+        return name;
+    }
+
+
+    LatencyHistogram getBorrow()
+    {
+        return borrow;
+    }
+
+
+    long getBorrowFailures()
+    {
+        return borrowFailures.get();
+    }
+
+
+    long getValidationFailures()
+    {
+        return validationFailures.get();
+    }
+
+
+    long getActive()
+    {
+        LdapConnectionPool current = pool;
+        return current == null ? 0 : current.getNumActive();
+    }
+
+
+    long getIdle()
+    {
+        LdapConnectionPool current = pool;
+        return current == null ? 0 : current.getNumIdle();
+    }
+
+
+    long getWaiters()
+    {
+        LdapConnectionPool current = pool;
+        return current == null ? 0 : current.getNumWaiters();
+    }
+}
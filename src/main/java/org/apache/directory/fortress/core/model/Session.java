@@ -26,7 +26,10 @@ import javax.xml.bind.annotation.XmlType;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -189,6 +192,9 @@ public class Session  extends FortEntity implements PwMessage, Serializable
     private boolean isGroupSession;
     private String message;
     private List<Warning> warnings;
+    // authorized role sets memoized by the permission checks, these are not marshalled or serialized:
+    private transient volatile AuthorizedRoles authorizedRoles;
+    private transient volatile AuthorizedRoles authorizedAdminRoles;
 
     /**
      * A 'true' value here indicates user successfully authenticated with Fortress.
@@ -239,6 +245,7 @@ public class Session  extends FortEntity implements PwMessage, Serializable
         this.isGroupSession = inSession.isGroupSession();
         this.message = inSession.getMsg();
         this.warnings = inSession.getWarnings();
+        clearAuthorizedRoles();
     }
     
 
@@ -689,6 +696,7 @@ public class Session  extends FortEntity implements PwMessage, Serializable
         {
             user.setRoles( roles );
         }
+        clearAuthorizedRoles();
     }
     
 
@@ -707,9 +715,76 @@ public class Session  extends FortEntity implements PwMessage, Serializable
         {
             user.setRole( role );
         }
+        clearAuthorizedRoles();
     }
     
 
+    /**
+     * Return the RBAC role names, activated roles along with their ascendants, that were last computed for this session.
+     * The set is only returned if it was computed for the same contextId and hierarchy generation, and the activated roles
+     * haven't changed since.
+     *
+     * @param contextId  maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @param generation stamp of the role hierarchy the caller is evaluating against.
+     * @return case insensitive Set of authorized role names or null if none are current.
+     */
+    public Set<String> getAuthorizedRoles( String contextId, long generation )
+    {
+        AuthorizedRoles memo = authorizedRoles;
+        return memo != null && memo.isCurrent( contextId, generation, getRoles() ) ? memo.names : null;
+    }
+
+
+    /**
+     * Store the RBAC role names computed from this session's activated roles for reuse by later permission checks.
+     *
+     * @param names      case insensitive Set of authorized role names, must not be modified after this call.
+     * @param contextId  maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @param generation stamp of the role hierarchy the names were computed from.
+     */
+    public void setAuthorizedRoles( Set<String> names, String contextId, long generation )
+    {
+        authorizedRoles = new AuthorizedRoles( names, contextId, generation, getRoles() );
+    }
+
+
+    /**
+     * Return the Admin role names, activated admin roles along with their ascendants, that were last computed for this session.
+     *
+     * @param contextId  maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @param generation stamp of the admin role hierarchy the caller is evaluating against.
+     * @return case insensitive Set of authorized admin role names or null if none are current.
+     */
+    public Set<String> getAuthorizedAdminRoles( String contextId, long generation )
+    {
+        AuthorizedRoles memo = authorizedAdminRoles;
+        return memo != null && memo.isCurrent( contextId, generation, getAdminRoles() ) ? memo.names : null;
+    }
+
+
+    /**
+     * Store the Admin role names computed from this session's activated admin roles for reuse by later permission checks.
+     *
+     * @param names      case insensitive Set of authorized admin role names, must not be modified after this call.
+     * @param contextId  maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @param generation stamp of the admin role hierarchy the names were computed from.
+     */
+    public void setAuthorizedAdminRoles( Set<String> names, String contextId, long generation )
+    {
+        authorizedAdminRoles = new AuthorizedRoles( names, contextId, generation, getAdminRoles() );
+    }
+
+
+    /**
+     * Discard the authorized role sets stored on this session.  Called whenever roles are activated or deactivated.
+     */
+    public void clearAuthorizedRoles()
+    {
+        authorizedRoles = null;
+        authorizedAdminRoles = null;
+    }
+
+
     /**
      * Set the integer timeout that contains max time ((in minutes)) that User's session may remain inactive.
      * This attribute is optional but if set will be validated for reasonableness.
@@ -890,4 +965,73 @@ public class Session  extends FortEntity implements PwMessage, Serializable
 
         return sb.toString();
     }
+
+
+    /**
+     * Holds a set of authorized role names along with the state it was computed from.  The names of the activated roles are copied
+     * because the lists are exposed by {@link #getRoles()} and {@link #getAdminRoles()} and may be changed in place.
+     */
+    private static final class AuthorizedRoles
+    {
+        private final Set<String> names;
+        private final String contextId;
+        private final long generation;
+        private final List<String> activated;
+
+
+        private AuthorizedRoles( Set<String> names, String contextId, long generation, List<? extends UserRole> activated )
+        {
+            this.names = names;
+            this.contextId = contextId;
+            this.generation = generation;
+            this.activated = copyNames( activated );
+        }
+
+
+        private boolean isCurrent( String contextId, long generation, List<? extends UserRole> activated )
+        {
+            return this.generation == generation && Objects.equals( this.contextId, contextId )
+                && isSameNames( activated );
+        }
+
+
+        /**
+         * Compare by name, in order, without allocating on the authorization path.
+         */
+        private boolean isSameNames( List<? extends UserRole> roles )
+        {
+            if ( roles == null )
+            {
+                return activated == null;
+            }
+            if ( activated == null || activated.size() != roles.size() )
+            {
+                return false;
+            }
+            for ( int i = 0; i < activated.size(); i++ )
+            {
+                UserRole role = roles.get( i );
+                if ( role == null || !Objects.equals( activated.get( i ), role.getName() ) )
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+
+        private static List<String> copyNames( List<? extends UserRole> roles )
+        {
+            if ( roles == null )
+            {
+                return null;
+            }
+            List<String> copy = new ArrayList<>( roles.size() );
+            for ( UserRole role : roles )
+            {
+                copy.add( role == null ? null : role.getName() );
+            }
+            return Collections.unmodifiableList( copy );
+        }
+    }
 }
@@ -22,6 +22,7 @@ package org.apache.directory.fortress.core.rest;
 import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
 
 import org.apache.directory.fortress.core.AccessMgr;
 import org.apache.directory.fortress.core.GlobalErrIds;
@@ -86,9 +87,7 @@ public class AccessMgrRestImpl extends Manageable implements AccessMgr
         Session retSession;
         FortRequest request = RestUtils.getRequest( this.contextId );
         request.setEntity( new User( userId, password ) );
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.RBAC_AUTHN);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.RBAC_AUTHN);
         if (response.getErrorCode() == 0)
         {
             retSession = response.getSession();
@@ -111,17 +110,15 @@ public class AccessMgrRestImpl extends Manageable implements AccessMgr
         Session retSession;
         FortRequest request = RestUtils.getRequest( this.contextId );
         request.setEntity(user);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse;
+        FortResponse response;
         if(isTrusted)
         {
-            szResponse = RestUtils.getInstance().post(szRequest, HttpIds.RBAC_CREATE_TRUSTED);
+            response = RestUtils.getInstance().post(request, HttpIds.RBAC_CREATE_TRUSTED);
         }
         else
         {
-            szResponse = RestUtils.getInstance().post(szRequest, HttpIds.RBAC_CREATE);
+            response = RestUtils.getInstance().post(request, HttpIds.RBAC_CREATE);
         }
-        FortResponse response = RestUtils.unmarshall(szResponse);
         if (response.getErrorCode() == 0)
         {
             retSession = response.getSession();
@@ -155,9 +152,7 @@ public class AccessMgrRestImpl extends Manageable implements AccessMgr
         Session retSession;
         FortRequest request = RestUtils.getRequest( this.contextId );
         request.setEntity( group );
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.RBAC_CREATE_GROUP_SESSION );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.RBAC_CREATE_GROUP_SESSION );
         if (response.getErrorCode() == 0)
         {
             retSession = response.getSession();
@@ -182,9 +177,7 @@ public class AccessMgrRestImpl extends Manageable implements AccessMgr
         FortRequest request = RestUtils.getRequest( this.contextId );
         request.setSession(session);
         request.setEntity(perm);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.RBAC_AUTHZ);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.RBAC_AUTHZ);
         if (response.getErrorCode() == 0)
         {
             result = response.getAuthorized();
@@ -198,6 +191,37 @@ public class AccessMgrRestImpl extends Manageable implements AccessMgr
         return result;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * fortress-rest has no bulk authorization endpoint, so each permission is checked with its own request to
+     * {@link HttpIds#RBAC_AUTHZ}.  A permission the server reports as not existing is returned as not authorized.
+     */
+    @Override
+    public boolean[] checkAccess(Session session, List<Permission> perms)
+        throws SecurityException
+    {
+        VUtil.assertNotNull(perms, GlobalErrIds.PERM_NULL, CLS_NM + ".checkAccess");
+        VUtil.assertNotNull(session, GlobalErrIds.USER_SESS_NULL, CLS_NM + ".checkAccess");
+        boolean[] results = new boolean[perms.size()];
+        for (int i = 0; i < results.length; i++)
+        {
+            try
+            {
+                results[i] = checkAccess(session, perms.get(i));
+            }
+            catch (SecurityException se)
+            {
+                if (se.getErrorId() != GlobalErrIds.PERM_NOT_EXIST)
+                {
+                    throw se;
+                }
+                results[i] = false;
+            }
+        }
+        return results;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -212,9 +236,7 @@ public class AccessMgrRestImpl extends Manageable implements AccessMgr
         request.setEntity2(user);
         request.setEntity( perm );
         request.setIsFlag( isTrusted );
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.RBAC_CHECK);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.RBAC_CHECK);
         if (response.getErrorCode() == 0)
         {
             result = response.getAuthorized();
@@ -240,9 +262,7 @@ public class AccessMgrRestImpl extends Manageable implements AccessMgr
         request.setEntity2(user);
         request.setEntity(role);
         request.setIsFlag( isTrusted );
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.RBAC_CHECK_ROLE);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.RBAC_CHECK_ROLE);
         if (response.getErrorCode() == 0)
         {
             result = response.getAuthorized();
@@ -265,9 +285,7 @@ public class AccessMgrRestImpl extends Manageable implements AccessMgr
         List<Permission> retPerms;
         FortRequest request = RestUtils.getRequest( this.contextId );
         request.setSession(session);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.RBAC_PERMS);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.RBAC_PERMS);
         if (response.getErrorCode() == 0)
         {
             retPerms = response.getEntities();
@@ -292,9 +310,7 @@ public class AccessMgrRestImpl extends Manageable implements AccessMgr
         List<UserRole> retRoles;
         FortRequest request = RestUtils.getRequest( this.contextId );
         request.setSession(session);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.RBAC_ROLES);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.RBAC_ROLES);
         if (response.getErrorCode() == 0)
         {
             retRoles = response.getEntities();
@@ -319,9 +335,7 @@ public class AccessMgrRestImpl extends Manageable implements AccessMgr
         Set<String> retRoleNames = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
         FortRequest request = RestUtils.getRequest( this.contextId );
         request.setSession(session);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.RBAC_AUTHZ_ROLES);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.RBAC_AUTHZ_ROLES);
         if (response.getErrorCode() == 0)
         {
             Set<String> tempNames = response.getValueSet();
@@ -350,9 +364,7 @@ public class AccessMgrRestImpl extends Manageable implements AccessMgr
         FortRequest request = RestUtils.getRequest( this.contextId );
         request.setSession(session);
         request.setEntity(role);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.RBAC_ADD);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.RBAC_ADD);
         if (response.getErrorCode() == 0)
         {
             Session outSession = response.getSession();
@@ -377,9 +389,7 @@ public class AccessMgrRestImpl extends Manageable implements AccessMgr
         FortRequest request = RestUtils.getRequest( this.contextId );
         request.setSession(session);
         request.setEntity(role);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.RBAC_DROP);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.RBAC_DROP);
         if (response.getErrorCode() == 0)
         {
             Session outSession = response.getSession();
@@ -402,9 +412,7 @@ public class AccessMgrRestImpl extends Manageable implements AccessMgr
         String userId;
         FortRequest request = RestUtils.getRequest( this.contextId );
         request.setSession(session);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.RBAC_USERID);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.RBAC_USERID);
         if (response.getErrorCode() == 0)
         {
             User outUser = (User) response.getEntity();
@@ -431,9 +439,7 @@ public class AccessMgrRestImpl extends Manageable implements AccessMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setSession(session);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.RBAC_USER);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.RBAC_USER);
         if (response.getErrorCode() == 0)
         {
             retUser = (User) response.getEntity();
@@ -446,4 +452,147 @@ public class AccessMgrRestImpl extends Manageable implements AccessMgr
         }
         return retUser;
     }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The request is sent by the non-blocking http client, see {@link RestUtils#postAsync(FortRequest, String)}.
+     */
+    @Override
+    public CompletableFuture<Session> authenticateAsync( String userId, String password )
+    {
+        try
+        {
+            VUtil.assertNotNullOrEmpty( userId, GlobalErrIds.USER_ID_NULL, CLS_NM + ".authenticateAsync" );
+            VUtil.assertNotNullOrEmpty( password, GlobalErrIds.USER_PW_NULL, CLS_NM + ".authenticateAsync" );
+        }
+        catch ( SecurityException se )
+        {
+            return failed( se );
+        }
+        FortRequest request = RestUtils.getRequest( this.contextId );
+        request.setEntity( new User( userId, password ) );
+        return whenResponse( RestUtils.getInstance().postAsync( request, HttpIds.RBAC_AUTHN ), FortResponse::getSession );
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The request is sent by the non-blocking http client, see {@link RestUtils#postAsync(FortRequest, String)}.
+     */
+    @Override
+    public CompletableFuture<Session> createSessionAsync( User user, boolean isTrusted )
+    {
+        try
+        {
+            VUtil.assertNotNull( user, GlobalErrIds.USER_NULL, CLS_NM + ".createSessionAsync" );
+        }
+        catch ( SecurityException se )
+        {
+            return failed( se );
+        }
+        FortRequest request = RestUtils.getRequest( this.contextId );
+        request.setEntity( user );
+        return whenResponse( RestUtils.getInstance().postAsync( request, isTrusted ? HttpIds.RBAC_CREATE_TRUSTED
+            : HttpIds.RBAC_CREATE ), FortResponse::getSession );
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The request is sent by the non-blocking http client, see {@link RestUtils#postAsync(FortRequest, String)}.  The session
+     * is updated with the one returned by the server before the future completes.
+     */
+    @Override
+    public CompletableFuture<Boolean> checkAccessAsync( Session session, Permission perm )
+    {
+        try
+        {
+            VUtil.assertNotNull( perm, GlobalErrIds.PERM_NULL, CLS_NM + ".checkAccessAsync" );
+            VUtil.assertNotNull( session, GlobalErrIds.USER_SESS_NULL, CLS_NM + ".checkAccessAsync" );
+        }
+        catch ( SecurityException se )
+        {
+            return failed( se );
+        }
+        FortRequest request = RestUtils.getRequest( this.contextId );
+        request.setSession( session );
+        request.setEntity( perm );
+        return whenResponse( RestUtils.getInstance().postAsync( request, HttpIds.RBAC_AUTHZ ), response ->
+        {
+            session.copy( response.getSession() );
+            return response.getAuthorized();
+        } );
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The request is sent by the non-blocking http client, see {@link RestUtils#postAsync(FortRequest, String)}.  The session
+     * is updated with the one returned by the server before the future completes.
+     */
+    @Override
+    public CompletableFuture<List<Permission>> sessionPermissionsAsync( Session session )
+    {
+        try
+        {
+            VUtil.assertNotNull( session, GlobalErrIds.USER_SESS_NULL, CLS_NM + ".sessionPermissionsAsync" );
+        }
+        catch ( SecurityException se )
+        {
+            return failed( se );
+        }
+        FortRequest request = RestUtils.getRequest( this.contextId );
+        request.setSession( session );
+        return whenResponse( RestUtils.getInstance().postAsync( request, HttpIds.RBAC_PERMS ), response ->
+        {
+            session.copy( response.getSession() );
+            return response.<Permission>getEntities();
+        } );
+    }
+
+    /**
+     * Complete a future with the result read from the server's response.  An error returned by the server fails it with a
+     * SecurityException, and a failed request with its RestException, as the exception itself rather than wrapped in a
+     * {@link java.util.concurrent.CompletionException} the way a dependent stage would.
+     */
+    private static <T> CompletableFuture<T> whenResponse( CompletableFuture<FortResponse> posted, ResponseReader<T> reader )
+    {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        posted.whenComplete( ( response, e ) ->
+        {
+            if ( e != null )
+            {
+                future.completeExceptionally( e );
+            }
+            else if ( response.getErrorCode() != 0 )
+            {
+                future.completeExceptionally( new SecurityException( response.getErrorCode(), response.getErrorMessage() ) );
+            }
+            else
+            {
+                try
+                {
+                    future.complete( reader.read( response ) );
+                }
+                catch ( Throwable t )
+                {
+                    future.completeExceptionally( t );
+                }
+            }
+        } );
+        return future;
+    }
+
+    private interface ResponseReader<T>
+    {
+        T read( FortResponse response );
+    }
+
+    private static <T> CompletableFuture<T> failed( SecurityException se )
+    {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally( se );
+        return future;
+    }
 }
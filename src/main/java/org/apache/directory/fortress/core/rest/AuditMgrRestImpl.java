@@ -32,6 +32,7 @@ import org.apache.directory.fortress.core.model.FortRequest;
 import org.apache.directory.fortress.core.model.FortResponse;
 import org.apache.directory.fortress.core.model.Mod;
 import org.apache.directory.fortress.core.model.UserAudit;
+import org.apache.directory.fortress.core.util.ResultHandler;
 import org.apache.directory.fortress.core.util.VUtil;
 
 /**
@@ -121,9 +122,7 @@ public class AuditMgrRestImpl extends Manageable implements AuditMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(uAudit);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.AUDIT_UAUTHZS);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.AUDIT_UAUTHZS);
         if (response.getErrorCode() == 0)
         {
             outRecords = response.getEntities();
@@ -153,9 +152,7 @@ public class AuditMgrRestImpl extends Manageable implements AuditMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(uAudit);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.AUDIT_AUTHZS);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.AUDIT_AUTHZS);
         if (response.getErrorCode() == 0)
         {
             outRecords = response.getEntities();
@@ -185,9 +182,7 @@ public class AuditMgrRestImpl extends Manageable implements AuditMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(uAudit);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.AUDIT_BINDS);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.AUDIT_BINDS);
         if (response.getErrorCode() == 0)
         {
             outRecords = response.getEntities();
@@ -217,9 +212,7 @@ public class AuditMgrRestImpl extends Manageable implements AuditMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(uAudit);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.AUDIT_SESSIONS);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.AUDIT_SESSIONS);
         if (response.getErrorCode() == 0)
         {
             outRecords = response.getEntities();
@@ -237,6 +230,78 @@ public class AuditMgrRestImpl extends Manageable implements AuditMgr
     }
 
 
+    /**
+     * The rest server has no streaming endpoint so the full result is read by {@link #getUserAuthZs(UserAudit)} and the attributes are
+     * ignored.
+     * <p>
+     * {@inheritDoc}
+     */
+    @Override
+    public void streamUserAuthZs(UserAudit uAudit, String[] attributes, ResultHandler<? super AuthZ> handler)
+        throws SecurityException
+    {
+        VUtil.assertNotNull(handler, GlobalErrIds.AUDT_INPUT_NULL, CLS_NM + ".streamUserAuthZs");
+        handle(getUserAuthZs(uAudit), handler);
+    }
+
+
+    /**
+     * The rest server has no streaming endpoint so the full result is read by {@link #searchAuthZs(UserAudit)} and the attributes are
+     * ignored.
+     * <p>
+     * {@inheritDoc}
+     */
+    @Override
+    public void streamAuthZs(UserAudit uAudit, String[] attributes, ResultHandler<? super AuthZ> handler)
+        throws SecurityException
+    {
+        VUtil.assertNotNull(handler, GlobalErrIds.AUDT_INPUT_NULL, CLS_NM + ".streamAuthZs");
+        handle(searchAuthZs(uAudit), handler);
+    }
+
+
+    /**
+     * The rest server has no streaming endpoint so the full result is read by {@link #searchBinds(UserAudit)} and the attributes are
+     * ignored.
+     * <p>
+     * {@inheritDoc}
+     */
+    @Override
+    public void streamBinds(UserAudit uAudit, String[] attributes, ResultHandler<? super Bind> handler)
+        throws SecurityException
+    {
+        VUtil.assertNotNull(handler, GlobalErrIds.AUDT_INPUT_NULL, CLS_NM + ".streamBinds");
+        handle(searchBinds(uAudit), handler);
+    }
+
+
+    /**
+     * The rest server has no streaming endpoint so the full result is read by {@link #searchUserSessions(UserAudit)} and the attributes are
+     * ignored.
+     * <p>
+     * {@inheritDoc}
+     */
+    @Override
+    public void streamUserSessions(UserAudit uAudit, String[] attributes, ResultHandler<? super Mod> handler)
+        throws SecurityException
+    {
+        VUtil.assertNotNull(handler, GlobalErrIds.AUDT_INPUT_NULL, CLS_NM + ".streamUserSessions");
+        handle(searchUserSessions(uAudit), handler);
+    }
+
+
+    private static <T> void handle(List<T> records, ResultHandler<? super T> handler)
+    {
+        for (T record : records)
+        {
+            if (!handler.handle(record))
+            {
+                break;
+            }
+        }
+    }
+
+
     /**
      * {@inheritDoc}
      */
@@ -249,9 +314,7 @@ public class AuditMgrRestImpl extends Manageable implements AuditMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(uAudit);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.AUDIT_MODS);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.AUDIT_MODS);
         if (response.getErrorCode() == 0)
         {
             outRecords = response.getEntities();
@@ -281,9 +344,7 @@ public class AuditMgrRestImpl extends Manageable implements AuditMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setEntity(uAudit);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.AUDIT_INVLD);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.AUDIT_INVLD);
         if (response.getErrorCode() == 0)
         {
             outRecords = response.getEntities();
@@ -58,9 +58,7 @@ public class ConfigMgrRestImpl implements ConfigMgr
         Configuration retCfg;
         FortRequest request = RestUtils.getRequest( GlobalIds.HOME );
         request.setEntity( cfg );
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.CFG_ADD );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.CFG_ADD );
         if ( response.getErrorCode() == 0 )
         {
             retCfg = ( Configuration ) response.getEntity();
@@ -83,9 +81,7 @@ public class ConfigMgrRestImpl implements ConfigMgr
         Configuration retCfg;
         FortRequest request = RestUtils.getRequest( GlobalIds.HOME );
         request.setEntity( cfg );
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.CFG_UPDATE );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.CFG_UPDATE );
         if ( response.getErrorCode() == 0 )
         {
             retCfg = ( Configuration ) response.getEntity();
@@ -117,9 +113,7 @@ public class ConfigMgrRestImpl implements ConfigMgr
         VUtil.assertNotNull(name, GlobalErrIds.FT_CONFIG_NAME_NULL, CLS_NM + ".deleteProp");
         FortRequest request = new FortRequest();
         request.setValue(name);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.CFG_DELETE);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.CFG_DELETE);
         if (response.getErrorCode() != 0)
         {
             throw new SecurityException(response.getErrorCode(), response.getErrorMessage());
@@ -139,9 +133,7 @@ public class ConfigMgrRestImpl implements ConfigMgr
         Props inProps = RestUtils.getProps(inProperties);
         request.setEntity(inProps);
         request.setValue(name);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.CFG_DELETE);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.CFG_DELETE);
         if (response.getErrorCode() != 0)
         {
             throw new SecurityException(response.getErrorCode(), response.getErrorMessage());
@@ -159,9 +151,7 @@ public class ConfigMgrRestImpl implements ConfigMgr
         Configuration retCfg;
         FortRequest request = new FortRequest();
         request.setValue(name);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.CFG_READ);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.CFG_READ);
         Props props;
         if (response.getErrorCode() == 0)
         {
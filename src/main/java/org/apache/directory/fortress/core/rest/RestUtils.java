@@ -20,16 +20,23 @@
 package org.apache.directory.fortress.core.rest;
 
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.util.Enumeration;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Response;
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
@@ -45,20 +52,56 @@ import org.apache.directory.fortress.core.model.ObjectFactory;
 import org.apache.directory.fortress.core.model.Props;
 import org.apache.directory.fortress.core.util.Config;
 import org.apache.directory.fortress.core.util.EncryptUtil;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.AnnotationIntrospectorPair;
+import com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector;
+import com.fasterxml.jackson.module.jaxb.JaxbAnnotationIntrospector;
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpHost;
 import org.apache.http.HttpRequest;
 import org.apache.http.HttpResponse;
 import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.client.AuthCache;
 import org.apache.http.client.CredentialsProvider;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
 import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.entity.AbstractHttpEntity;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.auth.BasicScheme;
+import org.apache.http.impl.client.BasicAuthCache;
 import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.conn.NoopIOSessionStrategy;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
+import org.apache.http.nio.entity.NByteArrayEntity;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -80,8 +123,15 @@ public final class RestUtils
     private static final int HTTP_403_FORBIDDEN = 403;
     private static final int HTTP_404_NOT_FOUND = 404;
     private static final int HTTP_500_INTERNAL_SERVER_ERROR = 500;
+    private static final int HTTP_415_UNSUPPORTED_MEDIA_TYPE = 415;
+    private static final String MEDIA_TYPE_JSON = "application/json";
+    // json is given up on once this many requests in a row have been turned away:
+    private static final int MAX_JSON_REJECTIONS = 3;
+    private static final String ACCEPT_JSON = "application/json, application/xml;q=0.9";
     private static final String VALID_RESPONSE = "FortResponse";
     private static CachedJaxbContext cachedJaxbContext = new CachedJaxbContext();
+    // Thread safe once configured:
+    private static final ObjectMapper objectMapper = createObjectMapper();
 
     // static member contains this
     private static volatile RestUtils sINSTANCE = null;
@@ -96,6 +146,16 @@ public final class RestUtils
     // These members contain the http coordinates to a running fortress-rest instance:
     private String httpUid, httpPw, httpHost, httpPort, httpProtocol, fortressRestVersion, serviceName, uri;
 
+    // Shared by every request, keeps connections to fortress-rest open between calls:
+    private CloseableHttpClient httpClient;
+    // Shared by every asynchronous request, created on first use:
+    private volatile CloseableHttpAsyncClient httpAsyncClient;
+
+    // Set while requests are sent as json, cleared if fortress-rest turns away several in a row:
+    private volatile boolean isJson;
+    private final AtomicInteger jsonRejections = new AtomicInteger();
+    private HttpHost target;
+
     /**
      * create a new request and set its tenant id.
      * @param szContextId contains the tenant id
@@ -143,7 +203,160 @@ public final class RestUtils
             System.setProperty( "javax.net.ssl.trustStore", trustStore );
             System.setProperty( "javax.net.ssl.trustStorePassword", trustStorePw );
         }
-        //System.setProperty( "http.maxConnections", "50" );
+        httpClient = createHttpClient();
+        isJson = "json".equalsIgnoreCase( Config.getInstance().getProperty( "http.media.type", "xml" ) );
+    }
+
+
+    /**
+     * Jackson is told to read the jaxb annotations on the model, along with its own, so json carries the same fields under the
+     * same names as xml.
+     *
+     * @return mapper used for every json request and response.
+     */
+    private static ObjectMapper createObjectMapper()
+    {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.setAnnotationIntrospector( new AnnotationIntrospectorPair( new JacksonAnnotationIntrospector(),
+            new JaxbAnnotationIntrospector( mapper.getTypeFactory() ) ) );
+        mapper.setSerializationInclusion( JsonInclude.Include.NON_NULL );
+        mapper.configure( DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false );
+        // the connection's stream is closed by the http client:
+        mapper.configure( JsonGenerator.Feature.AUTO_CLOSE_TARGET, false );
+        return mapper;
+    }
+
+
+    /**
+     * @return mapper used to convert requests and responses to and from json.
+     */
+    static ObjectMapper getObjectMapper()
+    {
+        return objectMapper;
+    }
+
+    /**
+     * Create the client, and its pool of connections, used for every call to fortress-rest.  The pool is sized and timed using these
+     * fortress config params:
+     * <ul>
+     *   <li>http.max.connections.route - connections kept to fortress-rest, default 20.</li>
+     *   <li>http.max.connections - connections kept in total, default 100.</li>
+     *   <li>http.keep.alive - seconds an idle connection is kept when the server doesn't say, default 60.</li>
+     *   <li>http.idle.timeout - seconds before an idle connection is evicted from the pool, default 30.</li>
+     *   <li>http.connect.timeout - milliseconds to wait for a new connection, default is the system's.</li>
+     *   <li>http.read.timeout - milliseconds to wait on a response, default is the system's.</li>
+     * </ul>
+     * The trust store, along with any proxy, is taken from the system properties as before.
+     *
+     * @return client that is safe for use by multiple threads.
+     */
+    private CloseableHttpClient createHttpClient()
+    {
+        Config config = Config.getInstance();
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager( RegistryBuilder
+            .<ConnectionSocketFactory>create()
+            .register( "http", PlainConnectionSocketFactory.getSocketFactory() )
+            .register( "https", SSLConnectionSocketFactory.getSystemSocketFactory() )
+            .build() );
+        connectionManager.setDefaultMaxPerRoute( config.getInt( "http.max.connections.route", 20 ) );
+        connectionManager.setMaxTotal( config.getInt( "http.max.connections", 100 ) );
+        // revalidate connections that sat idle long enough for the server to have dropped them:
+        connectionManager.setValidateAfterInactivity( 2000 );
+        target = new HttpHost( httpHost, Integer.valueOf( httpPort ), httpProtocol );
+        LOG.info( "HTTP Pool Properties: maxPerRoute:{}, maxTotal:{}", connectionManager.getDefaultMaxPerRoute(),
+            connectionManager.getMaxTotal() );
+        return HttpClientBuilder.create().useSystemProperties()
+            .setConnectionManager( connectionManager )
+            .setDefaultRequestConfig( createRequestConfig() )
+            .setKeepAliveStrategy( createKeepAliveStrategy() )
+            .evictExpiredConnections()
+            .evictIdleConnections( config.getInt( "http.idle.timeout", 30 ), TimeUnit.SECONDS )
+            .build();
+    }
+
+    private static RequestConfig createRequestConfig()
+    {
+        Config config = Config.getInstance();
+        return RequestConfig.custom()
+            .setConnectTimeout( config.getInt( "http.connect.timeout", -1 ) )
+            .setConnectionRequestTimeout( config.getInt( "http.connect.timeout", -1 ) )
+            .setSocketTimeout( config.getInt( "http.read.timeout", -1 ) )
+            .build();
+    }
+
+
+    private static ConnectionKeepAliveStrategy createKeepAliveStrategy()
+    {
+        long keepAlive = TimeUnit.SECONDS.toMillis( Config.getInstance().getInt( "http.keep.alive", 60 ) );
+        return ( response, context ) ->
+        {
+            long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration( response, context );
+            return duration > 0 ? duration : keepAlive;
+        };
+    }
+
+
+    /**
+     * Create the non-blocking client used by {@link #postAsync(String, String, FortRequest, String)}.  It keeps its own pool of
+     * connections, sized and timed by the same fortress config params as the blocking client, and serves every request from a
+     * small, fixed set of i/o threads however many are in flight.
+     *
+     * @return client that is running and safe for use by multiple threads.
+     * @throws IOReactorException if the i/o threads can't be started.
+     */
+    private CloseableHttpAsyncClient createHttpAsyncClient() throws IOReactorException
+    {
+        Config config = Config.getInstance();
+        ThreadFactory threadFactory = new ThreadFactory()
+        {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread( Runnable runnable )
+            {
+                Thread thread = new Thread( runnable, "fortress-http-" + count.incrementAndGet() );
+                thread.setDaemon( true );
+                return thread;
+            }
+        };
+        PoolingNHttpClientConnectionManager connectionManager = new PoolingNHttpClientConnectionManager(
+            new DefaultConnectingIOReactor( IOReactorConfig.DEFAULT, threadFactory ), RegistryBuilder
+            .<SchemeIOSessionStrategy>create()
+            .register( "http", NoopIOSessionStrategy.INSTANCE )
+            .register( "https", SSLIOSessionStrategy.getSystemDefaultStrategy() )
+            .build() );
+        connectionManager.setDefaultMaxPerRoute( config.getInt( "http.max.connections.route", 20 ) );
+        connectionManager.setMaxTotal( config.getInt( "http.max.connections", 100 ) );
+        CloseableHttpAsyncClient client = HttpAsyncClientBuilder.create().useSystemProperties()
+            .setConnectionManager( connectionManager )
+            .setDefaultRequestConfig( createRequestConfig() )
+            .setKeepAliveStrategy( createKeepAliveStrategy() )
+            .setThreadFactory( threadFactory )
+            .build();
+        client.start();
+        return client;
+    }
+
+
+    /**
+     * The non-blocking client is started on first use so those that only make blocking calls don't pay for its threads.
+     *
+     * @return running client.
+     * @throws IOReactorException if the i/o threads can't be started.
+     */
+    private CloseableHttpAsyncClient getHttpAsyncClient() throws IOReactorException
+    {
+        if ( httpAsyncClient == null )
+        {
+            synchronized ( this )
+            {
+                if ( httpAsyncClient == null )
+                {
+                    httpAsyncClient = createHttpAsyncClient();
+                }
+            }
+        }
+        return httpAsyncClient;
     }
 
     private RestUtils(){
@@ -162,13 +375,8 @@ public final class RestUtils
         String szRetValue;
         try
         {
-            // Create a JAXB context passing in the class of the object we want to marshal/unmarshal
-            final JAXBContext context = cachedJaxbContext.getJaxbContext( FortRequest.class );
-            // =============================================================================================================
-            // Marshalling OBJECT to XML
-            // =============================================================================================================
-            // Create the marshaller, that will transform the object into XML
-            final Marshaller marshaller = context.createMarshaller();
+            // The marshaller that will transform the object into XML belongs to this thread and is reused:
+            final Marshaller marshaller = cachedJaxbContext.getMarshaller( FortRequest.class );
             // Create a stringWriter to hold the XML
             final StringWriter stringWriter = new StringWriter();
             // Marshal the javaObject and write the XML to the stringWriter
@@ -196,11 +404,8 @@ public final class RestUtils
         FortResponse response;
         try
         {
-            // Create a JAXB context passing in the class of the object we want to marshal/unmarshal
-            final JAXBContext context = cachedJaxbContext.getJaxbContext( FortResponse.class );
-
-            // Create the unmarshaller, that will transform the XML back into an object
-            final Unmarshaller unmarshaller = context.createUnmarshaller();
+            // The unmarshaller that will transform the XML back into an object belongs to this thread and is reused:
+            final Unmarshaller unmarshaller = cachedJaxbContext.getUnmarshaller( FortResponse.class );
             response = ( FortResponse ) unmarshaller.unmarshal( new StringReader( szResponse ) );
         }
         catch ( JAXBException je )
@@ -244,8 +449,7 @@ public final class RestUtils
         {
             get = new HttpGet(url);
             setMethodHeaders( get );
-            szResponse = handleHttpMethod( get ,HttpClientBuilder.create().useSystemProperties()
-                .setDefaultCredentialsProvider(getCredentialProvider(userId, password)).build() );
+            szResponse = handleHttpMethod( get, httpClient, getContext( userId, password ) );
         }
         catch ( WebApplicationException we )
         {
@@ -299,95 +503,272 @@ public final class RestUtils
     public String post( String userId, String password, String szInput, String function ) throws RestException
     {
         LOG.debug( "post uri=[{}], function=[{}], request=[{}]", uri, function, szInput );
-        String szResponse = null;
-        HttpPost post = new HttpPost( uri + function);
-        post.addHeader( "Accept", "text/xml" );
-        setMethodHeaders( post );
+        String szResponse = execute( userId, password, new StringEntity( szInput, ContentType.TEXT_XML ), function, null, ( content, contentType ) ->
+        {
+            String response = IOUtils.toString( content, "UTF-8" );
+            // Crack the response and see if it can be parsed as a valid Fortress Response object or generic HTTP:
+            return StringUtils.isNotEmpty( response ) && response.contains( VALID_RESPONSE ) ? response : null;
+        } );
+        LOG.debug( "post uri=[{}], function=[{}], response=[{}]", uri, function, szResponse );
+        return szResponse;
+    }
+
+
+    /**
+     * Perform an HTTP Post REST operation.  The request is marshalled straight onto the connection and the response is
+     * unmarshalled as it's read, neither is held as a String.
+     * <p>
+     * Requests are sent as xml unless fortress config param, 'http.media.type', is set to json.  The response is read in whichever
+     * of the two the server replies with.  Should the server turn json away, the request is sent again as xml.  Once that has
+     * happened to several requests in a row, later requests are sent straight as xml.
+     *
+     * @param userId
+     * @param password
+     * @param request
+     * @param function
+     * @return FortResponse
+     * @throws RestException
+     */
+    public FortResponse post( String userId, String password, FortRequest request, String function ) throws RestException
+    {
+        LOG.debug( "post uri=[{}], function=[{}]", uri, function );
+        if ( isJson )
+        {
+            try
+            {
+                FortResponse response = execute( userId, password, new FortRequestEntity( request, true ), function,
+                    MEDIA_TYPE_JSON, this::readResponse );
+                jsonRejections.set( 0 );
+                return response;
+            }
+            catch ( UnsupportedMediaTypeException e )
+            {
+                rejectJson( "post", function );
+            }
+        }
+        return execute( userId, password, new FortRequestEntity( request, false ), function, null, this::readResponse );
+    }
+
+
+    /**
+     * Read a Fortress Response as json or xml, depending on its content type.
+     *
+     * @param content
+     * @param contentType
+     * @return FortResponse or null if one couldn't be read.
+     * @throws IOException
+     */
+    private FortResponse readResponse( InputStream content, ContentType contentType ) throws IOException
+    {
         try
         {
-            HttpEntity entity = new StringEntity( szInput, ContentType.TEXT_XML );
-            post.setEntity( entity );
-            org.apache.http.client.HttpClient httpclient = HttpClientBuilder.create().useSystemProperties()
-                .setDefaultCredentialsProvider(getCredentialProvider(userId, password)).build();
-            HttpResponse response = httpclient.execute( post );
-            String error;
+            if ( contentType != null && contentType.getMimeType().endsWith( "json" ) )
+            {
+                return objectMapper.readValue( content, FortResponse.class );
+            }
+            Object response = cachedJaxbContext.getUnmarshaller( FortResponse.class ).unmarshal( content );
+            return response instanceof FortResponse ? ( FortResponse ) response : null;
+        }
+        catch ( JAXBException | JsonProcessingException e )
+        {
+            LOG.debug( "post uri=[{}], read response caught {}", uri, e.toString() );
+            return null;
+        }
+    }
 
-            switch ( response.getStatusLine().getStatusCode() )
+
+    /**
+     * Perform an HTTP Post REST operation.
+     *
+     * @param request
+     * @param function
+     * @return FortResponse
+     * @throws RestException
+     */
+    public FortResponse post( FortRequest request, String function ) throws RestException
+    {
+        return post( null, null, request, function );
+    }
+
+
+    /**
+     * Perform an HTTP Post REST operation without blocking.  The request is sent, and the response read, by the non-blocking
+     * client's i/o threads so the calling thread returns straight away.  Requests are sent as json or xml just as they are by
+     * {@link #post(String, String, FortRequest, String)}, including the fall back to xml.
+     *
+     * @param userId
+     * @param password
+     * @param request
+     * @param function
+     * @return future that completes with the FortResponse, or exceptionally with a RestException.
+     */
+    public CompletableFuture<FortResponse> postAsync( String userId, String password, FortRequest request, String function )
+    {
+        LOG.debug( "postAsync uri=[{}], function=[{}]", uri, function );
+        boolean json = isJson;
+        CompletableFuture<FortResponse> future = new CompletableFuture<>();
+        executeAsync( userId, password, request, function, json ).whenComplete( ( response, e ) ->
+        {
+            if ( json && e instanceof UnsupportedMediaTypeException )
             {
-                case HTTP_OK :
-                    szResponse = IOUtils.toString( response.getEntity().getContent(), "UTF-8" );
-                    if( StringUtils.isNotEmpty( szResponse ) && szResponse.contains(VALID_RESPONSE) )
-                    {
-                        LOG.debug( "post uri=[{}], function=[{}], response=[{}]", uri, function, szResponse );
-                    }
-                    else
-                    {
-                        error = generateErrorMessage( uri, function, "invalid response" );
-                        LOG.error( error );
-                        throw new RestException( GlobalErrIds.REST_NOT_FOUND_ERR, error );
-                    }
-                    break;
-                case HTTP_401_UNAUTHORIZED :
-                    error = generateErrorMessage( uri, function, "401 function unauthorized on host" );
-                    LOG.error( error );
-                    throw new RestException( GlobalErrIds.REST_UNAUTHORIZED_ERR, error );
-                case HTTP_403_FORBIDDEN :
-                    error = generateErrorMessage( uri, function, "403 function forbidden on host" );
-                    LOG.error( error );
-                    throw new RestException( GlobalErrIds.REST_FORBIDDEN_ERR, error );
-                case HTTP_404_NOT_FOUND:
-                    szResponse = IOUtils.toString( response.getEntity().getContent(), "UTF-8" );
-                    // Crack the response and see if it can be parsed as a valid Fortress Response object or generic HTTP:
-                    if( StringUtils.isNotEmpty( szResponse ) && szResponse.contains(VALID_RESPONSE) )
+                rejectJson( "postAsync", function );
+                executeAsync( userId, password, request, function, false ).whenComplete( ( xmlResponse, xmlError ) ->
+                    complete( future, xmlResponse, xmlError ) );
+            }
+            else
+            {
+                if ( json && e == null )
+                {
+                    jsonRejections.set( 0 );
+                }
+                complete( future, response, e );
+            }
+        } );
+        return future;
+    }
+
+
+    /**
+     * Called when a request sent as json is turned away, before it's sent again as xml.  A single rejection may come from one
+     * function or one server behind a load balancer, so json is only switched off for good after several in a row.
+     */
+    private void rejectJson( String method, String function )
+    {
+        int rejections = jsonRejections.incrementAndGet();
+        LOG.warn( "{} uri=[{}], function=[{}], json not accepted, resending as xml", method, uri, function );
+        if ( rejections >= MAX_JSON_REJECTIONS && isJson )
+        {
+            isJson = false;
+            LOG.warn( "{} uri=[{}], json not accepted by {} requests in a row, sending all requests as xml", method, uri,
+                rejections );
+        }
+    }
+
+
+    /**
+     * Perform an HTTP Post REST operation without blocking.
+     *
+     * @param request
+     * @param function
+     * @return future that completes with the FortResponse, or exceptionally with a RestException.
+     */
+    public CompletableFuture<FortResponse> postAsync( FortRequest request, String function )
+    {
+        return postAsync( null, null, request, function );
+    }
+
+
+    /**
+     * The request is marshalled up front, on the caller's thread, and handed to the client as a buffer.
+     */
+    private CompletableFuture<FortResponse> executeAsync( String userId, String password, FortRequest request, String function,
+        boolean json )
+    {
+        CompletableFuture<FortResponse> future = new CompletableFuture<>();
+        HttpPost post = createPost( function, json ? MEDIA_TYPE_JSON : null );
+        try
+        {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            new FortRequestEntity( request, json ).writeTo( out );
+            post.setEntity( new NByteArrayEntity( out.toByteArray(), json ? ContentType.APPLICATION_JSON : ContentType.TEXT_XML ) );
+            getHttpAsyncClient().execute( post, getContext( userId, password ), new FutureCallback<HttpResponse>()
+            {
+                @Override
+                public void completed( HttpResponse response )
+                {
+                    try
                     {
-                        LOG.debug( "HTTP: 404: post uri=[{}], function=[{}], response=[{}]", uri, function, szResponse );
+                        future.complete( handleResponse( response, function, RestUtils.this::readResponse ) );
                     }
-                    else
+                    catch ( RestException re )
                     {
-                        error = generateErrorMessage( uri, function, "HTTP Error:" + response.getStatusLine().getStatusCode());
-                        LOG.error( error );
-                        throw new RestException( GlobalErrIds.REST_NOT_FOUND_ERR, error );
+                        future.completeExceptionally( re );
                     }
-                    break;
-                case HTTP_500_INTERNAL_SERVER_ERROR:
-                    szResponse = IOUtils.toString( response.getEntity().getContent(), "UTF-8" );
-                    // Crack the response and see if it can be parsed as a valid Fortress Response object or generic HTTP:
-                    if( StringUtils.isNotEmpty( szResponse ) && szResponse.contains(VALID_RESPONSE) )
+                    catch ( IOException ioe )
                     {
-                        LOG.debug( "HTTP 500: post uri=[{}], function=[{}], response=[{}]", uri, function, szResponse );
+                        future.completeExceptionally( toRestException( function, ioe ) );
                     }
-                    else
+                    catch ( RuntimeException re )
                     {
-                        error = generateErrorMessage( uri, function, "HTTP 500 Internal Error:" + response.getStatusLine().getStatusCode());
-                        LOG.error( error );
-                        throw new RestException( GlobalErrIds.REST_INTERNAL_ERR, error );
+                        String error = generateErrorMessage( uri, function, "caught Exception = " + re.getMessage() );
+                        LOG.error( error, re );
+                        future.completeExceptionally( new RestException( GlobalErrIds.REST_UNKNOWN_ERR, error, re ) );
                     }
-                    break;
-                case HTTP_400_VALIDATION_EXCEPTION:
-                    szResponse = IOUtils.toString( response.getEntity().getContent(), "UTF-8" );
-                    // Crack the response and see if it can be parsed as a valid Fortress Response object or generic HTTP:
-                    if( StringUtils.isNotEmpty( szResponse ) && szResponse.contains(VALID_RESPONSE) )
+                }
+
+
+                @Override
+                public void failed( Exception e )
+                {
+                    if ( e instanceof IOException )
                     {
-                        LOG.debug( "HTTP 400: post uri=[{}], function=[{}], response=[{}]", uri, function, szResponse );
+                        future.completeExceptionally( toRestException( function, ( IOException ) e ) );
                     }
                     else
                     {
-                        error = generateErrorMessage( uri, function, "HTTP 400 Validation Error:" + response.getStatusLine().getStatusCode());
-                        LOG.error( error );
-                        throw new RestException( GlobalErrIds.REST_VALIDATION_ERR, error );
+                        String error = generateErrorMessage( uri, function, "caught Exception = " + e.getMessage() );
+                        LOG.error( error, e );
+                        future.completeExceptionally( new RestException( GlobalErrIds.REST_UNKNOWN_ERR, error, e ) );
                     }
-                    break;
-                default :
-                    error = generateErrorMessage( uri, function, "error received from host: " + response.getStatusLine().getStatusCode() );
-                    LOG.error( error );
-                    throw new RestException( GlobalErrIds.REST_UNKNOWN_ERR, error );
-            }
+                }
+
+
+                @Override
+                public void cancelled()
+                {
+                    future.cancel( false );
+                }
+            } );
         }
         catch ( IOException ioe )
         {
-            String error = generateErrorMessage( uri, function, "caught IOException=" + ioe.getMessage() );
-            LOG.error( error, ioe );
-            throw new RestException( GlobalErrIds.REST_IO_ERR, error, ioe );
+            future.completeExceptionally( toRestException( function, ioe ) );
+        }
+        return future;
+    }
+
+
+    private static <T> void complete( CompletableFuture<T> future, T result, Throwable e )
+    {
+        if ( e == null )
+        {
+            future.complete( result );
+        }
+        else
+        {
+            future.completeExceptionally( e );
+        }
+    }
+
+
+    /**
+     * Send the request and read a valid Fortress Response from the reply.  Fortress Responses are also returned with HTTP 400,
+     * 404 and 500 so those are read before deciding if there's an error.
+     *
+     * @param userId
+     * @param password
+     * @param entity contains the request.
+     * @param function
+     * @param mediaType of the request, null for xml.
+     * @param reader converts the response content.
+     * @return the response as returned by the reader.
+     * @throws RestException
+     */
+    private <T> T execute( String userId, String password, HttpEntity entity, String function, String mediaType,
+        ResponseReader<T> reader ) throws RestException
+    {
+        T result;
+        HttpPost post = createPost( function, mediaType );
+        CloseableHttpResponse response = null;
+        try
+        {
+            post.setEntity( entity );
+            response = httpClient.execute( post, getContext( userId, password ) );
+            result = handleResponse( response, function, reader );
+        }
+        catch ( IOException ioe )
+        {
+            throw toRestException( function, ioe );
         }
         catch ( WebApplicationException we )
         {
@@ -403,12 +784,147 @@ public final class RestUtils
         }
         finally
         {
-            // Release current connection to the connection pool.
+            // Read what's left of the response so the connection can go back to the pool for reuse.
+            if ( response != null )
+            {
+                EntityUtils.consumeQuietly( response.getEntity() );
+            }
             post.releaseConnection();
         }
-        return szResponse;
+        return result;
+    }
+
+
+    /**
+     * Create a post for a function with the headers that go along with the media type.
+     *
+     * @param function
+     * @param mediaType of the request, null for xml.
+     * @return HttpPost without an entity.
+     */
+    private HttpPost createPost( String function, String mediaType )
+    {
+        HttpPost post = new HttpPost( uri + function);
+        if ( mediaType == null )
+        {
+            post.addHeader( "Accept", "text/xml" );
+            setMethodHeaders( post );
+        }
+        else
+        {
+            post.addHeader( "Content-Type", mediaType );
+            post.addHeader( "Accept", ACCEPT_JSON );
+        }
+        return post;
+    }
+
+
+    /**
+     * Check the status of a response and read a valid Fortress Response from it.  Fortress Responses are also returned with
+     * HTTP 400, 404 and 500 so those are read before deciding if there's an error.
+     *
+     * @param response
+     * @param function
+     * @param reader converts the response content.
+     * @return the response as returned by the reader.
+     * @throws RestException
+     * @throws IOException
+     */
+    private <T> T handleResponse( HttpResponse response, String function, ResponseReader<T> reader )
+        throws RestException, IOException
+    {
+        T result;
+        String error;
+
+        switch ( response.getStatusLine().getStatusCode() )
+        {
+            case HTTP_OK :
+                result = read( response, reader );
+                if( result == null )
+                {
+                    error = generateErrorMessage( uri, function, "invalid response" );
+                    LOG.error( error );
+                    throw new RestException( GlobalErrIds.REST_NOT_FOUND_ERR, error );
+                }
+                break;
+            case HTTP_401_UNAUTHORIZED :
+                error = generateErrorMessage( uri, function, "401 function unauthorized on host" );
+                LOG.error( error );
+                throw new RestException( GlobalErrIds.REST_UNAUTHORIZED_ERR, error );
+            case HTTP_415_UNSUPPORTED_MEDIA_TYPE :
+                error = generateErrorMessage( uri, function, "415 media type unsupported on host" );
+                throw new UnsupportedMediaTypeException( error );
+            case HTTP_403_FORBIDDEN :
+                error = generateErrorMessage( uri, function, "403 function forbidden on host" );
+                LOG.error( error );
+                throw new RestException( GlobalErrIds.REST_FORBIDDEN_ERR, error );
+            case HTTP_404_NOT_FOUND:
+                result = read( response, reader );
+                if( result == null )
+                {
+                    error = generateErrorMessage( uri, function, "HTTP Error:" + response.getStatusLine().getStatusCode());
+                    LOG.error( error );
+                    throw new RestException( GlobalErrIds.REST_NOT_FOUND_ERR, error );
+                }
+                LOG.debug( "HTTP: 404: post uri=[{}], function=[{}]", uri, function );
+                break;
+            case HTTP_500_INTERNAL_SERVER_ERROR:
+                result = read( response, reader );
+                if( result == null )
+                {
+                    error = generateErrorMessage( uri, function, "HTTP 500 Internal Error:" + response.getStatusLine().getStatusCode());
+                    LOG.error( error );
+                    throw new RestException( GlobalErrIds.REST_INTERNAL_ERR, error );
+                }
+                LOG.debug( "HTTP 500: post uri=[{}], function=[{}]", uri, function );
+                break;
+            case HTTP_400_VALIDATION_EXCEPTION:
+                result = read( response, reader );
+                if( result == null )
+                {
+                    error = generateErrorMessage( uri, function, "HTTP 400 Validation Error:" + response.getStatusLine().getStatusCode());
+                    LOG.error( error );
+                    throw new RestException( GlobalErrIds.REST_VALIDATION_ERR, error );
+                }
+                LOG.debug( "HTTP 400: post uri=[{}], function=[{}]", uri, function );
+                break;
+            default :
+                error = generateErrorMessage( uri, function, "error received from host: " + response.getStatusLine().getStatusCode() );
+                LOG.error( error );
+                throw new RestException( GlobalErrIds.REST_UNKNOWN_ERR, error );
+        }
+        return result;
     }
 
+
+    private RestException toRestException( String function, IOException ioe )
+    {
+        // a request that couldn't be marshalled surfaces here, from FortRequestEntity.writeTo:
+        if ( ioe.getCause() instanceof JAXBException )
+        {
+            String error = "marshal caught JAXBException=" + ioe.getCause();
+            return new RestException( GlobalErrIds.REST_MARSHALL_ERR, error, ( JAXBException ) ioe.getCause() );
+        }
+        String error = generateErrorMessage( uri, function, "caught IOException=" + ioe.getMessage() );
+        LOG.error( error, ioe );
+        return new RestException( GlobalErrIds.REST_IO_ERR, error, ioe );
+    }
+
+
+    private static <T> T read( HttpResponse response, ResponseReader<T> reader ) throws IOException
+    {
+        HttpEntity entity = response.getEntity();
+        if ( entity == null )
+        {
+            return null;
+        }
+        try ( InputStream content = entity.getContent() )
+        {
+            return reader.read( content, ContentType.getLenient( entity ) );
+        }
+    }
+
+
     private String generateErrorMessage( String uri, String function, String messageToShow ) {
         return new StringBuilder().append( "post uri=[" ).append( uri) .append( "], function=[" )
                 .append( function ).append( "], " ).append( messageToShow ).toString();
@@ -428,6 +944,84 @@ public final class RestUtils
         return post(null,null,szInput, function);
     }
 
+
+    /**
+     * Converts the content of a response, returning null if it's not a valid Fortress Response.
+     */
+    private interface ResponseReader<T>
+    {
+        T read( InputStream content, ContentType contentType ) throws IOException;
+    }
+
+
+    /**
+     * Marshalls the request as it's written to the connection.  Each attempt to send it, e.g. following an auth challenge,
+     * marshalls it again.
+     */
+    private static final class FortRequestEntity extends AbstractHttpEntity
+    {
+        private final FortRequest request;
+        private final boolean isJson;
+
+
+        private FortRequestEntity( FortRequest request, boolean isJson )
+        {
+            this.request = request;
+            this.isJson = isJson;
+            setContentType( isJson ? ContentType.APPLICATION_JSON.toString() : ContentType.TEXT_XML.toString() );
+            setChunked( true );
+        }
+
+
+        @Override
+        public boolean isRepeatable()
+        {
+            return true;
+        }
+
+
+        @Override
+        public long getContentLength()
+        {
+            return -1;
+        }
+
+
+        @Override
+        public InputStream getContent() throws IOException
+        {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            writeTo( out );
+            return new ByteArrayInputStream( out.toByteArray() );
+        }
+
+
+        @Override
+        public void writeTo( OutputStream out ) throws IOException
+        {
+            if ( isJson )
+            {
+                objectMapper.writeValue( out, request );
+                return;
+            }
+            try
+            {
+                cachedJaxbContext.getMarshaller( FortRequest.class ).marshal( request, out );
+            }
+            catch ( JAXBException je )
+            {
+                throw new IOException( je.getMessage(), je );
+            }
+        }
+
+
+        @Override
+        public boolean isStreaming()
+        {
+            return false;
+        }
+    }
+
     private CredentialsProvider getCredentialProvider(String uid, String password) {
         BasicCredentialsProvider credentialsProvider = new BasicCredentialsProvider();
         credentialsProvider.setCredentials( new AuthScope( httpHost,Integer.valueOf( httpPort )),
@@ -435,6 +1029,24 @@ public final class RestUtils
         return credentialsProvider;
     }
 
+    /**
+     * The client is shared so the credentials are passed with each request.  Basic auth is sent up front, rather than after the
+     * server challenges, to save a round trip.
+     *
+     * @param uid
+     * @param password
+     * @return context for a single request.
+     */
+    private HttpClientContext getContext( String uid, String password )
+    {
+        HttpClientContext context = HttpClientContext.create();
+        context.setCredentialsProvider( getCredentialProvider( uid, password ) );
+        AuthCache authCache = new BasicAuthCache();
+        authCache.put( target, new BasicScheme() );
+        context.setAuthCache( authCache );
+        return context;
+    }
+
     /**
      * Set these params into their associated HTTP header vars.
      *
@@ -471,15 +1083,18 @@ public final class RestUtils
      * Process the HTTP method request.
      *
      * @param httpGetRequest
+     * @param client
+     * @param context
      * @return String containing response
      * @throws Exception
      */
-    private static String handleHttpMethod( HttpRequestBase httpGetRequest ,org.apache.http.client.HttpClient client ) throws RestException
+    private static String handleHttpMethod( HttpRequestBase httpGetRequest, CloseableHttpClient client, HttpClientContext context ) throws RestException
     {
         String szResponse = null;
+        CloseableHttpResponse response = null;
         try
         {
-            HttpResponse response = client.execute( httpGetRequest );
+            response = client.execute( httpGetRequest, context );
             LOG.debug( "handleHttpMethod Response status : {}", response.getStatusLine().getStatusCode() );
 
             Response.Status status = Response.Status.fromStatusCode( response.getStatusLine().getStatusCode() );
@@ -510,7 +1125,11 @@ public final class RestUtils
         }
         finally
         {
-            // Release current connection to the connection pool.
+            // Read what's left of the response so the connection can go back to the pool for reuse.
+            if ( response != null )
+            {
+                EntityUtils.consumeQuietly( response.getEntity() );
+            }
             httpGetRequest.releaseConnection();
         }
         return szResponse;
@@ -563,4 +1182,20 @@ public final class RestUtils
         }
         return props;
     }
+
+
+    /**
+     * Thrown when the server won't accept the media type of a request.
+     */
+    private static final class UnsupportedMediaTypeException extends RestException
+    {
+        /** Default serialVersionUID */
+        private static final long serialVersionUID = 1L;
+
+
+        private UnsupportedMediaTypeException( String message )
+        {
+            super( GlobalErrIds.REST_UNKNOWN_ERR, message );
+        }
+    }
 }
@@ -0,0 +1,89 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.util;
+
+
+import java.util.Iterator;
+import java.util.List;
+
+
+/**
+ * Iterates over the results of a search that are read from the directory a page at a time, as they're needed, rather than all at
+ * once.  The iterator holds an ldap connection until the last result has been read or it's closed, so it should be used within a
+ * try-with-resources block:
+ * <pre>
+ * try ( CloseableIterator&lt;User&gt; users = reviewMgr.iterateUsers( new User( "jts" ) ) )
+ * {
+ *     while ( users.hasNext() )
+ *     {
+ *         User user = users.next();
+ *         ...
+ *     }
+ * }
+ * </pre>
+ * An error reading a page is thrown as {@link org.apache.directory.fortress.core.FinderRuntimeException}.
+ * <p>
+ * Implementations are not thread safe.
+ *
+ * @param <T> type of the results.
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public interface CloseableIterator<T> extends Iterator<T>, AutoCloseable
+{
+    /**
+     * Release the connection, abandoning any results not yet read.  Calling more than once has no effect.
+     */
+    @Override
+    void close();
+
+
+    /**
+     * Wrap results that have already been read in full.
+     *
+     * @param list contains the results.
+     * @param <T>  type of the results.
+     * @return iterator over the list whose close does nothing.
+     */
+    static <T> CloseableIterator<T> of( List<T> list )
+    {
+        Iterator<T> iterator = list.iterator();
+        return new CloseableIterator<T>()
+        {
+            @Override
+            public boolean hasNext()
+            {
+                return iterator.hasNext();
+            }
+
+
+            @Override
+            public T next()
+            {
+                return iterator.next();
+            }
+
+
+            @Override
+            public void close()
+            {
+            }
+        };
+    }
+}
@@ -34,6 +34,7 @@ import org.apache.directory.fortress.core.ConfigMgrFactory;
 import org.apache.directory.fortress.core.GlobalErrIds;
 import org.apache.directory.fortress.core.GlobalIds;
 import org.apache.directory.fortress.core.SecurityException;
+import org.apache.directory.fortress.core.impl.PosixIdAllocator;
 import org.apache.directory.fortress.core.model.Configuration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -822,42 +823,38 @@ public final class Config
     }
 
     /**
-     * Performs auto-increment on a list of key names that map to integer values stored on the current config node of the runtime.
-     * Unfortunately, it's synchronized to prevent a race condition of multiple threads trying to update the same id.
-     * Worse, it doesn't lock meaning not synched across processes and so a temporary workaround until the pending Apache LDAP API/Directory support for RFC 4525 (Modify Increment attribute).
+     * Hands out the next uidNumber and gidNumber values, for each of the list of key names given, from the sequences on the
+     * current config node of the runtime.
      *
-     * @param props list of attribute names to update on config node.
-     * @param propUpdater reference to object that updates to new value.
-     * @return Configuration entity containing the old values.
+     * @param props list of attribute names to take the next value of, {@link GlobalIds#UID_NUMBER} and {@link GlobalIds#GID_NUMBER}.
+     * @param propUpdater ignored, the sequences are advanced by {@link PosixIdAllocator}.
+     * @return Configuration entity containing the values taken.
+     * @deprecated the ids are leased from the config node by {@link PosixIdAllocator}, which every caller should use directly.
      */
-    public synchronized Configuration getIncrementReplacePosixIds(List<String> props, PropUpdater propUpdater ) throws CfgException
+    @Deprecated
+    public Configuration getIncrementReplacePosixIds(List<String> props, PropUpdater propUpdater ) throws CfgException
     {
-        String cfgName = Config.getInstance().getProperty( GlobalIds.CONFIG_REALM, "DEFAULT" );
-        org.apache.directory.fortress.core.model.Configuration inConfig;
+        Configuration outConfig = new Configuration();
+        outConfig.setName( getProperty( GlobalIds.CONFIG_REALM, "DEFAULT" ) );
         try
         {
-            ConfigMgr cfgMgr = ConfigMgrFactory.createInstance();
-            inConfig = cfgMgr.getIds( cfgName );
-            org.apache.directory.fortress.core.model.Configuration outConfig = new Configuration();
-            outConfig.setName( cfgName );
             for( String name : props )
             {
                 if( name.equals( GlobalIds.UID_NUMBER ) )
                 {
-                    outConfig.setUidNumber( propUpdater.newValue( inConfig.getUidNumber() ) );
+                    outConfig.setUidNumber( PosixIdAllocator.getInstance().nextUidNumber() );
                 }
                 if( name.equals( GlobalIds.GID_NUMBER ) )
                 {
-                    outConfig.setGidNumber( propUpdater.newValue( inConfig.getGidNumber() ) );
+                    outConfig.setGidNumber( PosixIdAllocator.getInstance().nextGidNumber() );
                 }
             }
-            cfgMgr.update( outConfig );
         }
         catch ( SecurityException se )
         {
             String error = "replaceProperty failed, exception=" + se.getMessage();
             throw new CfgRuntimeException( GlobalErrIds.FT_CONFIG_UPDATE_FAILED, error, se );
         }
-        return inConfig;
+        return outConfig;
     }
 }
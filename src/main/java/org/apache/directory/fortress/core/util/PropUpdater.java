@@ -21,7 +21,10 @@ package org.apache.directory.fortress.core.util;
 
 /**
  * This interface is used by DAO objects that are using the GID/UID config update utility.
+ *
+ * @deprecated no longer called, the ids are leased by {@link org.apache.directory.fortress.core.impl.PosixIdAllocator}.
  */
+@Deprecated
 public interface PropUpdater
 {
     String newValue(String value);
@@ -0,0 +1,48 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.util;
+
+
+/**
+ * Receives the results of a search one at a time, as they're read from the directory, so the caller never holds more than one
+ * result.  The next result isn't read until {@link #handle(Object)} returns, and the next page of results isn't requested from the
+ * server until the current one has been handled, so a slow handler slows the search rather than letting results pile up in memory.
+ * <pre>
+ * auditMgr.streamBinds( uAudit, null, bind -&gt;
+ * {
+ *     writer.println( bind.getReqDN() + "," + bind.getReqEnd() );
+ *     return true;
+ * } );
+ * </pre>
+ * Handlers are called on the thread that started the search.
+ *
+ * @param <T> type of the results.
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public interface ResultHandler<T>
+{
+    /**
+     * Process one result.  Returning false abandons the search, any results not yet read are discarded.
+     *
+     * @param result contains the entity unloaded from the directory.
+     * @return boolean value, true to continue with the next result.
+     */
+    boolean handle( T result );
+}
@@ -20,6 +20,8 @@
 package org.apache.directory.fortress.core.util.cache;
 
 
+import java.util.Map;
+
 import net.sf.ehcache.search.Attribute;
 import net.sf.ehcache.search.Query;
 
@@ -70,7 +72,28 @@ public interface Cache
 
 
     /**
-     * Retrieve the Cache attribute
+     * Find the entries whose search attributes match every one of the criteria.  A criterion's value is either the value the
+     * attribute must equal or a {@link java.util.Collection} of values, any one of which it may equal.  The search attributes are
+     * declared on the cache's entry in the ehcache config file.
+     *
+     * @param criteria maps the name of a search attribute to the value or values it must match.
+     * @return map containing the keys and values of the matching entries, empty if none.
+     * @throws CacheException will wraps the implementation's exception.
+     */
+    Map<Object, Object> search( Map<String, Object> criteria ) throws CacheException;
+
+
+    /**
+     * Return the counters for this cache.
+     *
+     * @return snapshot of the current counters.
+     * @throws CacheException in the event the cache isn't there.
+     */
+    CacheStats getStats() throws CacheException;
+
+
+    /**
+     * Retrieve the Cache attribute.  Only supported by {@link EhCacheImpl}, use {@link #search(Map)} instead.
      *
      * @param attributeName the name of search attribute
      * @param <T> the type of search attribute
@@ -81,7 +104,7 @@ public interface Cache
 
 
     /**
-     * Create a search query for the cache.
+     * Create a search query for the cache.  Only supported by {@link EhCacheImpl}, use {@link #search(Map)} instead.
      *
      * @return a new Query builder
      */
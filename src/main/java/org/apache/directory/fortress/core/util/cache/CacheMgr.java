@@ -19,10 +19,19 @@
  */
 package org.apache.directory.fortress.core.util.cache;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 import net.sf.ehcache.CacheManager;
 import net.sf.ehcache.Ehcache;
+import net.sf.ehcache.config.CacheConfiguration;
+import net.sf.ehcache.config.SearchAttribute;
 import net.sf.ehcache.constructs.blocking.BlockingCache;
 
+import org.apache.commons.lang.StringUtils;
 import org.apache.directory.fortress.core.CfgException;
 import org.apache.directory.fortress.core.CfgRuntimeException;
 import org.apache.directory.fortress.core.GlobalErrIds;
@@ -35,6 +44,13 @@ import org.slf4j.LoggerFactory;
 /**
  * This class is a facade and shields internal Fortress objects from specifics of the actual
  * cache implementation that is in use.
+ * <p>
+ * Caches are backed by <a href="http://ehcache.org//">Ehcache</a> unless named in fortress config param, 'cache.heap', e.g.
+ * <pre>
+ * cache.heap=fortress.ous,fortress.perms
+ * </pre>
+ * Those are backed by {@link HeapCacheImpl}, sized from the same entry in the ehcache config file.  The seconds before one of its
+ * entries is reloaded early, by the next caller that reads it, may be set with 'cache.heap.reload.' followed by the cache name, e.g. 'cache.heap.reload.fortress.perms=45'.
  *
  * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
  */
@@ -42,7 +58,11 @@ public final class CacheMgr
 {
     private static final Logger LOG = LoggerFactory.getLogger( CacheMgr.class.getName() );
     private static final String EHCACHE_CONFIG_FILE = "ehcache.config.file";
+    private static final String HEAP_CACHES = "cache.heap";
+    private static final String HEAP_RELOAD = "cache.heap.reload.";
     private CacheManager mEhCacheImpl;
+    private final Set<String> heapNames = new HashSet<>();
+    private final Map<String, Cache> heapCaches = new ConcurrentHashMap<>();
     
     private static volatile CacheMgr sINSTANCE = null;
     
@@ -83,6 +103,14 @@ public final class CacheMgr
             // 2. Requires location of ehcache's config file as parameter.
             // 3. The CacheManager reference then gets stored as member variable of this class instance.
             mEhCacheImpl = new CacheManager( ClassUtil.resourceAsStream( cacheConfig ) );
+            String heapCaches = Config.getInstance().getProperty( HEAP_CACHES );
+            if ( StringUtils.isNotEmpty( heapCaches ) )
+            {
+                for ( String heapName : StringUtils.split( heapCaches, ',' ) )
+                {
+                    heapNames.add( heapName.trim() );
+                }
+            }
         }
         catch(CfgException ce)
         {
@@ -115,6 +143,10 @@ public final class CacheMgr
      */
     public Cache getCache( String cacheName )
     {
+        if ( heapNames.contains( cacheName ) )
+        {
+            return heapCaches.computeIfAbsent( cacheName, this::createHeapCache );
+        }
         Ehcache cache = mEhCacheImpl.getEhcache( cacheName );
         if(cache != null)
         {
@@ -133,5 +165,38 @@ public final class CacheMgr
     public void clearAll()
     {
         mEhCacheImpl.clearAll();
+        for ( Cache cache : heapCaches.values() )
+        {
+            cache.flush();
+        }
+    }
+
+
+    /**
+     * Create the single heap backed instance of a cache using the settings of its entry in the ehcache config file.
+     *
+     * @param cacheName contains the name of the cache to create.
+     * @return reference to cache for specified object.
+     */
+    private Cache createHeapCache( String cacheName )
+    {
+        Ehcache cache = mEhCacheImpl.getEhcache( cacheName );
+        if ( cache == null )
+        {
+            String error = "createHeapCache cache: " + cacheName + " is null";
+            throw new CfgRuntimeException( GlobalErrIds.FT_CACHE_NOT_CONFIGURED, error );
+        }
+        CacheConfiguration config = cache.getCacheConfiguration();
+        Map<String, String> searchAttributes = new HashMap<>();
+        if ( config.getSearchable() != null )
+        {
+            for ( SearchAttribute attribute : config.getSearchable().getSearchAttributes().values() )
+            {
+                searchAttributes.put( attribute.getName(), attribute.getExpression() );
+            }
+        }
+        long timeToLive = config.isEternal() ? 0 : config.getTimeToLiveSeconds();
+        int reload = Config.getInstance().getInt( HEAP_RELOAD + cacheName, 0 );
+        return new HeapCacheImpl( cacheName, config.getMaxEntriesLocalHeap(), timeToLive, reload, searchAttributes );
     }
 }
@@ -0,0 +1,145 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.util.cache;
+
+
+/**
+ * Point in time counters of a {@link Cache}, returned by {@link Cache#getStats()}.  Counts accumulate from when the cache was
+ * created.  Counters an implementation doesn't track are returned as zero.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public final class CacheStats
+{
+    private final String name;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long rejections;
+    private final long reloads;
+    private final long size;
+
+
+    /**
+     * @param name       of the cache.
+     * @param hits       number of gets that returned a value.
+     * @param misses     number of gets that returned null.
+     * @param evictions  number of entries removed to stay within the size bound.
+     * @param rejections number of puts that were not admitted because the entry was less frequently used than the one it would replace.
+     * @param reloads    number of gets that were handed a miss so the caller reloads an entry that other callers still read.
+     * @param size       number of entries currently held.
+     */
+    public CacheStats( String name, long hits, long misses, long evictions, long rejections, long reloads, long size )
+    {
+        this.name = name;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.rejections = rejections;
+        this.reloads = reloads;
+        this.size = size;
+    }
+
+
+    /**
+     * @return name of the cache.
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+
+    /**
+     * @return number of gets that returned a value.
+     */
+    public long getHits()
+    {
+        return hits;
+    }
+
+
+    /**
+     * @return number of gets that returned null.
+     */
+    public long getMisses()
+    {
+        return misses;
+    }
+
+
+    /**
+     * @return number of entries removed to stay within the size bound.
+     */
+    public long getEvictions()
+    {
+        return evictions;
+    }
+
+
+    /**
+     * @return number of puts that were not admitted.
+     */
+    public long getRejections()
+    {
+        return rejections;
+    }
+
+
+    /**
+     * @return number of gets that were handed a miss to reload an entry before it expired.
+     */
+    public long getReloads()
+    {
+        return reloads;
+    }
+
+
+    /**
+     * @return number of entries currently held.
+     */
+    public long getSize()
+    {
+        return size;
+    }
+
+
+    /**
+     * Ratio of hits to gets.
+     *
+     * @return value between 0 and 1, or 0 if there haven't been any gets.
+     */
+    public double getHitRatio()
+    {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : ( double ) hits / requests;
+    }
+
+
+    /**
+     * @see Object#toString()
+     */
+    @Override
+    public String toString()
+    {
+        return "CacheStats name=" + name + ", hits=" + hits + ", misses=" + misses + ", evictions=" + evictions
+            + ", rejections=" + rejections + ", reloads=" + reloads + ", size=" + size;
+    }
+}
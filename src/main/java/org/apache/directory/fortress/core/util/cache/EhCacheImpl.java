@@ -20,11 +20,18 @@
 package org.apache.directory.fortress.core.util.cache;
 
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
 import net.sf.ehcache.Element;
 import net.sf.ehcache.constructs.blocking.BlockingCache;
 import net.sf.ehcache.constructs.blocking.LockTimeoutException;
 import net.sf.ehcache.search.Attribute;
 import net.sf.ehcache.search.Query;
+import net.sf.ehcache.search.Result;
+import net.sf.ehcache.search.expression.Criteria;
+import net.sf.ehcache.statistics.StatisticsGateway;
 
 import org.apache.directory.fortress.core.CfgRuntimeException;
 import org.apache.directory.fortress.core.GlobalErrIds;
@@ -188,6 +195,75 @@ public class EhCacheImpl implements Cache
     }
 
 
+    /**
+     * Find the entries whose search attributes match every one of the criteria, using an ehcache {@link Query}.
+     *
+     * @param criteria maps the name of a search attribute to the value or values it must match.
+     * @return map containing the keys and values of the matching entries, empty if none.
+     * @throws CacheException in the event ehcache throws an exception it will be wrapped.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<Object, Object> search( Map<String, Object> criteria ) throws CacheException
+    {
+        if ( cache == null )
+        {
+            String error = "search detected null cache name [" + name + "]";
+            throw new CacheException( GlobalErrIds.FT_NULL_CACHE, error );
+        }
+        try
+        {
+            Criteria where = null;
+            for ( Map.Entry<String, Object> criterion : criteria.entrySet() )
+            {
+                Attribute<Object> attribute = cache.getSearchAttribute( criterion.getKey() );
+                Criteria next = criterion.getValue() instanceof Collection ? attribute.in(
+                    ( Collection<Object> ) criterion.getValue() ) : attribute.eq( criterion.getValue() );
+                where = where == null ? next : where.and( next );
+            }
+            Query query = cache.createQuery();
+            query.includeKeys();
+            query.includeValues();
+            if ( where != null )
+            {
+                query.addCriteria( where );
+            }
+            Map<Object, Object> matches = new HashMap<>();
+            for ( Result result : query.execute().all() )
+            {
+                matches.put( result.getKey(), result.getValue() );
+            }
+            return matches;
+        }
+        catch ( net.sf.ehcache.CacheException ce )
+        {
+            String error = "search cache name [" + name + "] criteria " + criteria + " caught CacheException="
+                + ce.getMessage();
+            throw new CacheException( GlobalErrIds.FT_CACHE_SEARCH_ERR, error, ce );
+        }
+    }
+
+
+    /**
+     * Return the counters kept by ehcache for this cache.  Ehcache doesn't reject or reload entries early so those are zero.
+     *
+     * @return snapshot of the current counters.
+     * @throws CacheException in the event the cache is null.
+     */
+    @Override
+    public CacheStats getStats() throws CacheException
+    {
+        if ( cache == null )
+        {
+            String error = "getStats detected null cache name [" + name + "]";
+            throw new CacheException( GlobalErrIds.FT_NULL_CACHE, error );
+        }
+        StatisticsGateway statistics = cache.getStatistics();
+        return new CacheStats( name, statistics.cacheHitCount(), statistics.cacheMissCount(),
+            statistics.cacheEvictedCount(), 0, 0, statistics.getSize() );
+    }
+
+
     /**
      * Retrieve the Cache attribute
      *
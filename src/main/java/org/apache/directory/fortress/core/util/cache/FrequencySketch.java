@@ -0,0 +1,136 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.util.cache;
+
+
+/**
+ * Approximate, aging count of how often keys have been requested, used by {@link HeapCacheImpl} to decide whether a new entry is
+ * worth more than the one it would evict.  This is the TinyLFU admission filter: a count-min sketch of four bit counters, four
+ * per key, that are all halved once the number of increments reaches ten times the capacity of the cache, so old popularity fades.
+ * <p>
+ * Updates aren't atomic.  Increments that race with one another may be lost, which only makes an estimate lower than it should be.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class FrequencySketch
+{
+    private static final long[] SEEDS = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL,
+        0xcbf29ce484222325L };
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    // each long holds sixteen counters of four bits:
+    private final long[] table;
+    private final int counterMask;
+    private final int sampleSize;
+    private int additions;
+
+
+    /**
+     * @param capacity maximum number of entries held by the cache.
+     */
+    FrequencySketch( long capacity )
+    {
+        int counters = ceilingPowerOfTwo( ( int ) Math.min( Math.max( capacity, 16 ), 1 << 28 ) );
+        table = new long[Math.max( counters >>> 2, 1 )];
+        counterMask = ( table.length << 4 ) - 1;
+        sampleSize = ( int ) Math.min( 10L * capacity, Integer.MAX_VALUE );
+    }
+
+
+    /**
+     * Record a request for a key.
+     *
+     * @param hashCode of the key.
+     */
+    void increment( int hashCode )
+    {
+        int hash = spread( hashCode );
+        boolean isAdded = false;
+        for ( int depth = 0; depth < SEEDS.length; depth++ )
+        {
+            int counter = indexOf( hash, depth );
+            int index = counter >>> 4;
+            int offset = ( counter & 15 ) << 2;
+            if ( ( ( table[index] >>> offset ) & 0xfL ) != 0xfL )
+            {
+                table[index] += 1L << offset;
+                isAdded = true;
+            }
+        }
+        if ( isAdded && ++additions >= sampleSize )
+        {
+            reset();
+        }
+    }
+
+
+    /**
+     * Return the estimated number of times the key was requested, capped at fifteen.
+     *
+     * @param hashCode of the key.
+     * @return int value between 0 and 15.
+     */
+    int frequency( int hashCode )
+    {
+        int hash = spread( hashCode );
+        int frequency = Integer.MAX_VALUE;
+        for ( int depth = 0; depth < SEEDS.length; depth++ )
+        {
+            int counter = indexOf( hash, depth );
+            int count = ( int ) ( ( table[counter >>> 4] >>> ( ( counter & 15 ) << 2 ) ) & 0xfL );
+            frequency = Math.min( frequency, count );
+        }
+        return frequency;
+    }
+
+
+    /**
+     * Halve every counter.
+     */
+    private void reset()
+    {
+        for ( int i = 0; i < table.length; i++ )
+        {
+            table[i] = ( table[i] >>> 1 ) & RESET_MASK;
+        }
+        additions = additions >>> 1;
+    }
+
+
+    private int indexOf( int hash, int depth )
+    {
+        long value = ( hash + SEEDS[depth] ) * SEEDS[depth];
+        value += value >>> 32;
+        return ( int ) value & counterMask;
+    }
+
+
+    private static int spread( int hashCode )
+    {
+        int hash = hashCode * 0x9e3779b9;
+        return hash ^ ( hash >>> 16 );
+    }
+
+
+    private static int ceilingPowerOfTwo( int value )
+    {
+        return 1 << -Integer.numberOfLeadingZeros( value - 1 );
+    }
+}
@@ -0,0 +1,557 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.util.cache;
+
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import net.sf.ehcache.search.Attribute;
+import net.sf.ehcache.search.Query;
+
+import org.apache.directory.fortress.core.CfgRuntimeException;
+import org.apache.directory.fortress.core.GlobalErrIds;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * This class provides cache functionality held entirely on the java heap, as an alternative to {@link EhCacheImpl} for caches
+ * that are read far more often than they are written.
+ * <ol>
+ * <li>Reads don't lock.  Unlike the ehcache {@code BlockingCache}, a miss doesn't hold up other readers of the same key.</li>
+ * <li>Once the cache is full, a new entry is only admitted if it has been requested more often than the oldest entry, as estimated by
+ * a {@link FrequencySketch}.  Otherwise the oldest entry is given a second chance and the new one is dropped.</li>
+ * <li>Entries expire once they are older than the time to live.  If a reload interval is set, the first get of an entry older than
+ * that is handed a miss so its caller reloads and puts it, while every other caller keeps reading the current value.  The reload is
+ * done synchronously by that caller, there's no background refresh.</li>
+ * <li>Search attributes are kept in hash indexes, maintained on every put, that {@link #search(Map)} intersects.</li>
+ * </ol>
+ * Sizing, time to live and search attributes are read from the cache's entry in the ehcache config file, see {@link CacheMgr}.
+ * The time to idle is not used.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class HeapCacheImpl implements Cache
+{
+    private static final String CLS_NM = HeapCacheImpl.class.getName();
+    private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
+    private static final String VALUE_PREFIX = "value.";
+    private static final String METHOD_SUFFIX = "()";
+
+    private final String name;
+    private final long maxEntries;
+    private final long timeToLive;
+    private final long reloadInterval;
+    private final ConcurrentMap<Object, Node> data = new ConcurrentHashMap<>();
+    // write order of the keys, oldest first, guarded by the lock:
+    private final Set<Object> order = new LinkedHashSet<>();
+    private final Object lock = new Object();
+    private final FrequencySketch sketch;
+    // search attribute names, the getter called on the value to obtain each one, and each one's index:
+    private final String[] attributeNames;
+    private final String[] getterNames;
+    private final List<ConcurrentMap<Object, Set<Object>>> indexes = new ArrayList<>();
+    private final ConcurrentMap<Class<?>, Method[]> getters = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong rejections = new AtomicLong();
+    private final LongAdder reloads = new LongAdder();
+
+
+    /**
+     * Create an instance of a heap cache.
+     *
+     * @param name              name for the cache instance.
+     * @param maxEntries        maximum number of entries held, 0 for no limit.
+     * @param timeToLiveSeconds seconds before an entry expires, 0 if they never do.
+     * @param reloadSeconds     seconds before the next caller reloads an entry, 0 if they aren't reloaded early.
+     * @param searchAttributes  maps the name of each search attribute to its ehcache expression, e.g. {@code value.getMember()}.
+     */
+    HeapCacheImpl( String name, long maxEntries, long timeToLiveSeconds, long reloadSeconds,
+        Map<String, String> searchAttributes )
+    {
+        this.name = name;
+        this.maxEntries = maxEntries;
+        this.timeToLive = timeToLiveSeconds * 1000;
+        this.reloadInterval = reloadSeconds * 1000;
+        this.sketch = new FrequencySketch( maxEntries > 0 ? maxEntries : 1024 );
+        this.attributeNames = new String[searchAttributes.size()];
+        this.getterNames = new String[searchAttributes.size()];
+        int i = 0;
+        for ( Map.Entry<String, String> attribute : searchAttributes.entrySet() )
+        {
+            String expression = attribute.getValue();
+            if ( expression == null || !expression.startsWith( VALUE_PREFIX ) || !expression.endsWith( METHOD_SUFFIX ) )
+            {
+                String error = "constructor cache: " + name + " search attribute: " + attribute.getKey()
+                    + " has unsupported expression: " + expression;
+                throw new CfgRuntimeException( GlobalErrIds.FT_CACHE_NOT_CONFIGURED, error );
+            }
+            attributeNames[i] = attribute.getKey();
+            getterNames[i] = expression.substring( VALUE_PREFIX.length(), expression.length() - METHOD_SUFFIX.length() );
+            indexes.add( new ConcurrentHashMap<>() );
+            i++;
+        }
+        LOG.info( "HeapCacheImpl name={}, maxEntries={}, timeToLiveSeconds={}, reloadSeconds={}, searchAttributes={}",
+            name, maxEntries, timeToLiveSeconds, reloadSeconds, searchAttributes.keySet() );
+    }
+
+
+    /**
+     * Given a key name, return the corresponding value.
+     *
+     * @param key is the name used to store the entry.
+     * @return entry stored in the cache, or null if not found, expired or due to be reloaded by this caller.
+     * @throws CacheException in the event the key is null.
+     */
+    @Override
+    public Object get( Object key ) throws CacheException
+    {
+        if ( key == null )
+        {
+            String error = "get cache name [" + name + "] detected null key";
+            throw new CacheException( GlobalErrIds.FT_CACHE_GET_ERR, error );
+        }
+        sketch.increment( key.hashCode() );
+        Node node = data.get( key );
+        long now = System.currentTimeMillis();
+        if ( node == null || isExpired( node, now ) )
+        {
+            if ( node != null )
+            {
+                remove( key, node );
+            }
+            misses.increment();
+            return null;
+        }
+        if ( reloadInterval > 0 && node.claimReload( now, reloadInterval ) )
+        {
+            reloads.increment();
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return node.value;
+    }
+
+
+    /**
+     * Add a new entry to the cache.  A null value removes the entry.
+     *
+     * @param key name to be used for the entry.
+     * @param value object that is stored.
+     * @throws CacheException in the event the key is null or a search attribute can't be read from the value.
+     */
+    @Override
+    public void put( Object key, Object value ) throws CacheException
+    {
+        if ( key == null )
+        {
+            String error = "put cache name [" + name + "] detected null key";
+            throw new CacheException( GlobalErrIds.FT_CACHE_PUT_ERR, error );
+        }
+        if ( value == null )
+        {
+            clear( key );
+            return;
+        }
+        Node node = new Node( value, getAttributes( value ), System.currentTimeMillis(), reloadInterval );
+        synchronized ( lock )
+        {
+            Node prior = data.get( key );
+            if ( prior == null && maxEntries > 0 && data.size() >= maxEntries && !makeRoom( key ) )
+            {
+                rejections.incrementAndGet();
+                return;
+            }
+            if ( prior != null )
+            {
+                unindex( key, prior );
+                order.remove( key );
+            }
+            data.put( key, node );
+            order.add( key );
+            index( key, node );
+        }
+    }
+
+
+    /**
+     * Clear a cache entry for a given name.
+     *
+     * @param key name that entry is stored as.
+     * @return boolean value will be false if entry not found and true if entry was found and removed.
+     * @throws CacheException in the event the key is null.
+     */
+    @Override
+    public boolean clear( Object key ) throws CacheException
+    {
+        if ( key == null )
+        {
+            String error = "clear cache name [" + name + "] detected null key";
+            throw new CacheException( GlobalErrIds.FT_CACHE_CLEAR_ERR, error );
+        }
+        synchronized ( lock )
+        {
+            Node node = data.remove( key );
+            if ( node != null )
+            {
+                order.remove( key );
+                unindex( key, node );
+                return true;
+            }
+            return false;
+        }
+    }
+
+
+    /**
+     * Remove all entries from this cache.
+     *
+     * @throws CacheException not thrown by this implementation.
+     */
+    @Override
+    public void flush() throws CacheException
+    {
+        synchronized ( lock )
+        {
+            data.clear();
+            order.clear();
+            for ( ConcurrentMap<Object, Set<Object>> index : indexes )
+            {
+                index.clear();
+            }
+        }
+    }
+
+
+    /**
+     * Find the entries whose search attributes match every one of the criteria.  The keys of the criterion with the fewest
+     * matches are taken from its hash index and the others are checked against each of those entries.
+     *
+     * @param criteria maps the name of a search attribute to the value or values it must match.
+     * @return map containing the keys and values of the matching entries, empty if none.
+     * @throws CacheException in the event a criterion names an attribute that isn't searchable.
+     */
+    @Override
+    public Map<Object, Object> search( Map<String, Object> criteria ) throws CacheException
+    {
+        Map<Object, Object> matches = new HashMap<>();
+        int[] positions = new int[criteria.size()];
+        Collection<?>[] values = new Collection<?>[criteria.size()];
+        int i = 0;
+        for ( Map.Entry<String, Object> criterion : criteria.entrySet() )
+        {
+            positions[i] = positionOf( criterion.getKey() );
+            values[i] = criterion.getValue() instanceof Collection ? ( Collection<?> ) criterion.getValue()
+                : Collections.singleton( criterion.getValue() );
+            i++;
+        }
+        // the most selective criterion picks the candidates, the others are checked against each one:
+        Set<Object> candidates = data.keySet();
+        int selected = -1;
+        for ( i = 0; i < positions.length; i++ )
+        {
+            Set<Object> keys = lookup( positions[i], values[i] );
+            if ( selected == -1 || keys.size() < candidates.size() )
+            {
+                candidates = keys;
+                selected = i;
+            }
+        }
+        long now = System.currentTimeMillis();
+        for ( Object key : candidates )
+        {
+            Node node = data.get( key );
+            if ( node != null && !isExpired( node, now ) && isMatch( node, positions, values, selected ) )
+            {
+                matches.put( key, node.value );
+            }
+        }
+        return matches;
+    }
+
+
+    /**
+     * Return the counters for this cache.
+     *
+     * @return snapshot of the current counters.
+     */
+    @Override
+    public CacheStats getStats()
+    {
+        return new CacheStats( name, hits.sum(), misses.sum(), evictions.get(), rejections.get(), reloads.sum(),
+            data.size() );
+    }
+
+
+    /**
+     * Not supported by this implementation, use {@link #search(Map)}.
+     *
+     * @throws CacheException always.
+     */
+    @Override
+    public <T> Attribute<T> getSearchAttribute( String attributeName ) throws CacheException
+    {
+        String error = "getSearchAttribute cache name [" + name + "] not supported, use search";
+        throw new CacheException( GlobalErrIds.FT_CACHE_SEARCH_ERR, error );
+    }
+
+
+    /**
+     * Not supported by this implementation, use {@link #search(Map)}.
+     *
+     * @throws CacheException always.
+     */
+    @Override
+    public Query createQuery()
+    {
+        String error = "createQuery cache name [" + name + "] not supported, use search";
+        throw new CacheException( GlobalErrIds.FT_CACHE_SEARCH_ERR, error );
+    }
+
+
+    /**
+     * Evict the oldest entry if the candidate is estimated to be requested more often, otherwise move it to the back of the line.
+     * Called with the lock held.
+     *
+     * @return boolean value, true if there is room for the candidate.
+     */
+    private boolean makeRoom( Object candidate )
+    {
+        Iterator<Object> keys = order.iterator();
+        while ( keys.hasNext() )
+        {
+            Object victim = keys.next();
+            keys.remove();
+            Node node = data.get( victim );
+            if ( node == null )
+            {
+                continue;
+            }
+            if ( isExpired( node, System.currentTimeMillis() )
+                || sketch.frequency( candidate.hashCode() ) > sketch.frequency( victim.hashCode() ) )
+            {
+                data.remove( victim );
+                unindex( victim, node );
+                evictions.incrementAndGet();
+                return true;
+            }
+            order.add( victim );
+            return false;
+        }
+        return true;
+    }
+
+
+    private void remove( Object key, Node node )
+    {
+        synchronized ( lock )
+        {
+            if ( data.remove( key, node ) )
+            {
+                order.remove( key );
+                unindex( key, node );
+            }
+        }
+    }
+
+
+    private boolean isExpired( Node node, long now )
+    {
+        return timeToLive > 0 && now - node.writeTime >= timeToLive;
+    }
+
+
+    private boolean isMatch( Node node, int[] positions, Collection<?>[] values, int selected )
+    {
+        for ( int i = 0; i < positions.length; i++ )
+        {
+            if ( i != selected && !values[i].contains( node.attributes[positions[i]] ) )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    private Set<Object> lookup( int position, Collection<?> values )
+    {
+        ConcurrentMap<Object, Set<Object>> index = indexes.get( position );
+        if ( values.size() == 1 )
+        {
+            Set<Object> keys = index.get( values.iterator().next() );
+            return keys != null ? keys : Collections.emptySet();
+        }
+        Set<Object> keys = new LinkedHashSet<>();
+        for ( Object value : values )
+        {
+            Set<Object> matched = index.get( value );
+            if ( matched != null )
+            {
+                keys.addAll( matched );
+            }
+        }
+        return keys;
+    }
+
+
+    private int positionOf( String attributeName )
+    {
+        for ( int i = 0; i < attributeNames.length; i++ )
+        {
+            if ( attributeNames[i].equals( attributeName ) )
+            {
+                return i;
+            }
+        }
+        String error = "search cache name [" + name + "] attribute [" + attributeName + "] is not searchable";
+        throw new CacheException( GlobalErrIds.FT_CACHE_SEARCH_ERR, error );
+    }
+
+
+    private void index( Object key, Node node )
+    {
+        for ( int i = 0; i < node.attributes.length; i++ )
+        {
+            if ( node.attributes[i] != null )
+            {
+                indexes.get( i ).computeIfAbsent( node.attributes[i], v -> ConcurrentHashMap.newKeySet() ).add( key );
+            }
+        }
+    }
+
+
+    private void unindex( Object key, Node node )
+    {
+        for ( int i = 0; i < node.attributes.length; i++ )
+        {
+            if ( node.attributes[i] != null )
+            {
+                Set<Object> keys = indexes.get( i ).get( node.attributes[i] );
+                if ( keys != null )
+                {
+                    keys.remove( key );
+                    if ( keys.isEmpty() )
+                    {
+                        indexes.get( i ).remove( node.attributes[i] );
+                    }
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Read the search attributes from a value.  The getters are looked up once per value class.
+     */
+    private Object[] getAttributes( Object value )
+    {
+        if ( getterNames.length == 0 )
+        {
+            return Node.NONE;
+        }
+        Method[] methods = getters.computeIfAbsent( value.getClass(), this::findGetters );
+        Object[] attributes = new Object[methods.length];
+        try
+        {
+            for ( int i = 0; i < methods.length; i++ )
+            {
+                attributes[i] = methods[i].invoke( value );
+            }
+        }
+        catch ( ReflectiveOperationException e )
+        {
+            String error = "put cache name [" + name + "] could not read search attributes from " + value.getClass()
+                + " caught " + e;
+            throw new CacheException( GlobalErrIds.FT_CACHE_PUT_ERR, error, e );
+        }
+        return attributes;
+    }
+
+
+    private Method[] findGetters( Class<?> valueClass )
+    {
+        Method[] methods = new Method[getterNames.length];
+        for ( int i = 0; i < getterNames.length; i++ )
+        {
+            try
+            {
+                methods[i] = valueClass.getMethod( getterNames[i] );
+            }
+            catch ( NoSuchMethodException e )
+            {
+                String error = "put cache name [" + name + "] value " + valueClass + " has no method " + getterNames[i];
+                throw new CacheException( GlobalErrIds.FT_CACHE_PUT_ERR, error, e );
+            }
+        }
+        return methods;
+    }
+
+
+    /**
+     * A value along with its search attributes and the times it was written and is next due to be reloaded.
+     */
+    private static final class Node
+    {
+        private static final Object[] NONE = new Object[0];
+
+        private final Object value;
+        private final Object[] attributes;
+        private final long writeTime;
+        private final AtomicLong reloadTime;
+
+
+        private Node( Object value, Object[] attributes, long writeTime, long reloadInterval )
+        {
+            this.value = value;
+            this.attributes = attributes;
+            this.writeTime = writeTime;
+            this.reloadTime = new AtomicLong( writeTime + reloadInterval );
+        }
+
+
+        /**
+         * Only one caller per interval is handed the miss.
+         */
+        private boolean claimReload( long now, long reloadInterval )
+        {
+            long due = reloadTime.get();
+            return now >= due && reloadTime.compareAndSet( due, now + reloadInterval );
+        }
+    }
+}
@@ -765,6 +765,8 @@ public class AccessMgrImplTest extends TestCase
                 User user = UserTestData.getUser( usr );
                 Session session = accessMgr.createSession( user, false );
                 assertNotNull( session );
+                // Same checks are repeated in a single call at the end:
+                List<Permission> bulkPerms = new ArrayList<>();
                 int i = 0;
                 for ( String[] obj : oArray )
                 {
@@ -792,6 +794,7 @@ public class AccessMgrImplTest extends TestCase
                         assertTrue( CLS_NM + ".checkAccess failed userId [" + user.getUserId() + "] Perm objName [" +
                                 PermTestData.getName( obj ) + "] operationName [" + PermTestData.getName( op ) + "]",
                             accessMgr.checkAccess( session, goodPerm ) );
+                        bulkPerms.add( goodPerm );
                         Permission badPerm;
                         if( StringUtils.isNotEmpty( PermTestData.getObjId( opArrayBad[j] ) ) )
                         {
@@ -813,10 +816,19 @@ public class AccessMgrImplTest extends TestCase
                         assertFalse( CLS_NM + ".checkAccess failed userId [" + user.getUserId() + "] Perm objName [" +
                             PermTestData.getName( oArrayBad[i] ) + "] operationName [" + PermTestData.getName(
                             opArrayBad[j] ) + "]", accessMgr.checkAccess( session, badPerm ) );
+                        bulkPerms.add( badPerm );
                         j++;
                     }
                     i++;
                 }
+                boolean[] results = accessMgr.checkAccess( session, bulkPerms );
+                assertEquals( CLS_NM + ".checkAccess bulk result size", bulkPerms.size(), results.length );
+                for ( int k = 0; k < results.length; k++ )
+                {
+                    // good and bad permissions were added in turn:
+                    assertEquals( CLS_NM + ".checkAccess bulk failed userId [" + user.getUserId() + "] Perm [" +
+                        bulkPerms.get( k ) + "]", k % 2 == 0, results[k] );
+                }
             }
             LOG.debug( "checkAccess successful" );
         }
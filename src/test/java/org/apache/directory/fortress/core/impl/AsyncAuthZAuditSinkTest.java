@@ -0,0 +1,209 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+import java.io.File;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.directory.api.ldap.model.exception.LdapException;
+import org.apache.directory.api.ldap.model.exception.LdapInvalidDnException;
+import org.apache.directory.ldap.client.api.LdapConnection;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+/**
+ * Drives {@link AsyncAuthZAuditSink} one step at a time with the ldap compare replaced by a fake.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class AsyncAuthZAuditSinkTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+
+    /**
+     * Records the compares instead of sending them.  While down, no connection can be borrowed, and a permDn of 'bad' is
+     * rejected the way the server rejects a malformed dn.
+     */
+    private static class FakeSink extends AsyncAuthZAuditSink
+    {
+        private volatile boolean isDown;
+        private final List<String> compared = new ArrayList<>();
+
+
+        private FakeSink( int queueSize, AsyncAuthZAuditSink.Overflow overflow, File spillFile, long maxSpillSize,
+            int maxAttempts )
+        {
+            super( queueSize, 10, overflow, spillFile, maxSpillSize, maxAttempts );
+        }
+
+
+        @Override
+        LdapConnection borrow() throws LdapException
+        {
+            if ( isDown )
+            {
+                throw new LdapException( "down" );
+            }
+            return null;
+        }
+
+
+        @Override
+        void release( LdapConnection ld )
+        {
+        }
+
+
+        @Override
+        void compare( LdapConnection ld, AuditEvent event ) throws LdapException, UnsupportedEncodingException
+        {
+            if ( "bad".equals( event.permDn ) )
+            {
+                throw new LdapInvalidDnException( "bad" );
+            }
+            compared.add( event.permDn );
+        }
+    }
+
+
+    private FakeSink sink( int queueSize, AsyncAuthZAuditSink.Overflow overflow, long maxSpillSize, int maxAttempts )
+        throws Exception
+    {
+        return new FakeSink( queueSize, overflow, new File( folder.getRoot(), "audit.spill" ), maxSpillSize, maxAttempts );
+    }
+
+
+    @Test
+    public void testDrop() throws Exception
+    {
+        FakeSink sink = sink( 1, AsyncAuthZAuditSink.Overflow.DROP, Long.MAX_VALUE, 10 );
+        sink.audit( "p1", "u1", "op" );
+        sink.audit( "p2", "u1", "op" );
+        assertEquals( 1, sink.getDropped() );
+
+        sink.step( 0 );
+        assertEquals( 1, sink.getWritten() );
+        assertEquals( "[p1]", sink.compared.toString() );
+    }
+
+
+    @Test
+    public void testBlock() throws Exception
+    {
+        FakeSink sink = sink( 1, AsyncAuthZAuditSink.Overflow.BLOCK, Long.MAX_VALUE, 10 );
+        sink.audit( "p1", "u1", "op" );
+        Thread caller = new Thread( () -> sink.audit( "p2", "u1", "op" ) );
+        caller.start();
+        caller.join( 200 );
+        assertTrue( "caller should wait for room on the queue", caller.isAlive() );
+
+        sink.step( 0 );
+        caller.join( 5000 );
+        assertFalse( caller.isAlive() );
+        sink.step( 0 );
+        assertEquals( 2, sink.getWritten() );
+        assertEquals( 0, sink.getDropped() );
+    }
+
+
+    @Test
+    public void testSpillAndReplay() throws Exception
+    {
+        FakeSink sink = sink( 1, AsyncAuthZAuditSink.Overflow.SPILL, Long.MAX_VALUE, 10 );
+        sink.isDown = true;
+        sink.audit( "p1", "u1", "op" );
+        // queue is full:
+        sink.audit( "p2", "u1", "op" );
+        assertEquals( 1, sink.getSpilled() );
+
+        // connection fails:
+        sink.step( 0 );
+        assertEquals( 2, sink.getSpilled() );
+        assertEquals( 0, sink.getWritten() );
+
+        // queue is idle, the spill file is replayed:
+        sink.isDown = false;
+        sink.step( 0 );
+        assertEquals( 2, sink.getWritten() );
+        assertEquals( "[p2, p1]", sink.compared.toString() );
+        assertEquals( 0, sink.getDropped() );
+        assertFalse( new File( folder.getRoot(), "audit.spill.replay" ).exists() );
+
+        // nothing left to replay:
+        sink.step( 0 );
+        assertEquals( 2, sink.getWritten() );
+    }
+
+
+    @Test
+    public void testEventError() throws Exception
+    {
+        FakeSink sink = sink( 10, AsyncAuthZAuditSink.Overflow.SPILL, Long.MAX_VALUE, 10 );
+        sink.audit( "p1", "u1", "op" );
+        sink.audit( "bad", "u1", "op" );
+        sink.audit( "p3", "u1", "op" );
+
+        sink.step( 0 );
+        assertEquals( 2, sink.getWritten() );
+        assertEquals( 1, sink.getFailed() );
+        assertEquals( 0, sink.getSpilled() );
+        assertEquals( "[p1, p3]", sink.compared.toString() );
+    }
+
+
+    @Test
+    public void testReplayAttempts() throws Exception
+    {
+        FakeSink sink = sink( 10, AsyncAuthZAuditSink.Overflow.SPILL, Long.MAX_VALUE, 2 );
+        sink.isDown = true;
+        sink.audit( "p1", "u1", "op" );
+
+        sink.step( 0 );
+        assertEquals( 1, sink.getSpilled() );
+        // first replay fails and is spilled again, the second is the last allowed:
+        sink.step( 0 );
+        assertEquals( 2, sink.getSpilled() );
+        sink.step( 0 );
+        assertEquals( 1, sink.getDropped() );
+
+        sink.isDown = false;
+        sink.step( 0 );
+        assertEquals( 0, sink.getWritten() );
+    }
+
+
+    @Test
+    public void testSpillLimit() throws Exception
+    {
+        FakeSink sink = sink( 1, AsyncAuthZAuditSink.Overflow.SPILL, 1, 10 );
+        sink.audit( "p1", "u1", "op" );
+        sink.audit( "p2", "u1", "op" );
+        sink.audit( "p3", "u1", "op" );
+        assertEquals( 1, sink.getSpilled() );
+        assertEquals( 1, sink.getDropped() );
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+import java.util.BitSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.directory.fortress.core.model.Hier;
+import org.apache.directory.fortress.core.model.Relationship;
+import org.jgrapht.graph.SimpleDirectedGraph;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verifies the closure answers the same as a walk of the graph done by {@link HierUtil}.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class HierClosureTest
+{
+    /**
+     * A1 <- B1 <- C1, A1 <- B2, B2 <- C1, D1 standalone
+     */
+    private static SimpleDirectedGraph<String, Relationship> graph()
+    {
+        Hier hier = new Hier();
+        hier.setRelationship( new Relationship( "B1", "A1" ) );
+        hier.setRelationship( new Relationship( "B2", "A1" ) );
+        hier.setRelationship( new Relationship( "C1", "B1" ) );
+        hier.setRelationship( new Relationship( "C1", "B2" ) );
+        return HierUtil.buildGraph( hier );
+    }
+
+
+    private static Set<String> ascendants( HierClosure closure, String name )
+    {
+        BitSet bits = new BitSet();
+        closure.loadAscendants( name, bits );
+        Set<String> names = new TreeSet<>( String.CASE_INSENSITIVE_ORDER );
+        closure.loadNames( bits, names );
+        return names;
+    }
+
+
+    private static Set<String> descendants( HierClosure closure, String name )
+    {
+        BitSet bits = new BitSet();
+        closure.loadDescendants( name, bits );
+        Set<String> names = new TreeSet<>( String.CASE_INSENSITIVE_ORDER );
+        closure.loadNames( bits, names );
+        return names;
+    }
+
+
+    @Test
+    public void testBuild()
+    {
+        SimpleDirectedGraph<String, Relationship> graph = graph();
+        HierClosure closure = HierClosure.build( graph );
+        for ( String vertex : graph.vertexSet() )
+        {
+            assertEquals( vertex, HierUtil.getAscendants( vertex, graph ), ascendants( closure, vertex ) );
+            assertEquals( vertex, HierUtil.getDescendants( vertex, graph ), descendants( closure, vertex ) );
+        }
+        assertTrue( closure.isAscendant( "c1", "a1" ) );
+        assertFalse( closure.isAscendant( "a1", "c1" ) );
+        assertTrue( ascendants( closure, "unknown" ).isEmpty() );
+    }
+
+
+    @Test
+    public void testAddEdge() throws Exception
+    {
+        SimpleDirectedGraph<String, Relationship> graph = graph();
+        HierClosure closure = HierClosure.build( graph );
+
+        // attach a new root above A1 and a new leaf below C1:
+        Relationship[] edges = { new Relationship( "A1", "ROOT" ), new Relationship( "LEAF", "C1" ),
+            new Relationship( "D1", "B2" ) };
+        for ( Relationship edge : edges )
+        {
+            HierUtil.updateHier( graph, edge, Hier.Op.ADD );
+            closure = closure.addEdge( edge.getChild(), edge.getParent() );
+        }
+
+        HierClosure rebuilt = HierClosure.build( graph );
+        for ( String vertex : graph.vertexSet() )
+        {
+            assertEquals( vertex, ascendants( rebuilt, vertex ), ascendants( closure, vertex ) );
+            assertEquals( vertex, descendants( rebuilt, vertex ), descendants( closure, vertex ) );
+        }
+        assertTrue( closure.isAscendant( "LEAF", "ROOT" ) );
+    }
+
+
+    @Test
+    public void testAddEdgeIgnoresCase() throws Exception
+    {
+        SimpleDirectedGraph<String, Relationship> graph = graph();
+        HierClosure closure = HierClosure.build( graph );
+
+        // a new vertex, named in lower case, makes the closure copy its ids:
+        Relationship edge = new Relationship( "leaf", "c1" );
+        HierUtil.updateHier( graph, edge, Hier.Op.ADD );
+        closure = closure.addEdge( edge.getChild(), edge.getParent() );
+
+        assertTrue( closure.isAscendant( "leaf", "a1" ) );
+        assertTrue( closure.isAscendant( "Leaf", "B2" ) );
+        assertTrue( closure.isAscendant( "c1", "a1" ) );
+        assertEquals( HierUtil.getAscendants( "LEAF", graph ), ascendants( closure, "leaf" ) );
+        assertEquals( HierUtil.getDescendants( "A1", graph ), descendants( closure, "a1" ) );
+    }
+
+
+    @Test
+    public void testRemoveEdge() throws Exception
+    {
+        SimpleDirectedGraph<String, Relationship> graph = graph();
+        Relationship[] added = { new Relationship( "A1", "ROOT" ), new Relationship( "LEAF", "C1" ) };
+        for ( Relationship edge : added )
+        {
+            HierUtil.updateHier( graph, edge, Hier.Op.ADD );
+        }
+        HierClosure closure = HierClosure.build( graph );
+
+        // C1 keeps A1 through B2 after losing B1, then B2 loses A1 and with it ROOT for C1 and LEAF:
+        Relationship[] edges = { new Relationship( "C1", "B1" ), new Relationship( "B2", "A1" ), new Relationship( "A1", "ROOT" ) };
+        for ( Relationship edge : edges )
+        {
+            HierUtil.updateHier( graph, edge, Hier.Op.REM );
+            closure = closure.removeEdge( edge.getChild(), edge.getParent(), graph );
+
+            HierClosure rebuilt = HierClosure.build( graph );
+            for ( String vertex : graph.vertexSet() )
+            {
+                assertEquals( vertex, ascendants( rebuilt, vertex ), ascendants( closure, vertex ) );
+                assertEquals( vertex, descendants( rebuilt, vertex ), descendants( closure, vertex ) );
+            }
+        }
+        assertFalse( closure.isAscendant( "LEAF", "A1" ) );
+        assertTrue( closure.isAscendant( "B1", "A1" ) );
+    }
+}
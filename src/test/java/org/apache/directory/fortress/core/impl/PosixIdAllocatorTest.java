@@ -0,0 +1,219 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.directory.fortress.core.SecurityException;
+import org.apache.directory.fortress.core.UpdateException;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Drives the leases and retries of {@link PosixIdAllocator} against sequences held in memory in place of the config node.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class PosixIdAllocatorTest
+{
+    /**
+     * Keeps the sequences in a map.  Each replace that finds the value it expects succeeds unless a lost race has been queued up
+     * for it, in which case another process is made to win by moving the sequence on by 'stolen' ids first.
+     */
+    private static class FakeAllocator extends PosixIdAllocator
+    {
+        private final Map<String, Long> sequences = new HashMap<>();
+        private int races;
+        private int stolen;
+        private int replaces;
+
+
+        private FakeAllocator( long blockSize, long uidNumber, long gidNumber )
+        {
+            super( blockSize );
+            sequences.put( ConfigDAO.UID_NUMBER_SEQUENCE, uidNumber );
+            sequences.put( ConfigDAO.GID_NUMBER_SEQUENCE, gidNumber );
+        }
+
+
+        @Override
+        synchronized String read( String attribute )
+        {
+            return Long.toString( sequences.get( attribute ) );
+        }
+
+
+        @Override
+        synchronized boolean replace( String attribute, String value, String newValue )
+        {
+            replaces++;
+            if ( races > 0 )
+            {
+                races--;
+                sequences.put( attribute, sequences.get( attribute ) + stolen );
+                return false;
+            }
+            if ( sequences.get( attribute ) != Long.parseLong( value ) )
+            {
+                return false;
+            }
+            sequences.put( attribute, Long.parseLong( newValue ) );
+            return true;
+        }
+
+
+        private synchronized long get( String attribute )
+        {
+            return sequences.get( attribute );
+        }
+    }
+
+
+    @Test
+    public void testBlock() throws SecurityException
+    {
+        FakeAllocator allocator = new FakeAllocator( 3, 100, 500 );
+        assertEquals( "100", allocator.nextUidNumber() );
+        assertEquals( 103, allocator.get( ConfigDAO.UID_NUMBER_SEQUENCE ) );
+        assertEquals( "101", allocator.nextUidNumber() );
+        assertEquals( "102", allocator.nextUidNumber() );
+        assertEquals( 1, allocator.replaces );
+        assertEquals( "103", allocator.nextUidNumber() );
+        assertEquals( 2, allocator.replaces );
+        assertEquals( 106, allocator.get( ConfigDAO.UID_NUMBER_SEQUENCE ) );
+        // the gid sequence is leased on its own:
+        assertEquals( "500", allocator.nextGidNumber() );
+        assertEquals( 503, allocator.get( ConfigDAO.GID_NUMBER_SEQUENCE ) );
+    }
+
+
+    @Test
+    public void testLostRace() throws SecurityException
+    {
+        FakeAllocator allocator = new FakeAllocator( 10, 100, 500 );
+        allocator.races = 2;
+        allocator.stolen = 10;
+        // the two blocks taken by the winners are skipped:
+        assertEquals( "120", allocator.nextUidNumber() );
+        assertEquals( 3, allocator.replaces );
+        assertEquals( 130, allocator.get( ConfigDAO.UID_NUMBER_SEQUENCE ) );
+    }
+
+
+    @Test
+    public void testGiveUp() throws SecurityException
+    {
+        FakeAllocator allocator = new FakeAllocator( 1, 100, 500 );
+        allocator.races = Integer.MAX_VALUE;
+        allocator.stolen = 1;
+        try
+        {
+            allocator.nextUidNumber();
+            fail( "nextUidNumber leased an id it lost every race for" );
+        }
+        catch ( UpdateException e )
+        {
+            assertEquals( 10, allocator.replaces );
+        }
+        // a later call tries again:
+        allocator.races = 0;
+        assertEquals( "110", allocator.nextUidNumber() );
+    }
+
+
+    @Test
+    public void testAdvance() throws SecurityException
+    {
+        FakeAllocator allocator = new FakeAllocator( 10, 100, 500 );
+        assertEquals( "100", allocator.nextUidNumber() );
+        assertEquals( "500", allocator.nextGidNumber() );
+
+        // ids below the sequence are left alone, and so is a lease that's past them:
+        allocator.advance( 99, -1 );
+        assertEquals( 110, allocator.get( ConfigDAO.UID_NUMBER_SEQUENCE ) );
+        assertEquals( "101", allocator.nextUidNumber() );
+
+        // an id inside the lease drops it, even though the sequence is already past:
+        allocator.advance( 105, -1 );
+        assertEquals( 110, allocator.get( ConfigDAO.UID_NUMBER_SEQUENCE ) );
+        assertEquals( "110", allocator.nextUidNumber() );
+
+        // an id past the sequence moves it on:
+        allocator.advance( -1, 700 );
+        assertEquals( 701, allocator.get( ConfigDAO.GID_NUMBER_SEQUENCE ) );
+        assertEquals( "701", allocator.nextGidNumber() );
+    }
+
+
+    @Test
+    public void testAdvanceLostRace() throws SecurityException
+    {
+        FakeAllocator allocator = new FakeAllocator( 1, 100, 500 );
+        allocator.races = 1;
+        allocator.stolen = 1;
+        allocator.advance( 200, -1 );
+        assertEquals( 2, allocator.replaces );
+        assertEquals( 201, allocator.get( ConfigDAO.UID_NUMBER_SEQUENCE ) );
+    }
+
+
+    @Test
+    public void testConcurrent() throws Exception
+    {
+        FakeAllocator allocator = new FakeAllocator( 7, 100, 500 );
+        Set<String> ids = Collections.synchronizedSet( new HashSet<>() );
+        List<Thread> threads = new ArrayList<>();
+        List<Throwable> errors = Collections.synchronizedList( new ArrayList<>() );
+        for ( int i = 0; i < 8; i++ )
+        {
+            Thread thread = new Thread( () ->
+            {
+                try
+                {
+                    for ( int j = 0; j < 500; j++ )
+                    {
+                        assertTrue( ids.add( allocator.nextUidNumber() ) );
+                    }
+                }
+                catch ( Throwable t )
+                {
+                    errors.add( t );
+                }
+            } );
+            threads.add( thread );
+            thread.start();
+        }
+        for ( Thread thread : threads )
+        {
+            thread.join();
+        }
+        assertTrue( errors.toString(), errors.isEmpty() );
+        assertEquals( 4000, ids.size() );
+        // 4000 ids fill 572 blocks of 7, the last one partly:
+        assertEquals( 100 + 572 * 7, allocator.get( ConfigDAO.UID_NUMBER_SEQUENCE ) );
+    }
+}
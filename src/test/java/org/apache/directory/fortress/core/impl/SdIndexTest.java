@@ -0,0 +1,359 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.directory.fortress.core.model.SDSet;
+import org.apache.directory.fortress.core.model.UserRole;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verifies the SSD and DSD checks made over {@link SdIndex} bitsets decide the same as the loops over SD set members they replaced.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class SdIndexTest
+{
+    private static final String CONTEXT = "HOME";
+    private static final int ROLES = 8;
+
+
+    private static SDSet sdSet( String name, int cardinality, String... members )
+    {
+        SDSet sdSet = new SDSet();
+        sdSet.setName( name );
+        sdSet.setCardinality( cardinality );
+        for ( String member : members )
+        {
+            sdSet.addMember( member );
+        }
+        return sdSet;
+    }
+
+
+    /**
+     * An index whose loader returns the sets having any of the roles as members.
+     */
+    private static SdIndex index( List<SDSet> sdSets )
+    {
+        return new SdIndex( ( roles, contextId ) ->
+        {
+            Set<SDSet> found = new HashSet<>();
+            for ( SDSet sdSet : sdSets )
+            {
+                for ( String role : roles )
+                {
+                    if ( sdSet.getMembers().contains( role ) )
+                    {
+                        found.add( sdSet );
+                    }
+                }
+            }
+            return found;
+        }, Long.MAX_VALUE );
+    }
+
+
+    private static List<SDSet> getSdSets( SdIndex.Rules rules )
+    {
+        List<SDSet> sdSets = new ArrayList<>();
+        for ( SdIndex.Rule rule : rules.getRules() )
+        {
+            sdSets.add( rule.getSdSet() );
+        }
+        return sdSets;
+    }
+
+
+    private static List<BitSet> getInheritedBits( SdIndex.Rules rules, List<UserRole> activated, Map<String, Set<String>> ascendants )
+    {
+        List<BitSet> inheritedBits = new ArrayList<>();
+        for ( UserRole role : activated )
+        {
+            Set<String> inherited = new HashSet<>( ascendants.get( role.getName() ) );
+            inherited.add( role.getName() );
+            inheritedBits.add( rules.toBits( inherited ) );
+        }
+        return inheritedBits;
+    }
+
+
+    /**
+     * The check made by SDUtil.checkSSD before the sets were compiled.
+     */
+    private static boolean isSsdViolated( List<SDSet> ssdSets, Set<String> authorizedRls )
+    {
+        for ( SDSet ssd : ssdSets )
+        {
+            int matchCount = 0;
+            for ( String authRole : authorizedRls )
+            {
+                if ( ssd.getMembers().contains( authRole ) )
+                {
+                    matchCount++;
+                    if ( matchCount >= ssd.getCardinality() - 1 )
+                    {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * The check made by SDUtil.validateDSD before the sets were compiled, for one set.
+     */
+    private static boolean isDsdViolated( SDSet dsd, List<UserRole> activated, Map<String, Set<String>> ascendants )
+    {
+        int matchCount = 0;
+        for ( UserRole actRole : activated )
+        {
+            if ( dsd.getMembers().contains( actRole.getName() ) )
+            {
+                matchCount++;
+                if ( matchCount >= dsd.getCardinality() - 1 )
+                {
+                    return true;
+                }
+            }
+            else
+            {
+                for ( String parentRole : ascendants.get( actRole.getName() ) )
+                {
+                    if ( dsd.getMembers().contains( parentRole ) )
+                    {
+                        matchCount++;
+                        if ( matchCount >= dsd.getCardinality() - 1 )
+                        {
+                            return true;
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * The candidates DSDChecker left activated before the sets were compiled, checked against the sets in the given order.
+     */
+    private static List<String> checkDsds( List<SDSet> dsdSets, List<UserRole> candidates, Map<String, Set<String>> ascendants )
+    {
+        List<UserRole> activeRoleList = new ArrayList<>( candidates );
+        for ( SDSet dsd : dsdSets )
+        {
+            Iterator<UserRole> activatedRoles = activeRoleList.iterator();
+            int matchCount = 0;
+            while ( activatedRoles.hasNext() )
+            {
+                UserRole activatedRole = activatedRoles.next();
+                if ( dsd.getMembers().contains( activatedRole.getName() ) )
+                {
+                    matchCount++;
+                    if ( matchCount >= dsd.getCardinality() )
+                    {
+                        activatedRoles.remove();
+                    }
+                }
+                else
+                {
+                    for ( String parentRole : ascendants.get( activatedRole.getName() ) )
+                    {
+                        if ( dsd.getMembers().contains( parentRole ) )
+                        {
+                            matchCount++;
+                            if ( matchCount >= dsd.getCardinality() )
+                            {
+                                activatedRoles.remove();
+                                break;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return names( activeRoleList );
+    }
+
+
+    /**
+     * The candidates DSDChecker leaves activated now.
+     */
+    private static List<String> checkDsds( SdIndex.Rules rules, List<UserRole> candidates, Map<String, Set<String>> ascendants )
+    {
+        List<UserRole> activeRoleList = new ArrayList<>( candidates );
+        List<BitSet> inheritedBits = getInheritedBits( rules, activeRoleList, ascendants );
+        for ( SdIndex.Rule dsd : rules.getRules() )
+        {
+            BitSet violations = DSDChecker.getViolations( rules, dsd, activeRoleList, inheritedBits );
+            for ( int i = activeRoleList.size() - 1; i >= 0; i-- )
+            {
+                if ( violations.get( i ) )
+                {
+                    activeRoleList.remove( i );
+                    inheritedBits.remove( i );
+                }
+            }
+        }
+        return names( activeRoleList );
+    }
+
+
+    private static List<String> names( List<UserRole> roles )
+    {
+        List<String> names = new ArrayList<>();
+        for ( UserRole role : roles )
+        {
+            names.add( role.getName() );
+        }
+        return names;
+    }
+
+
+    @Test
+    public void testSsdCardinalityOne() throws Exception
+    {
+        SdIndex index = index( Collections.singletonList( sdSet( "SSD1", 1, "A", "B" ) ) );
+        SdIndex.Rules rules = index.getRules( Collections.singleton( "A" ), CONTEXT );
+        assertEquals( 1, rules.getRules().size() );
+
+        // none of the authorized roles are members, so assigning A is allowed:
+        Set<String> authorized = new HashSet<>();
+        authorized.add( "C" );
+        assertNull( SDUtil.getSsdViolation( rules, authorized ) );
+
+        // one is, so it isn't:
+        authorized.add( "B" );
+        assertEquals( "SSD1", SDUtil.getSsdViolation( rules, authorized ).getSdSet().getName() );
+    }
+
+
+    @Test
+    public void testDsdCardinalityOne() throws Exception
+    {
+        Map<String, Set<String>> ascendants = new HashMap<>();
+        ascendants.put( "C", new HashSet<>() );
+        ascendants.put( "D", new HashSet<>( Collections.singleton( "B" ) ) );
+        SdIndex index = index( Collections.singletonList( sdSet( "DSD1", 1, "A", "B" ) ) );
+        SdIndex.Rules rules = index.getRules( Collections.singleton( "A" ), CONTEXT );
+        SdIndex.Rule dsd = rules.getRules().get( 0 );
+
+        List<UserRole> activated = new ArrayList<>();
+        activated.add( new UserRole( "C" ) );
+        assertEquals( -1, SDUtil.getDsdViolation( dsd, getInheritedBits( rules, activated, ascendants ) ) );
+
+        // D matches by its parent:
+        activated.add( new UserRole( "D" ) );
+        assertEquals( 1, SDUtil.getDsdViolation( dsd, getInheritedBits( rules, activated, ascendants ) ) );
+    }
+
+
+    @Test
+    public void testMatchesMemberLoops() throws Exception
+    {
+        Random random = new Random( 42 );
+        for ( int iteration = 0; iteration < 500; iteration++ )
+        {
+            // roles only inherit from roles with a higher number, so there are no cycles:
+            Map<String, Set<String>> ascendants = new HashMap<>();
+            for ( int role = ROLES - 1; role >= 0; role-- )
+            {
+                Set<String> inherited = new HashSet<>();
+                for ( int parent = role + 1; parent < ROLES; parent++ )
+                {
+                    if ( random.nextInt( 4 ) == 0 )
+                    {
+                        inherited.add( "R" + parent );
+                        inherited.addAll( ascendants.get( "R" + parent ) );
+                    }
+                }
+                ascendants.put( "R" + role, inherited );
+            }
+
+            List<SDSet> sdSets = new ArrayList<>();
+            for ( int i = 0; i < 3; i++ )
+            {
+                List<String> members = new ArrayList<>();
+                members.add( "R" + random.nextInt( ROLES ) );
+                for ( int role = 0; role < ROLES; role++ )
+                {
+                    if ( random.nextInt( 3 ) == 0 )
+                    {
+                        members.add( "R" + role );
+                    }
+                }
+                sdSets.add( sdSet( "SD" + i, 1 + random.nextInt( 4 ), members.toArray( new String[0] ) ) );
+            }
+            SdIndex index = index( sdSets );
+
+            Set<String> authorized = new HashSet<>();
+            List<UserRole> activated = new ArrayList<>();
+            for ( int role = 0; role < ROLES; role++ )
+            {
+                if ( random.nextInt( 3 ) == 0 )
+                {
+                    authorized.add( "R" + role );
+                    activated.add( new UserRole( "R" + role ) );
+                }
+            }
+            String target = "R" + random.nextInt( ROLES );
+            String message = "iteration " + iteration;
+
+            // SDUtil.checkSSD:
+            SdIndex.Rules ssdRules = index.getRules( Collections.singleton( target ), CONTEXT );
+            assertEquals( message, isSsdViolated( getSdSets( ssdRules ), authorized ),
+                SDUtil.getSsdViolation( ssdRules, authorized ) != null );
+
+            // SDUtil.validateDSD:
+            List<BitSet> inheritedBits = getInheritedBits( ssdRules, activated, ascendants );
+            for ( SdIndex.Rule dsd : ssdRules.getRules() )
+            {
+                assertEquals( message, isDsdViolated( dsd.getSdSet(), activated, ascendants ),
+                    SDUtil.getDsdViolation( dsd, inheritedBits ) != -1 );
+            }
+
+            // DSDChecker, with the sets of every activated role:
+            Set<String> inherited = new HashSet<>( authorized );
+            for ( String role : authorized )
+            {
+                inherited.addAll( ascendants.get( role ) );
+            }
+            SdIndex.Rules dsdRules = index.getRules( inherited, CONTEXT );
+            assertEquals( message, checkDsds( getSdSets( dsdRules ), activated, ascendants ),
+                checkDsds( dsdRules, activated, ascendants ) );
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.jmeter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.directory.fortress.core.AccessMgr;
+import org.apache.directory.fortress.core.AccessMgrFactory;
+import org.apache.directory.fortress.core.SecurityException;
+import org.apache.directory.fortress.core.impl.TestUtils;
+import org.apache.directory.fortress.core.model.Permission;
+import org.apache.directory.fortress.core.model.Session;
+import org.apache.directory.fortress.core.model.User;
+import org.apache.jmeter.protocol.java.sampler.AbstractJavaSamplerClient;
+import org.apache.jmeter.protocol.java.sampler.JavaSamplerContext;
+import org.apache.jmeter.samplers.SampleResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * Each sample starts a burst of concurrent checkAccess callers, 10,000 by default, one virtual thread apiece, and waits for all of
+ * them to finish.  The sample's time covers the whole burst, and its message carries the throughput.  Intended to be run with
+ * fortress config param, 'enable.pool.admission', set to true, so the callers queue for ldap connections without pinning their
+ * carrier threads, e.g.:
+ * <pre>
+ * mvn -Ploadtest jmeter:jmeter -Dtype=ftVirtualCheckAccess
+ * </pre>
+ * Virtual threads need java 21 or later.  On earlier versions a pool of platform threads is used instead, which gives a baseline to
+ * compare with.  The callers share the sessions created by setup, one for each of the load test users.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class VirtualCheckAccess extends AbstractJavaSamplerClient
+{
+    private static final Logger LOG = LoggerFactory.getLogger( VirtualCheckAccess.class );
+    private static final int PLATFORM_THREADS = 200;
+    private AccessMgr accessMgr;
+    private List<Session> sessions;
+    private ExecutorService executor;
+    private boolean isVirtual;
+    private int callers = 10000;
+
+    /**
+     * Run one burst of callers.
+     *
+     * @param samplerContext Description of the Parameter
+     * @return Description of the Return Value
+     */
+    public SampleResult runTest( JavaSamplerContext samplerContext )
+    {
+        SampleResult sampleResult = new SampleResult();
+        List<Future<Boolean>> results = new ArrayList<>( callers );
+        int errors = 0;
+        sampleResult.sampleStart();
+        for ( int i = 0; i < callers; i++ )
+        {
+            Session session = sessions.get( i % sessions.size() );
+            Permission perm = new Permission( "loadtestobject" + ( i / 10 % 10 + 1 ), "oper" + ( i % 10 + 1 ) );
+            results.add( executor.submit( () -> accessMgr.checkAccess( session, perm ) ) );
+        }
+        for ( Future<Boolean> result : results )
+        {
+            try
+            {
+                if ( !result.get() )
+                {
+                    errors++;
+                }
+            }
+            catch ( InterruptedException ie )
+            {
+                Thread.currentThread().interrupt();
+                errors++;
+            }
+            catch ( ExecutionException ee )
+            {
+                LOG.warn( "checkAccess caught {}", ee.getCause().toString() );
+                errors++;
+            }
+        }
+        sampleResult.sampleEnd();
+        long throughput = callers * 1000L / Math.max( 1, sampleResult.getTime() );
+        String message = "VirtualCheckAccess callers: " + callers + ", virtual: " + isVirtual + ", errors: " + errors
+            + ", throughput: " + throughput + "/s";
+        LOG.info( message );
+        sampleResult.setSampleCount( callers );
+        sampleResult.setErrorCount( errors );
+        sampleResult.setResponseMessage( message );
+        sampleResult.setSuccessful( errors == 0 );
+        return sampleResult;
+    }
+
+    /**
+     * Create a session for each load test user, along with the executor.
+     *
+     * @param samplerContext Description of the Parameter
+     */
+    public void setupTest( JavaSamplerContext samplerContext )
+    {
+        int numberOfUsers = 100;
+        String szNumber = samplerContext.getParameter( "number" );
+        if ( StringUtils.isNotEmpty( szNumber ) )
+        {
+            numberOfUsers = Integer.parseInt( szNumber );
+        }
+        String szCallers = samplerContext.getParameter( "callers" );
+        if ( StringUtils.isNotEmpty( szCallers ) )
+        {
+            callers = Integer.parseInt( szCallers );
+        }
+        try
+        {
+            accessMgr = AccessMgrFactory.createInstance( TestUtils.getContext() );
+            sessions = new ArrayList<>( numberOfUsers );
+            // Load userids are format:  loadtestuserN - where N is a number between 0 and 99.
+            for ( int i = 0; i < numberOfUsers; i++ )
+            {
+                Session session = accessMgr.createSession( new User( "loadtestuser" + i, "secret" ), false );
+                assertTrue( session.isAuthenticated() );
+                sessions.add( session );
+            }
+        }
+        catch ( SecurityException se )
+        {
+            String error = "VirtualCheckAccess error starting test: " + se;
+            LOG.error( error );
+            se.printStackTrace();
+            fail( error );
+        }
+        executor = createExecutor();
+        LOG.info( "VirtualCheckAccess SETUP users: {}, callers: {}, virtual: {}", numberOfUsers, callers, isVirtual );
+    }
+
+    /**
+     * Looked up by reflection so this compiles, and runs, on java versions before virtual threads.
+     */
+    private ExecutorService createExecutor()
+    {
+        try
+        {
+            ExecutorService virtual = ( ExecutorService ) Executors.class.getMethod( "newVirtualThreadPerTaskExecutor" ).invoke(
+                null );
+            isVirtual = true;
+            return virtual;
+        }
+        catch ( ReflectiveOperationException e )
+        {
+            LOG.warn( "Virtual threads not available on java {}, using {} platform threads", System.getProperty(
+                "java.version" ), PLATFORM_THREADS );
+            return Executors.newFixedThreadPool( PLATFORM_THREADS );
+        }
+    }
+
+    /**
+     * Description of the Method
+     *
+     * @param samplerContext Description of the Parameter
+     */
+    public void teardownTest( JavaSamplerContext samplerContext )
+    {
+        executor.shutdownNow();
+        sessions = null;
+    }
+}
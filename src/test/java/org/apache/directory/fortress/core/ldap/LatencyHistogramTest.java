@@ -0,0 +1,76 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.ldap;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verifies the percentiles read back from the histogram are within a bucket's width of the exact ones.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class LatencyHistogramTest
+{
+    @Test
+    public void testPercentiles()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals( 0, histogram.getPercentile( 99 ) );
+
+        Random random = new Random( 1 );
+        long[] micros = new long[10000];
+        for ( int i = 0; i < micros.length; i++ )
+        {
+            micros[i] = ( long ) Math.exp( random.nextGaussian() * 1.5 + 7 );
+            histogram.recordNanos( TimeUnit.MICROSECONDS.toNanos( micros[i] ) );
+        }
+        Arrays.sort( micros );
+
+        assertEquals( micros.length, histogram.getCount() );
+        assertEquals( micros[micros.length - 1], histogram.getMax() );
+        for ( double percentile : new double[]{ 50, 90, 99, 99.9, 100 } )
+        {
+            long exact = micros[( int ) Math.ceil( micros.length * percentile / 100 ) - 1];
+            long value = histogram.getPercentile( percentile );
+            assertTrue( percentile + ": " + value + " < " + exact, value >= exact );
+            assertTrue( percentile + ": " + value + " > " + exact, value <= exact + exact / 16 + 1 );
+        }
+    }
+
+
+    @Test
+    public void testSmallValues()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for ( int i = 0; i < 10; i++ )
+        {
+            histogram.recordNanos( TimeUnit.MICROSECONDS.toNanos( i ) );
+        }
+        assertEquals( 4, histogram.getPercentile( 50 ) );
+        assertEquals( 9, histogram.getPercentile( 100 ) );
+        assertEquals( 4, histogram.getMean() );
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.rest;
+
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+
+import org.apache.directory.fortress.core.model.FortResponse;
+import org.apache.directory.fortress.core.model.Session;
+import org.apache.directory.fortress.core.model.User;
+import org.apache.directory.fortress.core.model.UserRole;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+
+/**
+ * Compares the size and the time taken to write and read a createSession response, containing a {@link Session} with 50
+ * roles, as xml and as json.  Neither needs a server, run with:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.mainClass=org.apache.directory.fortress.core.rest.WireFormatSample -Dexec.classpathScope=test
+ * </pre>
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class WireFormatSample
+{
+    private static final String CLS_NM = WireFormatSample.class.getName();
+    private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
+    private static final int ROLES = 50;
+    private static final int WARMUP = 2000;
+    private static final int ITERATIONS = 10000;
+
+
+    private static FortResponse createResponse()
+    {
+        User user = new User( "wireFormatUser" );
+        user.setOu( "dev1" );
+        Session session = new Session( user );
+        session.setAuthenticated( true );
+        for ( int i = 0; i < ROLES; i++ )
+        {
+            UserRole role = new UserRole( user.getUserId(), "wireFormatRole" + i );
+            role.setBeginTime( "0000" );
+            role.setEndTime( "2359" );
+            role.setBeginDate( "20090101" );
+            role.setEndDate( "none" );
+            role.setDayMask( "1234567" );
+            session.setRole( role );
+        }
+        FortResponse response = new FortResponse();
+        response.setSession( session );
+        return response;
+    }
+
+
+    private static byte[] writeXml( FortResponse response ) throws Exception
+    {
+        Marshaller marshaller = new CachedJaxbContext().getMarshaller( FortResponse.class );
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        marshaller.marshal( response, out );
+        return out.toByteArray();
+    }
+
+
+    private static FortResponse readXml( byte[] bytes ) throws Exception
+    {
+        Unmarshaller unmarshaller = new CachedJaxbContext().getUnmarshaller( FortResponse.class );
+        return ( FortResponse ) unmarshaller.unmarshal( new ByteArrayInputStream( bytes ) );
+    }
+
+
+    private static byte[] writeJson( FortResponse response ) throws Exception
+    {
+        return RestUtils.getObjectMapper().writeValueAsBytes( response );
+    }
+
+
+    private static FortResponse readJson( byte[] bytes ) throws Exception
+    {
+        ObjectMapper mapper = RestUtils.getObjectMapper();
+        return mapper.readValue( bytes, FortResponse.class );
+    }
+
+
+    private static void run( String name, FortResponse response, boolean isJson ) throws Exception
+    {
+        byte[] bytes = isJson ? writeJson( response ) : writeXml( response );
+        FortResponse copy = isJson ? readJson( bytes ) : readXml( bytes );
+        if ( copy.getSession().getRoles().size() != ROLES )
+        {
+            throw new IllegalStateException( name + " read " + copy.getSession().getRoles().size() + " roles" );
+        }
+        for ( int i = 0; i < WARMUP; i++ )
+        {
+            bytes = isJson ? writeJson( response ) : writeXml( response );
+            copy = isJson ? readJson( bytes ) : readXml( bytes );
+        }
+        long writeNanos = 0, readNanos = 0;
+        for ( int i = 0; i < ITERATIONS; i++ )
+        {
+            long start = System.nanoTime();
+            bytes = isJson ? writeJson( response ) : writeXml( response );
+            long mid = System.nanoTime();
+            copy = isJson ? readJson( bytes ) : readXml( bytes );
+            readNanos += System.nanoTime() - mid;
+            writeNanos += mid - start;
+        }
+        LOG.info( "{}: bytes={}, write={} us/op, read={} us/op", name, bytes.length, writeNanos / ITERATIONS / 1000.0,
+            readNanos / ITERATIONS / 1000.0 );
+    }
+
+
+    /**
+     * Print the results for each encoding.
+     *
+     * @param args
+     */
+    public static void main( String[] args ) throws Exception
+    {
+        FortResponse response = createResponse();
+        run( "xml", response, false );
+        run( "json", response, true );
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.util.cache;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import org.apache.directory.fortress.core.model.SDSet;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Exercises the admission, reload and search behavior of {@link HeapCacheImpl} without a directory.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class HeapCacheImplTest
+{
+    private static DsdCacheEntry entry( String dsdName, String member, String contextId )
+    {
+        SDSet sdSet = new SDSet();
+        sdSet.setName( dsdName );
+        sdSet.setContextId( contextId );
+        DsdCacheEntry entry = new DsdCacheEntry( member, sdSet, false );
+        entry.setName( dsdName );
+        return entry;
+    }
+
+
+    private static HeapCacheImpl dsdCache( long maxEntries, long reloadSeconds )
+    {
+        Map<String, String> attributes = new HashMap<>();
+        attributes.put( "member", "value.getMember()" );
+        attributes.put( "name", "value.getName()" );
+        attributes.put( "contextId", "value.getContextId()" );
+        return new HeapCacheImpl( "test.dsd", maxEntries, 0, reloadSeconds, attributes );
+    }
+
+
+    @Test
+    public void testSearch()
+    {
+        HeapCacheImpl cache = dsdCache( 100, 0 );
+        cache.put( "dsd1:r1", entry( "dsd1", "r1", "HOME" ) );
+        cache.put( "dsd1:r2", entry( "dsd1", "r2", "HOME" ) );
+        cache.put( "dsd2:r2", entry( "dsd2", "r2", "HOME" ) );
+        cache.put( "dsd2:r2:t1", entry( "dsd2", "r2", "t1" ) );
+
+        Map<String, Object> criteria = new HashMap<>();
+        criteria.put( "member", new HashSet<>( Arrays.asList( "r1", "r2" ) ) );
+        criteria.put( "contextId", "HOME" );
+        assertEquals( new HashSet<>( Arrays.asList( "dsd1:r1", "dsd1:r2", "dsd2:r2" ) ), cache.search( criteria ).keySet() );
+
+        criteria.clear();
+        criteria.put( "name", "dsd2" );
+        criteria.put( "contextId", "t1" );
+        assertEquals( new HashSet<>( Arrays.asList( "dsd2:r2:t1" ) ), cache.search( criteria ).keySet() );
+
+        // removed and replaced entries drop out of the indexes:
+        cache.clear( "dsd2:r2:t1" );
+        cache.put( "dsd1:r1", entry( "dsd1", "r3", "HOME" ) );
+        assertTrue( cache.search( criteria ).isEmpty() );
+        criteria.clear();
+        criteria.put( "member", "r1" );
+        assertTrue( cache.search( criteria ).isEmpty() );
+        assertEquals( 3, cache.getStats().getSize() );
+    }
+
+
+    @Test
+    public void testAdmission()
+    {
+        HeapCacheImpl cache = dsdCache( 2, 0 );
+        cache.put( "a", entry( "dsd", "a", "HOME" ) );
+        cache.put( "b", entry( "dsd", "b", "HOME" ) );
+        for ( int i = 0; i < 5; i++ )
+        {
+            cache.get( "a" );
+            cache.get( "b" );
+        }
+
+        // a key that's never been requested loses to the frequently read ones:
+        cache.put( "c", entry( "dsd", "c", "HOME" ) );
+        assertNull( cache.get( "c" ) );
+        assertEquals( 1, cache.getStats().getRejections() );
+
+        // once it has been requested more often than the oldest entry, it replaces it:
+        for ( int i = 0; i < 10; i++ )
+        {
+            cache.get( "c" );
+        }
+        cache.put( "c", entry( "dsd", "c", "HOME" ) );
+        assertNotNull( cache.get( "c" ) );
+        assertEquals( 1, cache.getStats().getEvictions() );
+        assertEquals( 2, cache.getStats().getSize() );
+    }
+
+
+    @Test
+    public void testReload() throws Exception
+    {
+        HeapCacheImpl cache = dsdCache( 10, 1 );
+        cache.put( "a", entry( "dsd", "a", "HOME" ) );
+        assertNotNull( cache.get( "a" ) );
+        Thread.sleep( 1100 );
+
+        // only the first reader after the interval is handed the miss:
+        assertNull( cache.get( "a" ) );
+        assertNotNull( cache.get( "a" ) );
+        assertEquals( 1, cache.getStats().getReloads() );
+
+        // a null value removes the entry:
+        cache.put( "a", null );
+        assertNull( cache.get( "a" ) );
+    }
+}